@@ -19,8 +19,11 @@ import static com.google.inject.Guice.createInjector;
 
 import java.io.IOException;
 import java.net.URISyntaxException;
+import java.util.List;
 
 import client.scenes.*;
+import client.utils.ImageUtils;
+import client.utils.LocaleRegistry;
 import com.google.inject.Injector;
 
 import javafx.application.Application;
@@ -48,6 +51,11 @@ public class Main extends Application {
      */
     @Override
     public void start(Stage primaryStage) {
+        var localeRegistry = INJECTOR.getInstance(LocaleRegistry.class);
+        localeRegistry.preloadAll();
+        localeRegistry.startWatching();
+        INJECTOR.getInstance(ImageUtils.class).warmUp(List.of("add-participant.png", "editing.png", "goBack.png",
+                "home-page.png", "x_remove.png", "singlearrow.png"), 15);
         var startUp = FXML.load(StartupScreenCtrl.class, "client", "scenes", "StartupScreen.fxml");
         var eventScreen = FXML.load(EventScreenCtrl.class, "client", "scenes", "EventScreen.fxml");
         var expenseScreen = FXML.load(ExpenseScreenCtrl.class, "client", "scenes", "ExpenseScreen.fxml");
@@ -28,7 +28,6 @@ import javafx.stage.Stage;
 
 import java.io.File;
 import java.util.Locale;
-import java.util.Properties;
 
 public class MyModule implements Module {
     /**
@@ -38,9 +37,9 @@ public class MyModule implements Module {
     @Override
     public void configure(Binder binder) {
         binder.bind(Locale.class).annotatedWith(Names.named("defaultLocale")).toInstance(Locale.of("en", "GB"));
-        Properties properties = new ConfigUtils().easyLoadProperties();
-        binder.bind(Properties.class).annotatedWith(Names.named("config")).toInstance(properties);
-        Names.bindProperties(binder, properties);
+        ConfigService configService = ConfigService.load(new ConfigUtils());
+        binder.bind(ConfigService.class).toInstance(configService);
+        Names.bindProperties(binder, configService.getProperties());
 
         binder.bind(Translation.class).in(Scopes.SINGLETON);
         binder.bind(ObservableResourceFactory.class).in(Scopes.SINGLETON);
@@ -51,6 +50,11 @@ public class MyModule implements Module {
         binder.bind(LPUtils.class).in(Scopes.SINGLETON);
         binder.bind(AppStateManager.class).in(Scopes.SINGLETON);
         binder.bind(TransferMoneyUtils.class).in(Scopes.SINGLETON);
+        binder.bind(ExpenseIndex.class).in(Scopes.SINGLETON);
+        binder.bind(ImageUtils.class).in(Scopes.SINGLETON);
+        binder.bind(LocaleRegistry.class).in(Scopes.SINGLETON);
+        binder.bind(MailQueue.class).in(Scopes.SINGLETON);
+        binder.bind(BackupUtils.class).in(Scopes.SINGLETON);
         binder.bind(AddTagCtrl.class).in(Scopes.SINGLETON);
         binder.bind(Stage.class).in(Scopes.SINGLETON);
 
@@ -131,10 +131,8 @@ public class DeleteEventsScreenCtrl implements Initializable {
                         .map(Map.Entry::getKey)
                         .toList();
                 checkEventsListView.getItems().removeAll(selectedEvents);
-                for (Event current : selectedEvents) {
-                    server.deleteEvent(current.getId());
-                    System.out.println("The following event has been deleted: " + current.getTitle());
-                }
+                List<String> deleted = server.deleteEvents(selectedEvents.stream().map(Event::getId).toList());
+                System.out.println("The following events have been deleted: " + deleted);
                 noEventsSelectedLabel.textProperty().bind(translation.getStringBinding("DES.Event.Deleted.Sucessfully"));
                 styling.changeStyling(noEventsSelectedLabel, "errorText", "successText");
                 eventSelectionMap.clear();
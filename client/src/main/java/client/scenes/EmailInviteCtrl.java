@@ -5,11 +5,17 @@ import com.google.inject.Inject;
 import commons.Event;
 import commons.Participant;
 import javafx.application.Platform;
+import javafx.beans.binding.Bindings;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
 import javafx.fxml.FXML;
 import javafx.fxml.Initializable;
 import javafx.scene.control.*;
 
+import org.springframework.mail.SimpleMailMessage;
+
 import java.net.URL;
+import java.util.List;
 import java.util.ResourceBundle;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -28,6 +34,12 @@ public class EmailInviteCtrl implements Initializable, SimpleRefreshable {
     @FXML
     private TextField emailTextField;
     @FXML
+    private Button addButton;
+    @FXML
+    private Button removeButton;
+    @FXML
+    private ListView<Participant> inviteeList;
+    @FXML
     private Button inviteButton;
     @FXML
     private Button cancelButton;
@@ -39,7 +51,10 @@ public class EmailInviteCtrl implements Initializable, SimpleRefreshable {
     private ServerUtils server;
     private MainCtrl mainCtrl;
     private EmailHandler emailHandler;
+    private MailQueue mailQueue;
     private Event event;
+    // Invitees collected on this screen, invited together once the invite button is pressed
+    private final ObservableList<Participant> invitees = FXCollections.observableArrayList();
 
     /**
      * Constructor
@@ -47,13 +62,16 @@ public class EmailInviteCtrl implements Initializable, SimpleRefreshable {
      * @param server the server to use
      * @param mainCtrl the main controller
      * @param emailHandler the email handler to use
+     * @param mailQueue the queue the invitations are sent through
      */
     @Inject
-    public EmailInviteCtrl(Translation translation, ServerUtils server, MainCtrl mainCtrl, EmailHandler emailHandler) {
+    public EmailInviteCtrl(Translation translation, ServerUtils server, MainCtrl mainCtrl,
+                           EmailHandler emailHandler, MailQueue mailQueue) {
         this.translation = translation;
         this.server = server;
         this.mainCtrl = mainCtrl;
         this.emailHandler = emailHandler;
+        this.mailQueue = mailQueue;
     }
 
     /**
@@ -76,12 +94,26 @@ public class EmailInviteCtrl implements Initializable, SimpleRefreshable {
         emailFeedbackLabel.textProperty().bind(translation.getStringBinding("Empty"));
         cancelButton.textProperty().bind(translation.getStringBinding("Email.CancelButton"));
         inviteButton.textProperty().bind(translation.getStringBinding("Email.InviteButton"));
+        addButton.textProperty().bind(translation.getStringBinding("Email.AddButton"));
+        removeButton.textProperty().bind(translation.getStringBinding("Email.RemoveButton"));
+        inviteButton.disableProperty().bind(Bindings.isEmpty(invitees));
+        inviteeList.setItems(invitees);
+        inviteeList.setCellFactory(listView -> new ListCell<>() {
+            @Override
+            protected void updateItem(Participant participant, boolean empty) {
+                super.updateItem(participant, empty);
+                if(participant == null || empty)
+                    setText(null);
+                else
+                    setText(participant.getName() + " <" + participant.getEmail() + ">");
+            }
+        });
     }
 
     /**
-     *Sends an invitation to the email address given in the email text field
+     * Adds the participant given in the text fields to the invitees, once the name and email are valid
      */
-    public void sendInvite() {
+    public void addInvitee() {
         String name = nameTextField.getText();
         String email = emailTextField.getText();
         Participant participant = new Participant(name);
@@ -97,10 +129,8 @@ public class EmailInviteCtrl implements Initializable, SimpleRefreshable {
             emailFeedbackLabel.textProperty().bind(translation.getStringBinding("Empty"));
         }
         if (!name.isEmpty() && !email.isEmpty() && checkEmail(email)) {
-            Thread emailThread = setupEmailThread(email, participant);
-            emailThread.start();
+            invitees.add(participant);
             clearFields();
-            mainCtrl.switchScreens(EventScreenCtrl.class);
         }
     }
 
@@ -125,30 +155,52 @@ public class EmailInviteCtrl implements Initializable, SimpleRefreshable {
     }
 
     /**
-     * Sets up a thread to send an email so the whole app doesn't freeze while the email is sent
-     * @param email the email to send the invitation to
-     * @param participant the participant to add to the event
-     * @return the thread that sends the email
+     * Sends the invitations to all collected invitees as one batch, so the whole app doesn't freeze
+     * while the emails are sent. The invitees whose email was sent are then added to the event
+     * with a single request, so the event is only updated once.
      */
-    private Thread setupEmailThread(String email, Participant participant) {
-        return new Thread(() -> {
-            boolean result = emailHandler.sendEmail(email, "Invited to splitty!", emailHandler.getInviteText(event));
-            if (result){
-                server.addParticipant(event.getId(), participant);
-
-            }
-            Platform.runLater(() -> {
-                mainCtrl.showEmailPrompt(result);
-            });
-        });
+    public void sendInvites() {
+        if (invitees.isEmpty()) {
+            return;
+        }
+        List<Participant> participants = List.copyOf(invitees);
+        String eventId = event.getId();
+        String text = emailHandler.getInviteText(event);
+        List<SimpleMailMessage> emails = participants.stream()
+                .map(participant -> emailHandler.createEmail(participant.getEmail(), "Invited to splitty!", text))
+                .toList();
+        mailQueue.submit(emails)
+                .thenAcceptAsync(result -> {
+                    List<Participant> sent = participants.stream()
+                            .filter(participant -> !result.failedRecipients().contains(participant.getEmail()))
+                            .toList();
+                    if (!sent.isEmpty()) {
+                        server.addParticipants(eventId, sent);
+                    }
+                    Platform.runLater(() -> {
+                        mainCtrl.showEmailPrompt(result.isSuccess());
+                    });
+                });
+        invitees.clear();
+        mainCtrl.switchScreens(EventScreenCtrl.class);
     }
 
-
+    /**
+     * Removes the selected invitee from the invitees
+     */
+    public void removeInvitee() {
+        Participant selected = inviteeList.getSelectionModel().getSelectedItem();
+        if (selected != null) {
+            invitees.remove(selected);
+        }
+    }
 
     /**
      * Cancels the invitation and switches back to the event screen
      */
     public void cancel(){
+        invitees.clear();
+        clearFields();
         mainCtrl.switchScreens(EventScreenCtrl.class);
     }
 
@@ -166,6 +218,9 @@ public class EmailInviteCtrl implements Initializable, SimpleRefreshable {
      */
     @Override
     public void refresh(Event event) {
+        if (this.event == null || !this.event.getId().equals(event.getId())) {
+            invitees.clear();
+        }
         this.event = event;
     }
 
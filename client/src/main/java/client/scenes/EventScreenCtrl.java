@@ -10,7 +10,9 @@ import jakarta.persistence.EntityNotFoundException;
 import javafx.application.Platform;
 import javafx.beans.binding.Bindings;
 import javafx.beans.value.ObservableValue;
+import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
+import javafx.collections.transformation.SortedList;
 import javafx.fxml.FXML;
 import javafx.fxml.Initializable;
 import javafx.geometry.Pos;
@@ -58,7 +60,7 @@ public class EventScreenCtrl implements Initializable, SimpleRefreshable{
     @FXML
     private Label errorInvalidParticipant;
     @FXML
-    private ListView<HBox> expensesLogListView;
+    private ListView<Expense> expensesLogListView;
     @FXML
     private ComboBox<Locale> languageIndicator;
     @FXML
@@ -72,7 +74,14 @@ public class EventScreenCtrl implements Initializable, SimpleRefreshable{
     private final ImageUtils imageUtils;
     private final StringGenerationUtils stringUtils;
     private Event event;
-    private final Map<Long, HBox> hBoxMap;
+    private final ObservableList<Expense> expenseItems = FXCollections.observableArrayList();
+    private final SortedList<Expense> sortedExpenses = new SortedList<>(expenseItems,
+            Comparator.comparing(Expense::getDate, Comparator.nullsLast(Comparator.<Date>reverseOrder()))
+                    .thenComparingLong(Expense::getId));
+    private final SimpleDateFormat shortDate = new SimpleDateFormat("dd/MM");
+    private final SimpleDateFormat fullDate = new SimpleDateFormat("dd/MM/yyyy");
+    private Image removeImage;
+    private int expenseParticipantCount;
     private Button selectedExpenseListButton;
     private final EmailHandler emailHandler;
     @FXML
@@ -84,6 +93,7 @@ public class EventScreenCtrl implements Initializable, SimpleRefreshable{
     @FXML
     private Button transferMoneyButton;
     private final Styling styling;
+    private final ExpenseIndex expenseIndex;
     /**
      * Constructor
      *
@@ -95,22 +105,24 @@ public class EventScreenCtrl implements Initializable, SimpleRefreshable{
      * @param styling     the Styling to use
      * @param stringUtils the StringGenerationUtils to use
      * @param emailHandler Handles email related functionality
+     * @param expenseIndex the ExpenseIndex used to filter the expenses
      */
     @Inject
     public EventScreenCtrl(ServerUtils server, MainCtrl mainCtrl, Translation translation,
                            LanguageIndicatorCtrl languageCtrl, ImageUtils imageUtils,
-                StringGenerationUtils stringUtils, Styling styling, EmailHandler emailHandler) {
+                StringGenerationUtils stringUtils, Styling styling, EmailHandler emailHandler,
+                           ExpenseIndex expenseIndex) {
         this.server = server;
         this.mainCtrl = mainCtrl;
         this.translation = translation;
         this.imageUtils = imageUtils;
         this.stringUtils = stringUtils;
         this.event = null;
-        this.hBoxMap = new HashMap<>();
         this.languageCtrl = languageCtrl;
         this.selectedExpenseListButton = null;
         this.styling = styling;
         this.emailHandler = emailHandler;
+        this.expenseIndex = expenseIndex;
     }
 
     /**
@@ -155,6 +167,7 @@ public class EventScreenCtrl implements Initializable, SimpleRefreshable{
         languageCtrl.initializeLanguageIndicator(languageIndicator);
         transferMoneyButton.textProperty().bind(translation.getStringBinding("Event.Button.TransferMoney"));
         setButtonsNames("...");
+        attachExpenseList(expensesLogListView);
     }
 
     /**
@@ -231,6 +244,7 @@ public class EventScreenCtrl implements Initializable, SimpleRefreshable{
      */
     public void refresh(Event event){
         this.event = event;
+        expenseIndex.update(event);
         updateEventText();
         participantsLabel.setText(generateParticipantString(event));
         updateParticipantsDropdown(event, cBoxParticipantExpenses.getItems());
@@ -377,112 +391,179 @@ public class EventScreenCtrl implements Initializable, SimpleRefreshable{
         else if(selectedButton == inButton) includingFilter(event, expensesLogListView, cBoxParticipantExpenses.getValue());
     }
 
-    /**
-     * Generates a list of hBoxes stating with a human-readable String
-     * that presents a quick overview of the expense presented
+    /***
+     * Makes the ListView show the (filtered, sorted) expense list, rendered with recycled ExpenseCells
+     * @param expensesLogListView the ListView to show the expenses in
+     */
+    private void attachExpenseList(ListView<Expense> expensesLogListView) {
+        if(expensesLogListView.getItems() == sortedExpenses) return;
+        expensesLogListView.setItems(sortedExpenses);
+        expensesLogListView.setCellFactory(listView -> new ExpenseCell(listView.getPrefWidth()));
+    }
+
+    /***
+     * Applies the selected expenses to the expense list as a diff by expense ID:
+     * new expenses are inserted, changed ones are replaced and missing ones are removed.
+     * Unchanged expenses keep their place, so their cells are not updated.
      * @param event the Event data to use
-     * @param expensesLogListView the ListView containing expense data HBoxes
-     */
-    public void showAllExpenseList(Event event, ListView<HBox> expensesLogListView) {
-        expensesLogListView.getItems().clear();
-        //We only want to load this in once! IO is expensive.
-        Image removeImage = imageUtils.loadImageFile("x_remove.png");
-        for(Expense expense: event.getExpenses()) {
-            if(!expense.getParticipantsInExpense().isEmpty()){
-                HBox expenseBox = generateExpenseBox(expense, event, removeImage, expensesLogListView.getPrefWidth());
-                expensesLogListView.getItems().add(expenseBox);
-            }
+     * @param selected the expenses that should be shown
+     */
+    private void updateExpenseItems(Event event, Collection<Expense> selected) {
+        if(expenseParticipantCount != event.getParticipants().size()) {
+            // the text of every expense depends on the number of participants
+            expenseParticipantCount = event.getParticipants().size();
+            expenseItems.setAll(selected);
+            return;
+        }
+        Map<Long, Expense> incoming = new HashMap<>();
+        for(Expense expense: selected)
+            incoming.put(expense.getId(), expense);
+        Set<Long> removedIds = new HashSet<>();
+        for(int i = 0; i < expenseItems.size(); i++) {
+            Expense current = expenseItems.get(i);
+            Expense updated = incoming.remove(current.getId());
+            if(updated == null) removedIds.add(current.getId());
+            else if(!updated.equals(current)) expenseItems.set(i, updated);
         }
+        if(!removedIds.isEmpty())
+            expenseItems.removeIf(expense -> removedIds.contains(expense.getId()));
+        if(!incoming.isEmpty())
+            expenseItems.addAll(incoming.values());
     }
 
     /**
-     *
-     * @param expense the expense for which we need to generate the HBox
+     * Shows all expenses with at least one participant in the expense list,
+     * read from the ExpenseIndex that refresh keeps up to date
      * @param event the Event data to use
-     * @param removeImage the Image to use for the X icon
-     * @param width the width of the generated hBox
-     * @return the generated hBox, containing the expense details
-     */
-    public HBox generateExpenseBox(Expense expense, Event event, Image removeImage, double width) {
-        ObservableValue<String> expenseTextValue;
-        if(expense.getPriceInCents() > 0)
-            expenseTextValue = stringUtils.generateTextForExpenseLabel(expense, event.getParticipants().size());
-        else
-            expenseTextValue = stringUtils.generateTextForMoneyTransfer(expense);
-        Label expenseText = generateExpenseLabel(expense.getId(), expenseTextValue);
-        ImageView xButton = generateRemoveButton(expense.getId(), removeImage);
-        Label dateLabel = new Label();
-        dateLabel.setPrefWidth(45);
-        dateLabel.setWrapText(true);
-        expenseText.setPrefWidth(200);
+     * @param expensesLogListView the ListView showing the expenses
+     */
+    public void showAllExpenseList(Event event, ListView<Expense> expensesLogListView) {
+        attachExpenseList(expensesLogListView);
+        updateExpenseItems(event, expenseIndex.getAll().stream()
+                .filter(expense -> !expense.getParticipantsInExpense().isEmpty())
+                .toList());
+    }
+
+    /***
+     * Formats the date of an expense: dd/MM for the current year, dd/MM/yyyy otherwise
+     * @param date the date of the expense
+     * @return the formatted date
+     */
+    public String formatExpenseDate(Date date) {
+        if(date == null) return "";
         Calendar expenseCalendar  = Calendar.getInstance();
-        expenseCalendar.setTime(expense.getDate());
+        expenseCalendar.setTime(date);
         Calendar now = Calendar.getInstance();
-        SimpleDateFormat shortDate = new SimpleDateFormat("dd/MM");
-        SimpleDateFormat fullDate = new SimpleDateFormat("dd/MM/yyyy");
         if(expenseCalendar.get(Calendar.YEAR) != now.get(Calendar.YEAR))
-            dateLabel.setText(fullDate.format(expense.getDate()));
+            return fullDate.format(date);
         else
-            dateLabel.setText(shortDate.format(expense.getDate()));
-        HBox xHBox = new HBox(xButton);
-        HBox.setHgrow(xHBox, javafx.scene.layout.Priority.ALWAYS);
-        xHBox.setAlignment((CENTER_RIGHT));
-        Tag item = expense.getExpenseTag();
-        Label tagLabel = new Label(item.getTagName());
-        tagLabel.setWrapText(true);
-        tagLabel.setAlignment(Pos.CENTER);
-        tagLabel.setStyle("-fx-background-color: " + item.getColorCode() + ";" +
-            "-fx-background-radius: 3;" +
-            "-fx-padding: 1 2 1 2;" +
-            "-fx-text-fill: white;");
-        HBox datehBox = new HBox(dateLabel);
-        datehBox.setAlignment(Pos.CENTER);
-        HBox.setHgrow(datehBox, javafx.scene.layout.Priority.ALWAYS);
-        HBox justExpenseBox = new HBox(datehBox, expenseText, tagLabel);
-        justExpenseBox.setOnMouseEntered(mouseEvent -> mainCtrl.getEventScene().setCursor(Cursor.HAND));
-        justExpenseBox.setOnMouseExited(mouseEvent -> mainCtrl.getEventScene().setCursor(Cursor.DEFAULT));
-        justExpenseBox.setOnMouseClicked(mouseEvent -> mainCtrl.switchToEditExpense(expense.getId()));
-        justExpenseBox.setAlignment(Pos.CENTER);
-        HBox expenseBox = new HBox(justExpenseBox, xHBox);
-        expenseBox.setPrefWidth(width);
-        expenseBox.setSpacing(10);
-        hBoxMap.put(expense.getId(), expenseBox);
-        expenseBox.setPrefWidth(width);
-        expenseBox.setAlignment(Pos.CENTER_LEFT);
-        return expenseBox;
+            return shortDate.format(date);
+    }
+
+    /***
+     * A recycled cell of the expense list. The nodes are created once per cell,
+     * and only their contents change when the cell is reused for another expense.
+     */
+    class ExpenseCell extends ListCell<Expense> {
+        private final Label dateLabel = new Label();
+        private final Label expenseText;
+        private final Label tagLabel = new Label();
+        private final HBox expenseBox;
+
+        /***
+         * Creates the nodes of the cell
+         * @param width the width of the expense row
+         */
+        ExpenseCell(double width) {
+            if(removeImage == null) removeImage = imageUtils.loadImageFile("x_remove.png");
+            expenseText = generateExpenseLabel(this);
+            ImageView xButton = generateRemoveButton(this, removeImage);
+            dateLabel.setPrefWidth(45);
+            dateLabel.setWrapText(true);
+            expenseText.setPrefWidth(200);
+            HBox xHBox = new HBox(xButton);
+            HBox.setHgrow(xHBox, javafx.scene.layout.Priority.ALWAYS);
+            xHBox.setAlignment((CENTER_RIGHT));
+            tagLabel.setWrapText(true);
+            tagLabel.setAlignment(Pos.CENTER);
+            HBox datehBox = new HBox(dateLabel);
+            datehBox.setAlignment(Pos.CENTER);
+            HBox.setHgrow(datehBox, javafx.scene.layout.Priority.ALWAYS);
+            HBox justExpenseBox = new HBox(datehBox, expenseText, tagLabel);
+            justExpenseBox.setOnMouseEntered(mouseEvent -> mainCtrl.getEventScene().setCursor(Cursor.HAND));
+            justExpenseBox.setOnMouseExited(mouseEvent -> mainCtrl.getEventScene().setCursor(Cursor.DEFAULT));
+            justExpenseBox.setOnMouseClicked(mouseEvent -> {
+                if(getItem() != null) mainCtrl.switchToEditExpense(getItem().getId());
+            });
+            justExpenseBox.setAlignment(Pos.CENTER);
+            expenseBox = new HBox(justExpenseBox, xHBox);
+            expenseBox.setSpacing(10);
+            expenseBox.setPrefWidth(width);
+            expenseBox.setAlignment(Pos.CENTER_LEFT);
+        }
+
+        /***
+         * Fills the cell's nodes with the data of an expense
+         * @param expense the expense shown in the cell
+         * @param empty whether the cell is empty
+         */
+        @Override
+        protected void updateItem(Expense expense, boolean empty) {
+            super.updateItem(expense, empty);
+            if(empty || expense == null) {
+                expenseText.textProperty().unbind();
+                setGraphic(null);
+                return;
+            }
+            ObservableValue<String> expenseTextValue;
+            if(expense.getPriceInCents() > 0)
+                expenseTextValue = stringUtils.generateTextForExpenseLabel(expense, expenseParticipantCount);
+            else
+                expenseTextValue = stringUtils.generateTextForMoneyTransfer(expense);
+            expenseText.textProperty().bind(expenseTextValue);
+            dateLabel.setText(formatExpenseDate(expense.getDate()));
+            Tag item = expense.getExpenseTag();
+            tagLabel.setText(item.getTagName());
+            tagLabel.setStyle("-fx-background-color: " + item.getColorCode() + ";" +
+                "-fx-background-radius: 3;" +
+                "-fx-padding: 1 2 1 2;" +
+                "-fx-text-fill: white;");
+            setGraphic(expenseBox);
+        }
     }
 
     /**
-     * Creates a label that will later be added to the hBox from the expense listview
-     * Furthermore, it allows the client to access set expense and edit it
-     * @param expenseId the id of the expense we are creating a label for
-     * @param expenseDescription the description of the expense
+     * Creates a label that will later be added to the hBox of an expense cell
+     * Furthermore, it allows the client to access the expense currently in the cell and edit it
+     * @param cell the cell the label belongs to
      * @return the created label
      */
-    public Label generateExpenseLabel(long expenseId, ObservableValue<String> expenseDescription) {
+    public Label generateExpenseLabel(ListCell<Expense> cell) {
         Label expense = new Label();
-        expense.textProperty().bind(expenseDescription);
         expense.setWrapText(true);
         expense.setOnMouseEntered(mouseEvent -> mainCtrl.getEventScene().setCursor(Cursor.HAND));
         expense.setOnMouseExited(mouseEvent -> mainCtrl.getEventScene().setCursor(Cursor.DEFAULT));
-        expense.setOnMouseClicked(mouseEvent -> mainCtrl.switchToEditExpense(expenseId));
+        expense.setOnMouseClicked(mouseEvent -> {
+            if(cell.getItem() != null) mainCtrl.switchToEditExpense(cell.getItem().getId());
+        });
         return expense;
     }
 
     /**
-     * Generates a remove "button" for the expenses from the listview
-     * Furthermore, it allows the client to remove set event by pressing the 'X'
-     * @param expenseId the id of the expense to be generated
+     * Generates a remove "button" for the expense cells of the listview
+     * Furthermore, it allows the client to remove the expense currently in the cell by pressing the 'X'
+     * @param cell the cell the button belongs to
      * @param image the Image to be placed on the button
      * @return the generated button
-     * this exception is thrown
      */
-    public ImageView generateRemoveButton (long expenseId, Image image) {
+    public ImageView generateRemoveButton(ListCell<Expense> cell, Image image) {
         ImageView imageView = imageUtils.generateImageView(image, 15);
         imageView.setPickOnBounds(true);
         imageView.setOnMouseEntered(mouseEvent -> mainCtrl.getEventScene().setCursor(Cursor.HAND));
         imageView.setOnMouseExited(mouseEvent -> mainCtrl.getEventScene().setCursor(Cursor.DEFAULT));
-        imageView.setOnMouseClicked(mouseEvent -> removeFromList(expenseId));
+        imageView.setOnMouseClicked(mouseEvent -> {
+            if(cell.getItem() != null) removeFromList(cell.getItem().getId());
+        });
         return imageView;
     }
 
@@ -493,9 +574,8 @@ public class EventScreenCtrl implements Initializable, SimpleRefreshable{
      */
     public void removeFromList(long expenseId){
         server.deleteExpenseForEvent(event.getId(), expenseId);
-        HBox hBox = hBoxMap.get(expenseId);
-        hBoxMap.remove(expenseId);
-        expensesLogListView.getItems().remove(hBox);
+        expenseIndex.removeExpense(expenseId);
+        expenseItems.removeIf(expense -> expense.getId() == expenseId);
     }
 
 
@@ -543,46 +623,27 @@ public class EventScreenCtrl implements Initializable, SimpleRefreshable{
     /**
      * Filters the expenses, showing only the ones that were paid by a certain participant
      * @param event the Event data to use
-     * @param expensesLogListView the ListView containing expense data HBoxes
+     * @param expensesLogListView the ListView showing the expenses
      * @param name the participant name to filter by
      */
-    public void fromFilter(Event event, ListView<HBox> expensesLogListView, String name) {
-        expensesLogListView.getItems().clear();
-        Image removeImage = imageUtils.loadImageFile("x_remove.png");
-        for(Expense expense: event.getExpenses())
-            if(expense.getOwedTo().getName().equals(name)) {
-                HBox expenseBox = generateExpenseBox(expense, event, removeImage, expensesLogListView.getPrefWidth());
-                expensesLogListView.getItems().add(expenseBox);
-            }
+    public void fromFilter(Event event, ListView<Expense> expensesLogListView, String name) {
+        attachExpenseList(expensesLogListView);
+        Participant payer = expenseIndex.getParticipantByName(name);
+        updateExpenseItems(event, payer == null ? List.of() : expenseIndex.getPaidBy(payer.getId()));
     }
 
     /**
      * Filters the expenses, showing the one a certain participant is part of
      * @param event the Event data to use
-     * @param expensesLogListView the ListView containing expense data HBoxes
+     * @param expensesLogListView the ListView showing the expenses
      * @param name the participant name to filter by
      */
-    public void includingFilter(Event event, ListView<HBox> expensesLogListView, String name) {
-        expensesLogListView.getItems().clear();
-        Set<Participant> eventParticipants = event.getParticipants();
-        Participant selectedParticipant = null;
-        for(Participant participant: eventParticipants) {
-            if(participant.getName().equals(name)) {
-                selectedParticipant = participant;
-                break;
-            }
-        }
+    public void includingFilter(Event event, ListView<Expense> expensesLogListView, String name) {
+        Participant selectedParticipant = expenseIndex.getParticipantByName(name);
         if(selectedParticipant == null)
             throw new EntityNotFoundException("The participant doesn't exist");
-        Set<Expense> eventExpenses = event.getExpenses();
-        Image removeImage = imageUtils.loadImageFile("x_remove.png");
-        for(Expense expense: eventExpenses) {
-            Set<Participant>participantsInExpense = expense.getParticipantsInExpense();
-            if(participantsInExpense.contains(selectedParticipant)) {
-                HBox expenseBox = generateExpenseBox(expense, event, removeImage, expensesLogListView.getPrefWidth());
-                expensesLogListView.getItems().add(expenseBox);
-            }
-        }
+        attachExpenseList(expensesLogListView);
+        updateExpenseItems(event, expenseIndex.getIncluding(selectedParticipant.getId()));
     }
 
     /**
@@ -1,6 +1,7 @@
 package client.scenes;
 
 import client.Exceptions.InvalidTagException;
+import client.utils.ExpenseIndex;
 import client.utils.ImageUtils;
 import client.utils.ServerUtils;
 import client.utils.Styling;
@@ -8,6 +9,7 @@ import client.utils.Translation;
 import commons.Event;
 import commons.Expense;
 import commons.Participant;
+import commons.SystemTag;
 import commons.Tag;
 import jakarta.inject.Inject;
 import jakarta.persistence.EntityNotFoundException;
@@ -82,6 +84,7 @@ public class ExpenseScreenCtrl implements Initializable, SimpleRefreshable {
     private List<CheckBox> participantCheckBoxes;
     private final ImageUtils imageUtils;
     private final Styling styling;
+    private final ExpenseIndex expenseIndex;
 
     /**
      *
@@ -90,15 +93,18 @@ public class ExpenseScreenCtrl implements Initializable, SimpleRefreshable {
      * @param imageUtils Utilities for image loading
      * @param translation the class that manages translations
      * @param styling Used for styling
+     * @param expenseIndex the ExpenseIndex of the event screen, updated with edited expenses
      */
     @Inject
     public ExpenseScreenCtrl (ServerUtils server, MainCtrl mainCtrl,
-                              Translation translation, ImageUtils imageUtils, Styling styling) {
+                              Translation translation, ImageUtils imageUtils, Styling styling,
+                              ExpenseIndex expenseIndex) {
         this.mainCtrl = mainCtrl;
         this.translation = translation;
         this.server = server;
         this.imageUtils = imageUtils;
         this.styling = styling;
+        this.expenseIndex = expenseIndex;
     }
 
     /**
@@ -121,7 +127,7 @@ public class ExpenseScreenCtrl implements Initializable, SimpleRefreshable {
     public void initializeTagComboBox(){
         tagComboBox.getItems().clear();
         Set<Tag> tags = currentEvent.getEventTags();
-        tags.removeIf(tag -> tag.getTagName().equals("money transfer"));
+        tags.removeIf(tag -> tag.getTagName().equals(SystemTag.MONEY_TRANSFER.getTagName()));
         tagComboBox.getItems().addAll(tags);
         tagComboBox.setCellFactory(lv -> new ListCell<>() {
             private final Label label;
@@ -226,7 +232,7 @@ public class ExpenseScreenCtrl implements Initializable, SimpleRefreshable {
      */
     public Tag findDefaultTag(Collection<Tag> tags) {
         for (Tag tag : tags) {
-            if ("default".equals(tag.getTagName())) {
+            if (SystemTag.DEFAULT.getTagName().equals(tag.getTagName())) {
                 return tag;
             }
         }
@@ -625,7 +631,8 @@ public class ExpenseScreenCtrl implements Initializable, SimpleRefreshable {
      * expense with
      */
     public void editExpenseOnServer(long expenseId, Expense expense) {
-        server.editExpense(currentEvent.getId(), expenseId, expense);
+        Expense edited = server.editExpense(currentEvent.getId(), expenseId, expense);
+        if(edited != null) expenseIndex.putExpense(edited);
     }
     /**
      * Fires on clicking the confirm button
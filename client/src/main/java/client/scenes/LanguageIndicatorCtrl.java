@@ -118,8 +118,7 @@ public class LanguageIndicatorCtrl {
      * @return ImageView of the language flag
      */
     public ImageView loadFlag(String lang) {
-        // Should look if caching is beneficial when adding more languages
-        Image defaultLanguage = new Image("images/flags/" + lang + ".png");
+        Image defaultLanguage = imageUtils.loadImageFile("flags/" + lang + ".png");
         ImageView iv = new ImageView();
         iv.setImage(defaultLanguage);
         iv.setPreserveRatio(true);
@@ -7,6 +7,7 @@ import com.google.inject.Inject;
 import commons.Event;
 import commons.Expense;
 import commons.Participant;
+import javafx.application.Platform;
 import javafx.beans.property.StringProperty;
 import javafx.fxml.FXML;
 import javafx.fxml.Initializable;
@@ -31,6 +32,14 @@ public class ManagementOverviewScreenCtrl implements Initializable {
     private Label backupEventFeedbackLabel;
     @FXML
     private Button exportButton;
+    @FXML
+    private Button fullBackupButton;
+    @FXML
+    private Button incrementalBackupButton;
+    @FXML
+    private Button restoreBackupButton;
+    @FXML
+    private ProgressBar backupProgressBar;
 
     @FXML
     private Button homeScreenButton;
@@ -60,6 +69,7 @@ public class ManagementOverviewScreenCtrl implements Initializable {
     private final ManagementOverviewUtils utils;
     private final ImageUtils imageUtils;
     private final StringGenerationUtils stringUtils;
+    private final BackupUtils backupUtils;
     private boolean listWasInitialized = false;
     private Styling styling;
 
@@ -72,18 +82,21 @@ public class ManagementOverviewScreenCtrl implements Initializable {
      * @param imageUtils the ImageUtils to use
      * @param styling the Styling to use
      * @param stringUtils the StringGenerationUtils to use
+     * @param backupUtils the BackupUtils to use
      */
     @Inject
     public ManagementOverviewScreenCtrl(ServerUtils server, MainCtrl mainCtrl, Translation translation,
                                         ManagementOverviewUtils utils, ImageUtils imageUtils,
-                StringGenerationUtils stringUtils, Styling styling) {
+                StringGenerationUtils stringUtils, Styling styling, BackupUtils backupUtils) {
         this.server = server;
         this.mainCtrl = mainCtrl;
         this.translation = translation;
         this.utils = utils;
         this.imageUtils = imageUtils;
         this.stringUtils = stringUtils;
+        this.backupUtils = backupUtils;
         objectMapper = new ObjectMapper();
+        objectMapper.registerModule(new JavaTimeModule());
         this.styling = styling;
     }
     /**
@@ -105,6 +118,9 @@ public class ManagementOverviewScreenCtrl implements Initializable {
         expensesLabel.textProperty().bind(translation.getStringBinding("MOSCtrl.Expenses.Label"));
         bindButton(exportButton, "MOSCtrl.ExportButton");
         bindButton(importButton, "MOSCtrl.ImportButton");
+        bindButton(fullBackupButton, "MOSCtrl.FullBackupButton");
+        bindButton(incrementalBackupButton, "MOSCtrl.IncrementalBackupButton");
+        bindButton(restoreBackupButton, "MOSCtrl.RestoreBackupButton");
         bindLabel(backupLabel, "MOSCtrl.BackupLabel");
         bindTextField(backupEventIDTextField, "MOSCtrl.BackupEventIDTextField");
         bindLabel(backupEventFeedbackLabel, "empty");
@@ -255,7 +271,6 @@ public class ManagementOverviewScreenCtrl implements Initializable {
             bindLabel(backupEventFeedbackLabel, "MOSCtrl.EventNotFound");
             return;
         }
-        objectMapper.registerModule(new JavaTimeModule());
         try {
             // Write object to JSON file
             File backupFile = new File(String.format("client/backups/%s.json", eventId));
@@ -277,17 +292,13 @@ public class ManagementOverviewScreenCtrl implements Initializable {
         bindLabel(backupEventFeedbackLabel, "empty");
         styling.changeStyling(backupEventFeedbackLabel, "successText", "errorText");
         String eventId = getTextBoxText(backupEventIDTextField);
-        objectMapper.registerModule(new JavaTimeModule());
         try {
             // Read JSON data from file and deserialize it into object
             File backupFile = readFile( eventId);
             Event event = objectMapper.readValue(backupFile, Event.class);
             System.out.println("Read from file: " + event);
             bindLabel(backupEventFeedbackLabel, "MOSCtrl.SuccessImport");
-            if(utils.checkIfDuplicate(eventId)){
-                server.deleteEvent(eventId); //event IDs are unique, but this should enable updating an event this way
-            }
-            server.addEvent(event);
+            server.importEvent(event); //merges into the existing event with this ID, if any
             styling.changeStyling(backupEventFeedbackLabel, "errorText", "successText");
 
         } catch (IOException e) {
@@ -296,6 +307,85 @@ public class ManagementOverviewScreenCtrl implements Initializable {
         }
     }
 
+    /**
+     * Backs up all events into a new archive
+     */
+    @FXML
+    public void fullBackupButtonClicked() {
+        startBackup(false);
+    }
+
+    /**
+     * Backs up the events that were active since the previous backup into a new archive
+     */
+    @FXML
+    public void incrementalBackupButtonClicked() {
+        startBackup(true);
+    }
+
+    /**
+     * Writes a backup archive in the background, showing its progress
+     * @param incremental whether to only back up the events active since the previous backup
+     */
+    private void startBackup(boolean incremental) {
+        bindLabel(backupEventFeedbackLabel, "empty");
+        setBackupRunning(true);
+        backupUtils.backup(incremental, this::showBackupProgress).whenComplete((archive, error) ->
+                Platform.runLater(() -> {
+                    setBackupRunning(false);
+                    if (error != null) {
+                        System.out.println("Error writing backup: " + error.getMessage());
+                        styling.changeStyling(backupEventFeedbackLabel, "successText", "errorText");
+                        bindLabel(backupEventFeedbackLabel, "MOSCtrl.ErrorBackup");
+                    } else {
+                        System.out.printf("Events have been backed up to %s%n", archive.file());
+                        styling.changeStyling(backupEventFeedbackLabel, "errorText", "successText");
+                        bindLabel(backupEventFeedbackLabel, "MOSCtrl.SuccessBackup");
+                    }
+                }));
+    }
+
+    /**
+     * Restores the latest full backup and the incremental backups made after it, in the background
+     */
+    @FXML
+    public void restoreBackupButtonClicked() {
+        bindLabel(backupEventFeedbackLabel, "empty");
+        setBackupRunning(true);
+        backupUtils.restore(server::importEvent, this::showBackupProgress).whenComplete((count, error) -> Platform.runLater(() -> {
+            setBackupRunning(false);
+            if (error != null) {
+                System.out.println("Error restoring backup: " + error.getMessage());
+                styling.changeStyling(backupEventFeedbackLabel, "successText", "errorText");
+                bindLabel(backupEventFeedbackLabel, "MOSCtrl.ErrorRestore");
+            } else {
+                System.out.printf("%d events have been restored%n", count);
+                styling.changeStyling(backupEventFeedbackLabel, "errorText", "successText");
+                bindLabel(backupEventFeedbackLabel, "MOSCtrl.SuccessRestore");
+            }
+        }));
+    }
+
+    /**
+     * Shows the progress of a backup or restore, called from the background thread
+     * @param progress the fraction done
+     */
+    private void showBackupProgress(double progress) {
+        Platform.runLater(() -> backupProgressBar.setProgress(progress));
+    }
+
+    /**
+     * Disables the backup buttons and shows the progress bar while a backup or restore runs
+     * @param running whether a backup or restore is running
+     */
+    private void setBackupRunning(boolean running) {
+        fullBackupButton.setDisable(running);
+        incrementalBackupButton.setDisable(running);
+        restoreBackupButton.setDisable(running);
+        backupProgressBar.setProgress(0);
+        backupProgressBar.setVisible(running);
+    }
+
     /**
      * Reads a backup file given an event id, if it exists
      * @param eventId the event id
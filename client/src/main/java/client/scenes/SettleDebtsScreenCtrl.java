@@ -38,6 +38,10 @@ public class SettleDebtsScreenCtrl implements Initializable, SimpleRefreshable {
     private Button goBackButton;
     @FXML
     private VBox settleVBox;
+    @FXML
+    private Button sendAllEmailsButton;
+    // The transfers whose sender can be sent a payment request by email
+    private List<Transfer> emailTransfers = List.of();
     private Pair<Pane, Button> lastExpanded;
     private final Styling styling;
     private final EmailHandler emailHandler;
@@ -78,6 +82,8 @@ public class SettleDebtsScreenCtrl implements Initializable, SimpleRefreshable {
     public void initialize(URL location, ResourceBundle resources) {
         bindLabels(settleDebtsLabel);
         setGraphics(goBackButton);
+        sendAllEmailsButton.textProperty()
+                .bind(translation.getStringBinding("SettleDebts.Button.sendAllEmailInstructions"));
     }
 
     /***
@@ -90,6 +96,9 @@ public class SettleDebtsScreenCtrl implements Initializable, SimpleRefreshable {
         children.clear();
         HashMap<Participant, BigDecimal> owedShares = event.getOwedShares();
         List<Transfer> transfers = utils.calculateTransferInstructions(owedShares);
+        emailTransfers = transfers.stream()
+                .filter(transfer -> !transfer.sender().getEmail().isEmpty())
+                .toList();
 
         Image expandButtonImage = imageUtils.loadImageFile("singlearrow.png");
 
@@ -232,10 +241,7 @@ public class SettleDebtsScreenCtrl implements Initializable, SimpleRefreshable {
         if (transfer.sender().getEmail().isEmpty() || !emailHandler.isConfigured()){
             styling.applyStyling(button, "disabledButton");
         }else{
-            button.setOnAction((action) -> {
-                Thread thread = new Thread(() -> utils.sendEmailTransferEmail(transfer));
-                thread.start();
-            });
+            button.setOnAction((action) -> utils.sendEmailTransferEmail(transfer));
         }
         return button;
     }
@@ -246,6 +252,15 @@ public class SettleDebtsScreenCtrl implements Initializable, SimpleRefreshable {
      */
     public void refresh(Event event){
         populateVBox(settleVBox, event);
+        sendAllEmailsButton.setDisable(emailTransfers.isEmpty() || !emailHandler.isConfigured());
+    }
+
+    /***
+     * Sends a payment request to every debtor with an email address, as one batch with a single prompt
+     */
+    public void sendAllEmails() {
+        if(emailTransfers.isEmpty() || !emailHandler.isConfigured()) return;
+        utils.sendEmailTransferEmails(emailTransfers);
     }
 
     /***
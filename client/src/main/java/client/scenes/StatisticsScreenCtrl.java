@@ -4,10 +4,13 @@ import client.utils.*;
 import commons.Event;
 import commons.Expense;
 import commons.Participant;
+import commons.SystemTag;
 import jakarta.inject.Inject;
+import javafx.animation.AnimationTimer;
 import javafx.beans.binding.Bindings;
 import javafx.beans.binding.StringExpression;
 import javafx.beans.property.SimpleStringProperty;
+import javafx.beans.property.StringProperty;
 import javafx.collections.FXCollections;
 import javafx.fxml.FXML;
 import javafx.fxml.Initializable;
@@ -41,6 +44,11 @@ public class StatisticsScreenCtrl implements Initializable, SimpleRefreshable {
     private Button goBackButton;
     private TableView<Participant> shareTable;
     private PieChart tagPieChart;
+    private final Map<String, PieChart.Data> tagSlices = new HashMap<>();
+    private final Map<String, String> tagColors = new HashMap<>();
+    private final Map<Participant, StringProperty> shareStrings = new HashMap<>();
+    private Event pendingEvent;
+    private AnimationTimer refreshPulse;
     private final MainCtrl mainCtrl;
     private final Translation translation;
     private final ImageUtils imageUtils;
@@ -95,31 +103,54 @@ public class StatisticsScreenCtrl implements Initializable, SimpleRefreshable {
     /**
      * sets the new total sum of expenses
      * sets the pie chart of the tags
+     * Refreshes are coalesced: at most one is applied per animation pulse, using the latest Event
      * @param event the new Event data to process
      */
     @Override
     public void refresh(Event event) {
+        pendingEvent = event;
+        if(tagPieChart == null) {
+            applyPendingRefresh();
+            return;
+        }
+        if(refreshPulse == null) {
+            refreshPulse = new AnimationTimer() {
+                @Override
+                public void handle(long now) {
+                    stop();
+                    applyPendingRefresh();
+                }
+            };
+        }
+        refreshPulse.start();
+    }
+
+    /***
+     * Applies the latest Event received by refresh, if it has not been applied yet
+     */
+    private void applyPendingRefresh() {
+        Event event = pendingEvent;
+        pendingEvent = null;
+        if(event == null) return;
         setTotalSumOfExpenses(expenseSumLabel, event);
         populateParentPane(parentPane, event);
     }
 
     /***
-     * Generates the share table and pie chart and places them in the given Parent
+     * Places the share table and pie chart in the given Parent, generating them the first time.
+     * Afterwards, the existing table and chart are kept and only their changed values are updated.
      * @param parentPane the Parent containing the generated objects
      * @param event the Event data to use
      */
     public void populateParentPane(AnchorPane parentPane, Event event){
-        var children = parentPane.getChildren();
-        children.remove(shareTable);
-        children.remove(tagPieChart);
-
-        TableView<Participant> newTable = generateShareTable(event);
-        PieChart newPieChart = generatePieChart(event);
+        if(shareTable == null) shareTable = generateShareTable(event);
+        else updateShareTable(shareTable, event);
+        if(tagPieChart == null) tagPieChart = generatePieChart(event);
+        else updatePieChart(tagPieChart, event);
 
-        children.add(newTable);
-        children.add(newPieChart);
-        shareTable = newTable;
-        tagPieChart = newPieChart;
+        var children = parentPane.getChildren();
+        if(!children.contains(shareTable)) children.add(shareTable);
+        if(!children.contains(tagPieChart)) children.add(tagPieChart);
     }
 
     /**
@@ -144,12 +175,26 @@ public class StatisticsScreenCtrl implements Initializable, SimpleRefreshable {
         tagPieChart.setLayoutY(140);
         tagPieChart.setPrefHeight(300);
         tagPieChart.setPrefWidth(750); //this is needed for a ~400px pie chart...
+        tagPieChart.setLegendVisible(false);
+
+        tagSlices.clear();
+        tagColors.clear();
+        updatePieChart(tagPieChart, event);
+        return tagPieChart;
+    }
 
+    /***
+     * Diffs the per-tag spending of the Event against the slices already in the pie chart,
+     * adding, removing and updating only the slices that changed
+     * @param tagPieChart the PieChart generated by generatePieChart
+     * @param event the Event data to use
+     */
+    public void updatePieChart(PieChart tagPieChart, Event event){
         Map<String, Integer> tagExpenseMap = new HashMap<>();
         Map<String, String> tagColorMap = new HashMap<>();
         Set<Expense> expenses = event.getExpenses();
         for (Expense expense : expenses) {
-            if(expense.getExpenseTag().getTagName().equals("money transfer"))
+            if(expense.getExpenseTag().getTagName().equals(SystemTag.MONEY_TRANSFER.getTagName()))
                 continue;
             String tagName = expense.getExpenseTag().getTagName();
             int expensePrice = expense.getPriceInCents();
@@ -157,23 +202,36 @@ public class StatisticsScreenCtrl implements Initializable, SimpleRefreshable {
             tagExpenseMap.merge(tagName, expensePrice, Integer::sum);
             tagColorMap.putIfAbsent(tagName, colorCode);
         }
-        tagPieChart.layout();
-        int sumOfTags = 0;
-        for (Map.Entry<String, Integer> entry : tagExpenseMap.entrySet()) {
-            PieChart.Data data = new PieChart.Data(entry.getKey(), entry.getValue());
-            tagPieChart.getData().add(data);
-            sumOfTags += entry.getValue();
+        int sumOfTags = tagExpenseMap.values().stream().mapToInt(Integer::intValue).sum();
+
+        var removedSlices = tagSlices.entrySet().iterator();
+        while(removedSlices.hasNext()) {
+            var slice = removedSlices.next();
+            if(tagExpenseMap.containsKey(slice.getKey())) continue;
+            tagPieChart.getData().remove(slice.getValue());
+            tagColors.remove(slice.getKey());
+            removedSlices.remove();
         }
-        final int finalSum = sumOfTags; //Lambda complains about non-final value
-        tagPieChart.getData().forEach(data -> {
-            String color = tagColorMap.get(data.getName());
-            if (data.getNode() != null) {
+
+        for (Map.Entry<String, Integer> entry : tagExpenseMap.entrySet()) {
+            String tagName = entry.getKey();
+            int value = entry.getValue();
+            PieChart.Data data = tagSlices.get(tagName);
+            if(data == null) {
+                data = new PieChart.Data(tagName, value);
+                tagSlices.put(tagName, data);
+                tagPieChart.getData().add(data);
+            } else if(data.getPieValue() != value) {
+                data.setPieValue(value);
+            }
+            String color = tagColorMap.get(tagName);
+            if (data.getNode() != null && !color.equals(tagColors.get(tagName))) {
                 data.getNode().setStyle("-fx-pie-color: " + color + ";");
-                data.nameProperty().bind(generateSegmentLabel(data, finalSum));
+                tagColors.put(tagName, color);
             }
-        });
-        tagPieChart.setLegendVisible(false);
-        return tagPieChart;
+            String segmentLabel = generateSegmentLabel(tagName, value, sumOfTags);
+            if(!segmentLabel.equals(data.getName())) data.setName(segmentLabel);
+        }
     }
 
     /***
@@ -183,10 +241,21 @@ public class StatisticsScreenCtrl implements Initializable, SimpleRefreshable {
      * @return a StringExpression to assign to a nameProperty inside a PieChart Data Node
      */
     public StringExpression generateSegmentLabel(PieChart.Data data, int finalSum){
+        return Bindings.concat(generateSegmentLabel(data.getName(), data.getPieValue(), finalSum));
+    }
+
+    /***
+     * Generates a segment label for a pie chart: Name \n XX€ (XX%)
+     * @param tagName the name of the tag of the segment
+     * @param value the value of the segment, in cents
+     * @param finalSum the total sum of all pie values
+     * @return the label text
+     */
+    public String generateSegmentLabel(String tagName, double value, int finalSum){
         DecimalFormat decimalFormat = new DecimalFormat("#.#");
-        String price = FormattingUtils.getFormattedPrice((int) data.getPieValue());
-        String percentageOfTotal = decimalFormat.format(100 * data.getPieValue() / finalSum);
-        return Bindings.concat(data.getName(), "\n" + price + " (" + percentageOfTotal + "%)");
+        String price = FormattingUtils.getFormattedPrice((int) value);
+        String percentageOfTotal = decimalFormat.format(100 * value / finalSum);
+        return tagName + "\n" + price + " (" + percentageOfTotal + "%)";
     }
 
     /***
@@ -200,15 +269,8 @@ public class StatisticsScreenCtrl implements Initializable, SimpleRefreshable {
         TableColumn<Participant, String> columnAmount = new TableColumn<>();
 
         columnName.setCellValueFactory(participantValue -> new SimpleStringProperty(participantValue.getValue().getName()));
-
-        HashMap<Participant, BigDecimal> expenseShare = event.getExpenseShare(false);
-        HashMap<Participant, Integer> dataMap = RoundUtils.roundMap(expenseShare, RoundingMode.HALF_UP);
-        columnAmount.setCellValueFactory(participantValue -> {
-            Participant participant = participantValue.getValue();
-            int shareOfParticipant = dataMap.get(participant);
-            String formattedShare = FormattingUtils.getFormattedPrice(shareOfParticipant);
-            return new SimpleStringProperty(formattedShare);
-        });
+        columnAmount.setCellValueFactory(participantValue -> shareStrings
+                .computeIfAbsent(participantValue.getValue(), participant -> new SimpleStringProperty()));
 
         columnName.textProperty().bind(translation.getStringBinding("Stats.ColumnLabel.Participant"));
         columnName.setPrefWidth(100);
@@ -222,14 +284,36 @@ public class StatisticsScreenCtrl implements Initializable, SimpleRefreshable {
         table.setLayoutY(180);
         table.setPrefHeight(200);
         table.setPrefWidth(170);
-        table.setItems(FXCollections.observableList(event.getParticipants().stream().toList()));
         table.setColumnResizePolicy(TableView.CONSTRAINED_RESIZE_POLICY_ALL_COLUMNS);
+        table.setItems(FXCollections.observableArrayList());
+
+        shareStrings.clear();
+        updateShareTable(table, event);
+        return table;
+    }
+
+    /***
+     * Diffs the expense shares of the Event against the ones shown in the share table.
+     * Changed shares are pushed into the cells' existing properties, and the rows are only
+     * replaced when participants were added, removed or reordered.
+     * @param table the TableView generated by generateShareTable
+     * @param event the event to gather data from
+     */
+    public void updateShareTable(TableView<Participant> table, Event event){
+        HashMap<Participant, BigDecimal> expenseShare = event.getExpenseShare(false);
+        HashMap<Participant, Integer> dataMap = RoundUtils.roundMap(expenseShare, RoundingMode.HALF_UP);
+
+        shareStrings.keySet().retainAll(dataMap.keySet());
+        dataMap.forEach((participant, share) -> shareStrings
+                .computeIfAbsent(participant, key -> new SimpleStringProperty())
+                .set(FormattingUtils.getFormattedPrice(share)));
 
         //noinspection SuspiciousMethodCalls
-        table.setItems(FXCollections.observableList(event.getParticipants().stream()
+        List<Participant> sortedParticipants = event.getParticipants().stream()
                 .sorted(Comparator.comparing(dataMap::get).reversed())
-                .toList()));
-        return table;
+                .toList();
+        if(!table.getItems().equals(sortedParticipants))
+            table.getItems().setAll(sortedParticipants);
     }
 
     /**
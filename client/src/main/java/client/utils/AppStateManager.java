@@ -5,6 +5,7 @@ import com.google.inject.Inject;
 import commons.Event;
 import commons.dto.EventDeletedDTO;
 import commons.dto.EventNameChangeDTO;
+import commons.dto.EventsDeletedDTO;
 import org.springframework.messaging.simp.stomp.StompSession;
 
 import java.util.*;
@@ -105,6 +106,8 @@ public class AppStateManager {
         try {
             socketUtils.startConnection(onConnectionErrorCallback);
             socketUtils.registerForMessages(this::onDeletion, "/topic/events/deletions", EventDeletedDTO.class);
+            socketUtils.registerForMessages(this::onDeletions, "/topic/events/deletions/batch",
+                    EventsDeletedDTO.class);
             lpUtils.registerForNameUpdates(this::onNameChange);
         } catch (ExecutionException e){
             //The error callback is called within handleTransferError, so no extra handling is needed here
@@ -156,6 +159,15 @@ public class AppStateManager {
             }
         }
     }
+    /***
+     * Runs on deletion of several events at once
+     * @param dto A DTO containing the IDs of the deleted events
+     */
+    public void onDeletions(EventsDeletedDTO dto){
+        Collection<String> eventIds = dto.isAll() ? List.copyOf(relevantEvents) : dto.getEventIds();
+        eventIds.forEach(eventId -> onDeletion(new EventDeletedDTO(eventId)));
+    }
+
     /***
      * Runs on name change of an event
      * @param dto a DTO containing the event ID and new name
@@ -0,0 +1,295 @@
+package client.utils;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.google.inject.Inject;
+import commons.Event;
+import jakarta.ws.rs.core.Response;
+
+import java.io.*;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.DoubleConsumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/***
+ * Backs up all events into compressed archives, and restores them.
+ * A full backup contains every event, an incremental backup only the events that were active
+ * since the previous backup. Archives hold one JSON event per line, followed by a line with the IDs
+ * of all events that existed at the time, so a restore leaves out the events deleted since an earlier archive.
+ * Archives are written and read as a stream, and are named backup-[time]-full.json.gz
+ * or backup-[time]-incremental.json.gz.
+ */
+public class BackupUtils {
+    public static final String BACKUP_DIR = "client/backups";
+    private static final Pattern ARCHIVE_NAME = Pattern.compile("backup-(\\d+)-(full|incremental)\\.json\\.gz");
+    // Number of events serialized in parallel before they are written, bounding the memory used
+    private static final int CHUNK_SIZE = 64;
+
+    private final ServerUtils server;
+    private final File dir;
+    private final ObjectMapper mapper;
+    private final ObjectWriter writer;
+    private final ObjectReader reader;
+
+    /***
+     * A backup archive
+     * @param file the archive file
+     * @param time the time the backup was made, in milliseconds since the epoch
+     * @param full whether the archive holds all events, or only the changed ones
+     */
+    public record Archive(File file, long time, boolean full) {
+    }
+
+    /***
+     * Constructor
+     * @param server the ServerUtils to retrieve the events from
+     */
+    @Inject
+    public BackupUtils(ServerUtils server) {
+        this(server, new File(BACKUP_DIR));
+    }
+
+    /***
+     * Constructor
+     * @param server the ServerUtils to retrieve the events from
+     * @param dir the directory the archives are stored in
+     */
+    public BackupUtils(ServerUtils server, File dir) {
+        this.server = server;
+        this.dir = dir;
+        this.mapper = new ObjectMapper();
+        mapper.registerModule(new JavaTimeModule());
+        this.writer = mapper.writerFor(Event.class);
+        this.reader = mapper.readerFor(Event.class);
+    }
+
+    /***
+     * Backs up the events in the background. The events are streamed from the server into the archive,
+     * so they are never all held in memory.
+     * @param incremental whether to only back up the events active since the previous backup.
+     *                    Without a previous backup, all events are backed up.
+     * @param progress receives the fraction of the server response written so far, on the backup thread
+     * @return a future that completes with the archive written
+     */
+    public CompletableFuture<Archive> backup(boolean incremental, DoubleConsumer progress) {
+        return CompletableFuture.supplyAsync(() -> {
+            long time = System.currentTimeMillis();
+            Optional<Archive> previous = incremental ? listArchives().stream().reduce((first, second) -> second)
+                    : Optional.empty();
+            Date since = previous.map(archive -> new Date(archive.time())).orElse(null);
+            Archive archive = new Archive(new File(dir, String.format("backup-%d-%s.json.gz", time,
+                    previous.isPresent() ? "incremental" : "full")), time, previous.isEmpty());
+            try(Response response = server.retrieveAllEventsAsStream()) {
+                if(response.getStatus() != Response.Status.OK.getStatusCode()) {
+                    throw new IOException("Could not retrieve the events: " + response.getStatus());
+                }
+                write(response.readEntity(InputStream.class), response.getLength(), since, archive.file(), progress);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return archive;
+        });
+    }
+
+    /***
+     * Writes events to an archive as they are read from a JSON array. Chunks of events are serialized
+     * in parallel and written in order. The archive is written to a temporary file first,
+     * so an interrupted backup never looks complete.
+     * @param events a stream holding a JSON array of events
+     * @param length the length of the stream in bytes, or -1 if it is not known
+     * @param since only events active after this time are written, or null to write all events
+     * @param file the archive file
+     * @param progress receives the fraction of the stream read so far
+     * @throws IOException if the events could not be read or the archive could not be written
+     */
+    void write(InputStream events, long length, Date since, File file, DoubleConsumer progress) throws IOException {
+        Files.createDirectories(dir.toPath());
+        File temp = new File(dir, file.getName() + ".tmp");
+        List<String> ids = new ArrayList<>();
+        List<Event> chunk = new ArrayList<>(CHUNK_SIZE);
+        try(JsonParser parser = mapper.createParser(events);
+            OutputStream out = new GZIPOutputStream(new BufferedOutputStream(new FileOutputStream(temp)))) {
+            if(parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new IOException("Expected a JSON array of events");
+            }
+            while(parser.nextToken() == JsonToken.START_OBJECT) {
+                Event event = reader.readValue(parser);
+                ids.add(event.getId());
+                if(since == null || event.getLastActivity() == null || event.getLastActivity().after(since)) {
+                    chunk.add(event);
+                }
+                if(chunk.size() == CHUNK_SIZE) {
+                    writeChunk(chunk, out);
+                    chunk.clear();
+                }
+                if(length > 0) progress.accept((double) parser.getCurrentLocation().getByteOffset() / length);
+            }
+            writeChunk(chunk, out);
+            // The IDs are written as an array, which sets the line apart from the events
+            out.write(mapper.writeValueAsBytes(ids));
+            out.write('\n');
+        }
+        Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        progress.accept(1);
+    }
+
+    private void writeChunk(List<Event> chunk, OutputStream out) throws IOException {
+        List<byte[]> lines = chunk.parallelStream()
+                .map(this::serialize)
+                .toList();
+        for(byte[] json : lines) {
+            out.write(json);
+            out.write('\n');
+        }
+    }
+
+    private byte[] serialize(Event event) {
+        try {
+            return writer.writeValueAsBytes(event);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /***
+     * Restores the latest full backup and the incremental backups made after it, in the background.
+     * Events are read from the archives one at a time, so memory use does not depend on the archive size.
+     * Events deleted before the last archive was written are left out.
+     * @param importer receives the events, oldest archive first, on the restore thread
+     * @param progress receives the fraction of the archives read so far, on the restore thread
+     * @return a future that completes with the number of events restored
+     */
+    public CompletableFuture<Integer> restore(Consumer<Event> importer, DoubleConsumer progress) {
+        return CompletableFuture.supplyAsync(() -> {
+            List<Archive> archives = restoreChain();
+            if(archives.isEmpty()) {
+                throw new UncheckedIOException(new FileNotFoundException("No full backup in " + dir));
+            }
+            try {
+                return read(archives, importer, progress);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    /***
+     * Reads the events from archives, leaving out the events missing from the IDs in the last archive
+     * @param archives the archives to read, in order
+     * @param importer receives the events
+     * @param progress receives the fraction of the archives read so far, measured in compressed bytes
+     * @return the number of events read
+     * @throws IOException if an archive could not be read
+     */
+    int read(List<Archive> archives, Consumer<Event> importer, DoubleConsumer progress) throws IOException {
+        // A full backup only holds existing events; otherwise the last archive tells which events still exist
+        Set<String> existing = archives.size() > 1 ? readIds(archives.get(archives.size() - 1)) : null;
+        long total = 0;
+        for(Archive archive : archives) total += archive.file().length();
+        long done = 0;
+        AtomicInteger count = new AtomicInteger();
+        for(Archive archive : archives) {
+            try(FileInputStream file = new FileInputStream(archive.file())) {
+                FileChannel channel = file.getChannel();
+                long before = done;
+                long all = total;
+                readArchive(file, event -> {
+                    if(existing == null || existing.contains(event.getId())) {
+                        importer.accept(event);
+                        count.incrementAndGet();
+                    }
+                    if(all > 0) progress.accept((double) (before + position(channel)) / all);
+                });
+                // The channel is closed with the stream once the archive is read
+                done += archive.file().length();
+            }
+        }
+        progress.accept(1);
+        return count.get();
+    }
+
+    private static long position(FileChannel channel) {
+        try {
+            return channel.position();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /***
+     * Reads the IDs of the events that existed when an archive was written
+     * @param archive the archive to read
+     * @return the IDs, or null for an archive written without them
+     * @throws IOException if the archive could not be read
+     */
+    private Set<String> readIds(Archive archive) throws IOException {
+        try(FileInputStream file = new FileInputStream(archive.file())) {
+            return readArchive(file, event -> {});
+        }
+    }
+
+    /***
+     * Reads the lines of an archive
+     * @param file the compressed archive
+     * @param events receives the events
+     * @return the IDs of the events that existed when the archive was written, or null if they are missing
+     * @throws IOException if the archive could not be read
+     */
+    private Set<String> readArchive(InputStream file, Consumer<Event> events) throws IOException {
+        Set<String> ids = null;
+        try(JsonParser parser = mapper.createParser(new GZIPInputStream(new BufferedInputStream(file)))) {
+            JsonToken token;
+            while((token = parser.nextToken()) != null) {
+                if(token == JsonToken.START_ARRAY) {
+                    ids = new HashSet<>(Arrays.asList(parser.readValueAs(String[].class)));
+                } else {
+                    events.accept(reader.readValue(parser));
+                }
+            }
+        }
+        return ids;
+    }
+
+    /***
+     * Lists the backup archives
+     * @return the archives, oldest first
+     */
+    public List<Archive> listArchives() {
+        File[] files = dir.listFiles();
+        if(files == null) return List.of();
+        List<Archive> archives = new ArrayList<>();
+        for(File file : files) {
+            Matcher matcher = ARCHIVE_NAME.matcher(file.getName());
+            if(matcher.matches()) {
+                archives.add(new Archive(file, Long.parseLong(matcher.group(1)), matcher.group(2).equals("full")));
+            }
+        }
+        archives.sort(Comparator.comparingLong(Archive::time));
+        return archives;
+    }
+
+    /***
+     * Finds the archives needed to restore the latest state
+     * @return the latest full backup followed by the incremental backups after it, or an empty list
+     */
+    List<Archive> restoreChain() {
+        List<Archive> archives = listArchives();
+        for(int i = archives.size() - 1; i >= 0; i--) {
+            if(archives.get(i).full()) return archives.subList(i, archives.size());
+        }
+        return List.of();
+    }
+}
@@ -0,0 +1,197 @@
+package client.utils;
+
+import javafx.beans.property.ReadOnlyObjectProperty;
+import javafx.beans.property.ReadOnlyObjectWrapper;
+import javafx.beans.property.ReadOnlyStringProperty;
+import javafx.beans.property.ReadOnlyStringWrapper;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+
+/***
+ * Holds the client configuration in memory, parsed once from the config file.
+ * Settings are exposed as observable values, so components can react to changes,
+ * and changes are written back to the file in the background.
+ * The server URL is fixed for the lifetime of the client, as the connections are made with it at startup.
+ */
+public class ConfigService {
+    private static final String SERVER_URL = "connection.URL";
+    private static final String LANGUAGE = "client.language";
+    private static final String MAIL_HOST = "spring.mail.host";
+    private static final String MAIL_PORT = "spring.mail.port";
+    private static final String MAIL_USERNAME = "spring.mail.username";
+    private static final String MAIL_PASSWORD = "spring.mail.password";
+    private static final String MAIL_AUTH = "spring.mail.properties.mail.smtp.auth";
+    private static final String MAIL_STARTTLS = "spring.mail.properties.mail.smtp.starttls.enable";
+
+    private final Properties properties;
+    private final Path file;
+    private final String serverUrl;
+    private final ReadOnlyStringWrapper language;
+    private final ReadOnlyObjectWrapper<MailSettings> mailSettings;
+    // A single writer thread keeps background writes of the config file in order
+    private final ExecutorService writer = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "config-writer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /***
+     * SMTP settings used for sending emails
+     * @param host the SMTP server
+     * @param port the SMTP port, as written in the config file
+     * @param username the username, also used as sender address
+     * @param password the password
+     * @param auth whether to authenticate
+     * @param startTls whether to use STARTTLS
+     */
+    public record MailSettings(String host, String port, String username, String password,
+                               boolean auth, boolean startTls) {
+    }
+
+    /***
+     * Constructor
+     * @param properties the parsed configuration
+     * @param file the config file changes are written to
+     */
+    public ConfigService(Properties properties, Path file) {
+        this.properties = new Properties();
+        this.properties.putAll(properties);
+        this.file = file;
+        this.serverUrl = properties.getProperty(SERVER_URL);
+        this.language = new ReadOnlyStringWrapper(properties.getProperty(LANGUAGE));
+        this.mailSettings = new ReadOnlyObjectWrapper<>(readMailSettings());
+    }
+
+    /***
+     * Loads the config file, or creates a default one, once
+     * @param configUtils the ConfigUtils used to read the file
+     * @return a ConfigService holding the loaded configuration
+     */
+    public static ConfigService load(ConfigUtils configUtils) {
+        return new ConfigService(configUtils.easyLoadProperties(), Path.of(ConfigUtils.CONFIG_NAME));
+    }
+
+    /***
+     * Provides a copy of all settings, e.g. for binding them as named constants
+     * @return a copy of the configuration
+     */
+    public Properties getProperties() {
+        Properties copy = new Properties();
+        copy.putAll(properties);
+        return copy;
+    }
+
+    /***
+     * Provides the server URL
+     * @return the server URL
+     */
+    public String getServerUrl() {
+        return serverUrl;
+    }
+
+    /***
+     * Provides the client language
+     * @return the language, in format languageCode_countryCode, observable for changes
+     */
+    public ReadOnlyStringProperty languageProperty() {
+        return language.getReadOnlyProperty();
+    }
+
+    /***
+     * Provides the client language
+     * @return the language, in format languageCode_countryCode
+     */
+    public String getLanguage() {
+        return language.get();
+    }
+
+    /***
+     * Changes the client language and writes it to the config file
+     * @param languageCode the new language, in format languageCode_countryCode
+     * @return a future that completes when the file has been written
+     */
+    public CompletableFuture<Void> setLanguage(String languageCode) {
+        properties.setProperty(LANGUAGE, languageCode);
+        language.set(languageCode);
+        return persist();
+    }
+
+    /***
+     * Provides the SMTP settings
+     * @return the SMTP settings, observable for changes
+     */
+    public ReadOnlyObjectProperty<MailSettings> mailSettingsProperty() {
+        return mailSettings.getReadOnlyProperty();
+    }
+
+    /***
+     * Provides the SMTP settings
+     * @return the SMTP settings
+     */
+    public MailSettings getMailSettings() {
+        return mailSettings.get();
+    }
+
+    /***
+     * Changes the SMTP settings and writes them to the config file
+     * @param settings the new SMTP settings
+     * @return a future that completes when the file has been written
+     */
+    public CompletableFuture<Void> setMailSettings(MailSettings settings) {
+        properties.setProperty(MAIL_HOST, settings.host());
+        properties.setProperty(MAIL_PORT, settings.port());
+        properties.setProperty(MAIL_USERNAME, settings.username());
+        properties.setProperty(MAIL_PASSWORD, settings.password());
+        properties.setProperty(MAIL_AUTH, String.valueOf(settings.auth()));
+        properties.setProperty(MAIL_STARTTLS, String.valueOf(settings.startTls()));
+        mailSettings.set(settings);
+        return persist();
+    }
+
+    private MailSettings readMailSettings() {
+        return new MailSettings(properties.getProperty(MAIL_HOST, ""),
+                properties.getProperty(MAIL_PORT, ""),
+                properties.getProperty(MAIL_USERNAME, ""),
+                properties.getProperty(MAIL_PASSWORD, ""),
+                "true".equals(properties.getProperty(MAIL_AUTH)),
+                "true".equals(properties.getProperty(MAIL_STARTTLS)));
+    }
+
+    /***
+     * Writes a snapshot of the configuration on the writer thread.
+     * The file is written to a temporary file first and then renamed over the config file,
+     * so a crash during writing never leaves a half-written config behind.
+     * @return a future that completes when the file has been written
+     */
+    private CompletableFuture<Void> persist() {
+        Properties snapshot = getProperties();
+        return CompletableFuture.runAsync(() -> {
+            Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+            try {
+                try(Writer out = Files.newBufferedWriter(temp)) {
+                    snapshot.store(out, ConfigUtils.CONFIG_COMMENTS);
+                }
+                try {
+                    Files.move(temp, file, REPLACE_EXISTING, ATOMIC_MOVE);
+                } catch (AtomicMoveNotSupportedException e) {
+                    Files.move(temp, file, REPLACE_EXISTING);
+                }
+            } catch (IOException e) {
+                System.out.println("Writing to config file went wrong");
+                throw new UncheckedIOException(e);
+            }
+        }, writer);
+    }
+}
@@ -14,7 +14,6 @@ public class ConfigUtils {
     public static final String CONFIG_COMMENTS = "Language should be in format: <languageCode>_<countryCode>." +
             System.lineSeparator() + "languageCode must be a ISO 639 alpha-2 language code." +
             System.lineSeparator() + "countryCode must be ISO 3166 alpha-2 country code." + System.lineSeparator();
-
     /***
      * Full method for loading properties from the config file, or generating a default one
      * @return all properties found in the config file
@@ -3,6 +3,8 @@ package client.utils;
 import com.google.inject.Inject;
 import commons.Event;
 import javafx.scene.control.Alert;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailPreparationException;
 import org.springframework.mail.SimpleMailMessage;
 import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.mail.javamail.JavaMailSenderImpl;
@@ -19,19 +21,24 @@ public class EmailHandler {
     private String password;
     private boolean smtpAuth;
     private boolean smtpStarttlsEnable;
-    private ConfigUtils configUtils;
+    private ConfigService configService;
     private Translation translation;
 
     /**
      * Constructor
      * @param translation Translation object
+     * @param configService ConfigService providing the SMTP settings
      */
     @Inject
-    public EmailHandler(Translation translation) {
+    public EmailHandler(Translation translation, ConfigService configService) {
         isConfigured = false;
-        configUtils = new ConfigUtils();
+        this.configService = configService;
         this.javaMailSender = createJavaMailSender();
         this.translation = translation;
+        configService.mailSettingsProperty().addListener((observable, oldSettings, newSettings) -> {
+            isConfigured = false;
+            this.javaMailSender = createJavaMailSender();
+        });
     }
 
     /**
@@ -49,8 +56,7 @@ public class EmailHandler {
      */
     private JavaMailSender createJavaMailSender() {
         JavaMailSenderImpl mailSender = new JavaMailSenderImpl();
-        Properties properties = configUtils.easyLoadProperties();
-        readProperties(properties);
+        readProperties(configService.getProperties());
         if (isConfigured){
             mailSender.setHost(host);
             mailSender.setPort(port);
@@ -115,12 +121,7 @@ public class EmailHandler {
         if (!isConfigured) {
             return false;
         }
-        SimpleMailMessage message = new SimpleMailMessage();
-        message.setFrom(userEmail);
-        message.setTo(to);
-        message.setSubject(subject);
-        message.setText(text);
-        message.setCc(userEmail);
+        SimpleMailMessage message = createEmail(to, subject, text);
         try {
             javaMailSender.send(message);
             return true;
@@ -129,6 +130,37 @@ public class EmailHandler {
             return false;
         }
     }
+
+    /**
+     * Send several emails over a single connection to the mail server
+     * @param messages the emails to send
+     * @throws MailException if any email could not be sent,
+     * a MailSendException tells which emails failed
+     */
+    public void sendEmails(SimpleMailMessage... messages) throws MailException {
+        if (!isConfigured) {
+            throw new MailPreparationException("Email is not configured");
+        }
+        javaMailSender.send(messages);
+    }
+
+    /**
+     * Create an email sent from, and copied to, the configured user
+     * @param to Email recipient
+     * @param subject Email subject
+     * @param text Email text
+     * @return the email
+     */
+    public SimpleMailMessage createEmail(String to, String subject, String text) {
+        SimpleMailMessage message = new SimpleMailMessage();
+        message.setFrom(userEmail);
+        message.setTo(to);
+        message.setSubject(subject);
+        message.setText(text);
+        message.setCc(userEmail);
+        return message;
+    }
+
     /**
      * Check if the email handler is configured
      * @return True if the email handler is configured, false otherwise
@@ -148,18 +180,18 @@ public class EmailHandler {
         sb.append(" with the invitation code of ");
         sb.append(event.getId());
         sb.append("!");
-        String serverURL = this.configUtils.easyLoadProperties().getProperty("connection.URL");
+        String serverURL = configService.getServerUrl();
         sb.append(" The event is hosted on the server with address: ");
         sb.append(serverURL);
         return sb.toString();
     }
 
     /**
-     * Setter for configUtils, used to inject the mock object for testing
-     * @param configUtils ConfigUtils object
+     * Setter for configService, used to inject the mock object for testing
+     * @param configService ConfigService object
      */
-    public void setConfigUtils(ConfigUtils configUtils) {
-        this.configUtils = configUtils;
+    public void setConfigService(ConfigService configService) {
+        this.configService = configService;
     }
 
     /**
@@ -0,0 +1,175 @@
+package client.utils;
+
+import commons.Event;
+import commons.Expense;
+import commons.Participant;
+
+import java.util.*;
+
+/***
+ * Index of the expenses of one Event by payer, by included participant and by tag.
+ * It is built when an Event is first loaded and updated incrementally afterwards:
+ * a new snapshot of the Event only re-indexes the expenses that were added, changed or removed,
+ * and local changes to a single expense only touch that expense. Filters only read the index.
+ * Expenses are treated as snapshots, i.e. a changed expense is expected to arrive as a new object.
+ */
+public class ExpenseIndex {
+    private String eventId;
+    private final Map<Long, Expense> expensesById = new HashMap<>();
+    private final Map<Long, Map<Long, Expense>> paidBy = new HashMap<>();
+    private final Map<Long, Map<Long, Expense>> includedIn = new HashMap<>();
+    private final Map<Long, Map<Long, Expense>> byTag = new HashMap<>();
+    private final Map<String, Participant> participantsByName = new HashMap<>();
+
+    /***
+     * Brings the index up to date with the given Event.
+     * If the Event is a different one than the indexed Event, the index is rebuilt.
+     * @param event the Event to index
+     */
+    public void update(Event event) {
+        if(!Objects.equals(eventId, event.getId())) {
+            clear();
+            eventId = event.getId();
+        }
+        participantsByName.clear();
+        for(Participant participant: event.getParticipants())
+            participantsByName.put(participant.getName(), participant);
+
+        Set<Long> presentIds = new HashSet<>();
+        for(Expense expense: event.getExpenses()) {
+            presentIds.add(expense.getId());
+            Expense indexed = expensesById.get(expense.getId());
+            if(expense.equals(indexed)) continue;
+            if(indexed != null) unindex(indexed);
+            index(expense);
+        }
+        if(presentIds.size() != expensesById.size()) {
+            List<Expense> removed = expensesById.values().stream()
+                    .filter(expense -> !presentIds.contains(expense.getId()))
+                    .toList();
+            removed.forEach(this::unindex);
+        }
+    }
+
+    /***
+     * Adds or replaces a single expense, e.g. after it has been edited locally
+     * @param expense the new state of the expense
+     */
+    public void putExpense(Expense expense) {
+        Expense indexed = expensesById.get(expense.getId());
+        if(expense.equals(indexed)) return;
+        if(indexed != null) unindex(indexed);
+        index(expense);
+    }
+
+    /***
+     * Removes a single expense from the index, e.g. after it has been deleted locally
+     * @param expenseId the ID of the expense
+     */
+    public void removeExpense(long expenseId) {
+        Expense indexed = expensesById.get(expenseId);
+        if(indexed != null) unindex(indexed);
+    }
+
+    /***
+     * Empties the index
+     */
+    public void clear() {
+        eventId = null;
+        expensesById.clear();
+        paidBy.clear();
+        includedIn.clear();
+        byTag.clear();
+        participantsByName.clear();
+    }
+
+    /***
+     * Provides all indexed expenses
+     * @return the expenses of the indexed Event
+     */
+    public Collection<Expense> getAll() {
+        return Collections.unmodifiableCollection(expensesById.values());
+    }
+
+    /***
+     * Provides an expense by its ID
+     * @param expenseId the ID of the expense
+     * @return the expense, or null if the Event has no such expense
+     */
+    public Expense getExpense(long expenseId) {
+        return expensesById.get(expenseId);
+    }
+
+    /***
+     * Provides the expenses paid by a participant
+     * @param participantId the ID of the participant
+     * @return the expenses owed to the participant
+     */
+    public Collection<Expense> getPaidBy(long participantId) {
+        return lookup(paidBy, participantId);
+    }
+
+    /***
+     * Provides the expenses a participant is part of
+     * @param participantId the ID of the participant
+     * @return the expenses the participant is included in
+     */
+    public Collection<Expense> getIncluding(long participantId) {
+        return lookup(includedIn, participantId);
+    }
+
+    /***
+     * Provides the expenses with a certain tag
+     * @param tagId the ID of the tag
+     * @return the expenses with the tag
+     */
+    public Collection<Expense> getByTag(long tagId) {
+        return lookup(byTag, tagId);
+    }
+
+    /***
+     * Finds a participant of the indexed Event by name
+     * @param name the name of the participant
+     * @return the participant, or null if the Event has no participant with that name
+     */
+    public Participant getParticipantByName(String name) {
+        return participantsByName.get(name);
+    }
+
+    private void index(Expense expense) {
+        expensesById.put(expense.getId(), expense);
+        if(expense.getOwedTo() != null)
+            add(paidBy, expense.getOwedTo().getId(), expense);
+        for(Participant participant: expense.getParticipantsInExpense())
+            add(includedIn, participant.getId(), expense);
+        if(expense.getExpenseTag() != null)
+            add(byTag, expense.getExpenseTag().getId(), expense);
+    }
+
+    private void unindex(Expense expense) {
+        expensesById.remove(expense.getId());
+        if(expense.getOwedTo() != null)
+            remove(paidBy, expense.getOwedTo().getId(), expense);
+        for(Participant participant: expense.getParticipantsInExpense())
+            remove(includedIn, participant.getId(), expense);
+        if(expense.getExpenseTag() != null)
+            remove(byTag, expense.getExpenseTag().getId(), expense);
+    }
+
+    private static void add(Map<Long, Map<Long, Expense>> index, long key, Expense expense) {
+        index.computeIfAbsent(key, k -> new HashMap<>()).put(expense.getId(), expense);
+    }
+
+    private static void remove(Map<Long, Map<Long, Expense>> index, long key, Expense expense) {
+        Map<Long, Expense> expenses = index.get(key);
+        if(expenses == null) return;
+        expenses.remove(expense.getId());
+        if(expenses.isEmpty()) index.remove(key);
+    }
+
+    private static Collection<Expense> lookup(Map<Long, Map<Long, Expense>> index, long key) {
+        Map<Long, Expense> expenses = index.get(key);
+        if(expenses == null) return List.of();
+        return Collections.unmodifiableCollection(expenses.values());
+    }
+}
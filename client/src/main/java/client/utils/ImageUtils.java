@@ -3,22 +3,80 @@ package client.utils;
 import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
 
-import java.io.FileInputStream;
-import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.ref.SoftReference;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class ImageUtils {
-    private final static String basePath = "client/src/main/resources/images/";
+    private final static String basePath = "/images/";
+    private final static int ORIGINAL_SIZE = 0;
+
+    // Soft references let the garbage collector drop decoded images when memory runs low
+    private final Map<String, SoftReference<Image>> cache = new ConcurrentHashMap<>();
 
     /***
-     * Loads a file into an Image
+     * Loads an image from the classpath into an Image, reusing a cached copy if there is one
      * @param fileName the name of the file under the basePath directory
      * @return an Image containing the loaded file, or null
      */
     public Image loadImageFile(String fileName){
-        try {
-            return new Image(new FileInputStream(basePath + fileName));
-        } catch (FileNotFoundException e) {
-            System.out.println("Could not find file " + basePath + fileName);
+        return loadImageFile(fileName, ORIGINAL_SIZE);
+    }
+
+    /***
+     * Loads an image from the classpath, scaled to fit in a square of the given size.
+     * The scaled variant is cached separately from the original image.
+     * @param fileName the name of the file under the basePath directory
+     * @param size the size to scale to, in pixels, or 0 for the original size
+     * @return an Image containing the loaded file, or null
+     */
+    public Image loadImageFile(String fileName, int size){
+        String key = fileName + "@" + size;
+        SoftReference<Image> cached = cache.get(key);
+        Image image = cached == null ? null : cached.get();
+        if(image != null) return image;
+
+        image = decode(fileName, size);
+        if(image != null) cache.put(key, new SoftReference<>(image));
+        else cache.remove(key);
+        return image;
+    }
+
+    /***
+     * Decodes the given images in the background, so screens do not have to wait for the disk
+     * @param fileNames the names of the files under the basePath directory
+     * @param sizes the sizes to prepare scaled variants for; the original is always loaded
+     * @return a future that completes when all images are cached
+     */
+    public CompletableFuture<Void> warmUp(Collection<String> fileNames, int... sizes){
+        return CompletableFuture.runAsync(() -> {
+            for(String fileName: fileNames) {
+                loadImageFile(fileName);
+                for(int size: sizes) loadImageFile(fileName, size);
+            }
+        });
+    }
+
+    /***
+     * Decodes an image from the classpath, package-private so tests can count the decodes
+     * @param fileName the name of the file under the basePath directory
+     * @param size the size to scale to, in pixels, or 0 for the original size
+     * @return the decoded Image, or null if it could not be found
+     */
+    Image decode(String fileName, int size){
+        try(InputStream stream = ImageUtils.class.getResourceAsStream(basePath + fileName)) {
+            if(stream == null) {
+                System.out.println("Could not find file " + basePath + fileName);
+                return null;
+            }
+            if(size == ORIGINAL_SIZE) return new Image(stream);
+            return new Image(stream, size, size, true, true);
+        } catch (IOException e) {
+            System.out.println("Could not read file " + basePath + fileName);
             return null;
         }
     }
@@ -41,12 +99,12 @@ public class ImageUtils {
     }
 
     /***
-     * Generates an ImageView for a given Image
+     * Generates an ImageView for a given Image, using a variant pre-scaled to the given size
      * @param fileName the name of the file under the basePath directory
      * @param size the size, in pixels
      * @return an ImageView corresponding to the Image
      */
     public ImageView generateImageView(String fileName, int size){
-        return generateImageView(loadImageFile(fileName), size);
+        return generateImageView(loadImageFile(fileName, size), size);
     }
 }
@@ -0,0 +1,214 @@
+package client.utils;
+
+import com.google.inject.Inject;
+import com.google.inject.name.Named;
+
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+import static java.nio.file.StandardWatchEventKinds.*;
+
+/***
+ * Keeps the language files of the client in memory.
+ * Files are loaded once (in the background by preloadAll, or on first use) and served from memory afterwards.
+ * When watching is started, changes to the language directory are picked up without a restart.
+ */
+public class LocaleRegistry {
+    public static final String TEMPLATE_FILE = "template.properties";
+    // The language every other language file is validated against
+    public static final Locale BASE_LOCALE = Locale.forLanguageTag(ConfigUtils.DEFAULT_PROPS_LANGUAGE.replace('_', '-'));
+    private final File dir;
+    private final Map<Locale, Map<String, String>> bundles = new ConcurrentHashMap<>();
+    private final List<Consumer<Locale>> reloadListeners = new CopyOnWriteArrayList<>();
+    private volatile List<Locale> availableLocales;
+    private Thread watcher;
+
+    /**
+     * Constructor
+     * @param dir Language template directory
+     */
+    @Inject
+    public LocaleRegistry(@Named("dir") File dir) {
+        this.dir = dir;
+    }
+
+    /***
+     * Provides the locales there is a language file for
+     * @return the locales, in the order their files were listed
+     */
+    public List<Locale> getAvailableLocales() {
+        List<Locale> locales = availableLocales;
+        if(locales != null) return locales;
+        List<Locale> listed = new ArrayList<>();
+        File[] files = dir.listFiles();
+        if(files != null) {
+            for(File properties : files) {
+                Locale locale = toLocale(properties.getName());
+                if(locale != null) listed.add(locale);
+            }
+        }
+        availableLocales = List.copyOf(listed);
+        return availableLocales;
+    }
+
+    /***
+     * Provides the localized strings of a language, loading its file if it is not in memory yet
+     * @param locale the Locale of the language
+     * @return the key-value pairs of localized strings
+     * @throws IOException if there is no readable language file for the locale
+     */
+    public Map<String, String> getResources(Locale locale) throws IOException {
+        Map<String, String> resources = bundles.get(locale);
+        if(resources != null) return resources;
+        resources = load(locale);
+        bundles.put(locale, resources);
+        return resources;
+    }
+
+    /***
+     * Checks whether a language has a translation for every key
+     * @param resources the localized strings of the language
+     * @return true if no value is empty
+     */
+    public static boolean isComplete(Map<String, String> resources) {
+        return !resources.containsValue("");
+    }
+
+    /***
+     * Finds the keys of the base language that a language has no entry for
+     * @param base the localized strings of the base language
+     * @param resources the localized strings of the language to check
+     * @return the missing keys, sorted
+     */
+    public static Set<String> findMissingKeys(Map<String, String> base, Map<String, String> resources) {
+        Set<String> missing = new TreeSet<>(base.keySet());
+        missing.removeAll(resources.keySet());
+        return missing;
+    }
+
+    /***
+     * Loads all language files into memory in the background and validates them against the base language,
+     * reporting every language that lacks keys of the base language
+     * @return a future with the missing keys of each incomplete language, completing when all files are loaded
+     */
+    public CompletableFuture<Map<Locale, Set<String>>> preloadAll() {
+        return CompletableFuture.supplyAsync(() -> {
+            Map<Locale, Map<String, String>> loaded = new LinkedHashMap<>();
+            for(Locale locale : getAvailableLocales()) {
+                try {
+                    loaded.put(locale, getResources(locale));
+                } catch (IOException e) {
+                    System.out.println("Could not load language file for " + locale);
+                }
+            }
+            Map<Locale, Set<String>> missingKeys = new LinkedHashMap<>();
+            Map<String, String> base = loaded.get(BASE_LOCALE);
+            if(base == null) {
+                System.out.println("Could not validate the language files, there is no file for " + BASE_LOCALE);
+                return missingKeys;
+            }
+            loaded.forEach((locale, resources) -> {
+                Set<String> missing = findMissingKeys(base, resources);
+                if(missing.isEmpty()) return;
+                missingKeys.put(locale, missing);
+                System.out.println("Language file for " + locale + " is missing the keys " + missing);
+            });
+            return missingKeys;
+        });
+    }
+
+    /***
+     * Registers a listener that is called, on the watcher thread, when a language file was changed on disk
+     * @param listener the listener receiving the Locale of the changed file
+     */
+    public void addReloadListener(Consumer<Locale> listener) {
+        reloadListeners.add(listener);
+    }
+
+    /***
+     * Starts watching the language directory for added, edited and removed language files
+     */
+    public synchronized void startWatching() {
+        if(watcher != null) return;
+        WatchService watchService;
+        try {
+            watchService = FileSystems.getDefault().newWatchService();
+            dir.toPath().register(watchService, ENTRY_CREATE, ENTRY_MODIFY, ENTRY_DELETE);
+        } catch (IOException e) {
+            System.out.println("Could not watch language directory " + dir);
+            return;
+        }
+        watcher = new Thread(() -> watch(watchService), "language-file-watcher");
+        watcher.setDaemon(true);
+        watcher.start();
+    }
+
+    private void watch(WatchService watchService) {
+        try(watchService) {
+            while(!Thread.currentThread().isInterrupted()) {
+                WatchKey key = watchService.take();
+                for(WatchEvent<?> event : key.pollEvents()) {
+                    if(event.kind() == OVERFLOW) {
+                        availableLocales = null;
+                        bundles.clear();
+                        continue;
+                    }
+                    Locale locale = toLocale(event.context().toString());
+                    if(locale != null) onFileChanged(locale);
+                }
+                if(!key.reset()) break;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            System.out.println("Stopped watching language directory " + dir);
+        }
+    }
+
+    /***
+     * Drops a changed language from memory, reloads it if its file still exists and notifies the listeners
+     * @param locale the Locale of the changed file
+     */
+    void onFileChanged(Locale locale) {
+        availableLocales = null;
+        bundles.remove(locale);
+        try {
+            getResources(locale);
+        } catch (IOException e) {
+            // the file was removed, or is still being written and will trigger another event
+            return;
+        }
+        reloadListeners.forEach(listener -> listener.accept(locale));
+    }
+
+    private Map<String, String> load(Locale locale) throws IOException {
+        File file = new File(dir, locale.getLanguage() + "_" + locale.getCountry() + ".properties");
+        Properties properties = new Properties();
+        try(Reader reader = new FileReader(file)) {
+            properties.load(reader);
+        }
+        Map<String, String> resources = new HashMap<>();
+        properties.forEach((key, value) -> resources.put((String) key, (String) value));
+        return Collections.unmodifiableMap(resources);
+    }
+
+    /***
+     * Derives the Locale from the name of a language file
+     * @param fileName the name of the file, e.g. en_GB.properties
+     * @return the Locale, or null if the file is not a language file
+     */
+    private static Locale toLocale(String fileName) {
+        if(fileName.equals(TEMPLATE_FILE) || !fileName.endsWith(".properties")) return null;
+        String[] parts = fileName.split("_|\\.");
+        if(parts.length < 3) return null;
+        return Locale.of(parts[0], parts[1]);
+    }
+}
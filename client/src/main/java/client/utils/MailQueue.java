@@ -0,0 +1,192 @@
+package client.utils;
+
+import com.google.inject.Inject;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.SimpleMailMessage;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.*;
+
+/***
+ * Sends emails in the background through a bounded queue.
+ * Submitted emails are sent in batches, each batch over a single connection to the mail server,
+ * at no more than a fixed rate. Emails the server rejected are retried with an increasing delay,
+ * and the outcome of a submission is reported once, for all of its emails together.
+ */
+public class MailQueue {
+    private static final int CAPACITY = 64;
+    private static final int BATCH_SIZE = 20;
+    private static final int MESSAGES_PER_SECOND = 10;
+    private static final int MAX_ATTEMPTS = 3;
+    private static final long BACKOFF_MILLIS = 1000;
+
+    private final EmailHandler emailHandler;
+    private final int batchSize;
+    private final long nanosPerMessage;
+    private final int maxAttempts;
+    private final long backoffMillis;
+    private final ExecutorService sender;
+    private long nextSendAt;
+
+    /***
+     * Outcome of sending a group of emails
+     * @param sent the number of emails that were sent
+     * @param failedRecipients the recipients of the emails that could not be sent
+     */
+    public record Result(int sent, List<String> failedRecipients) {
+        /***
+         * Checks whether all emails were sent
+         * @return true if no email failed
+         */
+        public boolean isSuccess() {
+            return failedRecipients.isEmpty();
+        }
+    }
+
+    /***
+     * Constructor
+     * @param emailHandler the email handler used to send the emails
+     */
+    @Inject
+    public MailQueue(EmailHandler emailHandler) {
+        this(emailHandler, CAPACITY, BATCH_SIZE, MESSAGES_PER_SECOND, MAX_ATTEMPTS, BACKOFF_MILLIS);
+    }
+
+    /***
+     * Constructor
+     * @param emailHandler the email handler used to send the emails
+     * @param capacity the number of submissions that can wait to be sent
+     * @param batchSize the maximum number of emails sent over one connection
+     * @param messagesPerSecond the maximum sending rate, or 0 for no limit
+     * @param maxAttempts the number of times an email is tried before it counts as failed
+     * @param backoffMillis the delay before the first retry, doubled for every next retry
+     */
+    public MailQueue(EmailHandler emailHandler, int capacity, int batchSize,
+                     int messagesPerSecond, int maxAttempts, long backoffMillis) {
+        this.emailHandler = emailHandler;
+        this.batchSize = batchSize;
+        this.nanosPerMessage = messagesPerSecond > 0 ? TimeUnit.SECONDS.toNanos(1) / messagesPerSecond : 0;
+        this.maxAttempts = maxAttempts;
+        this.backoffMillis = backoffMillis;
+        this.nextSendAt = System.nanoTime();
+        this.sender = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(capacity), runnable -> {
+            Thread thread = new Thread(runnable, "mail-sender");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /***
+     * Queues an email
+     * @param to Email recipient
+     * @param subject Email subject
+     * @param text Email text
+     * @return a future that completes with the result once the email was sent or given up on
+     */
+    public CompletableFuture<Result> submit(String to, String subject, String text) {
+        return submit(List.of(emailHandler.createEmail(to, subject, text)));
+    }
+
+    /***
+     * Queues a group of emails
+     * @param emails the emails to send
+     * @return a future that completes with the result once all emails were sent or given up on.
+     * If the queue is full, the emails are not sent and the future completes with all of them failed.
+     */
+    public CompletableFuture<Result> submit(List<SimpleMailMessage> emails) {
+        List<SimpleMailMessage> copy = List.copyOf(emails);
+        try {
+            return CompletableFuture.supplyAsync(() -> send(copy), sender);
+        } catch (RejectedExecutionException e) {
+            System.out.println("Mail queue is full");
+            return CompletableFuture.completedFuture(new Result(0, recipients(copy)));
+        }
+    }
+
+    /***
+     * Sends the emails in batches, retrying the emails that were rejected
+     * @param emails the emails to send
+     * @return the result
+     */
+    private Result send(List<SimpleMailMessage> emails) {
+        List<SimpleMailMessage> pending = emails;
+        List<SimpleMailMessage> givenUp = new ArrayList<>();
+        for(int attempt = 1; !pending.isEmpty(); attempt++) {
+            List<SimpleMailMessage> rejected = new ArrayList<>();
+            for(int from = 0; from < pending.size(); from += batchSize) {
+                List<SimpleMailMessage> batch = pending.subList(from, Math.min(from + batchSize, pending.size()));
+                sendBatch(batch, rejected, givenUp);
+            }
+            if(rejected.isEmpty()) break;
+            if(attempt >= maxAttempts) {
+                givenUp.addAll(rejected);
+                break;
+            }
+            pending = rejected;
+            if(!pause(backoffMillis << (attempt - 1))) {
+                givenUp.addAll(rejected);
+                break;
+            }
+        }
+        return new Result(emails.size() - givenUp.size(), recipients(givenUp));
+    }
+
+    /***
+     * Sends one batch over a single connection
+     * @param batch the emails to send
+     * @param rejected collects the emails that are worth retrying
+     * @param givenUp collects the emails that cannot be sent
+     */
+    private void sendBatch(List<SimpleMailMessage> batch, List<SimpleMailMessage> rejected,
+                           List<SimpleMailMessage> givenUp) {
+        if(!throttle(batch.size())) {
+            givenUp.addAll(batch);
+            return;
+        }
+        try {
+            emailHandler.sendEmails(batch.toArray(new SimpleMailMessage[0]));
+        } catch (MailSendException e) {
+            List<SimpleMailMessage> failed = batch.stream()
+                    .filter(e.getFailedMessages()::containsKey).toList();
+            rejected.addAll(failed.isEmpty() ? batch : failed);
+        } catch (MailException e) {
+            System.out.println("Error sending emails");
+            givenUp.addAll(batch);
+        }
+    }
+
+    /***
+     * Waits until a batch of the given size may be sent without exceeding the sending rate
+     * @param size the number of emails about to be sent
+     * @return false if the thread was interrupted while waiting
+     */
+    private boolean throttle(int size) {
+        long now = System.nanoTime();
+        long wait = nextSendAt - now;
+        if(wait > 0 && !pause(TimeUnit.NANOSECONDS.toMillis(wait))) return false;
+        nextSendAt = (wait > 0 ? nextSendAt : now) + size * nanosPerMessage;
+        return true;
+    }
+
+    private static boolean pause(long millis) {
+        try {
+            Thread.sleep(millis);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private static List<String> recipients(List<SimpleMailMessage> emails) {
+        return emails.stream()
+                .map(SimpleMailMessage::getTo)
+                .filter(to -> to != null)
+                .flatMap(Arrays::stream)
+                .toList();
+    }
+}
@@ -5,19 +5,35 @@ import commons.Event;
 import commons.Expense;
 import commons.Participant;
 import commons.dto.EventDeletedDTO;
+import commons.dto.EventsDeletedDTO;
 import javafx.beans.property.SimpleStringProperty;
 import javafx.beans.property.StringProperty;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
+import javafx.collections.transformation.SortedList;
 
 import java.util.*;
 
 public class ManagementOverviewUtils {
 
+    private static final Comparator<Event> TITLE =
+            Comparator.comparing(event -> event.getTitle().toLowerCase());
+    private static final Comparator<Event> CREATION_DATE =
+            Comparator.comparing(Event::getCreationDate, Comparator.nullsFirst(Comparator.naturalOrder()));
+    private static final Comparator<Event> LAST_ACTIVITY =
+            Comparator.comparing(Event::getLastActivity, Comparator.nullsFirst(Comparator.naturalOrder()));
+    // Keeps the order of events that are equal for the chosen sort key fixed, whichever direction is chosen
+    private static final Comparator<Event> TIE_BREAK = CREATION_DATE
+            .thenComparing(Event::getId, Comparator.nullsFirst(Comparator.naturalOrder()));
+
     private final Translation translation;
     private final ServerUtils server;
+    // Events in arrival order, positions indexed by event id; the UI shows the sorted view
     private final ObservableList<Event> events = FXCollections.observableArrayList();
-    private final Map<String, Event> eventLookup = new HashMap<>();
+    private final Map<String, Integer> positions = new HashMap<>();
+    private final SortedList<Event> sortedEvents = new SortedList<>(events, TITLE.thenComparing(TIE_BREAK));
+    private Comparator<Event> sortKey = TITLE;
+    private boolean sortAscending = true;
     private final SimpleStringProperty ascending = new SimpleStringProperty();
     private final SimpleStringProperty descending = new SimpleStringProperty();
     private final StringProperty order = new SimpleStringProperty();
@@ -51,15 +67,12 @@ public class ManagementOverviewUtils {
     }
 
     /**
-     * Retrieve events from the database and sorts them.
-     * @return ObservableList of all events sorted by their title in ascending order.
+     * Retrieve events from the database.
+     * @return ObservableList of all events, kept sorted in the chosen order (initially by title, ascending).
      */
     public ObservableList<Event> retrieveEvents() {
-        var allEvents = server.retrieveAllEvents();
-        events.setAll(allEvents);
-        events.sort(Comparator.comparing(event -> event.getTitle().toLowerCase()));
-        allEvents.forEach(event -> eventLookup.put(event.getId(), event));
-        return events;
+        setEvents(server.retrieveAllEvents());
+        return sortedEvents;
     }
 
     /***
@@ -69,6 +82,8 @@ public class ManagementOverviewUtils {
         socketUtils.registerForMessages(this::onCreateEvent, "/topic/events/creations", Event.class);
         socketUtils.registerForMessages(this::onEditEvent, "/topic/events/all", Event.class);
         socketUtils.registerForMessages(this::onDeleteEvent, "/topic/events/deletions", EventDeletedDTO.class);
+        socketUtils.registerForMessages(this::onDeleteEvents, "/topic/events/deletions/batch",
+                EventsDeletedDTO.class);
     }
 
     /***
@@ -76,8 +91,13 @@ public class ManagementOverviewUtils {
      * @param event the created event
      */
     public void onCreateEvent(Event event){
+        Integer index = positions.get(event.getId());
+        if(index != null) {
+            events.set(index, event);
+            return;
+        }
+        positions.put(event.getId(), events.size());
         events.add(event);
-        eventLookup.put(event.getId(), event);
     }
 
     /***
@@ -89,24 +109,18 @@ public class ManagementOverviewUtils {
     }
 
     /***
-     * Executes event editing
+     * Executes event editing, moving the event to its new sorted position
      * @param event the new edited event
      * @param eventId the ID of the event
      */
     public void editEvent(Event event, String eventId){
-        /*
-         * The workaround exists for cases where there is only one event, and it is edited/removed
-         * This does not work well with the current implementation of the ListView and Selection methods
-         * Thus, a second Event has to be added, and then immediately removed after
-         */
-        Event workaroundEvent = new Event();
-        Event currentEvent = eventLookup.get(eventId);
-        int index = events.indexOf(currentEvent);
-        if(index != -1){
-            events.add(workaroundEvent);
+        Integer index = positions.get(eventId);
+        if(index != null){
             events.set(index, event);
-            eventLookup.put(eventId, event);
-            events.remove(workaroundEvent);
+            if(!eventId.equals(event.getId())) {
+                positions.remove(eventId);
+                positions.put(event.getId(), index);
+            }
         }
     }
 
@@ -115,22 +129,29 @@ public class ManagementOverviewUtils {
      * @param dto an EventDeletedDTO containing the ID of the deleted event
      */
     public void onDeleteEvent(EventDeletedDTO dto){
-        /*
-         * The workaround exists for cases where there is only one event, and it is edited/removed
-         * This does not work well with the current implementation of the ListView and Selection methods
-         * Thus, a second Event has to be added, and then immediately removed after
-         */
-        Event workaroundEvent = new Event();
-        String eventId = dto.getEventId();
-        Event currentEvent = eventLookup.get(eventId);
-        int index = events.indexOf(currentEvent);
-        if(index != -1){
-            events.add(workaroundEvent);
-            events.set(index, new Event());
-            events.remove(index);
-            eventLookup.remove(eventId);
-            events.remove(workaroundEvent);
+        Integer index = positions.remove(dto.getEventId());
+        if(index == null) return;
+        // Fill the gap with the last event, so no other position has to shift
+        int last = events.size() - 1;
+        if(index != last) {
+            Event moved = events.get(last);
+            events.set(index, moved);
+            positions.put(moved.getId(), index);
         }
+        events.remove(last);
+    }
+
+    /***
+     * Ran when several events are deleted at once
+     * @param dto an EventsDeletedDTO containing the IDs of the deleted events
+     */
+    public void onDeleteEvents(EventsDeletedDTO dto){
+        if(dto.isAll()) {
+            positions.clear();
+            events.clear();
+            return;
+        }
+        dto.getEventIds().forEach(eventId -> onDeleteEvent(new EventDeletedDTO(eventId)));
     }
 
     /***
@@ -139,7 +160,7 @@ public class ManagementOverviewUtils {
      * @return true if the event already exists, false otherwise
      */
     public boolean checkIfDuplicate(String eventId){
-        return eventLookup.containsKey(eventId);
+        return positions.containsKey(eventId);
     }
 
     /**
@@ -154,14 +175,22 @@ public class ManagementOverviewUtils {
     }
 
     /**
-     * Sort events according to the comparator and the current order
+     * Sort events according to the comparator and the current order.
+     * The sorted view is only rearranged if the order actually changes.
      * @param comparator Comparator to sort events with
      */
     public void sortEventsByComparator(Comparator<Event> comparator) {
+        boolean ascendingOrder;
         if(order.getValue().equals(ascending.getValue()))
-            events.sort(comparator);
+            ascendingOrder = true;
         else if(order.getValue().equals(descending.getValue()))
-            events.sort(comparator.reversed());
+            ascendingOrder = false;
+        else return;
+        if(comparator == sortKey && ascendingOrder == sortAscending) return;
+        sortKey = comparator;
+        sortAscending = ascendingOrder;
+        Comparator<Event> directed = ascendingOrder ? comparator : comparator.reversed();
+        sortedEvents.setComparator(directed.thenComparing(TIE_BREAK));
     }
 
     /**
@@ -170,11 +199,11 @@ public class ManagementOverviewUtils {
      */
     public void sortEvents(StringProperty property) {
         if(property.getValue().equals(title.getValue()))
-            sortEventsByComparator(Comparator.comparing(event -> event.getTitle().toLowerCase()));
+            sortEventsByComparator(TITLE);
         else if(property.getValue().equals(creationDate.getValue()))
-            sortEventsByComparator(Comparator.comparing(Event::getCreationDate));
+            sortEventsByComparator(CREATION_DATE);
         else if(property.getValue().equals(lastActivity.getValue()))
-            sortEventsByComparator(Comparator.comparing(Event::getLastActivity));
+            sortEventsByComparator(LAST_ACTIVITY);
     }
 
     /**
@@ -216,10 +245,10 @@ public class ManagementOverviewUtils {
 
     /**
      * Get the list of events for the management overview
-     * @return the list of events
+     * @return the list of events, in the chosen order
      */
     public ObservableList<Event> getEvents() {
-        return events;
+        return sortedEvents;
     }
 
     /**
@@ -274,7 +303,11 @@ public class ManagementOverviewUtils {
      * Set events
      * @param events New events
      */
-    public void setEvents(ObservableList<Event> events) {
+    public void setEvents(List<Event> events) {
+        positions.clear();
+        for(int i = 0; i < events.size(); i++) {
+            positions.put(events.get(i).getId(), i);
+        }
         this.events.setAll(events);
     }
 
@@ -0,0 +1,69 @@
+package client.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/***
+ * A localized string with placeholders (e.g. "{{name}} paid {{amount}}"), parsed once into
+ * alternating literal text and placeholder names, so it can be rendered in a single pass.
+ * Placeholders without a value are left in the output as-is.
+ */
+public final class MessageTemplate {
+    private final String prefix;
+    private final String suffix;
+    // literals.length == names.length + 1: literal, name, literal, name, ..., literal
+    private final String[] literals;
+    private final String[] names;
+    private final int literalLength;
+
+    private MessageTemplate(String prefix, String suffix, List<String> literals, List<String> names) {
+        this.prefix = prefix;
+        this.suffix = suffix;
+        this.literals = literals.toArray(new String[0]);
+        this.names = names.toArray(new String[0]);
+        this.literalLength = literals.stream().mapToInt(String::length).sum();
+    }
+
+    /***
+     * Parses a template
+     * @param template the text containing placeholders
+     * @param prefix the text opening a placeholder (e.g. "{{")
+     * @param suffix the text closing a placeholder (e.g. "}}")
+     * @return the parsed template
+     */
+    public static MessageTemplate compile(String template, String prefix, String suffix) {
+        List<String> literals = new ArrayList<>();
+        List<String> names = new ArrayList<>();
+        int literalStart = 0;
+        int start = template.indexOf(prefix);
+        while(start >= 0) {
+            int end = template.indexOf(suffix, start + prefix.length());
+            if(end < 0) break;
+            literals.add(template.substring(literalStart, start));
+            names.add(template.substring(start + prefix.length(), end));
+            literalStart = end + suffix.length();
+            start = template.indexOf(prefix, literalStart);
+        }
+        literals.add(template.substring(literalStart));
+        return new MessageTemplate(prefix, suffix, literals, names);
+    }
+
+    /***
+     * Renders the template with the given values substituted for the placeholders
+     * @param values the values per placeholder name
+     * @return the rendered text
+     */
+    public String render(Map<String, String> values) {
+        if(names.length == 0) return literals[0];
+        StringBuilder builder = new StringBuilder(literalLength + 16 * names.length);
+        for(int i = 0; i < names.length; i++) {
+            builder.append(literals[i]);
+            String value = values.get(names[i]);
+            if(value != null) builder.append(value);
+            else builder.append(prefix).append(names[i]).append(suffix);
+        }
+        builder.append(literals[names.length]);
+        return builder.toString();
+    }
+}
@@ -3,15 +3,20 @@ package client.utils;
 import javafx.beans.binding.StringBinding;
 import javafx.beans.property.SimpleMapProperty;
 import javafx.collections.FXCollections;
-import org.apache.commons.text.StringSubstitutor;
 
+import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 // Adapted from https://stackoverflow.com/questions/32464974/javafx-change-application-language-on-the-run
 public class ObservableResourceFactory {
 
     private final SimpleMapProperty<String, String> resources =
             new SimpleMapProperty<>(FXCollections.observableHashMap());
+    // One shared binding per key, so a language switch invalidates each key once
+    private final Map<String, StringBinding> bindings = new ConcurrentHashMap<>();
+    // Templates parsed from the current resources, cleared when the language changes
+    private final Map<String, MessageTemplate> templates = new ConcurrentHashMap<>();
 
     /***
      * Returns the Observable SMP, used for binding
@@ -22,27 +27,29 @@ public class ObservableResourceFactory {
     }
 
     /***
-     * Live-replaces the language resources used with the provided Map
+     * Live-replaces the language resources used with the provided Map.
+     * The whole Map is swapped at once, so bindings are invalidated a single time.
      * @param map - the Map containing key-value pairs of localized strings
      */
     public final void setResources(Map<String, String> map) {
-        resourcesProperty().clear();
-        resourcesProperty().putAll(map);
+        templates.clear();
+        resourcesProperty().set(FXCollections.observableMap(new HashMap<>(map)));
     }
 
     /***
-     * Provides a binding for the translated value corresponding to a text key
+     * Provides a binding for the translated value corresponding to a text key.
+     * All callers asking for the same key share the same binding.
      * @param key the text key (e.g. "startup.label.create")
      * @return a live-updating binding for the translated value
      */
     public StringBinding getStringBinding(String key) {
-        return new StringBinding() {
+        return bindings.computeIfAbsent(key, k -> new StringBinding() {
             { bind(resourcesProperty()); }
             @Override
             public String computeValue() {
-                return resourcesProperty().get(key);
+                return resourcesProperty().get(k);
             }
-        };
+        });
     }
 
     private static final String subPrefix = "{{";
@@ -55,13 +62,15 @@ public class ObservableResourceFactory {
      * @return - a live-updating binding for the translated value, with values substituted (values are NOT live-updated)
      */
     public StringBinding getStringSubstitutionBinding(String key, Map<String, String> values) {
+        StringBinding rawBinding = getStringBinding(key);
         return new StringBinding() {
-            { bind(resourcesProperty()); }
+            { bind(rawBinding); }
             @Override
             public String computeValue() {
-                String rawString = resourcesProperty().get(key);
-                StringSubstitutor substitutor = new StringSubstitutor(values, subPrefix, subSuffix);
-                return substitutor.replace(rawString);
+                String rawString = rawBinding.get();
+                if(rawString == null) return null;
+                return templates.computeIfAbsent(key, k -> MessageTemplate.compile(rawString, subPrefix, subSuffix))
+                        .render(values);
             }
         };
     }
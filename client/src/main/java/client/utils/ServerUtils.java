@@ -27,7 +27,9 @@ import jakarta.ws.rs.client.Entity;
 import jakarta.ws.rs.core.GenericType;
 import jakarta.ws.rs.core.Response;
 import org.glassfish.jersey.client.ClientConfig;
+import org.glassfish.jersey.client.ClientProperties;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Set;
 
@@ -99,6 +101,36 @@ public class ServerUtils {
                 .post(Entity.entity(participant, APPLICATION_JSON), Participant.class);
     }
 
+    /**
+     * Requests the server to add several participants to an event at once.
+     * The server assigns the ids, but every participant in the request needs a distinct one to be
+     * told apart, so numbered copies are sent.
+     *
+     * @param id           ID of the event
+     * @param participants The Participants to add
+     */
+    public void addParticipants(String id, List<Participant> participants) {
+        List<Participant> numbered = new ArrayList<>();
+        for (int i = 0; i < participants.size(); i++) {
+            Participant participant = participants.get(i);
+            Participant copy = new Participant(i + 1, participant.getName());
+            copy.setLegalName(participant.getLegalName());
+            copy.setIban(participant.getIban());
+            copy.setBic(participant.getBic());
+            copy.setEmail(participant.getEmail());
+            numbered.add(copy);
+        }
+        Response response = ClientBuilder.newClient(new ClientConfig())
+                .target(serverURL).path("api/events/" + id + "/participants/batch")
+                .request(APPLICATION_JSON)
+                .accept(APPLICATION_JSON)
+                .post(Entity.entity(numbered, APPLICATION_JSON));
+        if (response.getStatus() != Response.Status.CREATED.getStatusCode()) {
+            System.out.println("participants not added " + response.getStatus());
+        }
+        response.close();
+    }
+
     /**
      * method for removing participant from event and server
      *
@@ -235,6 +267,19 @@ public class ServerUtils {
         return events;
     }
 
+    /**
+     * retrieves all events from the server as a stream, so they don't have to be held in memory at once
+     *
+     * @return the response, holding a JSON array of all events; the caller has to close it
+     */
+    public Response retrieveAllEventsAsStream() {
+        return ClientBuilder.newClient(new ClientConfig())
+                .target(serverURL).path("api/events/all")
+                .request(APPLICATION_JSON)
+                .accept(APPLICATION_JSON)
+                .get();
+    }
+
     /**
      * Sends an event to be added to the database
      *
@@ -249,6 +294,21 @@ public class ServerUtils {
                 .put(Entity.entity(event, APPLICATION_JSON), Event.class);
     }
 
+    /**
+     * Imports an event, e.g. from a backup. The server creates the event if it does not exist yet,
+     * and otherwise merges it into the existing event, only changing what differs.
+     *
+     * @param event the event to import
+     * @return the stored event
+     */
+    public Event importEvent(Event event) {
+        return ClientBuilder.newClient(new ClientConfig())
+                .target(serverURL).path("api/events/import")
+                .request(APPLICATION_JSON)
+                .accept(APPLICATION_JSON)
+                .put(Entity.entity(event, APPLICATION_JSON), Event.class);
+    }
+
     /**
      * delete an event using it's ID
      *
@@ -268,6 +328,24 @@ public class ServerUtils {
         }
     }
 
+    /**
+     * delete several events in a single request
+     *
+     * @param eventIds the ids of the events we want to delete
+     * @return the ids of the events that were deleted
+     */
+    public List<String> deleteEvents(List<String> eventIds) {
+        ClientConfig config = new ClientConfig();
+        // Jersey refuses a body on a DELETE request unless told otherwise
+        config.property(ClientProperties.SUPPRESS_HTTP_COMPLIANCE_VALIDATION, true);
+        return ClientBuilder.newClient(config)
+                .target(serverURL)
+                .path("api/events/delete")
+                .request(APPLICATION_JSON)
+                .accept(APPLICATION_JSON)
+                .method("DELETE", Entity.entity(eventIds, APPLICATION_JSON), new GenericType<List<String>>() {});
+    }
+
     /**
      * delete all the events in the database
      */
@@ -9,6 +9,7 @@ import javafx.beans.binding.Bindings;
 import javafx.beans.value.ObservableValue;
 import javafx.event.ActionEvent;
 import javafx.event.EventHandler;
+import org.springframework.mail.SimpleMailMessage;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
@@ -21,6 +22,7 @@ public class SettleDebtsUtils {
     private final ServerUtils server;
     private final TransferMoneyUtils transferUtils;
     private EmailHandler emailHandler;
+    private final MailQueue mailQueue;
 
     /***
      * Constructor for the utility class for the SettleDebts screen
@@ -28,13 +30,16 @@ public class SettleDebtsUtils {
      * @param server - the SeverUtils to use
      * @param transferUtils - the TransferMoneyUtils to use
      * @param emailHandler - the emailHandler to use
+     * @param mailQueue - the queue emails are sent through
      */
     @Inject
-    public SettleDebtsUtils(Translation translation, ServerUtils server, TransferMoneyUtils transferUtils, EmailHandler emailHandler) {
+    public SettleDebtsUtils(Translation translation, ServerUtils server, TransferMoneyUtils transferUtils,
+                            EmailHandler emailHandler, MailQueue mailQueue) {
         this.translation = translation;
         this.server = server;
         this.transferUtils = transferUtils;
         this.emailHandler = emailHandler;
+        this.mailQueue = mailQueue;
     }
 
     //Pseudocode adapted from: https://stackoverflow.com/questions/4554655/who-owes-who-money-optimization
@@ -167,18 +172,31 @@ public class SettleDebtsUtils {
      * @param transfer the transfer to send the email for
      */
     public void sendEmailTransferEmail(Transfer transfer) {
-        String emailBody = generateEmailBody(transfer);
+        sendEmailTransferEmails(List.of(transfer));
+    }
+
+    /**
+     * Queues the emails to all participants to pay, which are sent in the background.
+     * A single prompt is shown once all emails were sent, or failed.
+     * @param transfers the transfers to send the emails for
+     */
+    public void sendEmailTransferEmails(List<Transfer> transfers) {
         String emailSubject = "Payment Request";
-        boolean result = emailHandler.sendEmail(transfer.sender().getEmail(),emailSubject,emailBody);
-        if (result){
-            Platform.runLater(() -> {
-                emailHandler.showSuccessPrompt();
-            });
-        }else{
-            Platform.runLater(() -> {
-                emailHandler.showFailPrompt();
-            });
-        }
+        List<SimpleMailMessage> emails = transfers.stream()
+                .map(transfer -> emailHandler.createEmail(transfer.sender().getEmail(),
+                        emailSubject, generateEmailBody(transfer)))
+                .toList();
+        mailQueue.submit(emails).thenAccept(result -> {
+            if (result.isSuccess()){
+                Platform.runLater(() -> {
+                    emailHandler.showSuccessPrompt();
+                });
+            }else{
+                Platform.runLater(() -> {
+                    emailHandler.showFailPrompt();
+                });
+            }
+        });
     }
 
     /**
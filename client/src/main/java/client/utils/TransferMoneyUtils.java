@@ -4,7 +4,7 @@ import com.google.inject.Inject;
 import commons.Event;
 import commons.Expense;
 import commons.Participant;
-import commons.Tag;
+import commons.SystemTag;
 import javafx.beans.property.*;
 import javafx.beans.value.ChangeListener;
 import javafx.beans.value.ObservableValue;
@@ -132,7 +132,7 @@ public class TransferMoneyUtils {
         Expense expense = new Expense("Money Transfer", transfer.amount() * -1,
                 new Date(), transfer.receiver());
         expense.addParticipantToExpense(transfer.sender());
-        expense.setExpenseTag((Tag) event.getEventTags().stream().filter(tag -> tag.getTagName().equals("money transfer")).toArray()[0]);
+        expense.setExpenseTag(SystemTag.MONEY_TRANSFER.find(event).orElseThrow());
         return expense;
     }
 
@@ -4,36 +4,38 @@ import client.Exceptions.IncompleteLanguageException;
 import client.Exceptions.InvalidLanguageFormatException;
 import client.Exceptions.MissingLanguageTemplateException;
 import com.google.inject.Inject;
-import com.google.inject.name.Named;
+import javafx.application.Platform;
 import javafx.beans.value.ObservableValue;
 import javafx.scene.control.Button;
 import javafx.scene.control.Label;
 import javafx.scene.control.TextField;
 
-import java.io.File;
-import java.io.FileReader;
-import java.io.FileWriter;
 import java.io.IOException;
-import java.util.HashMap;
 import java.util.Locale;
 import java.util.Map;
-import java.util.Properties;
 
 public class Translation {
     private final ObservableResourceFactory resourceFactory;
     private Locale locale;
     public static final String LANGUAGE_PATH = "client/lang/";
-    private final Properties config;
+    private final ConfigService configService;
+    private final LocaleRegistry localeRegistry;
 
     /***
      * Constructor that takes the resourceFactory the Translation encapsulates
      * @param resourceFactory - the ObservableResourceFactory to be used
-     * @param config - Properties from the config file loaded at the start of the client
+     * @param configService - the ConfigService the chosen language is saved to
+     * @param localeRegistry - the LocaleRegistry providing the language files
      */
     @Inject
-    public Translation(ObservableResourceFactory resourceFactory, @Named("config") Properties config) {
+    public Translation(ObservableResourceFactory resourceFactory, ConfigService configService,
+                       LocaleRegistry localeRegistry) {
         this.resourceFactory = resourceFactory;
-        this.config = config;
+        this.configService = configService;
+        this.localeRegistry = localeRegistry;
+        localeRegistry.addReloadListener(changed -> {
+            if(changed.equals(locale)) Platform.runLater(() -> reloadLanguage(changed));
+        });
     }
 
     /***
@@ -62,13 +64,11 @@ public class Translation {
     public void changeLanguage(Locale locale) throws IncompleteLanguageException, InvalidLanguageFormatException {
         String languageCode = locale.getLanguage();
         String countryCode = locale.getCountry();
-        String fileName = languageCode + "_" + countryCode + ".properties";
 
-        Properties languageProperties = new Properties();
-        File file = new File(LANGUAGE_PATH, fileName);
+        Map<String, String> map;
         try {
-            languageProperties.load(new FileReader(file));
-            if(languageProperties.contains(""))
+            map = localeRegistry.getResources(locale);
+            if(!LocaleRegistry.isComplete(map))
                 throw new IncompleteLanguageException();
         } catch (IOException e) {
             // no such localization file
@@ -79,17 +79,24 @@ public class Translation {
                 throw new MissingLanguageTemplateException();
         }
         this.locale = locale;
-        @SuppressWarnings({"unchecked", "rawtypes"})
-        Map<String, String> map = new HashMap<String, String>((Map) languageProperties);
         resourceFactory.setResources(map);
+        configService.setLanguage(languageCode + "_" + countryCode);
+    }
+
+    /***
+     * Re-applies the language file of the current language after it was edited on disk.
+     * An edit that leaves the file incomplete is ignored until it is completed.
+     * @param changed the Locale of the edited language file
+     */
+    private void reloadLanguage(Locale changed) {
+        if(!changed.equals(locale)) return;
         try {
-            FileWriter writer = new FileWriter(ConfigUtils.CONFIG_NAME);
-            config.setProperty("client.language", languageCode + "_" + countryCode);
-            config.store(writer, ConfigUtils.CONFIG_COMMENTS);
-        } catch(IOException e) {
-            throw new RuntimeException("Writing to config file went wrong");
+            Map<String, String> map = localeRegistry.getResources(changed);
+            if(LocaleRegistry.isComplete(map))
+                resourceFactory.setResources(map);
+        } catch (IOException e) {
+            System.out.println("Could not reload language file for " + changed);
         }
-
     }
 
     /***
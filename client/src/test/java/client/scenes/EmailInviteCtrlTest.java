@@ -1,6 +1,7 @@
 package client.scenes;
 
 import client.utils.EmailHandler;
+import client.utils.MailQueue;
 import client.utils.ServerUtils;
 import client.utils.Translation;
 import commons.Event;
@@ -15,8 +16,12 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.testfx.framework.junit5.ApplicationExtension;
 import org.testfx.framework.junit5.ApplicationTest;
 
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(ApplicationExtension.class)
@@ -25,6 +30,7 @@ class EmailInviteCtrlTest extends ApplicationTest {
     private Translation translation;
     private ServerUtils serverUtils;
     private EmailHandler emailHandler;
+    private MailQueue mailQueue;
     private MainCtrl mainCtrl;
 
     private TextField nameTextField;
@@ -39,7 +45,8 @@ class EmailInviteCtrlTest extends ApplicationTest {
         emailHandler = mock(EmailHandler.class);
         serverUtils = mock(ServerUtils.class);
         mainCtrl = mock(MainCtrl.class);
-        emailInviteCtrl = new EmailInviteCtrl(translation,serverUtils,mainCtrl,emailHandler);
+        mailQueue = mock(MailQueue.class);
+        emailInviteCtrl = new EmailInviteCtrl(translation,serverUtils,mainCtrl,emailHandler,mailQueue);
         nameFeedbackLabel = mock(Label.class);
         nameTextField = mock(TextField.class);
         emailFeedbackLabel = mock(Label.class);
@@ -91,7 +98,7 @@ class EmailInviteCtrlTest extends ApplicationTest {
         when(emailTextField.getText()).thenReturn("joe@test.com");
         when(nameFeedbackLabel.textProperty()).thenReturn(new SimpleStringProperty());
         when(emailFeedbackLabel.textProperty()).thenReturn(new SimpleStringProperty());
-        emailInviteCtrl.sendInvite();
+        emailInviteCtrl.addInvitee();
         assertEquals(nameFeedbackLabel.textProperty().get(), "Email.NameFeedbackLabel");
     }
 
@@ -100,19 +107,49 @@ class EmailInviteCtrlTest extends ApplicationTest {
         when(nameTextField.getText()).thenReturn("joe");
         when(emailTextField.getText()).thenReturn("");
 
-        emailInviteCtrl.sendInvite();
+        emailInviteCtrl.addInvitee();
         assertEquals(emailFeedbackLabel.textProperty().get(), "Email.EmailFeedbackLabel");
     }
 
     @Test
-    public void sendInviteSuccess() {
+    public void addInviteeStaysOnScreen() {
         when(nameTextField.getText()).thenReturn("joe");
         when(emailTextField.getText()).thenReturn("test@test.com");
-        when(emailHandler.sendEmail(any(), any(), any())).thenReturn(true);
-        emailInviteCtrl.refresh(new Event());
-        emailInviteCtrl.sendInvite();
+        emailInviteCtrl.refresh(new Event("Test Event", null));
+        emailInviteCtrl.addInvitee();
         verify(nameTextField).clear();
         verify(emailTextField).clear();
+        verifyNoInteractions(mailQueue, serverUtils);
+        verify(mainCtrl, never()).switchScreens(any());
     }
-}
 
+    @Test
+    public void sendInvitesAddedTogether() {
+        when(nameTextField.getText()).thenReturn("joe", "ann");
+        when(emailTextField.getText()).thenReturn("joe@test.com", "ann@test.com");
+        when(mailQueue.submit(anyList()))
+                .thenReturn(CompletableFuture.completedFuture(new MailQueue.Result(2, List.of())));
+        emailInviteCtrl.refresh(new Event("Test Event", null));
+        emailInviteCtrl.addInvitee();
+        emailInviteCtrl.addInvitee();
+        emailInviteCtrl.sendInvites();
+        verify(mailQueue).submit(argThat(emails -> emails.size() == 2));
+        verify(serverUtils, timeout(2000)).addParticipants(any(), argThat(invitees -> invitees.size() == 2));
+        verify(serverUtils, never()).addParticipant(any(), any());
+        verify(mainCtrl).switchScreens(EventScreenCtrl.class);
+    }
+
+    @Test
+    public void sendInvitesSkipsFailedRecipients() {
+        when(nameTextField.getText()).thenReturn("joe", "ann");
+        when(emailTextField.getText()).thenReturn("joe@test.com", "ann@test.com");
+        when(mailQueue.submit(anyList()))
+                .thenReturn(CompletableFuture.completedFuture(new MailQueue.Result(1, List.of("ann@test.com"))));
+        emailInviteCtrl.refresh(new Event("Test Event", null));
+        emailInviteCtrl.addInvitee();
+        emailInviteCtrl.addInvitee();
+        emailInviteCtrl.sendInvites();
+        verify(serverUtils, timeout(2000)).addParticipants(any(), argThat(invitees -> invitees.size() == 1
+                && invitees.get(0).getEmail().equals("joe@test.com")));
+    }
+}
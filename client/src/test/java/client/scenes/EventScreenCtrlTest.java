@@ -1,5 +1,6 @@
 package client.scenes;
 
+import client.utils.ExpenseIndex;
 import client.utils.ImageUtils;
 import client.utils.ServerUtils;
 import client.utils.StringGenerationUtils;
@@ -14,6 +15,7 @@ import javafx.collections.ObservableList;
 import javafx.scene.Node;
 import javafx.scene.Scene;
 import javafx.scene.control.Label;
+import javafx.scene.control.ListCell;
 import javafx.scene.control.ListView;
 import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
@@ -26,13 +28,16 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.testfx.framework.junit5.ApplicationExtension;
 
 import java.util.Date;
+import java.util.List;
 
 import static client.TestObservableUtils.stringToObservable;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.verify;
@@ -51,6 +56,8 @@ class EventScreenCtrlTest {
     ImageUtils imageUtils;
     @Mock
     StringGenerationUtils stringUtils;
+    @Spy
+    ExpenseIndex expenseIndex = new ExpenseIndex();
 
     @InjectMocks
     EventScreenCtrl sut;
@@ -60,6 +67,7 @@ class EventScreenCtrlTest {
     private Participant participant4;
     private Event event;
     private Expense expense1;
+    private Expense expense2;
     private Tag tag1;
     private Tag tag2;
 
@@ -76,16 +84,17 @@ class EventScreenCtrlTest {
         event.addParticipant(participant4);
         tag1 = new Tag("Drinks!", "#000000");
         tag2 = new Tag("Food!", "#FFFFFF");
-        expense1 = new Expense("Drinks", 12, new Date(1929), participant1);
+        expense1 = new Expense(1, "Drinks", 12, new Date(1929), participant1);
         expense1.addParticipantToExpense(participant1);
         expense1.addParticipantToExpense(participant2);
         expense1.setExpenseTag(tag1);
-        Expense expense2 = new Expense("Food", 20, new Date(2024), participant2);
+        expense2 = new Expense(2, "Food", 20, new Date(2024), participant2);
         expense2.addParticipantToExpense(participant2);
         expense2.addParticipantToExpense(participant3);
         expense2.setExpenseTag(tag2);
         event.addExpense(expense1);
         event.addExpense(expense2);
+        expenseIndex.update(event);
     }
 
     @BeforeAll
@@ -98,13 +107,17 @@ class EventScreenCtrlTest {
     }
 
     @Test
-    void expenseBoxGenerationTest(){
+    void expenseCellTest(){
         ObservableValue<String> textDescription = stringToObservable("John paid 12\u20ac for Drinks (John, Jane)");
         Image testImage = new WritableImage(1,1);
         ImageView testImageView = new ImageView(testImage);
         doReturn(textDescription).when(stringUtils).generateTextForExpenseLabel(expense1, event.getParticipants().size());
+        doReturn(testImage).when(imageUtils).loadImageFile("x_remove.png");
         doReturn(testImageView).when(imageUtils).generateImageView(testImage, 15);
-        HBox result = sut.generateExpenseBox(expense1, event, testImage, 500);
+        sut.showAllExpenseList(event, new ListView<>());
+        EventScreenCtrl.ExpenseCell cell = sut.new ExpenseCell(500);
+        cell.updateItem(expense1, false);
+        HBox result = (HBox) cell.getGraphic();
         ObservableList<Node> children = result.getChildren();
         HBox justExpense = (HBox)children.get(0);
         ObservableList<Node> children1 = justExpense.getChildren();
@@ -119,16 +132,19 @@ class EventScreenCtrlTest {
         assertEquals(textDescription.getValue(), expenseText.textProperty().getValue());
         assertEquals(tag1.getTagName(), tagLabel.textProperty().getValue());
         assertEquals(testImage, removeButton.getImage());
+
+        cell.updateItem(null, true);
+        assertNull(cell.getGraphic());
     }
 
     @Test
     void labelGenerationTest(){
-        ObservableValue<String> textDescription = stringToObservable("John paid 12\u20ac for Drinks (John, Jane)");
         Scene testScene = new Scene(new AnchorPane());
         doReturn(testScene).when(mainCtrl).getEventScene();
-        Label result = sut.generateExpenseLabel(expense1.getId(), textDescription);
+        ListCell<Expense> cell = new ListCell<>();
+        Label result = sut.generateExpenseLabel(cell);
 
-        assertEquals(textDescription.getValue(), result.textProperty().getValue());
+        assertTrue(result.isWrapText());
         result.onMouseEnteredProperty().get().handle(null);
         verify(mainCtrl).getEventScene();
     }
@@ -138,46 +154,63 @@ class EventScreenCtrlTest {
         Image testImage = new WritableImage(1,1);
         ImageView testImageView = new ImageView(testImage);
         doReturn(testImageView).when(imageUtils).generateImageView(testImage, 15);
-        var result = sut.generateRemoveButton(expense1.getId(), testImage);
+        var result = sut.generateRemoveButton(new ListCell<>(), testImage);
         assertEquals(testImage, result.getImage());
     }
 
     @Test
     void includingFilterTest(){
-        ObservableValue<String> textDescription = stringToObservable("John paid 12\u20ac for Drinks (John, Jane)");
-        Image testImage = new WritableImage(1,1);
-        ImageView testImageView = new ImageView(testImage);
-        doReturn(textDescription).when(stringUtils).generateTextForExpenseLabel(expense1, event.getParticipants().size());
-        doReturn(testImage).when(imageUtils).loadImageFile("x_remove.png");
-        doReturn(testImageView).when(imageUtils).generateImageView(testImage, 15);
-        ListView<HBox> testListView = new ListView<>();
+        ListView<Expense> testListView = new ListView<>();
 
         sut.includingFilter(event, testListView, participant1.getName());
-        ObservableList<HBox> items = testListView.getItems();
-        assertEquals(1, items.size());
-        HBox result = items.getFirst();
-        HBox expense = (HBox) result.getChildren().get(0);
-        Label expenseLabel = (Label) expense.getChildren().get(1);
-        assertEquals(textDescription.getValue(), expenseLabel.textProperty().getValue());
+        ObservableList<Expense> items = testListView.getItems();
+        assertEquals(List.of(expense1), items);
     }
 
     @Test
     void fromFilterTest(){
-        ObservableValue<String> textDescription = stringToObservable("Jane paid 20\u20ac for Drinks (Jane, Mike)");
-        Image testImage = new WritableImage(1,1);
-        ImageView testImageView = new ImageView(testImage);
-        doReturn(textDescription).when(stringUtils).generateTextForExpenseLabel(expense1, event.getParticipants().size());
-        doReturn(testImage).when(imageUtils).loadImageFile("x_remove.png");
-        doReturn(testImageView).when(imageUtils).generateImageView(testImage, 15);
-        ListView<HBox> testListView = new ListView<>();
-
-        sut.fromFilter(event, testListView, participant1.getName());
-        ObservableList<HBox> items = testListView.getItems();
-        assertEquals(1, items.size());
-        HBox result = items.getFirst();
-        HBox expense = (HBox) result.getChildren().get(0);
-        Label expenseLabel = (Label) expense.getChildren().get(1);
-        assertEquals(textDescription.getValue(), expenseLabel.textProperty().getValue());
+        ListView<Expense> testListView = new ListView<>();
+
+        sut.fromFilter(event, testListView, participant2.getName());
+        ObservableList<Expense> items = testListView.getItems();
+        assertEquals(List.of(expense2), items);
+    }
+
+    @Test
+    void fromFilterUnknownParticipantTest(){
+        ListView<Expense> testListView = new ListView<>();
+
+        sut.fromFilter(event, testListView, "Nobody");
+        assertTrue(testListView.getItems().isEmpty());
+    }
+
+    @Test
+    void showAllSortsNewestFirstTest(){
+        ListView<Expense> testListView = new ListView<>();
+
+        sut.showAllExpenseList(event, testListView);
+        assertEquals(List.of(expense2, expense1), testListView.getItems());
+    }
+
+    @Test
+    void updateExpenseItemsDiffTest(){
+        ListView<Expense> testListView = new ListView<>();
+        sut.showAllExpenseList(event, testListView);
+        Expense expense3 = new Expense(3, "Taxi", 30, new Date(3000), participant3);
+        expense3.addParticipantToExpense(participant4);
+        expense3.setExpenseTag(tag1);
+        event.addExpense(expense3);
+        Expense editedExpense2 = new Expense(2, "More food", 20, new Date(2024), participant2);
+        editedExpense2.addParticipantToExpense(participant2);
+        editedExpense2.setExpenseTag(tag2);
+        event.removeExpense(expense1);
+        event.removeExpense(expense2);
+        event.addExpense(editedExpense2);
+        expenseIndex.update(event);
+
+        sut.showAllExpenseList(event, testListView);
+        assertEquals(List.of(expense3, editedExpense2), testListView.getItems());
+        assertEquals("More food", testListView.getItems().get(1).getName());
     }
 
     @Test
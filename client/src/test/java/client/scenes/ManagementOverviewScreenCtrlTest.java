@@ -32,6 +32,7 @@ class ManagementOverviewScreenCtrlTest {
     private StringGenerationUtils stringUtils;
     private File file;
     private Styling styling;
+    private BackupUtils backupUtils;
     @BeforeEach
     public void setUp(){
         translation = mock(Translation.class);
@@ -43,8 +44,9 @@ class ManagementOverviewScreenCtrlTest {
         file = mock(File.class);
         styling = mock(Styling.class);
         stringUtils = mock(StringGenerationUtils.class);
+        backupUtils = mock(BackupUtils.class);
         managementOverviewScreenCtrl = new TestManagementOverviewScreenCtrl(server, mainCtrl, translation, utils,
-                imageUtils, stringUtils, styling);
+                imageUtils, stringUtils, styling, backupUtils);
         managementOverviewScreenCtrl.setObjectMapper(objectMapper);
     }
 
@@ -113,6 +115,8 @@ class ManagementOverviewScreenCtrlTest {
         managementOverviewScreenCtrl.setObjectMapper(objectMapper);
         managementOverviewScreenCtrl.importButtonClicked();
         assertTrue(managementOverviewScreenCtrl.bindings.contains("MOSCtrl.SuccessImport"));
+        verify(server).importEvent(event);
+        verify(server, never()).deleteEvent(anyString());
     }
 
 
@@ -130,8 +134,8 @@ class ManagementOverviewScreenCtrlTest {
          */
         public TestManagementOverviewScreenCtrl(ServerUtils server, MainCtrl mainCtrl, Translation translation,
                                                 ManagementOverviewUtils utils, ImageUtils imageUtils, StringGenerationUtils stringUtils,
-                                                Styling styling) {
-            super(server, mainCtrl, translation, utils, imageUtils, stringUtils, styling);
+                                                Styling styling, BackupUtils backupUtils) {
+            super(server, mainCtrl, translation, utils, imageUtils, stringUtils, styling, backupUtils);
             bindings = new ArrayList<>();
         }
 
@@ -8,13 +8,16 @@ import commons.Event;
 import commons.Expense;
 import commons.Participant;
 import commons.dto.EventDeletedDTO;
+import commons.dto.EventsDeletedDTO;
 import javafx.beans.property.SimpleStringProperty;
 import javafx.beans.property.StringProperty;
 import javafx.collections.FXCollections;
+import javafx.collections.ListChangeListener;
 import javafx.collections.ObservableList;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
 
@@ -95,10 +98,67 @@ public class ManagementOverviewScreenUtilsTest {
         assertEquals(events.size(), 2);
     }
 
+    @Test
+    public void editingMovesToSortedPosition(){
+        Event newE1 = new Event("Zoo trip", new Date(0));
+        ObservableList<Event> events = utils.getEvents();
+        List<ListChangeListener.Change<? extends Event>> changes = new ArrayList<>();
+        events.addListener((ListChangeListener<Event>) change -> changes.add(change));
+
+        utils.editEvent(newE1, e1.getId());
+        assertEquals(List.of(e2, e3, newE1), events);
+        assertEquals(1, changes.size());
+    }
+
+    @Test
+    public void deletionKeepsIndexConsistent(){
+        utils.onDeleteEvent(new EventDeletedDTO(e1.getId()));
+        assertEquals(List.of(e2, e3), utils.getEvents());
+        assertFalse(utils.checkIfDuplicate(e1.getId()));
+
+        Event newE3 = new Event("A party", new Date(2));
+        utils.editEvent(newE3, e3.getId());
+        assertEquals(List.of(newE3, e2), utils.getEvents());
+
+        utils.onDeleteEvent(new EventDeletedDTO(newE3.getId()));
+        utils.onDeleteEvent(new EventDeletedDTO(newE3.getId()));
+        assertEquals(List.of(e2), utils.getEvents());
+        assertTrue(utils.checkIfDuplicate(e2.getId()));
+    }
+
+    @Test
+    public void batchDeletionRemovesAllGivenEvents(){
+        utils.onDeleteEvents(new EventsDeletedDTO(List.of(e1.getId(), e3.getId(), "unknown"), false));
+        assertEquals(List.of(e2), utils.getEvents());
+        assertFalse(utils.checkIfDuplicate(e3.getId()));
+    }
+
+    @Test
+    public void deletionOfAllClearsEvents(){
+        utils.onDeleteEvents(new EventsDeletedDTO(List.of(), true));
+        assertTrue(utils.getEvents().isEmpty());
+        assertFalse(utils.checkIfDuplicate(e1.getId()));
+    }
+
+    @Test
+    public void creatingExistingEventKeepsOneCopy(){
+        utils.onCreateEvent(e2);
+        assertEquals(List.of(e2, e1, e3), utils.getEvents());
+    }
+
+    @Test
+    public void sortingInSameOrderKeepsList(){
+        utils.bindOrder(ascending);
+        List<ListChangeListener.Change<? extends Event>> changes = new ArrayList<>();
+        utils.getEvents().addListener((ListChangeListener<Event>) change -> changes.add(change));
+        utils.sortEventsSameOrder(title);
+        assertTrue(changes.isEmpty());
+    }
+
     @Test
     public void subscriptionTest(){
         utils.subscribeToUpdates();
-        verify(socketUtils, times(3)).registerForMessages(any(), any(), any());
+        verify(socketUtils, times(4)).registerForMessages(any(), any(), any());
     }
 
     /**
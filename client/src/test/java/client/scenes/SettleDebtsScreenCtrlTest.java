@@ -260,6 +260,28 @@ class SettleDebtsScreenCtrlTest {
         verify(settleUtils, never()).sendEmailTransferEmail(transfer);
     }
 
+    @Test
+    void sendAllEmailsTest(){
+        ObservableValue<String> text = stringToObservable("Text");
+        doReturn(text).when(translation).getStringBinding(anyString());
+        doReturn(text).when(settleUtils).getBankDetails(any());
+        doReturn(text).when(settleUtils).createTransferString(any());
+        doReturn(true).when(emailHandler).isConfigured();
+        Participant withoutEmail = new Participant("Charlie");
+        withoutEmail.setEmail("");
+        Participant participant3 = new Participant("Angel");
+        participant3.setEmail("angel@dust.com");
+        Transfer first = new Transfer(participant1, 333, participant2);
+        Transfer second = new Transfer(withoutEmail, 100, participant2);
+        Transfer third = new Transfer(participant3, 200, participant2);
+        doReturn(List.of(first, second, third)).when(settleUtils).calculateTransferInstructions(any());
+
+        sut.populateVBox(new VBox(), event);
+        sut.sendAllEmails();
+        verify(settleUtils).sendEmailTransferEmails(List.of(first, third));
+        verify(settleUtils, never()).sendEmailTransferEmail(any());
+    }
+
     @Test
     void switchToEventTest(){
         sut.switchToEventScreen();
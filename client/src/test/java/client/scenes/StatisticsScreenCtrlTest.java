@@ -172,6 +172,35 @@ class StatisticsScreenCtrlTest {
         assertEquals(2, children.size());
     }
 
+    @Test
+    void populationKeepsNodesTest(){
+        AnchorPane parent = new AnchorPane();
+        sut.populateParentPane(parent, testEvent);
+        List<Node> firstChildren = List.copyOf(parent.getChildren());
+        PieChart chart = (PieChart) firstChildren.stream().filter(node -> node instanceof PieChart)
+                .findFirst().orElseThrow();
+        List<PieChart.Data> firstSlices = List.copyOf(chart.getData());
+
+        expense2.setPriceInCents(750);
+        sut.populateParentPane(parent, testEvent);
+
+        assertEquals(firstChildren, parent.getChildren());
+        assertEquals(firstSlices, chart.getData());
+        PieChart.Data dataTag2 = chart.getData().stream()
+                .filter(data -> data.getName().contains(tag2.getTagName()))
+                .findFirst().orElseThrow();
+        assertEquals(750, (int) dataTag2.getPieValue());
+    }
+
+    @Test
+    void pieChartRemovesEmptyTagsTest(){
+        PieChart result = sut.generatePieChart(testEvent);
+        testEvent.removeExpense(expense2);
+        sut.updatePieChart(result, testEvent);
+        assertEquals(1, result.getData().size());
+        assertTrue(result.getData().get(0).getName().contains(tag1.getTagName()));
+    }
+
     @Test
     void bindingTest(){
         List<Label> labels = new LinkedList<>();
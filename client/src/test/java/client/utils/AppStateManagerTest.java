@@ -4,6 +4,7 @@ import client.scenes.StartupScreenCtrl;
 import commons.Event;
 import commons.dto.EventDeletedDTO;
 import commons.dto.EventNameChangeDTO;
+import commons.dto.EventsDeletedDTO;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -15,6 +16,7 @@ import org.springframework.messaging.simp.stomp.StompHeaders;
 import org.springframework.messaging.simp.stomp.StompSession;
 
 import java.util.HashMap;
+import java.util.List;
 import java.util.function.Consumer;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -224,4 +226,20 @@ class AppStateManagerTest {
         assertFalse(callbackCalledBack[0]);
         verify(testCtrl).removeFromHistoryIfExists(eventID);
     }
-}
\ No newline at end of file
+
+    @Test
+    void batchDeletionRemovesHistoryOfRelevantEvents() {
+        sut.addSubscription("AAAAAA");
+        sut.addSubscription("BBBBBB");
+        StartupScreenCtrl testCtrl = mock(StartupScreenCtrl.class);
+        sut.setStartupScreen(testCtrl);
+
+        sut.onDeletions(new EventsDeletedDTO(List.of("AAAAAA", "CCCCCC"), false));
+        verify(testCtrl).removeFromHistoryIfExists("AAAAAA");
+        verify(testCtrl, never()).removeFromHistoryIfExists("BBBBBB");
+        verify(testCtrl, never()).removeFromHistoryIfExists("CCCCCC");
+
+        sut.onDeletions(new EventsDeletedDTO(List.of(), true));
+        verify(testCtrl).removeFromHistoryIfExists("BBBBBB");
+    }
+}
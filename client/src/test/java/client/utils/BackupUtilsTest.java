@@ -0,0 +1,153 @@
+package client.utils;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import commons.Event;
+import commons.Participant;
+import jakarta.ws.rs.core.Response;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class BackupUtilsTest {
+    @TempDir
+    Path dir;
+    ServerUtils server;
+    BackupUtils sut;
+
+    @BeforeEach
+    void setUp() {
+        server = mock(ServerUtils.class);
+        sut = new BackupUtils(server, dir.toFile());
+    }
+
+    private static List<Event> events(int count, Date lastActivity) {
+        List<Event> events = new ArrayList<>();
+        for(int i = 0; i < count; i++) {
+            Event event = new Event("Event " + i, new Date(i));
+            event.addParticipant(new Participant(i + 1, "Participant " + i));
+            event.setLastActivity(lastActivity);
+            events.add(event);
+        }
+        return events;
+    }
+
+    private static List<String> ids(List<Event> events) {
+        return events.stream().map(Event::getId).toList();
+    }
+
+    private static InputStream json(List<Event> events) throws Exception {
+        ObjectMapper mapper = new ObjectMapper();
+        mapper.registerModule(new JavaTimeModule());
+        return new ByteArrayInputStream(mapper.writeValueAsBytes(events));
+    }
+
+    /***
+     * Lets the server respond with the given events, as a fresh stream on every request
+     */
+    private void serve(List<Event> events) {
+        Response response = mock(Response.class);
+        when(response.getStatus()).thenReturn(200);
+        when(response.getLength()).thenReturn(-1);
+        when(response.readEntity(InputStream.class)).thenAnswer(invocation -> json(events));
+        when(server.retrieveAllEventsAsStream()).thenReturn(response);
+    }
+
+    /***
+     * Does a backup followed by a restore give back all events, in order?
+     */
+    @Test
+    void backupAndRestore() throws Exception {
+        List<Event> events = events(200, new Date(0));
+        serve(events);
+        List<Double> progress = Collections.synchronizedList(new ArrayList<>());
+        BackupUtils.Archive archive = sut.backup(false, progress::add).get(10, TimeUnit.SECONDS);
+
+        assertTrue(archive.full());
+        assertTrue(archive.file().exists());
+        assertEquals(1.0, progress.get(progress.size() - 1));
+        assertFalse(new File(dir.toFile(), archive.file().getName() + ".tmp").exists());
+
+        List<Event> restored = new ArrayList<>();
+        int count = sut.restore(restored::add, p -> {}).get(10, TimeUnit.SECONDS);
+        assertEquals(200, count);
+        assertEquals(ids(events), ids(restored));
+        assertEquals("Participant 7", restored.get(7).getParticipants().iterator().next().getName());
+    }
+
+    /***
+     * Does an incremental backup only contain the events active since the previous backup,
+     * and does a restore apply it after the full backup?
+     */
+    @Test
+    void incrementalBackup() throws Exception {
+        List<Event> events = events(5, new Date(0));
+        serve(events);
+        sut.backup(true, p -> {}).get(10, TimeUnit.SECONDS);
+
+        Event changed = events.get(3);
+        changed.setTitle("Renamed");
+        changed.setLastActivity(new Date(System.currentTimeMillis() + 60000));
+        BackupUtils.Archive archive = sut.backup(true, p -> {}).get(10, TimeUnit.SECONDS);
+        assertFalse(archive.full());
+
+        List<Event> restored = new ArrayList<>();
+        assertEquals(6, sut.restore(restored::add, p -> {}).get(10, TimeUnit.SECONDS));
+        assertEquals(changed.getId(), restored.get(5).getId());
+        assertEquals("Renamed", restored.get(5).getTitle());
+    }
+
+    /***
+     * Does a restore leave out the events deleted after the full backup?
+     */
+    @Test
+    void incrementalBackupRecordsDeletions() throws Exception {
+        List<Event> events = new ArrayList<>(events(5, new Date(0)));
+        serve(events);
+        sut.backup(true, p -> {}).get(10, TimeUnit.SECONDS);
+
+        Event deleted = events.remove(2);
+        serve(events);
+        sut.backup(true, p -> {}).get(10, TimeUnit.SECONDS);
+
+        List<Event> restored = new ArrayList<>();
+        assertEquals(4, sut.restore(restored::add, p -> {}).get(10, TimeUnit.SECONDS));
+        assertFalse(ids(restored).contains(deleted.getId()));
+        assertEquals(ids(events), ids(restored));
+    }
+
+    /***
+     * Does a restore start from the latest full backup?
+     */
+    @Test
+    void restoreChainStartsAtLatestFullBackup() throws Exception {
+        File dirFile = dir.toFile();
+        sut.write(json(events(1, new Date(0))), -1, null, new File(dirFile, "backup-100-full.json.gz"), p -> {});
+        sut.write(json(events(1, new Date(0))), -1, null, new File(dirFile, "backup-200-incremental.json.gz"), p -> {});
+        sut.write(json(events(2, new Date(0))), -1, null, new File(dirFile, "backup-300-full.json.gz"), p -> {});
+        sut.write(json(events(1, new Date(0))), -1, null, new File(dirFile, "backup-400-incremental.json.gz"), p -> {});
+
+        assertEquals(List.of(300L, 400L), sut.restoreChain().stream().map(BackupUtils.Archive::time).toList());
+        assertEquals(4, sut.listArchives().size());
+    }
+
+    /***
+     * Does a restore without a full backup fail?
+     */
+    @Test
+    void restoreWithoutBackup() {
+        var result = sut.restore(event -> {}, p -> {});
+        assertThrows(ExecutionException.class, () -> result.get(10, TimeUnit.SECONDS));
+    }
+}
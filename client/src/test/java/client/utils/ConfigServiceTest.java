@@ -0,0 +1,71 @@
+package client.utils;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConfigServiceTest {
+    @TempDir
+    Path dir;
+    Path file;
+    ConfigService sut;
+
+    @BeforeEach
+    void setUp() {
+        file = dir.resolve("splitty.properties");
+        sut = new ConfigService(new ConfigUtils().getDefault(), file);
+    }
+
+    /***
+     * Are the typed settings read from the parsed configuration?
+     */
+    @Test
+    void typedSettings() {
+        assertEquals(ConfigUtils.DEFAULT_PROPS_SERVER_URL, sut.getServerUrl());
+        assertEquals(ConfigUtils.DEFAULT_PROPS_LANGUAGE, sut.getLanguage());
+        assertEquals("", sut.getMailSettings().host());
+        assertTrue(sut.getMailSettings().auth());
+    }
+
+    /***
+     * Does a change notify listeners and end up in the config file, without leaving a temporary file?
+     */
+    @Test
+    void changeIsObservableAndPersisted() throws IOException {
+        List<String> changes = new ArrayList<>();
+        sut.languageProperty().addListener((observable, oldValue, newValue) -> changes.add(newValue));
+        sut.setLanguage("nl_NL").join();
+
+        assertEquals(List.of("nl_NL"), changes);
+        Properties written = new Properties();
+        try(Reader reader = Files.newBufferedReader(file)) {
+            written.load(reader);
+        }
+        assertEquals("nl_NL", written.getProperty("client.language"));
+        assertEquals(ConfigUtils.DEFAULT_PROPS_SERVER_URL, written.getProperty("connection.URL"));
+        assertFalse(Files.exists(dir.resolve("splitty.properties.tmp")));
+    }
+
+    /***
+     * Are new SMTP settings stored under the keys the email handler reads?
+     */
+    @Test
+    void mailSettings() {
+        sut.setMailSettings(new ConfigService.MailSettings("smtp.example.com", "587", "user", "secret",
+                true, false)).join();
+        Properties properties = sut.getProperties();
+        assertEquals("smtp.example.com", properties.getProperty("spring.mail.host"));
+        assertEquals("false", properties.getProperty("spring.mail.properties.mail.smtp.starttls.enable"));
+        assertEquals("587", sut.getMailSettings().port());
+    }
+}
@@ -17,12 +17,12 @@ class EmailHandlerTest {
     private Properties properties;
     private EmailHandler emailHandler;
     private JavaMailSender javaMailSender;
-    private ConfigUtils configUtils;
+    private ConfigService configService;
     @BeforeEach
     void setUp() {
         properties = mock(Properties.class);
         javaMailSender = mock(JavaMailSender.class);
-        configUtils = mock(ConfigUtils.class);
+        configService = mock(ConfigService.class);
         emailHandler = new EmailHandler(javaMailSender);
         when(properties.getProperty("spring.mail.host")).thenReturn("smtp.gmail.com");
         when(properties.getProperty("spring.mail.port")).thenReturn("587");
@@ -100,10 +100,8 @@ class EmailHandlerTest {
     @Test
     void getInviteText() {
         Event testEvent = new Event("Test Event", null);
-        Properties properties = mock(Properties.class);
-        emailHandler.setConfigUtils(configUtils);
-        when(this.configUtils.easyLoadProperties()).thenReturn(properties);
-        when(properties.getProperty("connection.URL")).thenReturn("localhost:8080");
+        emailHandler.setConfigService(configService);
+        when(configService.getServerUrl()).thenReturn("localhost:8080");
         String returned = emailHandler.getInviteText(testEvent);
         String expected = String.format("You have been invited to event %s" +
                 " with the invitation code of %s!" +
@@ -0,0 +1,116 @@
+package client.utils;
+
+import commons.Event;
+import commons.Expense;
+import commons.Participant;
+import commons.Tag;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ExpenseIndexTest {
+    ExpenseIndex sut;
+    Event event;
+    Participant participant1;
+    Participant participant2;
+    Tag tag;
+    Expense expense1;
+    Expense expense2;
+
+    @BeforeEach
+    void setup(){
+        sut = new ExpenseIndex();
+        participant1 = new Participant(1, "John");
+        participant2 = new Participant(2, "Jane");
+        tag = new Tag("Food!", "#FFFFFF");
+        event = new Event("Title", null);
+        event.addParticipant(participant1);
+        event.addParticipant(participant2);
+        expense1 = new Expense(1, "Drinks", 12, new Date(), participant1);
+        expense1.addParticipantToExpense(participant1);
+        expense1.addParticipantToExpense(participant2);
+        expense1.setExpenseTag(tag);
+        expense2 = new Expense(2, "Food", 20, new Date(), participant2);
+        expense2.addParticipantToExpense(participant2);
+        event.addExpense(expense1);
+        event.addExpense(expense2);
+        sut.update(event);
+    }
+
+    /***
+     * The index is built on the first update
+     */
+    @Test
+    void buildTest(){
+        assertEquals(2, sut.getAll().size());
+        assertEquals(List.of(expense1), List.copyOf(sut.getPaidBy(1)));
+        assertEquals(Set.of(expense1, expense2), Set.copyOf(sut.getIncluding(2)));
+        assertEquals(List.of(expense1), List.copyOf(sut.getByTag(tag.getId())));
+        assertEquals(participant2, sut.getParticipantByName("Jane"));
+        assertNull(sut.getParticipantByName("Nobody"));
+    }
+
+    /***
+     * Changed and removed expenses are moved out of the buckets they no longer belong to
+     */
+    @Test
+    void incrementalUpdateTest(){
+        Expense edited = new Expense(2, "Food", 20, new Date(), participant1);
+        edited.addParticipantToExpense(participant1);
+        event.removeExpense(expense2);
+        event.removeExpense(expense1);
+        event.addExpense(edited);
+        sut.update(event);
+
+        assertEquals(List.of(edited), List.copyOf(sut.getAll()));
+        assertEquals(List.of(edited), List.copyOf(sut.getPaidBy(1)));
+        assertTrue(sut.getPaidBy(2).isEmpty());
+        assertTrue(sut.getIncluding(2).isEmpty());
+        assertTrue(sut.getByTag(tag.getId()).isEmpty());
+    }
+
+    /***
+     * A local removal only affects the removed expense
+     */
+    @Test
+    void removeExpenseTest(){
+        sut.removeExpense(1);
+        assertNull(sut.getExpense(1));
+        assertEquals(List.of(expense2), List.copyOf(sut.getIncluding(2)));
+        assertTrue(sut.getPaidBy(1).isEmpty());
+    }
+
+    /***
+     * A locally edited expense is moved to its new buckets without a new snapshot of the event
+     */
+    @Test
+    void putExpenseTest(){
+        Expense edited = new Expense(2, "Food", 20, new Date(), participant1);
+        edited.addParticipantToExpense(participant1);
+        edited.setExpenseTag(tag);
+        sut.putExpense(edited);
+
+        assertEquals(edited, sut.getExpense(2));
+        assertEquals(Set.of(expense1, edited), Set.copyOf(sut.getPaidBy(1)));
+        assertTrue(sut.getPaidBy(2).isEmpty());
+        assertEquals(List.of(expense1), List.copyOf(sut.getIncluding(2)));
+        assertEquals(Set.of(expense1, edited), Set.copyOf(sut.getByTag(tag.getId())));
+        assertEquals(2, sut.getAll().size());
+    }
+
+    /***
+     * Loading another event replaces the whole index
+     */
+    @Test
+    void otherEventTest(){
+        Event other = new Event("Other", null);
+        sut.update(other);
+        assertTrue(sut.getAll().isEmpty());
+        assertNull(sut.getParticipantByName("John"));
+    }
+}
@@ -0,0 +1,70 @@
+package client.utils;
+
+import javafx.scene.image.Image;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.testfx.framework.junit5.ApplicationExtension;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(ApplicationExtension.class)
+class ImageUtilsTest {
+    private ImageUtils imageUtils;
+
+    @BeforeAll
+    static void testFXSetup(){
+        System.setProperty("testfx.robot", "glass");
+        System.setProperty("testfx.headless", "true");
+        System.setProperty("glass.platform", "Monocle");
+        System.setProperty("monocle.platform", "Headless");
+        System.setProperty("prism.order", "sw");
+    }
+
+    @BeforeEach
+    void setUp() {
+        imageUtils = new ImageUtils();
+    }
+
+    @Test
+    void loadsFromClasspathAndCaches() {
+        Image image = imageUtils.loadImageFile("x_remove.png");
+        assertNotNull(image);
+        assertFalse(image.isError());
+        assertSame(image, imageUtils.loadImageFile("x_remove.png"));
+    }
+
+    @Test
+    void scaledVariantIsCachedSeparately() {
+        Image original = imageUtils.loadImageFile("goBack.png");
+        Image scaled = imageUtils.loadImageFile("goBack.png", 15);
+        assertNotSame(original, scaled);
+        assertTrue(scaled.getWidth() <= 15 && scaled.getHeight() <= 15);
+        assertSame(scaled, imageUtils.loadImageFile("goBack.png", 15));
+    }
+
+    @Test
+    void missingImageIsNull() {
+        assertNull(imageUtils.loadImageFile("does-not-exist.png"));
+        assertNull(imageUtils.generateImageView("does-not-exist.png", 15).getImage());
+    }
+
+    @Test
+    void warmUpFillsCache() {
+        ImageUtils spied = spy(new ImageUtils());
+        spied.warmUp(List.of("editing.png"), 15).join();
+        verify(spied).decode("editing.png", 0);
+        verify(spied).decode("editing.png", 15);
+        clearInvocations(spied);
+
+        assertNotNull(spied.loadImageFile("editing.png"));
+        assertNotNull(spied.loadImageFile("editing.png", 15));
+        verify(spied, never()).decode(anyString(), anyInt());
+    }
+}
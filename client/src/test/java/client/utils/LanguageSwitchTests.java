@@ -21,7 +21,7 @@ public class LanguageSwitchTests {
     @BeforeEach
     public void setup() {
         this.dir = mock(File.class);
-        utils = new LanguageSwitchUtils(dir);
+        utils = new LanguageSwitchUtils(new LocaleRegistry(dir));
     }
 
     /**
@@ -0,0 +1,98 @@
+package client.utils;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LocaleRegistryTest {
+    @TempDir
+    Path dir;
+    LocaleRegistry sut;
+    Locale english = Locale.of("en", "GB");
+
+    @BeforeEach
+    void setUp() throws IOException {
+        Files.writeString(dir.resolve("en_GB.properties"), "key=value\n");
+        Files.writeString(dir.resolve("nl_NL.properties"), "key=\n");
+        Files.writeString(dir.resolve(LocaleRegistry.TEMPLATE_FILE), "key=\n");
+        sut = new LocaleRegistry(dir.toFile());
+    }
+
+    /**
+     * Language files are listed, without the template
+     */
+    @Test
+    void availableLocalesTest() {
+        assertEquals(2, sut.getAvailableLocales().size());
+        assertTrue(sut.getAvailableLocales().containsAll(List.of(english, Locale.of("nl", "NL"))));
+    }
+
+    /**
+     * A language is read from disk once and then served from memory
+     */
+    @Test
+    void cachedResourcesTest() throws IOException {
+        Map<String, String> resources = sut.getResources(english);
+        assertEquals("value", resources.get("key"));
+        Files.writeString(dir.resolve("en_GB.properties"), "key=changed\n");
+        assertSame(resources, sut.getResources(english));
+    }
+
+    /**
+     * Missing languages are reported, incomplete ones can be detected
+     */
+    @Test
+    void missingAndIncompleteTest() throws IOException {
+        assertThrows(IOException.class, () -> sut.getResources(Locale.of("de", "DE")));
+        assertTrue(LocaleRegistry.isComplete(sut.getResources(english)));
+        assertFalse(LocaleRegistry.isComplete(sut.getResources(Locale.of("nl", "NL"))));
+    }
+
+    /**
+     * Preloading puts every language in memory
+     */
+    @Test
+    void preloadTest() throws IOException {
+        sut.preloadAll().join();
+        Files.delete(dir.resolve("en_GB.properties"));
+        assertEquals("value", sut.getResources(english).get("key"));
+    }
+
+    /**
+     * Preloading reports the keys of the base language that a language file lacks
+     */
+    @Test
+    void preloadValidatesTest() throws IOException {
+        Files.writeString(dir.resolve("en_GB.properties"), "key=value\nother=value\n");
+        Files.writeString(dir.resolve("ro_RO.properties"), "key=valoare\nother=alta\n");
+        Map<Locale, Set<String>> missing = sut.preloadAll().join();
+        assertEquals(Map.of(Locale.of("nl", "NL"), Set.of("other")), missing);
+        assertEquals(Set.of("other"), LocaleRegistry.findMissingKeys(sut.getResources(english),
+                sut.getResources(Locale.of("nl", "NL"))));
+    }
+
+    /**
+     * An edited file is reloaded and the listeners are told about it
+     */
+    @Test
+    void fileChangedTest() throws IOException {
+        sut.getResources(english);
+        List<Locale> reloaded = new ArrayList<>();
+        sut.addReloadListener(reloaded::add);
+        Files.writeString(dir.resolve("en_GB.properties"), "key=changed\n");
+        sut.onFileChanged(english);
+        assertEquals("changed", sut.getResources(english).get("key"));
+        assertEquals(List.of(english), reloaded);
+    }
+}
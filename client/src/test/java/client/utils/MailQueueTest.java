@@ -0,0 +1,257 @@
+package client.utils;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mail.MailAuthenticationException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+
+import java.io.*;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class MailQueueTest {
+    private EmailHandler emailHandler;
+    private List<List<String>> batches;
+
+    @BeforeEach
+    void setUp() {
+        emailHandler = mock(EmailHandler.class);
+        batches = Collections.synchronizedList(new ArrayList<>());
+        when(emailHandler.createEmail(any(), any(), any())).thenAnswer(invocation -> email(invocation.getArgument(0)));
+    }
+
+    private static SimpleMailMessage email(String to) {
+        SimpleMailMessage message = new SimpleMailMessage();
+        message.setTo(to);
+        message.setSubject("Payment Request");
+        message.setText("Please pay");
+        return message;
+    }
+
+    private static List<SimpleMailMessage> emails(int count) {
+        List<SimpleMailMessage> emails = new ArrayList<>();
+        for(int i = 0; i < count; i++) {
+            emails.add(email("user" + i + "@test.com"));
+        }
+        return emails;
+    }
+
+    private void recordBatches() {
+        doAnswer(invocation -> {
+            batches.add(recipients(invocation.getArguments()));
+            return null;
+        }).when(emailHandler).sendEmails(any(SimpleMailMessage[].class));
+    }
+
+    private static List<String> recipients(Object[] messages) {
+        return Arrays.stream(messages).map(m -> ((SimpleMailMessage) m).getTo()[0]).toList();
+    }
+
+    @Test
+    void sendsInBatches() throws Exception {
+        recordBatches();
+        MailQueue queue = new MailQueue(emailHandler, 4, 20, 0, 3, 1);
+        MailQueue.Result result = queue.submit(emails(45)).get(5, TimeUnit.SECONDS);
+        assertTrue(result.isSuccess());
+        assertEquals(45, result.sent());
+        assertEquals(List.of(20, 20, 5), batches.stream().map(List::size).toList());
+    }
+
+    @Test
+    void submitSingleEmail() throws Exception {
+        recordBatches();
+        MailQueue queue = new MailQueue(emailHandler, 4, 20, 0, 3, 1);
+        MailQueue.Result result = queue.submit("joe@test.com", "Invited", "text").get(5, TimeUnit.SECONDS);
+        assertEquals(new MailQueue.Result(1, List.of()), result);
+        assertEquals(List.of(List.of("joe@test.com")), batches);
+    }
+
+    @Test
+    void retriesOnlyRejectedEmails() throws Exception {
+        List<SimpleMailMessage> emails = emails(3);
+        AtomicInteger calls = new AtomicInteger();
+        doAnswer(invocation -> {
+            batches.add(recipients(invocation.getArguments()));
+            if(calls.getAndIncrement() == 0) {
+                throw new MailSendException(Map.of(emails.get(1), new Exception("451 try again later")));
+            }
+            return null;
+        }).when(emailHandler).sendEmails(any(SimpleMailMessage[].class));
+        MailQueue queue = new MailQueue(emailHandler, 4, 20, 0, 3, 1);
+        MailQueue.Result result = queue.submit(emails).get(5, TimeUnit.SECONDS);
+        assertTrue(result.isSuccess());
+        assertEquals(3, result.sent());
+        assertEquals(List.of(recipients(emails.toArray()), List.of("user1@test.com")), batches);
+    }
+
+    @Test
+    void givesUpAfterMaxAttempts() throws Exception {
+        doThrow(new MailSendException("connection refused"))
+                .when(emailHandler).sendEmails(any(SimpleMailMessage[].class));
+        MailQueue queue = new MailQueue(emailHandler, 4, 20, 0, 3, 1);
+        MailQueue.Result result = queue.submit(emails(2)).get(5, TimeUnit.SECONDS);
+        assertFalse(result.isSuccess());
+        assertEquals(0, result.sent());
+        assertEquals(List.of("user0@test.com", "user1@test.com"), result.failedRecipients());
+        verify(emailHandler, times(3)).sendEmails(any(SimpleMailMessage[].class));
+    }
+
+    @Test
+    void authenticationFailureNotRetried() throws Exception {
+        doThrow(new MailAuthenticationException("bad password"))
+                .when(emailHandler).sendEmails(any(SimpleMailMessage[].class));
+        MailQueue queue = new MailQueue(emailHandler, 4, 20, 0, 3, 1);
+        MailQueue.Result result = queue.submit(emails(2)).get(5, TimeUnit.SECONDS);
+        assertEquals(2, result.failedRecipients().size());
+        verify(emailHandler, times(1)).sendEmails(any(SimpleMailMessage[].class));
+    }
+
+    @Test
+    void rejectsWhenQueueIsFull() throws Exception {
+        CountDownLatch sending = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            sending.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return null;
+        }).when(emailHandler).sendEmails(any(SimpleMailMessage[].class));
+        MailQueue queue = new MailQueue(emailHandler, 1, 20, 0, 3, 1);
+        CompletableFuture<MailQueue.Result> first = queue.submit(emails(1));
+        assertTrue(sending.await(5, TimeUnit.SECONDS));
+        CompletableFuture<MailQueue.Result> second = queue.submit(emails(1));
+        CompletableFuture<MailQueue.Result> third = queue.submit(List.of(email("late@test.com")));
+
+        assertTrue(third.isDone());
+        assertEquals(new MailQueue.Result(0, List.of("late@test.com")), third.get());
+        release.countDown();
+        assertTrue(first.get(5, TimeUnit.SECONDS).isSuccess());
+        assertTrue(second.get(5, TimeUnit.SECONDS).isSuccess());
+    }
+
+    @Test
+    void limitsSendingRate() throws Exception {
+        recordBatches();
+        MailQueue queue = new MailQueue(emailHandler, 4, 5, 100, 3, 1);
+        long start = System.nanoTime();
+        queue.submit(emails(20)).get(5, TimeUnit.SECONDS);
+        long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        // the first batch of 5 goes out at once, the other three wait 50ms each
+        assertTrue(elapsed >= 140, "sent 20 emails in " + elapsed + "ms");
+        assertEquals(4, batches.size());
+    }
+
+    @Test
+    void sendsBatchOverOneSmtpConnection() throws Exception {
+        try(FakeSmtpServer server = new FakeSmtpServer()) {
+            JavaMailSenderImpl sender = new JavaMailSenderImpl();
+            sender.setHost("localhost");
+            sender.setPort(server.getPort());
+            EmailHandler handler = new EmailHandler(sender);
+            Properties properties = new Properties();
+            properties.setProperty("spring.mail.host", "localhost");
+            properties.setProperty("spring.mail.port", String.valueOf(server.getPort()));
+            properties.setProperty("spring.mail.username", "splitty@test.com");
+            properties.setProperty("spring.mail.password", "password");
+            handler.readProperties(properties);
+
+            List<SimpleMailMessage> emails = new ArrayList<>();
+            for(int i = 0; i < 100; i++) {
+                emails.add(handler.createEmail("user" + i + "@test.com", "Payment Request", "Please pay"));
+            }
+            MailQueue queue = new MailQueue(handler, 4, 50, 0, 3, 1);
+            MailQueue.Result result = queue.submit(emails).get(30, TimeUnit.SECONDS);
+
+            assertTrue(result.isSuccess());
+            assertEquals(100, server.getMessages());
+            assertEquals(2, server.getConnections());
+        }
+    }
+
+    /***
+     * A minimal SMTP server accepting every email, counting connections and received emails
+     */
+    private static class FakeSmtpServer implements Closeable {
+        private final ServerSocket socket;
+        private final AtomicInteger connections = new AtomicInteger();
+        private final AtomicInteger messages = new AtomicInteger();
+
+        FakeSmtpServer() throws IOException {
+            socket = new ServerSocket(0);
+            Thread thread = new Thread(this::accept, "fake-smtp");
+            thread.setDaemon(true);
+            thread.start();
+        }
+
+        int getPort() {
+            return socket.getLocalPort();
+        }
+
+        int getConnections() {
+            return connections.get();
+        }
+
+        int getMessages() {
+            return messages.get();
+        }
+
+        private void accept() {
+            while(!socket.isClosed()) {
+                try(Socket client = socket.accept()) {
+                    connections.incrementAndGet();
+                    serve(client);
+                } catch (IOException e) {
+                    // closed
+                }
+            }
+        }
+
+        private void serve(Socket client) throws IOException {
+            BufferedReader in = new BufferedReader(new InputStreamReader(client.getInputStream(), StandardCharsets.US_ASCII));
+            Writer out = new OutputStreamWriter(client.getOutputStream(), StandardCharsets.US_ASCII);
+            reply(out, "220 localhost");
+            String line;
+            while((line = in.readLine()) != null) {
+                String command = line.length() < 4 ? line.toUpperCase() : line.substring(0, 4).toUpperCase();
+                switch(command) {
+                    case "EHLO", "HELO", "MAIL", "RCPT", "RSET", "NOOP" -> reply(out, "250 OK");
+                    case "DATA" -> {
+                        reply(out, "354 End data with <CR><LF>.<CR><LF>");
+                        while((line = in.readLine()) != null && !line.equals(".")) {
+                            // skip the content
+                        }
+                        messages.incrementAndGet();
+                        reply(out, "250 OK");
+                    }
+                    case "QUIT" -> {
+                        reply(out, "221 Bye");
+                        return;
+                    }
+                    default -> reply(out, "502 Command not implemented");
+                }
+            }
+        }
+
+        private static void reply(Writer out, String line) throws IOException {
+            out.write(line + "\r\n");
+            out.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            socket.close();
+        }
+    }
+}
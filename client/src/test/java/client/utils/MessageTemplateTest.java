@@ -0,0 +1,51 @@
+package client.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MessageTemplateTest {
+    private static MessageTemplate compile(String template) {
+        return MessageTemplate.compile(template, "{{", "}}");
+    }
+
+    /***
+     * Are all placeholders replaced, including adjacent ones and ones at the edges?
+     */
+    @Test
+    void rendersPlaceholders() {
+        MessageTemplate template = compile("{{payer}} paid {{amount}}{{currency}} for {{title}}");
+        Map<String, String> values = Map.of("payer", "John", "amount", "12", "currency", "\u20ac", "title", "Drinks");
+        assertEquals("John paid 12\u20ac for Drinks", template.render(values));
+    }
+
+    /***
+     * Is a template without placeholders returned unchanged?
+     */
+    @Test
+    void plainText() {
+        assertEquals("Hello", compile("Hello").render(Map.of()));
+        assertEquals("", compile("").render(Map.of()));
+    }
+
+    /***
+     * Are placeholders without a value and unclosed placeholders kept as-is?
+     */
+    @Test
+    void missingValuesAreKept() {
+        assertEquals("A: {{unknown}}", compile("A: {{unknown}}").render(Map.of()));
+        assertEquals("A: x {{open", compile("A: {{v}} {{open").render(Map.of("v", "x")));
+    }
+
+    /***
+     * Can a compiled template be rendered repeatedly with different values?
+     */
+    @Test
+    void reusable() {
+        MessageTemplate template = compile("B: {{subValue}}");
+        assertEquals("B: 1", template.render(Map.of("subValue", "1")));
+        assertEquals("B: 2", template.render(Map.of("subValue", "2")));
+    }
+}
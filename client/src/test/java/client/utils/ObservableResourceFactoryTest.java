@@ -6,6 +6,7 @@ import org.junit.jupiter.api.Test;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -107,4 +108,28 @@ class ObservableResourceFactoryTest {
         assertEquals("A: ABC123!", valueBefore);
         assertEquals("B: ABC123!", valueAfter);
     }
-}
\ No newline at end of file
+
+    /***
+     * Is the same binding shared between callers asking for the same key?
+     */
+    @Test
+    void sharedBindingPerKey() {
+        assertSame(sut.getStringBinding("keyA"), sut.getStringBinding("keyA"));
+        assertNotSame(sut.getStringBinding("keyA"), sut.getStringBinding("subKeyA"));
+    }
+
+    /***
+     * Does a language switch invalidate a binding only once, regardless of the number of keys?
+     */
+    @Test
+    void singleInvalidationPerSwitch() {
+        sut.setResources(testMapA);
+        StringBinding binding = sut.getStringBinding("keyA");
+        binding.getValue();
+        AtomicInteger invalidations = new AtomicInteger();
+        binding.addListener(observable -> invalidations.incrementAndGet());
+        sut.setResources(testMapB);
+        binding.getValue();
+        assertEquals(1, invalidations.get());
+    }
+}
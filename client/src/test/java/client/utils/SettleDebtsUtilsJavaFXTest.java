@@ -10,10 +10,13 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.testfx.framework.junit5.ApplicationExtension;
 
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CountDownLatch;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.Mockito.*;
 import static org.mockito.Mockito.times;
 
@@ -29,6 +32,8 @@ public class SettleDebtsUtilsJavaFXTest {
     TransferMoneyUtils transferUtils;
     @Mock
     EmailHandler emailHandler;
+    @Mock
+    MailQueue mailQueue;
 
     @BeforeAll
     static void testFXSetup(){
@@ -69,7 +74,8 @@ public class SettleDebtsUtilsJavaFXTest {
 
     @Test
     void sendEmailTransferTestSuccess(){
-        when(emailHandler.sendEmail(any(), any(), any())).thenReturn(true);
+        when(mailQueue.submit(anyList()))
+                .thenReturn(CompletableFuture.completedFuture(new MailQueue.Result(1, List.of())));
         Participant sender = new Participant("Sender");
         Participant receiver = new Participant("Receiver");
         Transfer t = new Transfer(sender, 10,receiver);
@@ -80,7 +86,8 @@ public class SettleDebtsUtilsJavaFXTest {
 
     @Test
     void sendEmailTransferTestFail(){
-        when(emailHandler.sendEmail(any(), any(), any())).thenReturn(false);
+        when(mailQueue.submit(anyList()))
+                .thenReturn(CompletableFuture.completedFuture(new MailQueue.Result(0, List.of("sender@test.com"))));
         Participant sender = new Participant("Sender");
         Participant receiver = new Participant("Receiver");
         Transfer t = new Transfer(sender, 10,receiver);
@@ -89,6 +96,21 @@ public class SettleDebtsUtilsJavaFXTest {
         verify(emailHandler, times(1)).showFailPrompt();
     }
 
+    @Test
+    void sendEmailTransferEmailsSinglePromptTest(){
+        when(mailQueue.submit(anyList()))
+                .thenReturn(CompletableFuture.completedFuture(new MailQueue.Result(3, List.of())));
+        Participant receiver = new Participant("Receiver");
+        List<Transfer> transfers = List.of(new Transfer(new Participant("A"), 10, receiver),
+                new Transfer(new Participant("B"), 20, receiver),
+                new Transfer(new Participant("C"), 30, receiver));
+        sut.sendEmailTransferEmails(transfers);
+        waitForJavaFX();
+        verify(emailHandler, times(3)).createEmail(any(), eq("Payment Request"), any());
+        verify(mailQueue, times(1)).submit(anyList());
+        verify(emailHandler, times(1)).showSuccessPrompt();
+    }
+
     private void waitForJavaFX() {
         final CountDownLatch latch = new CountDownLatch(1);
         Platform.runLater(latch::countDown);
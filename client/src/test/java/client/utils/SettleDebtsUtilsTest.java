@@ -34,6 +34,8 @@ class SettleDebtsUtilsTest {
     TransferMoneyUtils transferUtils;
     @Mock
     EmailHandler emailHandler;
+    @Mock
+    MailQueue mailQueue;
 
     Participant participant1;
     Participant participant2;
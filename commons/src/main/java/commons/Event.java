@@ -21,12 +21,24 @@ public class Event{
     private String title;
     private Date creationDate;
     private Date lastActivity;
+    // Join tables are named explicitly, as the bulk statements on the server refer to them
     @OneToMany(cascade = CascadeType.ALL, orphanRemoval = true)
+    @JoinTable(name = "event_participants",
+            joinColumns = @JoinColumn(name = "event_id"),
+            inverseJoinColumns = @JoinColumn(name = "participants_id"))
     private Set<Participant> participants;
     @OneToMany(cascade = CascadeType.ALL, orphanRemoval = true)
+    @JoinTable(name = "event_expenses",
+            joinColumns = @JoinColumn(name = "event_id"),
+            inverseJoinColumns = @JoinColumn(name = "expenses_id"))
     private Set<Expense> expenses;
-    @OneToMany(cascade = CascadeType.ALL, orphanRemoval = true)
+    // Shared between events for the tags of the system catalog, the other tags are deleted by the server
+    @ManyToMany(cascade = {CascadeType.PERSIST, CascadeType.MERGE})
+    @JoinTable(name = "event_event_tags",
+            joinColumns = @JoinColumn(name = "event_id"),
+            inverseJoinColumns = @JoinColumn(name = "event_tags_id"))
     private Set<Tag> eventTags;
+    private transient EventIndex index;
 
 
     /***
@@ -41,10 +53,20 @@ public class Event{
      * @param creationDate Event creation date
      */
     public Event(String title, Date creationDate) {
+        this(generateId(), title, creationDate);
+    }
+
+    /***
+     * Constructor with a known ID, title and date, e.g. an ID reserved by the server as unique
+     * @param id Event ID
+     * @param title Event title
+     * @param creationDate Event creation date
+     */
+    public Event(String id, String title, Date creationDate) {
         this.title = title;
         this.participants = new HashSet<>();
         this.expenses = new HashSet<>();
-        this.id = generateId();
+        this.id = id;
         this.creationDate = creationDate;
         this.lastActivity = new Date();
         this.eventTags = new HashSet<>();
@@ -228,6 +250,10 @@ public class Event{
      */
     public void addParticipant(Participant participant){
         participants.add(participant);
+        if(index != null) {
+            if(participant.getId() == 0) index = null;
+            else index.addParticipant(participant);
+        }
         this.lastActivity = new Date();
     }
 
@@ -237,6 +263,7 @@ public class Event{
      */
     public void removeParticipant(Participant participant){
         participants.remove(participant);
+        if(index != null) index.removeParticipant(participant);
         this.lastActivity = new Date();
     }
 
@@ -254,6 +281,10 @@ public class Event{
      */
     public void addExpense(Expense expense){
         expenses.add(expense);
+        if(index != null) {
+            if(expense.getId() == 0) index = null;
+            else index.addExpense(expense);
+        }
         this.lastActivity = new Date();
     }
 
@@ -263,6 +294,7 @@ public class Event{
      */
     public void removeExpense(Expense expense){
         expenses.remove(expense);
+        if(index != null) index.removeExpense(expense);
         this.lastActivity = new Date();
     }
 
@@ -288,6 +320,7 @@ public class Event{
      */
     public void setEventTags(Set<Tag> eventTags) {
         this.eventTags = eventTags;
+        this.index = null;
     }
 
     /**
@@ -296,6 +329,10 @@ public class Event{
      */
     public void addTag(Tag eventTag){
         this.eventTags.add(eventTag);
+        if(index != null) {
+            if(eventTag.getId() == 0) index = null;
+            else index.addTag(eventTag);
+        }
     }
 
     /**
@@ -304,6 +341,70 @@ public class Event{
      */
     public void removeTag(Tag tag){
         this.eventTags.remove(tag);
+        if(index != null) index.removeTag(tag);
+    }
+
+    /***
+     * Finds a Participant of the Event by ID
+     * @param participantId the ID of the Participant
+     * @return the Participant, if the Event has one with this ID
+     */
+    public Optional<Participant> findParticipant(long participantId) {
+        return Optional.ofNullable(index().getParticipant(participantId));
+    }
+
+    /***
+     * Finds an Expense of the Event by ID
+     * @param expenseId the ID of the Expense
+     * @return the Expense, if the Event has one with this ID
+     */
+    public Optional<Expense> findExpense(long expenseId) {
+        return Optional.ofNullable(index().getExpense(expenseId));
+    }
+
+    /***
+     * Finds a Tag of the Event by ID
+     * @param tagId the ID of the Tag
+     * @return the Tag, if the Event has one with this ID
+     */
+    public Optional<Tag> findTag(long tagId) {
+        return Optional.ofNullable(index().getTag(tagId));
+    }
+
+    /***
+     * Finds a Tag of the Event by name
+     * @param tagName the name of the Tag
+     * @return the Tag, if the Event has one with this name
+     */
+    public Optional<Tag> findTagByName(String tagName) {
+        return Optional.ofNullable(index().getTagByName(tagName));
+    }
+
+    /***
+     * Provides the Expenses paid by a Participant
+     * @param participantId the ID of the Participant
+     * @return a copy of the Expenses owed to the Participant
+     */
+    public Collection<Expense> findExpensesPaidBy(long participantId) {
+        return index().getExpensesPaidBy(participantId);
+    }
+
+    /***
+     * Drops the lookup index, so it is rebuilt on the next lookup.
+     * Needed after changing the payer of a contained Expense, which the Event cannot observe.
+     */
+    public void invalidateIndex() {
+        index = null;
+    }
+
+    /***
+     * Provides the lookup index, building it first if needed
+     * @return the up-to-date index of this Event
+     */
+    private EventIndex index() {
+        if(index == null || !index.matches(participants, expenses, eventTags))
+            index = new EventIndex(participants, expenses, eventTags);
+        return index;
     }
 
     /***
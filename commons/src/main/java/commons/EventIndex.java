@@ -0,0 +1,104 @@
+package commons;
+
+import java.util.*;
+
+/***
+ * Lookup tables over the participants, expenses and tags of an Event.
+ * The index is owned by its Event, which builds it on first use and keeps it up to date
+ * in its mutators. Entities without an ID yet (not saved) cannot be indexed by ID,
+ * so adding one of those makes the Event drop the index and rebuild it on the next lookup.
+ */
+class EventIndex {
+    private final Map<Long, Participant> participantsById = new HashMap<>();
+    private final Map<Long, Expense> expensesById = new HashMap<>();
+    private final Map<Long, Tag> tagsById = new HashMap<>();
+    private final Map<String, Tag> tagsByName = new HashMap<>();
+    private final Map<Long, Map<Long, Expense>> expensesByPayer = new HashMap<>();
+
+    /***
+     * Builds the index for the given contents of an Event
+     * @param participants the participants of the Event
+     * @param expenses the expenses of the Event
+     * @param tags the tags of the Event
+     */
+    EventIndex(Collection<Participant> participants, Collection<Expense> expenses, Collection<Tag> tags) {
+        participants.forEach(this::addParticipant);
+        expenses.forEach(this::addExpense);
+        tags.forEach(this::addTag);
+    }
+
+    /***
+     * Checks whether the index still covers the given contents of the Event.
+     * This catches changes made to the Event's sets directly instead of through its mutators.
+     * @param participants the participants of the Event
+     * @param expenses the expenses of the Event
+     * @param tags the tags of the Event
+     * @return true if the number of indexed entities matches the Event
+     */
+    boolean matches(Collection<Participant> participants, Collection<Expense> expenses, Collection<Tag> tags) {
+        return participantsById.size() == participants.size()
+                && expensesById.size() == expenses.size()
+                && tagsById.size() == tags.size();
+    }
+
+    void addParticipant(Participant participant) {
+        participantsById.put(participant.getId(), participant);
+    }
+
+    void removeParticipant(Participant participant) {
+        participantsById.remove(participant.getId());
+    }
+
+    void addExpense(Expense expense) {
+        expensesById.put(expense.getId(), expense);
+        if(expense.getOwedTo() != null)
+            expensesByPayer.computeIfAbsent(expense.getOwedTo().getId(), id -> new HashMap<>())
+                    .put(expense.getId(), expense);
+    }
+
+    void removeExpense(Expense expense) {
+        Expense indexed = expensesById.remove(expense.getId());
+        if(indexed == null || indexed.getOwedTo() == null) return;
+        Map<Long, Expense> paid = expensesByPayer.get(indexed.getOwedTo().getId());
+        if(paid == null) return;
+        paid.remove(expense.getId());
+        if(paid.isEmpty()) expensesByPayer.remove(indexed.getOwedTo().getId());
+    }
+
+    void addTag(Tag tag) {
+        tagsById.put(tag.getId(), tag);
+        tagsByName.putIfAbsent(tag.getTagName(), tag);
+    }
+
+    void removeTag(Tag tag) {
+        tagsById.remove(tag.getId());
+        if(tagsByName.remove(tag.getTagName(), tag)) {
+            tagsById.values().stream()
+                    .filter(other -> other.getTagName().equals(tag.getTagName()))
+                    .findFirst()
+                    .ifPresent(other -> tagsByName.put(other.getTagName(), other));
+        }
+    }
+
+    Participant getParticipant(long id) {
+        return participantsById.get(id);
+    }
+
+    Expense getExpense(long id) {
+        return expensesById.get(id);
+    }
+
+    Tag getTag(long id) {
+        return tagsById.get(id);
+    }
+
+    Tag getTagByName(String name) {
+        return tagsByName.get(name);
+    }
+
+    Collection<Expense> getExpensesPaidBy(long participantId) {
+        Map<Long, Expense> paid = expensesByPayer.get(participantId);
+        if(paid == null) return List.of();
+        return List.copyOf(paid.values());
+    }
+}
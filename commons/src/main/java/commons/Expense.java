@@ -16,6 +16,10 @@ import java.util.HashSet;
 import java.util.Set;
 
 @Entity
+@Table(indexes = {
+    @Index(name = "idx_expense_owed_to", columnList = "owed_to_id"),
+    @Index(name = "idx_expense_tag", columnList = "expense_tag_id")
+})
 @JsonIdentityInfo(generator = ObjectIdGenerators.PropertyGenerator.class, property = "id", scope = Expense.class)
 public class Expense{
     @Id
@@ -26,10 +30,17 @@ public class Expense{
     private Date date;
     private String currency;
     @ManyToOne(cascade = {CascadeType.DETACH, CascadeType.REFRESH, CascadeType.PERSIST, CascadeType.MERGE})
+    @JoinColumn(name = "expense_tag_id")
     private Tag expenseTag;
     @ManyToOne(cascade = {CascadeType.DETACH, CascadeType.MERGE, CascadeType.PERSIST, CascadeType.REFRESH})
+    @JoinColumn(name = "owed_to_id")
     private Participant owedTo;
+    // The primary key covers lookups by expense, the index lookups by participant
     @ManyToMany(cascade = {CascadeType.DETACH, CascadeType.MERGE, CascadeType.PERSIST, CascadeType.REFRESH})
+    @JoinTable(name = "expense_participants_in_expense",
+            joinColumns = @JoinColumn(name = "expense_id"),
+            inverseJoinColumns = @JoinColumn(name = "participants_in_expense_id"),
+            indexes = @Index(name = "idx_expense_participant", columnList = "participants_in_expense_id"))
     private Set<Participant> participantsInExpense;
 
     /**
@@ -53,6 +64,19 @@ public class Expense{
         this.participantsInExpense = new HashSet<>();
     }
 
+    /**
+     * Constructor used for testing where IDs need to be set.
+     * @param id the id of the expense
+     * @param name the name of the expense
+     * @param priceInCents the price of the expense in cents
+     * @param date the date of the expense
+     * @param owedTo the participant who paid the expense
+     */
+    public Expense(long id, String name, int priceInCents, Date date, Participant owedTo) {
+        this(name, priceInCents, date, owedTo);
+        this.id = id;
+    }
+
     /**
      * Returns the id of the expense
      * @return the id of the expense
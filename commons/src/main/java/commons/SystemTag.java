@@ -0,0 +1,65 @@
+package commons;
+
+import java.util.Optional;
+
+/**
+ * The tags every event starts with. The server stores each of them once and shares it between
+ * all events, an event that changes one of them gets its own copy instead.
+ */
+public enum SystemTag {
+    DEFAULT("default", "#808080"),
+    FOOD("food", "#008000"),
+    ENTRANCE_FEES("entrance fees", "#0000FF"),
+    TRAVEL("travel", "#FF0000"),
+    MONEY_TRANSFER("money transfer", "#000000");
+
+    private final String tagName;
+    private final String colorCode;
+
+    SystemTag(String tagName, String colorCode) {
+        this.tagName = tagName;
+        this.colorCode = colorCode;
+    }
+
+    /**
+     * Getter for the tag name
+     * @return the name of the tag
+     */
+    public String getTagName() {
+        return tagName;
+    }
+
+    /**
+     * Getter for the color code
+     * @return the color code of the tag
+     */
+    public String getColorCode() {
+        return colorCode;
+    }
+
+    /**
+     * Creates a new, not yet stored, tag of the catalog
+     * @return the tag
+     */
+    public Tag create() {
+        return new Tag(tagName, colorCode, true);
+    }
+
+    /**
+     * Checks whether a tag has the details of this catalog tag
+     * @param tag the tag to check
+     * @return true if the name and color code are the same
+     */
+    public boolean matches(Tag tag) {
+        return tagName.equals(tag.getTagName()) && colorCode.equals(tag.getColorCode());
+    }
+
+    /**
+     * Finds the tag of an event with the name of this catalog tag, shared or the event's own copy
+     * @param event the event
+     * @return the tag, if the event has one with this name
+     */
+    public Optional<Tag> find(Event event) {
+        return event.findTagByName(tagName);
+    }
+}
@@ -1,9 +1,11 @@
 package commons;
 
+import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.PreUpdate;
 import org.apache.commons.lang3.builder.EqualsBuilder;
 import org.apache.commons.lang3.builder.HashCodeBuilder;
 
@@ -14,6 +16,9 @@ public class Tag {
     private long id;
     private String tagName;
     private String colorCode;
+    // Tags of the system catalog are shared by many events, so they are never changed
+    @Column(columnDefinition = "boolean default false", updatable = false)
+    private boolean systemTag;
 
     /**
      * Default constructor
@@ -30,6 +35,28 @@ public class Tag {
         this.colorCode = colorCode;
     }
 
+    /**
+     * Constructor
+     * @param tagName the name of the tag
+     * @param colorCode the color code of the tag
+     * @param systemTag whether the tag belongs to the system catalog, see {@link SystemTag}
+     */
+    public Tag(String tagName, String colorCode, boolean systemTag){
+        this(tagName, colorCode);
+        this.systemTag = systemTag;
+    }
+
+    /**
+     * Constructor with a known ID
+     * @param id the id of the tag
+     * @param tagName the name of the tag
+     * @param colorCode the color code of the tag
+     */
+    public Tag(long id, String tagName, String colorCode){
+        this(tagName, colorCode);
+        this.id = id;
+    }
+
     /**
      * Getter for the id
      * @return the id of the tag
@@ -54,6 +81,14 @@ public class Tag {
         return colorCode;
     }
 
+    /**
+     * Whether the tag belongs to the system catalog, and is shared by many events
+     * @return true if the tag is a system tag
+     */
+    public boolean isSystemTag() {
+        return systemTag;
+    }
+
     /**
      * Setter for the tag name
      * @param tagName the name of the tag
@@ -70,6 +105,16 @@ public class Tag {
         this.colorCode = colorCode;
     }
 
+    /**
+     * Prevents changing a shared tag of the system catalog, which would change it for every event
+     */
+    @PreUpdate
+    private void preventSystemTagUpdate() {
+        if (systemTag) {
+            throw new IllegalStateException("Tag " + id + " of the system catalog cannot be changed");
+        }
+    }
+
     /**
      * Equality checker
      * @param o the object to compare to
@@ -99,6 +144,7 @@ public class Tag {
                 "id='" + id + '\'' +
                 ", tagName='" + tagName + '\'' +
                 ", colorCode='" + colorCode + '\'' +
+                ", systemTag=" + systemTag +
                 '}';
     }
 }
@@ -0,0 +1,73 @@
+package commons.dto;
+
+public class ArchiveStatsDTO {
+    private long archivedEvents;
+    private long archiveBytes;
+    private long rehydrations;
+    private double averageRehydrationMillis;
+    private double lastRehydrationMillis;
+
+    /***
+     * Standard DTO constructor describing the cold storage of idle events
+     * @param archivedEvents the number of events in the archive
+     * @param archiveBytes the compressed size of all archived events
+     * @param rehydrations the number of events brought back from the archive since the server started
+     * @param averageRehydrationMillis the average time it took to bring back an event
+     * @param lastRehydrationMillis the time it took to bring back the last event
+     */
+    public ArchiveStatsDTO(long archivedEvents, long archiveBytes, long rehydrations,
+                           double averageRehydrationMillis, double lastRehydrationMillis) {
+        this.archivedEvents = archivedEvents;
+        this.archiveBytes = archiveBytes;
+        this.rehydrations = rehydrations;
+        this.averageRehydrationMillis = averageRehydrationMillis;
+        this.lastRehydrationMillis = lastRehydrationMillis;
+    }
+
+    /***
+     * Constructor for Jackson
+     */
+    @SuppressWarnings("unused")
+    public ArchiveStatsDTO(){
+    }
+
+    /***
+     * Provides the number of archived events
+     * @return the number of events in the archive
+     */
+    public long getArchivedEvents() {
+        return archivedEvents;
+    }
+
+    /***
+     * Provides the size of the archive
+     * @return the compressed size of all archived events, in bytes
+     */
+    public long getArchiveBytes() {
+        return archiveBytes;
+    }
+
+    /***
+     * Provides the number of rehydrations
+     * @return the number of events brought back from the archive since the server started
+     */
+    public long getRehydrations() {
+        return rehydrations;
+    }
+
+    /***
+     * Provides the average rehydration latency
+     * @return the average time it took to bring back an event, in milliseconds
+     */
+    public double getAverageRehydrationMillis() {
+        return averageRehydrationMillis;
+    }
+
+    /***
+     * Provides the latest rehydration latency
+     * @return the time it took to bring back the last event, in milliseconds
+     */
+    public double getLastRehydrationMillis() {
+        return lastRehydrationMillis;
+    }
+}
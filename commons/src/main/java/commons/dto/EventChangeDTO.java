@@ -0,0 +1,63 @@
+package commons.dto;
+
+import java.util.Date;
+
+public class EventChangeDTO {
+    private long sequence;
+    private String type;
+    private String payload;
+    private Date createdAt;
+
+    /***
+     * Standard DTO constructor taking a logged change of an Event
+     * @param sequence the position of the change in the log of the Event
+     * @param type what the change did, e.g. EXPENSE_ADDED
+     * @param payload the changed entity as JSON
+     * @param createdAt the time of the change
+     */
+    public EventChangeDTO(long sequence, String type, String payload, Date createdAt) {
+        this.sequence = sequence;
+        this.type = type;
+        this.payload = payload;
+        this.createdAt = createdAt;
+    }
+
+    /***
+     * Constructor for Jackson
+     */
+    @SuppressWarnings("unused")
+    public EventChangeDTO(){
+    }
+
+    /***
+     * Provides the sequence number
+     * @return the position of the change in the log of the Event
+     */
+    public long getSequence() {
+        return sequence;
+    }
+
+    /***
+     * Provides the type of the change
+     * @return what the change did
+     */
+    public String getType() {
+        return type;
+    }
+
+    /***
+     * Provides the payload
+     * @return the changed entity as JSON
+     */
+    public String getPayload() {
+        return payload;
+    }
+
+    /***
+     * Provides the time of the change
+     * @return the time of the change
+     */
+    public Date getCreatedAt() {
+        return createdAt;
+    }
+}
@@ -0,0 +1,41 @@
+package commons.dto;
+
+import java.util.List;
+
+public class EventsDeletedDTO {
+    private List<String> eventIds;
+    private boolean all;
+
+    /***
+     * Standard DTO constructor taking the IDs of the deleted events
+     * @param eventIds the IDs of the deleted Events
+     * @param all whether every event was deleted, in which case the IDs are left out
+     */
+    public EventsDeletedDTO(List<String> eventIds, boolean all) {
+        this.eventIds = eventIds;
+        this.all = all;
+    }
+
+    /***
+     * Constructor for Jackson
+     */
+    @SuppressWarnings("unused")
+    public EventsDeletedDTO(){
+    }
+
+    /***
+     * Provides the deleted events' IDs
+     * @return the IDs of the deleted events
+     */
+    public List<String> getEventIds() {
+        return eventIds;
+    }
+
+    /***
+     * Tells whether every event was deleted
+     * @return true if all events were deleted
+     */
+    public boolean isAll() {
+        return all;
+    }
+}
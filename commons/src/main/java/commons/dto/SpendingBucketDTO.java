@@ -0,0 +1,75 @@
+package commons.dto;
+
+import java.util.Date;
+
+public class SpendingBucketDTO {
+    private String dimension;
+    private long dimensionId;
+    private Date bucketStart;
+    private long totalInCents;
+    private int expenseCount;
+
+    /***
+     * Standard DTO constructor describing the spending in one time bucket
+     * @param dimension what the spending is grouped by ("TAG" or "PARTICIPANT")
+     * @param dimensionId the ID of the Tag or Participant
+     * @param bucketStart the start of the bucket
+     * @param totalInCents the total spending in the bucket, in cents
+     * @param expenseCount the number of expenses in the bucket
+     */
+    public SpendingBucketDTO(String dimension, long dimensionId, Date bucketStart,
+                             long totalInCents, int expenseCount) {
+        this.dimension = dimension;
+        this.dimensionId = dimensionId;
+        this.bucketStart = bucketStart;
+        this.totalInCents = totalInCents;
+        this.expenseCount = expenseCount;
+    }
+
+    /***
+     * Constructor for Jackson
+     */
+    @SuppressWarnings("unused")
+    public SpendingBucketDTO(){
+    }
+
+    /***
+     * Provides what the spending is grouped by
+     * @return "TAG" or "PARTICIPANT"
+     */
+    public String getDimension() {
+        return dimension;
+    }
+
+    /***
+     * Provides the ID of the Tag or Participant
+     * @return the ID of the Tag or Participant
+     */
+    public long getDimensionId() {
+        return dimensionId;
+    }
+
+    /***
+     * Provides the start of the bucket
+     * @return the start of the bucket
+     */
+    public Date getBucketStart() {
+        return bucketStart;
+    }
+
+    /***
+     * Provides the total spending in the bucket
+     * @return the total spending, in cents
+     */
+    public long getTotalInCents() {
+        return totalInCents;
+    }
+
+    /***
+     * Provides the number of expenses in the bucket
+     * @return the number of expenses
+     */
+    public int getExpenseCount() {
+        return expenseCount;
+    }
+}
@@ -5,9 +5,7 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import java.math.RoundingMode;
-import java.util.Date;
-import java.util.Iterator;
-import java.util.Set;
+import java.util.*;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.junit.jupiter.api.Assertions.assertTrue;
@@ -336,4 +334,90 @@ public class EventTest {
         assertEquals("Food", tagIterator.next().getTagName());
         assertEquals("Travel", tagIterator.next().getTagName());
     }
+
+    /**
+     * Lookups by ID and by payer follow additions and removals
+     */
+    @Test
+    public void indexLookupTest(){
+        Participant payer = new Participant(1, "Ann");
+        Participant other = new Participant(2, "Bob");
+        event.addParticipant(payer);
+        event.addParticipant(other);
+        Expense paid = new Expense(10, "Dinner", 500, null, payer);
+        event.addExpense(paid);
+        assertEquals(Optional.of(paid), event.findExpense(10));
+        assertEquals(Optional.of(other), event.findParticipant(2));
+        assertEquals(List.of(paid), List.copyOf(event.findExpensesPaidBy(1)));
+
+        Expense later = new Expense(11, "Taxi", 300, null, payer);
+        event.addExpense(later);
+        assertEquals(2, event.findExpensesPaidBy(1).size());
+        event.removeExpense(paid);
+        event.removeParticipant(other);
+        assertTrue(event.findExpense(10).isEmpty());
+        assertTrue(event.findParticipant(2).isEmpty());
+        assertEquals(List.of(later), List.copyOf(event.findExpensesPaidBy(1)));
+    }
+
+    /**
+     * Tags can be found by name, also when they have not been saved yet
+     */
+    @Test
+    public void findTagByNameTest(){
+        Tag food = new Tag("Food", "#008000");
+        Tag transfer = new Tag("money transfer", "#000000");
+        event.addTag(food);
+        assertTrue(event.findTagByName("money transfer").isEmpty());
+        event.addTag(transfer);
+        assertEquals(Optional.of(transfer), event.findTagByName("money transfer"));
+        event.removeTag(transfer);
+        assertTrue(event.findTagByName("money transfer").isEmpty());
+        assertEquals(Optional.of(food), event.findTagByName("Food"));
+    }
+
+    /**
+     * Changes made directly to the sets of the event are picked up by the next lookup
+     */
+    @Test
+    public void directSetChangeTest(){
+        Participant payer = new Participant(1, "Ann");
+        event.addParticipant(payer);
+        assertTrue(event.findExpensesPaidBy(1).isEmpty());
+        Expense expense = new Expense(5, "Dinner", 500, null, payer);
+        event.getExpenses().add(expense);
+        assertEquals(Optional.of(expense), event.findExpense(5));
+    }
+
+    /**
+     * The index stays consistent with the sets of a large event under many mutations
+     */
+    @Test
+    public void largeEventIndexTest(){
+        int size = 5000;
+        List<Participant> payers = new ArrayList<>();
+        for(int i = 1; i <= 50; i++) {
+            Participant participant = new Participant(i, "P" + i);
+            payers.add(participant);
+            event.addParticipant(participant);
+        }
+        List<Expense> added = new ArrayList<>();
+        for(int i = 1; i <= size; i++) {
+            Expense expense = new Expense(i, "E" + i, i, null, payers.get(i % payers.size()));
+            added.add(expense);
+            event.addExpense(expense);
+            if(i == 1) event.findExpense(1);
+        }
+        for(int i = 0; i < size; i += 3)
+            event.removeExpense(added.get(i));
+
+        for(Expense expense: added) {
+            boolean present = event.getExpenses().contains(expense);
+            assertEquals(present, event.findExpense(expense.getId()).isPresent());
+        }
+        for(Participant payer: payers) {
+            long expected = event.getExpenses().stream().filter(e -> e.getOwedTo().equals(payer)).count();
+            assertEquals(expected, event.findExpensesPaidBy(payer.getId()).size());
+        }
+    }
 }
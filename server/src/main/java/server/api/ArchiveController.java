@@ -0,0 +1,32 @@
+package server.api;
+
+import commons.dto.ArchiveStatsDTO;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/archive")
+public class ArchiveController {
+    private final ArchiveService archiveService;
+
+    /**
+     * Constructor
+     * @param archiveService the ArchiveService managing the archived events
+     */
+    @Autowired
+    public ArchiveController(ArchiveService archiveService) {
+        this.archiveService = archiveService;
+    }
+
+    /**
+     * Returns the size of the archive of idle events and how long bringing an event back takes
+     * @return the archive statistics
+     */
+    @GetMapping("/stats")
+    public ResponseEntity<ArchiveStatsDTO> getStats() {
+        return ResponseEntity.ok(archiveService.getStats());
+    }
+}
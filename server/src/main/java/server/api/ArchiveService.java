@@ -0,0 +1,220 @@
+package server.api;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import commons.Event;
+import commons.dto.ArchiveStatsDTO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import server.database.ArchivedEvent;
+import server.database.ArchivedEventRepository;
+import server.database.EventRepository;
+import server.database.shard.ShardRouter;
+
+import java.io.*;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Moves events without recent activity out of the normalized tables into a compact archive,
+ * one compressed JSON blob per event, and brings them back when they are accessed again.
+ */
+@Service
+public class ArchiveService {
+    private static final Logger log = LoggerFactory.getLogger(ArchiveService.class);
+    // Number of events archived per transaction
+    private static final int CHUNK_SIZE = 100;
+
+    private final EventRepository eventRepository;
+    private final ArchivedEventRepository archiveRepository;
+    private final EventService eventService;
+    private final SpendingRollupService rollupService;
+    private final OutboxService outboxService;
+    private final EventCommandQueue commandQueue;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final ShardRouter shardRouter;
+    private final Duration idleThreshold;
+    private final AtomicLong rehydrations = new AtomicLong();
+    private final AtomicLong rehydrationNanos = new AtomicLong();
+    private final AtomicLong lastRehydrationNanos = new AtomicLong();
+
+    /**
+     * Constructor
+     * @param eventRepository the repository containing the active events
+     * @param archiveRepository the repository containing the archived events
+     * @param eventService the EventService used to delete and restore events
+     * @param rollupService the SpendingRollupService keeping spending statistics
+     * @param outboxService the OutboxService announcing restored events to the clients
+     * @param commandQueue the EventCommandQueue restoring an event in order with the other changes to it
+     * @param objectMapper the ObjectMapper serializing the events
+     * @param transactionTemplate the TransactionTemplate running each step in a transaction
+     * @param shardRouter the ShardRouter running the archiving on every shard
+     * @param idleThreshold how long an event has to be without activity before it is archived
+     */
+    @Autowired
+    public ArchiveService(EventRepository eventRepository, ArchivedEventRepository archiveRepository,
+                          EventService eventService, SpendingRollupService rollupService, OutboxService outboxService,
+                          EventCommandQueue commandQueue, ObjectMapper objectMapper,
+                          TransactionTemplate transactionTemplate, ShardRouter shardRouter,
+                          @Value("${archive.idle-threshold:365d}") Duration idleThreshold) {
+        this.eventRepository = eventRepository;
+        this.archiveRepository = archiveRepository;
+        this.eventService = eventService;
+        this.rollupService = rollupService;
+        this.outboxService = outboxService;
+        this.commandQueue = commandQueue;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = transactionTemplate;
+        this.shardRouter = shardRouter;
+        this.idleThreshold = idleThreshold;
+    }
+
+    /**
+     * Archives the events that were idle for longer than the configured threshold, run periodically
+     */
+    @Scheduled(fixedDelayString = "${archive.interval:PT1H}", initialDelayString = "${archive.initial-delay:PT5M}")
+    public void archiveIdleEvents() {
+        int archived = archiveEventsIdleSince(new Date(System.currentTimeMillis() - idleThreshold.toMillis()));
+        if (archived > 0) {
+            log.info("Archived {} idle events", archived);
+        }
+    }
+
+    /**
+     * Archives the events without activity since the given time, on every shard
+     * @param cutoff the time before which the last activity of an event has to be
+     * @return the number of events archived
+     */
+    public int archiveEventsIdleSince(Date cutoff) {
+        return (int) shardRouter.sum(() -> archiveShardEventsIdleSince(cutoff));
+    }
+
+    /**
+     * Archives the events of the current shard without activity since the given time
+     * @param cutoff the time before which the last activity of an event has to be
+     * @return the number of events archived
+     */
+    private int archiveShardEventsIdleSince(Date cutoff) {
+        List<String> ids = archiveRepository.findIdleEventIds(cutoff);
+        int archived = 0;
+        for (int from = 0; from < ids.size(); from += CHUNK_SIZE) {
+            List<String> chunk = ids.subList(from, Math.min(from + CHUNK_SIZE, ids.size()));
+            Integer count = transactionTemplate.execute(status -> archive(chunk, cutoff));
+            archived += count == null ? 0 : count;
+        }
+        return archived;
+    }
+
+    /**
+     * Archives a chunk of events and deletes their normalized rows
+     * @param eventIds the IDs of the events
+     * @param cutoff the time before which the last activity of an event has to be,
+     *               checked again in case an event became active after it was selected
+     * @return the number of events archived
+     */
+    private int archive(List<String> eventIds, Date cutoff) {
+        Date now = new Date();
+        List<ArchivedEvent> archives = new ArrayList<>();
+        for (Event event : eventRepository.findAllById(eventIds)) {
+            if (event.getLastActivity() == null || !event.getLastActivity().before(cutoff)) continue;
+            archives.add(new ArchivedEvent(event.getId(), event.getTitle(), event.getLastActivity(),
+                    now, compress(event)));
+        }
+        if (archives.isEmpty()) return 0;
+        archiveRepository.saveAll(archives);
+        List<String> archivedIds = archives.stream().map(ArchivedEvent::getId).toList();
+        eventService.deleteEvents(archivedIds);
+        rollupService.deleteEvents(archivedIds);
+        return archives.size();
+    }
+
+    /**
+     * Brings an archived event back into the normalized tables, e.g. when it is joined.
+     * Accessing the event counts as activity, so it is not archived again right away.
+     * The clients are told about the restored event as if it was created.
+     * @param eventId the ID of the event
+     * @return the restored event, or empty if the event is not archived
+     */
+    public Optional<Event> rehydrate(String eventId) {
+        long start = System.nanoTime();
+        Event restored = commandQueue.executeRecorded(eventId, () ->
+                archiveRepository.findById(eventId)
+                        .map(archived -> {
+                            Event event = decompress(archived.getData());
+                            event.setLastActivity(new Date());
+                            archiveRepository.delete(archived);
+                            Event stored = eventService.importEvent(event).event();
+                            rollupService.rebuild(stored);
+                            outboxService.eventCreated(eventId);
+                            return EventService.loaded(stored);
+                        })
+                        .orElse(null));
+        if (restored == null) return Optional.empty();
+        long elapsed = System.nanoTime() - start;
+        rehydrations.incrementAndGet();
+        rehydrationNanos.addAndGet(elapsed);
+        lastRehydrationNanos.set(elapsed);
+        return Optional.of(restored);
+    }
+
+    /**
+     * Deletes archived events
+     * @param eventIds the IDs of the events to delete, unknown IDs are ignored
+     * @return the IDs of the archived events that were deleted
+     */
+    public List<String> delete(Collection<String> eventIds) {
+        if (eventIds.isEmpty()) return List.of();
+        return transactionTemplate.execute(status -> {
+            List<String> existing = archiveRepository.findExistingIds(eventIds);
+            if (!existing.isEmpty()) archiveRepository.deleteByIds(existing);
+            return existing;
+        });
+    }
+
+    /**
+     * Deletes all archived events of the current shard
+     * @return the number of archived events deleted
+     */
+    public long deleteAll() {
+        long count = archiveRepository.count();
+        archiveRepository.deleteAllInBatch();
+        return count;
+    }
+
+    /**
+     * Describes the size of the archive and how long rehydration takes
+     * @return the archive statistics
+     */
+    public ArchiveStatsDTO getStats() {
+        long count = rehydrations.get();
+        double average = count == 0 ? 0 : rehydrationNanos.get() / 1e6 / count;
+        return new ArchiveStatsDTO(shardRouter.sum(archiveRepository::count), shardRouter.sum(archiveRepository::totalSize),
+                count, average, lastRehydrationNanos.get() / 1e6);
+    }
+
+    private byte[] compress(Event event) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (OutputStream out = new GZIPOutputStream(bytes)) {
+            objectMapper.writeValue(out, event);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private Event decompress(byte[] data) {
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(data))) {
+            return objectMapper.readValue(in, Event.class);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package server.api;
+
+import commons.dto.EventChangeDTO;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/events")
+public class ChangeLogController {
+    private final ChangeLogService changeLogService;
+
+    /**
+     * Constructor
+     * @param changeLogService the ChangeLogService keeping the change logs of the events
+     */
+    @Autowired
+    public ChangeLogController(ChangeLogService changeLogService) {
+        this.changeLogService = changeLogService;
+    }
+
+    /**
+     * Returns the logged changes of an event, e.g. for an incremental backup
+     * @param eventId the ID of the event
+     * @param after the sequence number of the last change already known, 0 for the whole log
+     * @return the later changes, in order
+     */
+    @GetMapping("/{eventId}/changes")
+    public ResponseEntity<List<EventChangeDTO>> getChanges(@PathVariable String eventId,
+                                                           @RequestParam(defaultValue = "0") long after) {
+        return ResponseEntity.ok(changeLogService.getChanges(eventId, after).stream()
+                .map(change -> new EventChangeDTO(change.getSequence(), change.getType().name(),
+                        change.getPayload(), change.getCreatedAt()))
+                .toList());
+    }
+}
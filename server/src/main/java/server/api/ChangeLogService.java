@@ -0,0 +1,264 @@
+package server.api;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import commons.Event;
+import commons.Expense;
+import commons.Participant;
+import commons.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import server.database.EventChange;
+import server.database.EventChangeRepository;
+import server.database.EventRepository;
+import server.database.EventSnapshot;
+import server.database.EventSnapshotRepository;
+
+import java.io.*;
+import java.util.*;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Keeps an append-only log of the changes made to every event, with a snapshot of each event
+ * taken every few changes, so an event can be rebuilt by replaying its log from the latest snapshot.
+ * The changes are appended in the same transaction as the write to the event tables,
+ * which stay the read model used by every query.
+ */
+@Service
+public class ChangeLogService {
+    private final EventChangeRepository changeRepository;
+    private final EventSnapshotRepository snapshotRepository;
+    private final EventRepository eventRepository;
+    private final ObjectMapper objectMapper;
+    private final int snapshotInterval;
+
+    /***
+     * Payload of a removed Tag
+     * @param tagId the ID of the removed Tag
+     * @param replacementId the ID of the Tag its expenses were moved to
+     */
+    public record TagRemoval(long tagId, long replacementId) {
+    }
+
+    /**
+     * Constructor
+     * @param changeRepository the repository containing the logged changes
+     * @param snapshotRepository the repository containing the snapshots
+     * @param eventRepository the repository containing the events, whose current state is taken as snapshot
+     * @param objectMapper the ObjectMapper serializing the changes
+     * @param snapshotInterval the number of changes between two snapshots
+     */
+    @Autowired
+    public ChangeLogService(EventChangeRepository changeRepository, EventSnapshotRepository snapshotRepository,
+                            EventRepository eventRepository, ObjectMapper objectMapper,
+                            @Value("${changelog.snapshot-interval:100}") int snapshotInterval) {
+        this.changeRepository = changeRepository;
+        this.snapshotRepository = snapshotRepository;
+        this.eventRepository = eventRepository;
+        this.objectMapper = objectMapper;
+        this.snapshotInterval = snapshotInterval;
+    }
+
+    /**
+     * Appends a change to the log of an event, taking a new snapshot when enough changes were appended
+     * @param eventId the ID of the event
+     * @param type what the change did
+     * @param payload the changed entity, see {@link EventChange.Type}
+     * @return the appended change
+     */
+    @Transactional
+    public EventChange append(String eventId, EventChange.Type type, Object payload) {
+        long sequence = changeRepository.findLastSequence(eventId) + 1;
+        EventChange change = changeRepository.save(
+                new EventChange(eventId, sequence, type, write(payload), new Date()));
+        // A first change that does not hold the whole event means the event existed before its changes were logged,
+        // so its current state is the starting point
+        boolean takeSnapshot = sequence == 1 ? !type.replacesEvent() : sequence % snapshotInterval == 0;
+        if(takeSnapshot) {
+            // The caller just changed the managed event, so it already holds the state after this change
+            // and the log does not have to be replayed
+            eventRepository.findById(eventId).ifPresent(event -> saveSnapshot(event, sequence));
+        }
+        return change;
+    }
+
+    /**
+     * Returns the changes of an event after a sequence number, e.g. to send only what a client missed
+     * @param eventId the ID of the event
+     * @param after the sequence number to start after, 0 for the whole log
+     * @return the later changes, in order
+     */
+    public List<EventChange> getChanges(String eventId, long after) {
+        return changeRepository.findByEventIdAndSequenceGreaterThanOrderBySequence(eventId, after);
+    }
+
+    /**
+     * Rebuilds an event from its latest snapshot and the changes logged after it
+     * @param eventId the ID of the event
+     * @return the rebuilt event, or empty if nothing was logged for the event
+     */
+    @Transactional(readOnly = true)
+    public Optional<Event> replay(String eventId) {
+        Optional<EventSnapshot> snapshot = snapshotRepository.findById(eventId);
+        Projection projection = new Projection();
+        snapshot.ifPresent(s -> projection.reset(decompress(s.getData())));
+        for(EventChange change : getChanges(eventId, snapshot.map(EventSnapshot::getSequence).orElse(0L))) {
+            projection.apply(change);
+        }
+        return Optional.ofNullable(projection.build());
+    }
+
+    /**
+     * Deletes the logs and snapshots of events, when the events are deleted
+     * @param eventIds the IDs of the events
+     */
+    @Transactional
+    public void deleteEvents(Collection<String> eventIds) {
+        if(eventIds.isEmpty()) return;
+        changeRepository.deleteByEventIds(eventIds);
+        snapshotRepository.deleteByEventIds(eventIds);
+    }
+
+    /**
+     * Deletes all logs and snapshots, when all events are deleted
+     */
+    @Transactional
+    public void deleteAll() {
+        changeRepository.deleteAllInBatch();
+        snapshotRepository.deleteAllInBatch();
+    }
+
+    private void saveSnapshot(Event event, long sequence) {
+        snapshotRepository.save(new EventSnapshot(event.getId(), sequence, new Date(), compress(event)));
+    }
+
+    private String write(Object payload) {
+        try {
+            return objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private <T> T read(String payload, Class<T> type) {
+        try {
+            return objectMapper.readValue(payload, type);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private byte[] compress(Event event) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (OutputStream out = new GZIPOutputStream(bytes)) {
+            objectMapper.writeValue(out, event);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private Event decompress(byte[] data) {
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(data))) {
+            return objectMapper.readValue(in, Event.class);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * The state of an event while its changes are replayed. The participants, tags and expenses are kept
+     * by ID, so a changed participant or tag is picked up by the expenses referring to it when the event is built.
+     */
+    private final class Projection {
+        private Event event;
+        private Date lastActivity;
+        private final Map<Long, Participant> participants = new LinkedHashMap<>();
+        private final Map<Long, Tag> tags = new LinkedHashMap<>();
+        private final Map<Long, Expense> expenses = new LinkedHashMap<>();
+
+        private void reset(Event base) {
+            event = base;
+            lastActivity = base.getLastActivity();
+            participants.clear();
+            tags.clear();
+            expenses.clear();
+            base.getParticipants().forEach(participant -> participants.put(participant.getId(), participant));
+            base.getEventTags().forEach(tag -> tags.put(tag.getId(), tag));
+            base.getExpenses().forEach(expense -> expenses.put(expense.getId(), expense));
+        }
+
+        private void apply(EventChange change) {
+            if(change.getType().replacesEvent()) {
+                reset(read(change.getPayload(), Event.class));
+                return;
+            }
+            // Changes before the first snapshot of an event that existed before the log cannot be replayed
+            if(event == null) return;
+            switch (change.getType()) {
+                case TITLE_CHANGED -> event.setTitle(read(change.getPayload(), String.class));
+                case PARTICIPANT_ADDED, PARTICIPANT_EDITED -> {
+                    Participant participant = read(change.getPayload(), Participant.class);
+                    participants.put(participant.getId(), participant);
+                }
+                case PARTICIPANT_REMOVED -> {
+                    long participantId = read(change.getPayload(), Long.class);
+                    participants.remove(participantId);
+                    expenses.values().removeIf(expense -> expense.getOwedTo() != null
+                            && expense.getOwedTo().getId() == participantId);
+                }
+                case EXPENSE_ADDED, EXPENSE_EDITED -> {
+                    Expense expense = read(change.getPayload(), Expense.class);
+                    expenses.put(expense.getId(), expense);
+                }
+                case EXPENSE_REMOVED -> expenses.remove(read(change.getPayload(), Long.class));
+                case TAG_ADDED, TAG_EDITED -> {
+                    Tag tag = read(change.getPayload(), Tag.class);
+                    tags.put(tag.getId(), tag);
+                }
+                case TAG_REMOVED -> {
+                    TagRemoval removal = read(change.getPayload(), TagRemoval.class);
+                    tags.remove(removal.tagId());
+                    for(Expense expense : expenses.values()) {
+                        if(expense.getExpenseTag() != null && expense.getExpenseTag().getId() == removal.tagId()) {
+                            expense.setExpenseTag(tags.get(removal.replacementId()));
+                        }
+                    }
+                }
+                default -> throw new IllegalStateException("Unexpected change " + change.getType());
+            }
+            lastActivity = change.getCreatedAt();
+        }
+
+        private Event build() {
+            if(event == null) return null;
+            event.getParticipants().clear();
+            event.getEventTags().clear();
+            event.getExpenses().clear();
+            participants.values().forEach(event::addParticipant);
+            tags.values().forEach(event::addTag);
+            for(Expense expense : expenses.values()) {
+                Participant owedTo = expense.getOwedTo() == null ? null
+                        : participants.get(expense.getOwedTo().getId());
+                Expense rebuilt = new Expense(expense.getId(), expense.getName(), expense.getPriceInCents(),
+                        expense.getDate(), owedTo);
+                rebuilt.setCurrency(expense.getCurrency());
+                rebuilt.setExpenseTag(expense.getExpenseTag() == null ? null
+                        : tags.get(expense.getExpenseTag().getId()));
+                if(expense.getParticipantsInExpense() != null) {
+                    for(Participant participant : expense.getParticipantsInExpense()) {
+                        Participant member = participants.get(participant.getId());
+                        if(member != null) rebuilt.addParticipantToExpense(member);
+                    }
+                }
+                event.addExpense(rebuilt);
+            }
+            event.setLastActivity(lastActivity);
+            event.invalidateIndex();
+            return event;
+        }
+    }
+}
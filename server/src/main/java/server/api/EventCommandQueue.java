@@ -0,0 +1,350 @@
+package server.api;
+
+import commons.Event;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityNotFoundException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import server.database.EventRepository;
+import server.database.shard.ShardContext;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Serializes the changes to each event. Every event is assigned to one of a fixed number of stripes,
+ * each with a single worker thread, so the changes to one event never run concurrently.
+ * A worker drains the commands queued while it was busy and applies those of one event to a single
+ * loaded event in a single transaction, recording one update for the clients watching the event in the outbox.
+ * <p>
+ * A caller waits at most {@code commands.timeout} for its command to start. A command that is still queued
+ * then is withdrawn and never applied, so the timeout is reported as an {@link IllegalStateException}.
+ * A command that already started is waited for until it finished, so its caller always learns whether it committed.
+ */
+@Service
+public class EventCommandQueue {
+    private static final Logger log = LoggerFactory.getLogger(EventCommandQueue.class);
+    private final EventRepository eventRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final OutboxService outboxService;
+    private final int maxBatchSize;
+    private final Duration timeout;
+    private final List<BlockingQueue<Command<?>>> stripes = new ArrayList<>();
+    private final ExecutorService workers;
+
+    /**
+     * Constructor
+     * @param eventRepository the repository containing the events
+     * @param transactionTemplate the TransactionTemplate committing each batch
+     * @param outboxService the OutboxService recording the updates in the transaction of each batch
+     * @param stripeCount the number of worker threads the events are spread over
+     * @param maxBatchSize the maximum number of commands drained at once by a worker
+     * @param timeout how long a caller waits for its command
+     */
+    @Autowired
+    public EventCommandQueue(EventRepository eventRepository, TransactionTemplate transactionTemplate,
+                             OutboxService outboxService,
+                             @Value("${commands.stripes:8}") int stripeCount,
+                             @Value("${commands.max-batch-size:64}") int maxBatchSize,
+                             @Value("${commands.timeout:PT30S}") Duration timeout) {
+        this.eventRepository = eventRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.outboxService = outboxService;
+        this.maxBatchSize = maxBatchSize;
+        this.timeout = timeout;
+        this.workers = Executors.newFixedThreadPool(stripeCount, runnable -> {
+            // Renamed after its stripe once it runs
+            Thread thread = new Thread(runnable, "event-commands");
+            thread.setDaemon(true);
+            return thread;
+        });
+        for (int i = 0; i < stripeCount; i++) {
+            int index = i;
+            BlockingQueue<Command<?>> stripe = new LinkedBlockingQueue<>();
+            stripes.add(stripe);
+            workers.execute(() -> {
+                Thread.currentThread().setName("event-commands-" + index);
+                work(stripe);
+            });
+        }
+    }
+
+    /**
+     * Changes an event, together with the other changes to the event queued at the same time.
+     * Blocks until the change is committed. A command that throws is left out of the batch: the batch is
+     * rolled back and the other commands are applied again, so none of its changes are saved.
+     * The command may therefore run more than once, and should only change the event it is given.
+     * @param eventId the ID of the event
+     * @param command the change, applied to the loaded event, which is saved afterwards
+     * @param <T> the type of the result
+     * @return the result of the command
+     * @throws EntityNotFoundException if the event does not exist
+     * @throws IllegalStateException if the command did not start before the timeout, it is then not applied
+     */
+    public <T> T execute(String eventId, Function<Event, T> command) {
+        return submit(new Command<>(eventId, command, null, true));
+    }
+
+    /**
+     * Runs a change to an event in its own transaction, after the changes queued before it,
+     * for changes that do not work on the loaded event, such as bulk statements. Blocks until it is committed.
+     * @param eventId the ID of the event
+     * @param command the change
+     * @param <T> the type of the result
+     * @return the result of the command
+     * @throws IllegalStateException if the command did not start before the timeout, it is then not applied
+     */
+    public <T> T executeAlone(String eventId, Supplier<T> command) {
+        return submit(new Command<>(eventId, null, command, true));
+    }
+
+    /**
+     * Runs a command in its own transaction, after the changes queued before it, like {@link #executeAlone},
+     * for a command that records its own message in the outbox, such as a creation or a title change,
+     * as the clients hear about those differently than about an update. Blocks until it is committed.
+     * @param eventId the ID of the event
+     * @param command the change
+     * @param <T> the type of the result
+     * @return the result of the command
+     * @throws IllegalStateException if the command did not start before the timeout, it is then not applied
+     */
+    public <T> T executeRecorded(String eventId, Supplier<T> command) {
+        return submit(new Command<>(eventId, null, command, false));
+    }
+
+    /**
+     * Stops the workers, failing the commands that are still queued
+     */
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdownNow();
+        for (BlockingQueue<Command<?>> stripe : stripes) {
+            List<Command<?>> pending = new ArrayList<>();
+            stripe.drainTo(pending);
+            pending.forEach(command -> command.future.completeExceptionally(
+                    new RejectedExecutionException("The server is shutting down")));
+        }
+    }
+
+    /**
+     * Queues a command and waits for it. A command that is still queued when the wait times out or is interrupted
+     * is withdrawn, one that already started is waited for until it finished.
+     */
+    private <T> T submit(Command<T> command) {
+        stripes.get(Math.floorMod(command.eventId.hashCode(), stripes.size())).add(command);
+        try {
+            return command.future.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            throw unwrap(e.getCause());
+        } catch (TimeoutException e) {
+            if (command.withdraw()) {
+                throw new IllegalStateException("The change to event " + command.eventId
+                        + " timed out before it started, it was not applied", e);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            if (command.withdraw()) {
+                throw new IllegalStateException("Interrupted before the change to event " + command.eventId
+                        + " started, it was not applied", e);
+            }
+        }
+        try {
+            return command.future.join();
+        } catch (CompletionException e) {
+            throw unwrap(e.getCause());
+        }
+    }
+
+    private static RuntimeException unwrap(Throwable failure) {
+        return failure instanceof RuntimeException cause ? cause : new CompletionException(failure);
+    }
+
+    private void work(BlockingQueue<Command<?>> stripe) {
+        while (!Thread.currentThread().isInterrupted()) {
+            List<Command<?>> batch = new ArrayList<>();
+            try {
+                batch.add(stripe.take());
+            } catch (InterruptedException e) {
+                return;
+            }
+            stripe.drainTo(batch, maxBatchSize - 1);
+            // Commands whose caller stopped waiting are skipped, the others can no longer be withdrawn
+            batch.removeIf(command -> !command.claim());
+            try {
+                process(batch);
+            } catch (Throwable e) {
+                // The futures are completed by process, the worker keeps serving its stripe
+                log.error("Could not process a batch of {} commands", batch.size(), e);
+            }
+        }
+    }
+
+    /**
+     * Applies a drained batch, event by event, keeping the order of the commands of each event.
+     * The commands of an event run on the shard of the event. All futures of the batch are completed,
+     * even when an error cuts the batch short.
+     * @param batch the commands drained from one stripe
+     */
+    private void process(List<Command<?>> batch) {
+        Map<String, List<Command<?>>> byEvent = new LinkedHashMap<>();
+        for (Command<?> command : batch) {
+            byEvent.computeIfAbsent(command.eventId, id -> new ArrayList<>()).add(command);
+        }
+        Throwable failure = null;
+        try {
+            for (Map.Entry<String, List<Command<?>>> entry : byEvent.entrySet()) {
+                String eventId = entry.getKey();
+                List<Command<?>> commands = entry.getValue();
+                ShardContext.forEvent(eventId, () -> {
+                    List<Command<?>> group = new ArrayList<>();
+                    for (Command<?> command : commands) {
+                        if (command.update != null) {
+                            group.add(command);
+                            continue;
+                        }
+                        commit(eventId, group);
+                        group.clear();
+                        runAlone(command);
+                    }
+                    commit(eventId, group);
+                });
+            }
+        } catch (RuntimeException | Error e) {
+            failure = e;
+            throw e;
+        } finally {
+            // Every caller gets an answer, also when the batch was cut short
+            for (Command<?> command : batch) command.complete(failure);
+        }
+    }
+
+    /**
+     * Applies the commands to the loaded event and saves it, all in one transaction.
+     * When a command fails, what it changed may be half done, so the transaction is rolled back
+     * and the commands that did not fail are applied again to a newly loaded event.
+     * @param eventId the ID of the event
+     * @param group the commands to apply
+     */
+    private void commit(String eventId, List<Command<?>> group) {
+        List<Command<?>> remaining = List.copyOf(group);
+        while (!remaining.isEmpty()) {
+            List<Command<?>> attempt = remaining;
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    Event event = eventRepository.findById(eventId)
+                            .orElseThrow(() -> new EntityNotFoundException("Event not found"));
+                    boolean failed = false;
+                    for (Command<?> command : attempt) {
+                        failed |= !command.apply(event);
+                    }
+                    if (failed) throw new CommandFailed();
+                    eventRepository.save(event);
+                    outboxService.eventUpdated(eventId);
+                });
+                remaining = List.of();
+            } catch (CommandFailed e) {
+                remaining = attempt.stream().filter(command -> command.failure == null).toList();
+            } catch (RuntimeException e) {
+                attempt.forEach(command -> command.failure = e);
+                remaining = List.of();
+            }
+        }
+        group.forEach(command -> command.ran = true);
+    }
+
+    /**
+     * Rolls back the transaction of a group in which a command failed
+     */
+    private static final class CommandFailed extends RuntimeException {
+        private CommandFailed() {
+            super(null, null, false, false);
+        }
+    }
+
+    private void runAlone(Command<?> command) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                command.runAlone();
+                if (command.recordsUpdate) outboxService.eventUpdated(command.eventId);
+            });
+        } catch (RuntimeException e) {
+            command.failure = e;
+        }
+        command.ran = true;
+    }
+
+    /**
+     * A queued change to an event, with the future its caller waits on
+     * @param <T> the type of the result
+     */
+    private static final class Command<T> {
+        private final String eventId;
+        private final Function<Event, T> update;
+        private final Supplier<T> alone;
+        private final boolean recordsUpdate;
+        private final CompletableFuture<T> future = new CompletableFuture<>();
+        // Set by the worker that runs the command, or by the caller that withdraws it, whichever comes first
+        private final AtomicBoolean claimed = new AtomicBoolean();
+        private T result;
+        private RuntimeException failure;
+        private boolean ran;
+
+        private Command(String eventId, Function<Event, T> update, Supplier<T> alone, boolean recordsUpdate) {
+            this.eventId = eventId;
+            this.update = update;
+            this.alone = alone;
+            this.recordsUpdate = recordsUpdate;
+        }
+
+        private boolean apply(Event event) {
+            try {
+                result = update.apply(event);
+                return true;
+            } catch (RuntimeException e) {
+                failure = e;
+                return false;
+            }
+        }
+
+        private void runAlone() {
+            result = alone.get();
+        }
+
+        /**
+         * Claims the command for the worker
+         * @return false if the caller withdrew it
+         */
+        private boolean claim() {
+            return claimed.compareAndSet(false, true);
+        }
+
+        /**
+         * Withdraws the command before a worker started it
+         * @return false if a worker already claimed it
+         */
+        private boolean withdraw() {
+            if (!claimed.compareAndSet(false, true)) return false;
+            future.cancel(false);
+            return true;
+        }
+
+        /**
+         * Completes the future of the command
+         * @param batchFailure what cut the batch short, or null; fails the command if it did not run
+         */
+        private void complete(Throwable batchFailure) {
+            if (failure != null) future.completeExceptionally(failure);
+            else if (!ran) future.completeExceptionally(batchFailure != null ? batchFailure
+                    : new IllegalStateException("The command was not run"));
+            else future.complete(result);
+        }
+    }
+}
@@ -1,39 +1,53 @@
 package server.api;
 import commons.Event;
-import commons.dto.EventNameChangeDTO;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.bind.annotation.*;
 import server.database.EventRepository;
-import server.websockets.WebSocketService;
+import server.database.shard.ShardContext;
+import server.database.shard.ShardRouter;
 
-import java.util.Collections;
-import java.util.Comparator;
-import java.util.List;
-import java.util.Optional;
+import java.util.*;
 
 @RestController
 @RequestMapping("/api/events")
 public class EventController {
+    private static final int CREATE_ATTEMPTS = 3;
     private final EventService eventService;
-    private final LPController lpController;
     private EventRepository repository;
-    private final WebSocketService socketService;
+    private final OutboxService outboxService;
+    private final SpendingRollupService rollupService;
+    private final ArchiveService archiveService;
+    private final EventCommandQueue commandQueue;
+    private final ShardRouter shardRouter;
+    private final TransactionTemplate transactionTemplate;
     /**
      * Constructor of EventController.
      *
      * @param eventService  the EventService used for backend handling of events
      * @param repository    the EventRepository storing Events
-     * @param socketService the WebSocketService propagating updates
-     * @param lpController  the Long Polling controller to use to propagate name changes
+     * @param outboxService the OutboxService recording the updates for the clients of every server instance
+     * @param rollupService the SpendingRollupService keeping spending statistics
+     * @param archiveService the ArchiveService restoring archived events
+     * @param commandQueue the EventCommandQueue serializing the changes to each event
+     * @param shardRouter the ShardRouter querying the shards of the events
+     * @param transactionTemplate the TransactionTemplate running each change together with its update
      */
     @Autowired
-    public EventController(EventService eventService, EventRepository repository,
-                           WebSocketService socketService, LPController lpController) {
+    public EventController(EventService eventService, EventRepository repository, OutboxService outboxService,
+                           SpendingRollupService rollupService, ArchiveService archiveService,
+                           EventCommandQueue commandQueue, ShardRouter shardRouter,
+                           TransactionTemplate transactionTemplate) {
         this.eventService = eventService;
         this.repository = repository;
-        this.socketService = socketService;
-        this.lpController = lpController;
+        this.outboxService = outboxService;
+        this.rollupService = rollupService;
+        this.archiveService = archiveService;
+        this.commandQueue = commandQueue;
+        this.shardRouter = shardRouter;
+        this.transactionTemplate = transactionTemplate;
     }
 
     /**
@@ -45,10 +59,11 @@ public class EventController {
     @PutMapping("/{eventId}")
     public ResponseEntity<Event> editTitle(@PathVariable String eventId,
                                            @RequestBody String newTitle){
-        Event updatedEvent = eventService.editTitle(eventId, newTitle);
-        socketService.propagateEventUpdate(eventId);
-        EventNameChangeDTO dto = new EventNameChangeDTO(eventId, updatedEvent.getTitle());
-        lpController.propagateToAllListeners(dto);
+        Event updatedEvent = commandQueue.executeRecorded(eventId, () -> {
+            Event updated = eventService.editTitle(eventId, newTitle);
+            outboxService.titleChanged(eventId, updated.getTitle());
+            return EventService.loaded(updated);
+        });
         return ResponseEntity.ok(updatedEvent);
     }
 
@@ -74,65 +89,135 @@ public class EventController {
         if(eventName==null || eventName.isEmpty()){
             return ResponseEntity.badRequest().build();
         }
-        Event createdEvent = eventService.createEvent(eventName);
-        socketService.propagateCreation(createdEvent);
+        Event createdEvent = null;
+        for(int attempt = 1; createdEvent == null; attempt++) {
+            try {
+                createdEvent = transactionTemplate.execute(status -> {
+                    Event created = eventService.createEvent(eventName);
+                    outboxService.eventCreated(created.getId());
+                    return created;
+                });
+            } catch (DataIntegrityViolationException e) {
+                // Another server instance took the ID in the meantime, the next attempt gets a new one
+                if(attempt == CREATE_ATTEMPTS) throw e;
+            }
+        }
         return ResponseEntity.ok(createdEvent);
     }
 
     /**
-     * Endpoint for joining an event.
+     * Endpoint for joining an event. An archived event is restored first, which is sent to the clients as a creation.
      * @param id ID of the event
      * @return ResponseEntity with the event iff the event can be found. Else return a bad request.
      */
-    @GetMapping("/{id}")
-    ResponseEntity<Event> join(@PathVariable String id) {
+    @GetMapping("/{eventId}")
+    ResponseEntity<Event> join(@PathVariable("eventId") String id) {
         Optional<Event> event = repository.findById(id);
+        if(event.isEmpty())
+            event = archiveService.rehydrate(id);
         if(event.isEmpty())
             return ResponseEntity.badRequest().build();
         return ResponseEntity.ok(event.get());
     }
 
     /**
-     * Endpoint for retrieving all events.
+     * Endpoint for retrieving all events, of every shard.
      * @return All events from the database.
      */
     @GetMapping("/all")
     ResponseEntity<List<Event>> all() {
-        return ResponseEntity.ok(repository.findAll());
+        return ResponseEntity.ok(shardRouter.scatter(() ->
+                transactionTemplate.execute(status -> loaded(repository.findAll()))));
     }
 
     /**
-     * Endpoint for removing an event from the database.
+     * Loads the collections of events, as the shards are queried outside the request, so the events
+     * cannot be loaded further while they are sent
+     * @param events the events
+     * @return the same events
+     */
+    private static List<Event> loaded(List<Event> events) {
+        events.forEach(EventService::loaded);
+        return events;
+    }
+
+    /**
+     * Endpoint for removing an event from the database, together with its own tags and change log.
      * @param id ID of the to be removed event.
      * @return OK iff event was found in the database. Else a bad request.
      */
-    @DeleteMapping("/remove/{id}")
-    ResponseEntity<Event> remove(@PathVariable String id) {
+    @DeleteMapping("/remove/{eventId}")
+    ResponseEntity<Event> remove(@PathVariable("eventId") String id) {
         Optional<Event> event = repository.findById(id);
-        if(event.isEmpty())
-            return ResponseEntity.badRequest().build();
-        repository.deleteById(id);
-        socketService.propagateDeletion(id);
+        if(event.isEmpty()) {
+            boolean deleted = Boolean.TRUE.equals(transactionTemplate.execute(status -> {
+                if(archiveService.delete(List.of(id)).isEmpty()) return false;
+                outboxService.eventDeleted(id);
+                return true;
+            }));
+            return deleted ? ResponseEntity.ok().build() : ResponseEntity.badRequest().build();
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            eventService.deleteEvents(List.of(id));
+            rollupService.deleteEvent(id);
+            outboxService.eventDeleted(id);
+        });
         return ResponseEntity.ok(event.get());
     }
 
     /**
-     * endpoint for deleting all the events
+     * endpoint for deleting all the events, each shard records the deletion if it had any events
      * @return a string telling us whether we successfully deleted all events or that there was no events
      * to be deleted
      */
     @DeleteMapping("/delete/all")
     ResponseEntity<String> deleteAll(){
-        List<Event> allEvents = repository.findAll();
-        List<String> allIds = allEvents.stream().map(Event::getId).toList();
-        if(allEvents.isEmpty()){
+        long deleted = shardRouter.sum(() -> transactionTemplate.execute(status -> {
+            long count = eventService.deleteAllEvents() + archiveService.deleteAll();
+            if(count > 0){
+                rollupService.deleteAll();
+                outboxService.allDeleted();
+            }
+            return count;
+        }));
+        if(deleted == 0){
             return ResponseEntity.ok("No events do be deleted");
         }
-        repository.deleteAll();
-        allIds.forEach(socketService::propagateDeletion);
         return ResponseEntity.ok("Successfully deleted all the events");
     }
 
+    /**
+     * Endpoint for deleting several events at once, sending a single deletion message
+     * @param ids the IDs of the events to delete
+     * @return the IDs of the events that were deleted, or a bad request if no IDs were given
+     */
+    @DeleteMapping("/delete")
+    ResponseEntity<List<String>> removeAll(@RequestBody List<String> ids){
+        if(ids == null || ids.isEmpty()){
+            return ResponseEntity.badRequest().build();
+        }
+        List<String> deleted = new ArrayList<>();
+        shardRouter.groupByShard(ids).forEach((shard, shardIds) -> deleted.addAll(ShardContext.forShard(shard,
+                () -> transactionTemplate.execute(status -> deleteOnShard(shardIds)))));
+        return ResponseEntity.ok(deleted);
+    }
+
+    /**
+     * Deletes events of the same shard, active or archived, recording a single deletion message for them
+     * @param ids the IDs of the events
+     * @return the IDs of the events that were deleted
+     */
+    private List<String> deleteOnShard(List<String> ids) {
+        List<String> deleted = new ArrayList<>(eventService.deleteEvents(ids));
+        Set<String> active = new HashSet<>(deleted);
+        deleted.addAll(archiveService.delete(ids.stream().filter(id -> !active.contains(id)).toList()));
+        if(!deleted.isEmpty()){
+            rollupService.deleteEvents(deleted);
+            outboxService.eventsDeleted(deleted);
+        }
+        return deleted;
+    }
+
     /**
      * Endpoint for giving an ordered list of events by title.
      * @return A list of events ordered by title
@@ -173,9 +258,35 @@ public class EventController {
         if(event==null || event.getTitle().isEmpty() || event.getTitle()==null){
             return ResponseEntity.badRequest().build();
         }
-        Event createdEvent = eventService.saveEvent(event);
-        socketService.propagateCreation(createdEvent);
+        Event createdEvent = commandQueue.executeRecorded(event.getId(), () -> {
+            Event saved = eventService.saveEvent(event);
+            rollupService.rebuild(saved);
+            outboxService.eventCreated(saved.getId());
+            return EventService.loaded(saved);
+        });
         return ResponseEntity.ok(createdEvent);
     }
 
+    /**
+     * Endpoint for importing an event, e.g. from a backup.
+     * A new event is created, an existing event is merged with the imported one,
+     * only writing what changed and sending a single update.
+     * @param event - the event to import
+     * @return The stored event.
+     */
+    @PutMapping("/import")
+    ResponseEntity<Event> importEvent(@RequestBody Event event) {
+        if(event==null || event.getId()==null || event.getTitle()==null || event.getTitle().isEmpty()){
+            return ResponseEntity.badRequest().build();
+        }
+        Event storedEvent = commandQueue.executeRecorded(event.getId(), () -> {
+            EventService.ImportResult imported = eventService.importEvent(event);
+            rollupService.rebuild(imported.event());
+            if(imported.created()) outboxService.eventCreated(imported.event().getId());
+            else outboxService.eventUpdated(imported.event().getId());
+            return EventService.loaded(imported.event());
+        });
+        return ResponseEntity.ok(storedEvent);
+    }
+
 }
\ No newline at end of file
@@ -0,0 +1,189 @@
+package server.api;
+
+import commons.Event;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.stereotype.Service;
+import server.database.ArchivedEventRepository;
+import server.database.EventRepository;
+import server.database.shard.ShardRouter;
+
+import java.util.BitSet;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Hands out event IDs that are not taken yet. Every ID in use, including archived events, is recorded
+ * in a bloom filter seeded from the database at startup. A random code the filter has not seen is certainly
+ * free, so it is reserved by adding it to the filter; a code the filter might have seen is skipped.
+ * A pool of reserved codes is refilled in the background, so creating an event does not wait for a code.
+ * The filter covers the events of every shard, so an ID is unique over all of them.
+ */
+@Service
+@DependsOn("shardSchemaInitializer")
+public class EventIdAllocator {
+    private final EventRepository eventRepository;
+    private final ArchivedEventRepository archiveRepository;
+    private final ShardRouter shardRouter;
+    private final int poolSize;
+    private final BloomFilter takenIds;
+    private final ConcurrentLinkedQueue<String> pool = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean refilling = new AtomicBoolean();
+    private final ExecutorService refiller = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "event-id-refill");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Constructor
+     * @param eventRepository the repository containing the active events
+     * @param archiveRepository the repository containing the archived events
+     * @param shardRouter the ShardRouter querying every shard
+     * @param poolSize the number of codes kept reserved
+     * @param expectedIds the number of IDs the filter is sized for, with a false positive rate of about 1%
+     */
+    @Autowired
+    public EventIdAllocator(EventRepository eventRepository, ArchivedEventRepository archiveRepository,
+                            ShardRouter shardRouter,
+                            @Value("${ids.pool-size:256}") int poolSize,
+                            @Value("${ids.expected-events:1000000}") int expectedIds) {
+        this.eventRepository = eventRepository;
+        this.archiveRepository = archiveRepository;
+        this.shardRouter = shardRouter;
+        this.poolSize = poolSize;
+        this.takenIds = new BloomFilter(expectedIds);
+    }
+
+    /**
+     * Records the IDs of the stored events and fills the pool, before any event is created
+     */
+    @PostConstruct
+    public void seed() {
+        shardRouter.scatter(eventRepository::findAllIds).forEach(this::register);
+        shardRouter.scatter(archiveRepository::findAllIds).forEach(this::register);
+        refill();
+    }
+
+    /**
+     * Stops the background refill
+     */
+    @PreDestroy
+    public void shutdown() {
+        refiller.shutdownNow();
+    }
+
+    /**
+     * Takes a reserved code for a new event, reserving one right away if the pool ran out
+     * @return an ID that no other event has, or will be given
+     */
+    public String allocate() {
+        String id = pool.poll();
+        if (id == null) id = reserve();
+        if (pool.size() < poolSize / 2 && refilling.compareAndSet(false, true)) {
+            refiller.execute(() -> {
+                try {
+                    refill();
+                } finally {
+                    refilling.set(false);
+                }
+            });
+        }
+        return id;
+    }
+
+    /**
+     * Records an ID chosen outside the allocator, e.g. by an imported event, so it is never handed out
+     * @param id the ID of the event
+     */
+    public void register(String id) {
+        synchronized (takenIds) {
+            takenIds.add(id);
+        }
+        pool.remove(id);
+    }
+
+    /**
+     * Returns the number of codes currently reserved
+     * @return the size of the pool
+     */
+    public int available() {
+        return pool.size();
+    }
+
+    private void refill() {
+        while (pool.size() < poolSize) {
+            pool.add(reserve());
+        }
+    }
+
+    /**
+     * Draws random codes until one is certainly not taken, and marks it as taken
+     * @return the reserved code
+     */
+    private String reserve() {
+        synchronized (takenIds) {
+            String id;
+            do {
+                id = Event.generateId();
+            } while (takenIds.mightContain(id));
+            takenIds.add(id);
+            return id;
+        }
+    }
+
+    /**
+     * A set of strings that never forgets a member, but may wrongly report a string as a member.
+     * Every string sets a few bits, derived from two hashes, of a fixed size bit array.
+     */
+    static final class BloomFilter {
+        private final BitSet bits;
+        private final int size;
+        private final int hashes;
+
+        /**
+         * Creates a filter with a false positive rate of about 1% after the expected number of strings
+         * @param expected the expected number of strings
+         */
+        BloomFilter(int expected) {
+            int entries = Math.max(expected, 1);
+            this.size = (int) Math.ceil(-entries * Math.log(0.01) / (Math.log(2) * Math.log(2)));
+            this.hashes = Math.max(1, (int) Math.round((double) size / entries * Math.log(2)));
+            this.bits = new BitSet(size);
+        }
+
+        void add(String value) {
+            int first = value.hashCode();
+            int second = secondHash(value);
+            for (int i = 0; i < hashes; i++) {
+                bits.set(Math.floorMod(first + i * second, size));
+            }
+        }
+
+        boolean mightContain(String value) {
+            int first = value.hashCode();
+            int second = secondHash(value);
+            for (int i = 0; i < hashes; i++) {
+                if (!bits.get(Math.floorMod(first + i * second, size))) return false;
+            }
+            return true;
+        }
+
+        /**
+         * FNV-1a hash of the characters, independent of String.hashCode
+         */
+        private static int secondHash(String value) {
+            int hash = 0x811C9DC5;
+            for (int i = 0; i < value.length(); i++) {
+                hash ^= value.charAt(i);
+                hash *= 0x01000193;
+            }
+            return hash | 1;
+        }
+    }
+}
@@ -1,47 +1,72 @@
 package server.api;
 import commons.Event;
+import commons.Expense;
+import commons.Participant;
 import commons.Tag;
 import jakarta.persistence.EntityNotFoundException;
+import org.hibernate.Hibernate;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import server.database.EventChange;
+import server.database.EventDeletionRepository;
 import server.database.EventRepository;
+import server.database.shard.ShardContext;
 
-import java.util.Date;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 
 @Service
 public class EventService {
+    // Number of events deleted per set of statements, bounding the number of IDs held in memory
+    private static final int DELETE_CHUNK_SIZE = 500;
+
     private final EventRepository eventRepository;
+    private final EventDeletionRepository deletionRepository;
+    private final ChangeLogService changeLogService;
+    private final EventIdAllocator idAllocator;
+    private final TagCatalog tagCatalog;
 
     /**
      * constructor
      * autowired - automatically inject instances of the parameters when creating an EventService
      * @param eventRepository used for handling events
+     * @param deletionRepository used for deleting events in bulk
+     * @param changeLogService used for logging the changes to events
+     * @param idAllocator used for giving new events an ID no other event has
+     * @param tagCatalog used for linking the tags shared by all events
      */
     @Autowired
-    public EventService(EventRepository eventRepository) {
+    public EventService(EventRepository eventRepository, EventDeletionRepository deletionRepository,
+                        ChangeLogService changeLogService, EventIdAllocator idAllocator, TagCatalog tagCatalog) {
         this.eventRepository = eventRepository;
+        this.deletionRepository = deletionRepository;
+        this.changeLogService = changeLogService;
+        this.idAllocator = idAllocator;
+        this.tagCatalog = tagCatalog;
     }
 
     /***
-     * Creates a new Event based on a given title
+     * Creates a new Event based on a given title, with an ID reserved as unique.
+     * The Event is inserted, so it can never overwrite another Event: a taken ID makes the creation fail.
+     * The Event is linked to the shared tags of the catalog, instead of getting its own copies,
+     * and stored on the shard its ID belongs to.
      * @param title - the title of the new Event
      * @return a full, persisted Event object
      */
+    @Transactional
     public Event createEvent(String title){
         Date currentDate = new Date();
-        Event event = new Event(title, currentDate);
-        Tag defaultTag = new Tag("default", "#808080");
-        Tag food = new Tag("food", "#008000");
-        Tag entranceFees = new Tag("entrance fees", "#0000FF");
-        Tag travel = new Tag("travel", "#FF0000");
-        Tag moneyTransfer = new Tag("money transfer", "#000000");
-        event.addTag(defaultTag);
-        event.addTag(food);
-        event.addTag(entranceFees);
-        event.addTag(travel);
-        event.addTag(moneyTransfer);
-        return eventRepository.save(event);
+        Event event = new Event(idAllocator.allocate(), title, currentDate);
+        // The shard follows from the new ID, the transaction has not used a connection yet
+        return ShardContext.forEvent(event.getId(), () -> {
+            tagCatalog.tags().forEach(event::addTag);
+            eventRepository.insert(event);
+            changeLogService.append(event.getId(), EventChange.Type.EVENT_CREATED, event);
+            return event;
+        });
     }
 
     /***
@@ -49,8 +74,266 @@ public class EventService {
      * @param event the Event to save
      * @return the JPA generated Event saved
      */
+    @Transactional
     public Event saveEvent(Event event){
-        return eventRepository.save(event);
+        idAllocator.register(event.getId());
+        internTags(event);
+        Event saved = eventRepository.save(event);
+        changeLogService.append(event.getId(), EventChange.Type.EVENT_REPLACED, saved);
+        return saved;
+    }
+
+    /***
+     * Outcome of importing an Event
+     * @param event the stored Event
+     * @param created true if the Event did not exist yet and was created, false if it was merged
+     */
+    public record ImportResult(Event event, boolean created) {
+    }
+
+    /***
+     * Imports an Event, e.g. from a backup. A new Event is saved as a whole. An existing Event is merged:
+     * only the participants, tags and expenses that were added, changed or removed are written,
+     * instead of deleting and re-inserting the whole Event.
+     * @param incoming the Event to import
+     * @return the stored Event, and whether it was created
+     */
+    @Transactional
+    public ImportResult importEvent(Event incoming) {
+        Optional<Event> existing = eventRepository.findById(incoming.getId());
+        if(existing.isEmpty()) {
+            idAllocator.register(incoming.getId());
+            internTags(incoming);
+            Event saved = eventRepository.save(incoming);
+            changeLogService.append(incoming.getId(), EventChange.Type.EVENT_REPLACED, saved);
+            return new ImportResult(saved, true);
+        }
+        Event stored = existing.get();
+        Map<Long, Participant> incomingParticipants = byId(incoming.getParticipants(), Participant::getId);
+        Map<Long, Tag> incomingTags = byId(incoming.getEventTags(), Tag::getId);
+        Map<Long, Expense> incomingExpenses = byId(incoming.getExpenses(), Expense::getId);
+
+        // Removals first, while the hash codes of the stored entities still match their sets
+        for(Expense expense : List.copyOf(stored.getExpenses())) {
+            Expense incomingExpense = incomingExpenses.get(expense.getId());
+            if(incomingExpense == null) {
+                stored.removeExpense(expense);
+                continue;
+            }
+            // Members that left the expense are dropped, also when they are still part of the Event
+            Set<Long> members = incomingExpense.getParticipantsInExpense().stream()
+                    .map(Participant::getId)
+                    .collect(Collectors.toSet());
+            expense.getParticipantsInExpense().removeIf(participant -> !members.contains(participant.getId()));
+        }
+        for(Participant participant : List.copyOf(stored.getParticipants())) {
+            if(!incomingParticipants.containsKey(participant.getId())) stored.removeParticipant(participant);
+        }
+        List<Long> removedTags = new ArrayList<>();
+        for(Tag tag : List.copyOf(stored.getEventTags())) {
+            if(incomingTags.containsKey(tag.getId())) continue;
+            stored.removeTag(tag);
+            if(!tag.isSystemTag()) removedTags.add(tag.getId());
+        }
+
+        Map<Long, Participant> participants = mergeParticipants(stored, incomingParticipants.values());
+        Map<Long, Tag> tags = mergeTags(stored, incomingTags.values());
+        mergeExpenses(stored, incomingExpenses.values(), participants, tags);
+
+        if(!Objects.equals(stored.getTitle(), incoming.getTitle())) stored.setTitle(incoming.getTitle());
+        stored.setLastActivity(incoming.getLastActivity() != null ? incoming.getLastActivity() : new Date());
+        stored.invalidateIndex();
+        Event saved = eventRepository.save(stored);
+        // Tags are not owned by their Event anymore, so the removed tags of the Event itself are deleted here
+        if(!removedTags.isEmpty()) {
+            eventRepository.flush();
+            deletionRepository.deleteTags(removedTags);
+        }
+        changeLogService.append(stored.getId(), EventChange.Type.EVENT_REPLACED, saved);
+        return new ImportResult(saved, false);
+    }
+
+    /***
+     * Updates the stored participants and adds the new ones
+     * @param stored the stored Event
+     * @param incoming the imported participants
+     * @return the stored participants, by the ID they have in the import
+     */
+    private static Map<Long, Participant> mergeParticipants(Event stored, Collection<Participant> incoming) {
+        Map<Long, Participant> existing = byId(stored.getParticipants(), Participant::getId);
+        Map<Long, Participant> merged = new HashMap<>();
+        for(Participant participant : incoming) {
+            Participant target = existing.get(participant.getId());
+            if(target == null) {
+                target = new Participant(participant.getName());
+                stored.addParticipant(target);
+            } else target.setName(participant.getName());
+            target.setLegalName(participant.getLegalName());
+            target.setIban(participant.getIban());
+            target.setBic(participant.getBic());
+            target.setEmail(participant.getEmail());
+            merged.put(participant.getId(), target);
+        }
+        return merged;
+    }
+
+    /***
+     * Updates the stored tags and adds the new ones. New tags of the catalog are linked to the shared tag,
+     * a changed shared tag is replaced by a tag of the Event itself.
+     * @param stored the stored Event
+     * @param incoming the imported tags
+     * @return the stored tags, by the ID they have in the import
+     */
+    private Map<Long, Tag> mergeTags(Event stored, Collection<Tag> incoming) {
+        Map<Long, Tag> existing = byId(stored.getEventTags(), Tag::getId);
+        Map<Long, Tag> merged = new HashMap<>();
+        for(Tag tag : incoming) {
+            Tag target = existing.get(tag.getId());
+            if(target == null) {
+                target = tagCatalog.find(tag).orElseGet(() -> new Tag(tag.getTagName(), tag.getColorCode()));
+                stored.addTag(target);
+            } else if(target.isSystemTag()) {
+                if(!sameDetails(target, tag)) {
+                    stored.removeTag(target);
+                    target = new Tag(tag.getTagName(), tag.getColorCode());
+                    stored.addTag(target);
+                }
+            } else {
+                target.setTagName(tag.getTagName());
+                target.setColorCode(tag.getColorCode());
+            }
+            merged.put(tag.getId(), target);
+        }
+        return merged;
+    }
+
+    /***
+     * Replaces the tags of an Event sent by a client, so a client can never change a shared tag:
+     * unchanged tags of the catalog by the stored shared tag, changed ones by new tags of the Event itself
+     * @param event the Event sent by the client
+     */
+    private void internTags(Event event) {
+        if(event.getEventTags() == null) return;
+        Map<Long, Tag> interned = new HashMap<>();
+        List<Tag> tags = new ArrayList<>();
+        for(Tag tag : event.getEventTags()) {
+            Tag result = intern(tag);
+            if(tag.getId() != 0) interned.put(tag.getId(), result);
+            tags.add(result);
+        }
+        event.getEventTags().clear();
+        tags.forEach(event::addTag);
+        if(event.getExpenses() != null) {
+            for(Expense expense : event.getExpenses()) {
+                Tag tag = expense.getExpenseTag();
+                if(tag != null && tag.getId() != 0) {
+                    expense.setExpenseTag(interned.computeIfAbsent(tag.getId(), id -> intern(tag)));
+                }
+            }
+        }
+        event.invalidateIndex();
+    }
+
+    private Tag intern(Tag tag) {
+        Optional<Tag> shared = tagCatalog.find(tag);
+        if(shared.isPresent()) return shared.get();
+        if(tag.isSystemTag() || tagCatalog.contains(tag.getId())) return new Tag(tag.getTagName(), tag.getColorCode());
+        return tag;
+    }
+
+    private static boolean sameDetails(Tag tag, Tag other) {
+        return Objects.equals(tag.getTagName(), other.getTagName())
+                && Objects.equals(tag.getColorCode(), other.getColorCode());
+    }
+
+    /***
+     * Updates the stored expenses and adds the new ones, pointing them to the stored participants and tags
+     * @param stored the stored Event
+     * @param incoming the imported expenses
+     * @param participants the stored participants, by the ID they have in the import
+     * @param tags the stored tags, by the ID they have in the import
+     */
+    private static void mergeExpenses(Event stored, Collection<Expense> incoming,
+                                      Map<Long, Participant> participants, Map<Long, Tag> tags) {
+        Map<Long, Expense> existing = byId(stored.getExpenses(), Expense::getId);
+        for(Expense expense : incoming) {
+            Participant owedTo = expense.getOwedTo() == null ? null : participants.get(expense.getOwedTo().getId());
+            Expense target = existing.get(expense.getId());
+            boolean added = target == null;
+            if(added) target = new Expense(expense.getName(), expense.getPriceInCents(), expense.getDate(), owedTo);
+            else {
+                target.setName(expense.getName());
+                target.setPriceInCents(expense.getPriceInCents());
+                target.setDate(expense.getDate());
+                target.setOwedTo(owedTo);
+            }
+            target.setCurrency(expense.getCurrency());
+            target.setExpenseTag(expense.getExpenseTag() == null ? null : tags.get(expense.getExpenseTag().getId()));
+            // Compared by identity, as changed participants no longer match their hash codes
+            Set<Participant> present = Collections.newSetFromMap(new IdentityHashMap<>());
+            present.addAll(target.getParticipantsInExpense());
+            for(Participant participant : expense.getParticipantsInExpense()) {
+                Participant mapped = participants.get(participant.getId());
+                if(mapped != null && present.add(mapped)) {
+                    target.addParticipantToExpense(mapped);
+                }
+            }
+            if(added) stored.addExpense(target);
+        }
+    }
+
+    private static <T> Map<Long, T> byId(Collection<T> entities, Function<T, Long> id) {
+        Map<Long, T> map = new HashMap<>();
+        if(entities != null) entities.forEach(entity -> map.put(id.apply(entity), entity));
+        return map;
+    }
+
+    /***
+     * Deletes events together with their expenses, participants and tags, using set-based statements
+     * instead of loading and deleting every entity on its own
+     * @param eventIds the IDs of the events to delete, unknown IDs are ignored
+     * @return the IDs of the events that were deleted
+     */
+    @Transactional
+    public List<String> deleteEvents(Collection<String> eventIds) {
+        List<String> ids = List.copyOf(new LinkedHashSet<>(eventIds));
+        List<String> deleted = new ArrayList<>();
+        for(int from = 0; from < ids.size(); from += DELETE_CHUNK_SIZE) {
+            List<String> chunk = deletionRepository.findExistingIds(
+                    ids.subList(from, Math.min(from + DELETE_CHUNK_SIZE, ids.size())));
+            if(chunk.isEmpty()) continue;
+            List<Long> expenseIds = deletionRepository.findExpenseIds(chunk);
+            List<Long> participantIds = deletionRepository.findParticipantIds(chunk);
+            List<Long> tagIds = deletionRepository.findTagIds(chunk);
+            if(!expenseIds.isEmpty()) deletionRepository.deleteExpenseParticipantLinks(expenseIds);
+            deletionRepository.deleteExpenseLinks(chunk);
+            deletionRepository.deleteParticipantLinks(chunk);
+            deletionRepository.deleteTagLinks(chunk);
+            if(!expenseIds.isEmpty()) deletionRepository.deleteExpenses(expenseIds);
+            if(!participantIds.isEmpty()) deletionRepository.deleteParticipants(participantIds);
+            if(!tagIds.isEmpty()) deletionRepository.deleteTags(tagIds);
+            deletionRepository.deleteEvents(chunk);
+            deleted.addAll(chunk);
+        }
+        changeLogService.deleteEvents(deleted);
+        return deleted;
+    }
+
+    /***
+     * Deletes all events together with their expenses, participants and tags, one statement per table
+     * @return the number of events deleted
+     */
+    @Transactional
+    public int deleteAllEvents() {
+        deletionRepository.deleteAllExpenseParticipantLinks();
+        deletionRepository.deleteAllExpenseLinks();
+        deletionRepository.deleteAllParticipantLinks();
+        deletionRepository.deleteAllTagLinks();
+        deletionRepository.deleteAllExpenses();
+        deletionRepository.deleteAllParticipants();
+        deletionRepository.deleteAllTags();
+        changeLogService.deleteAll();
+        return deletionRepository.deleteAllEvents();
     }
 
     /**
@@ -59,10 +342,26 @@ public class EventService {
      * @param newTitle the new title
      * @return the new title of the event is saved in the database
      */
+    @Transactional
     public Event editTitle (String eventId, String newTitle){
         Event event = eventRepository.findById(eventId)
                 .orElseThrow(() -> new EntityNotFoundException("Event not found"));
         event.setTitle(newTitle);
-        return eventRepository.save(event);
+        Event saved = eventRepository.save(event);
+        changeLogService.append(eventId, EventChange.Type.TITLE_CHANGED, newTitle);
+        return saved;
+    }
+
+    /**
+     * Loads the collections of an event, for an event that is sent after its transaction ended,
+     * e.g. one returned by a command of the {@link EventCommandQueue}
+     * @param event the event
+     * @return the same event
+     */
+    static Event loaded(Event event) {
+        Hibernate.initialize(event.getParticipants());
+        Hibernate.initialize(event.getEventTags());
+        event.getExpenses().forEach(expense -> Hibernate.initialize(expense.getParticipantsInExpense()));
+        return event;
     }
 }
@@ -3,7 +3,6 @@ import commons.Expense;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
-import server.websockets.WebSocketService;
 
 import java.util.Set;
 
@@ -11,16 +10,17 @@ import java.util.Set;
 @RequestMapping("/api/events")
 public class ExpenseController {
     private final ExpenseService expenseService;
-    private final WebSocketService socketService;
+    private final EventCommandQueue commandQueue;
 
     /***
      * Constructor of the ExpenseController
      * @param expenseService the ExpenseService handling logic
-     * @param socketService the WebSocketService propagating updates
+     * @param commandQueue the EventCommandQueue applying the changes to each event in order
+     *                     and propagating the updates
      */
-    public ExpenseController(ExpenseService expenseService, WebSocketService socketService) {
+    public ExpenseController(ExpenseService expenseService, EventCommandQueue commandQueue) {
         this.expenseService = expenseService;
-        this.socketService = socketService;
+        this.commandQueue = commandQueue;
     }
 
     /**
@@ -33,8 +33,10 @@ public class ExpenseController {
     @PostMapping("/{eventId}/expenses")
     public ResponseEntity<Void> addExpenseToEvent(@PathVariable String eventId, @RequestBody
         Expense expense) {
-        expenseService.addExpense(eventId, expense);
-        socketService.propagateEventUpdate(eventId);
+        commandQueue.execute(eventId, event -> {
+            expenseService.addExpense(event, expense);
+            return null;
+        });
         return ResponseEntity.status(HttpStatus.CREATED).build();
     }
 
@@ -60,8 +62,10 @@ public class ExpenseController {
     @DeleteMapping("/{eventId}/expenses/{id}")
     public ResponseEntity<?> removeExpense(@PathVariable String eventId,
                                                          @PathVariable Long id) {
-        expenseService.deleteExpense(eventId, id);
-        socketService.propagateEventUpdate(eventId);
+        commandQueue.execute(eventId, event -> {
+            expenseService.deleteExpense(event, id);
+            return null;
+        });
         return ResponseEntity.ok().build();
     }
 
@@ -76,8 +80,8 @@ public class ExpenseController {
     public ResponseEntity<Expense> editExpense(@PathVariable String eventId,
                                                @PathVariable long id,
                                                @RequestBody Expense expense) {
-        Expense updatedExpense = expenseService.editExpense(id, expense);
-        socketService.propagateEventUpdate(eventId);
+        Expense updatedExpense = commandQueue.executeAlone(eventId,
+                () -> expenseService.editExpense(id, expense));
         return ResponseEntity.ok(updatedExpense);
 
     }
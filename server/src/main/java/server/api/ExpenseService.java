@@ -8,6 +8,7 @@ import jakarta.persistence.EntityNotFoundException;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import server.database.EventChange;
 import server.database.EventRepository;
 import server.database.ExpenseRepository;
 import server.database.ParticipantRepository;
@@ -24,6 +25,8 @@ public class ExpenseService {
     private final EventRepository eventRepository;
     private final ParticipantRepository participantRepository;
     private final TagRepository tagRepository;
+    private final SpendingRollupService rollupService;
+    private final ChangeLogService changeLogService;
 
     /**
      *
@@ -31,25 +34,28 @@ public class ExpenseService {
      * @param eventRepository the repository containing the events
      * @param participantRepository the repository containing the participants
      * @param tagRepository the repository containing the tags
+     * @param rollupService the service maintaining the spending rollups
+     * @param changeLogService the service logging the changes to events
      */
     @Autowired
     public ExpenseService(ExpenseRepository expenseRepository, EventRepository eventRepository,
-                          ParticipantRepository participantRepository, TagRepository tagRepository) {
+                          ParticipantRepository participantRepository, TagRepository tagRepository,
+                          SpendingRollupService rollupService, ChangeLogService changeLogService) {
         this.expenseRepository = expenseRepository;
         this.eventRepository = eventRepository;
         this.participantRepository = participantRepository;
         this.tagRepository = tagRepository;
+        this.rollupService = rollupService;
+        this.changeLogService = changeLogService;
     }
 
     /**
-     * The method assigns an expense to an event, identified by its id
-     * @param eventId the id by which we find the event
+     * The method assigns an expense to a loaded event, which is saved by the caller,
+     * see {@link EventCommandQueue#execute}
+     * @param event the event to add the expense to
      * @param expense the specific expense for that event
      */
-    @Transactional
-    public void addExpense(String eventId, Expense expense) {
-        Event event = eventRepository.findById(eventId)
-                .orElseThrow(() -> new EntityNotFoundException("Event not found"));
+    public void addExpense(Event event, Expense expense) {
         if(expense.getOwedTo() != null){
             long extractedParticipantId = expense.getOwedTo().getId();
             Participant participant = participantRepository.findById(extractedParticipantId)
@@ -72,8 +78,11 @@ public class ExpenseService {
             expense.setExpenseTag(fetchedTag);
         }
         expense.setParticipantToExpense(participants);
+        // Persisted before saving the event, so the logged expense has its id
+        expenseRepository.save(expense);
         event.addExpense(expense);
-        eventRepository.save(event);
+        rollupService.addExpense(event.getId(), expense);
+        changeLogService.append(event.getId(), EventChange.Type.EXPENSE_ADDED, expense);
     }
 
     /**
@@ -93,17 +102,16 @@ public class ExpenseService {
     }
 
     /**
-     * Deletes an Expense
-     * @param eventId the id of the corresponding event
+     * Deletes an Expense from a loaded event, which is saved by the caller, see {@link EventCommandQueue#execute}
+     * @param event the corresponding event
      * @param id the id of the expense to be deleted
      */
-    public void deleteExpense(String eventId, Long id) {
-        Expense expense = expenseRepository.findById(id)
+    public void deleteExpense(Event event, long id) {
+        Expense expense = event.findExpense(id)
                         .orElseThrow(() -> new EntityNotFoundException("Expense not found"));
-        Event event = eventRepository.findById(eventId)
-                        .orElseThrow(() -> new EntityNotFoundException("Event not found"));
         event.removeExpense(expense);
-        eventRepository.save(event);
+        rollupService.removeExpense(event.getId(), expense);
+        changeLogService.append(event.getId(), EventChange.Type.EXPENSE_REMOVED, expense.getId());
     }
 
     /**
@@ -112,9 +120,12 @@ public class ExpenseService {
      * @param newExpense The new expense
      * @return The updated expense
      */
+    @Transactional
     public Expense editExpense(long id, Expense newExpense) {
         Expense expense = expenseRepository.findById(id)
                 .orElseThrow(() -> new EntityNotFoundException("Expense not found"));
+        Optional<String> eventId = expenseRepository.findEventIdByExpenseId(id);
+        eventId.ifPresent(owner -> rollupService.removeExpense(owner, expense));
         if(newExpense.getOwedTo() != null){
             long extractedParticipantId = newExpense.getOwedTo().getId();
             Participant participant = participantRepository.findById(extractedParticipantId)
@@ -141,6 +152,11 @@ public class ExpenseService {
         expense.setPriceInCents(newExpense.getPriceInCents());
         expense.setParticipantToExpense(participants);
         expense.setExpenseTag(newTag);
-        return expenseRepository.save(expense);
+        Expense savedExpense = expenseRepository.save(expense);
+        eventId.ifPresent(owner -> {
+            rollupService.addExpense(owner, savedExpense);
+            changeLogService.append(owner, EventChange.Type.EXPENSE_EDITED, savedExpense);
+        });
+        return savedExpense;
     }
 }
@@ -0,0 +1,196 @@
+package server.api;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import commons.dto.EventNameChangeDTO;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import server.database.EventRepository;
+import server.database.OutboxMessage;
+import server.database.OutboxRepository;
+import server.database.shard.ShardContext;
+import server.database.shard.ShardRouter;
+import server.websockets.WebSocketService;
+
+import java.time.Duration;
+import java.util.*;
+
+/**
+ * Tails the outbox of every shard by sequence number and sends each message to the WebSocket
+ * and long polling clients of this server instance. Every instance runs its own relay over the shared database.
+ * <p>
+ * The messages of a shard are sent in the order of their sequence numbers. A number that is missing may belong
+ * to a transaction that has not committed yet, so the later messages are held back until it shows up,
+ * or until the gap timeout passed and it is taken to be rolled back. The messages of an event are therefore
+ * sent in the order they were written, as long as no transaction takes longer than the gap timeout to commit.
+ * An event is sent as it is when its message is relayed, so an update that is late still carries the latest state.
+ * The cursor of a shard only moves past a message once it was sent, so one that fails is sent again on the next poll,
+ * until it failed {@link #SEND_ATTEMPTS} times in a row.
+ */
+@Service
+@DependsOn("shardSchemaInitializer")
+public class OutboxRelay {
+    private static final Logger log = LoggerFactory.getLogger(OutboxRelay.class);
+    // Failures in a row after which a message is skipped, so it cannot hold back the outbox of its shard forever
+    static final int SEND_ATTEMPTS = 10;
+
+    private final OutboxRepository outboxRepository;
+    private final EventRepository eventRepository;
+    private final WebSocketService socketService;
+    private final LPController lpController;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final long gapTimeoutMillis;
+    // The last relayed sequence number of each shard, -1 until the first message if the outbox was empty
+    private final long[] cursors;
+    // When the relay started waiting for a missing sequence number of each shard, 0 if it is not waiting
+    private final long[] gapSince;
+    // The number of times in a row the message after the cursor of each shard could not be sent
+    private final int[] failures;
+
+    /**
+     * Constructor
+     * @param outboxRepository the repository containing the messages
+     * @param eventRepository the repository containing the events sent to the clients
+     * @param socketService the WebSocketService sending to the WebSocket clients of this instance
+     * @param lpController the LPController answering the long polling clients of this instance
+     * @param shardRouter the ShardRouter, each shard has its own outbox
+     * @param objectMapper the ObjectMapper reading the payloads
+     * @param transactionTemplate the TransactionTemplate loading the events of a message
+     * @param gapTimeout how long a missing sequence number holds back the later messages
+     */
+    @Autowired
+    public OutboxRelay(OutboxRepository outboxRepository, EventRepository eventRepository,
+                       WebSocketService socketService, LPController lpController, ShardRouter shardRouter,
+                       ObjectMapper objectMapper, TransactionTemplate transactionTemplate,
+                       @Value("${outbox.gap-timeout:PT5S}") Duration gapTimeout) {
+        this.outboxRepository = outboxRepository;
+        this.eventRepository = eventRepository;
+        this.socketService = socketService;
+        this.lpController = lpController;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = transactionTemplate;
+        this.gapTimeoutMillis = gapTimeout.toMillis();
+        this.cursors = new long[shardRouter.count()];
+        this.gapSince = new long[shardRouter.count()];
+        this.failures = new int[shardRouter.count()];
+    }
+
+    /**
+     * Starts after the messages already in the outbox, which were written before this instance had clients
+     */
+    @PostConstruct
+    public void start() {
+        for (int shard = 0; shard < cursors.length; shard++) {
+            long last = ShardContext.forShard(shard, outboxRepository::findLastId);
+            cursors[shard] = last == 0 ? -1 : last;
+        }
+    }
+
+    /**
+     * Sends the new messages of every shard, run periodically
+     */
+    @Scheduled(fixedDelayString = "${outbox.poll-interval:PT0.2S}")
+    public synchronized void relay() {
+        for (int shard = 0; shard < cursors.length; shard++) {
+            int index = shard;
+            List<OutboxMessage> messages = ShardContext.forShard(shard,
+                    () -> outboxRepository.findTop500ByIdGreaterThanOrderById(Math.max(cursors[index], 0)));
+            List<OutboxMessage> ready = takeReady(shard, messages, System.currentTimeMillis());
+            Set<String> updatedLater = new HashSet<>();
+            Set<Long> superseded = new HashSet<>();
+            for (int i = ready.size() - 1; i >= 0; i--) {
+                OutboxMessage message = ready.get(i);
+                // An earlier update would send the same state of the event again
+                boolean update = message.getType() == OutboxMessage.Type.EVENT_UPDATED;
+                if (update && !updatedLater.add(message.getEventId())) superseded.add(message.getId());
+            }
+            for (OutboxMessage message : ready) {
+                if (!superseded.contains(message.getId()) && !ShardContext.forShard(index, () -> send(message))) {
+                    // The later messages wait, so the clients still get them in order
+                    if (++failures[shard] < SEND_ATTEMPTS) break;
+                    log.error("Skipping message {} of the outbox after {} failed attempts", message.getId(), SEND_ATTEMPTS);
+                }
+                acknowledge(shard, message);
+            }
+        }
+    }
+
+    /**
+     * Takes the messages that follow the last relayed one without a gap, or after a gap that timed out.
+     * The cursor of the shard stays where it is until they are acknowledged.
+     * @param shard the index of the shard
+     * @param messages the messages after the cursor, in order
+     * @param now the current time in milliseconds
+     * @return the messages to send
+     */
+    List<OutboxMessage> takeReady(int shard, List<OutboxMessage> messages, long now) {
+        List<OutboxMessage> ready = new ArrayList<>();
+        long last = cursors[shard];
+        for (OutboxMessage message : messages) {
+            boolean next = last == -1 || message.getId() == last + 1;
+            if (!next) {
+                if (gapSince[shard] == 0) gapSince[shard] = now;
+                if (now - gapSince[shard] < gapTimeoutMillis) break;
+            }
+            gapSince[shard] = 0;
+            last = message.getId();
+            ready.add(message);
+        }
+        return ready;
+    }
+
+    /**
+     * Moves the cursor of a shard past a message that was sent or skipped
+     * @param shard the index of the shard
+     * @param message the message
+     */
+    void acknowledge(int shard, OutboxMessage message) {
+        cursors[shard] = message.getId();
+        failures[shard] = 0;
+    }
+
+    /**
+     * Sends a message to the clients of this instance, in a transaction so the event can be loaded completely
+     * @param message the message
+     * @return true if the message was sent
+     */
+    private boolean send(OutboxMessage message) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                String eventId = message.getEventId();
+                switch (message.getType()) {
+                    case EVENT_CREATED -> eventRepository.findById(eventId).ifPresent(socketService::propagateCreation);
+                    case EVENT_UPDATED -> {
+                        if (eventRepository.existsById(eventId)) socketService.propagateEventUpdate(eventId);
+                    }
+                    case TITLE_CHANGED -> lpController.propagateToAllListeners(
+                            new EventNameChangeDTO(eventId, message.getPayload()));
+                    case EVENT_DELETED -> socketService.propagateDeletion(eventId);
+                    case EVENTS_DELETED -> socketService.propagateDeletions(readIds(message.getPayload()));
+                    case ALL_DELETED -> socketService.propagateDeletionOfAll();
+                }
+            });
+            return true;
+        } catch (RuntimeException e) {
+            log.warn("Could not relay message {} of the outbox", message.getId(), e);
+            return false;
+        }
+    }
+
+    private List<String> readIds(String payload) {
+        try {
+            return objectMapper.readValue(payload, new TypeReference<>() {});
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Invalid payload of the outbox: " + payload, e);
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package server.api;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import server.database.OutboxMessage;
+import server.database.OutboxRepository;
+import server.database.shard.ShardContext;
+import server.database.shard.ShardRouter;
+
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Records what the clients have to be told about a change, in the same transaction as the change,
+ * so a message is stored if and only if its change is committed. Every server instance relays the messages
+ * to its own clients, see {@link OutboxRelay}, so clients hear about changes made through any instance.
+ * Each message is written on the shard of its event, so it joins the transaction of the change.
+ */
+@Service
+public class OutboxService {
+    private final OutboxRepository outboxRepository;
+    private final ObjectMapper objectMapper;
+    private final ShardRouter shardRouter;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration retention;
+
+    /**
+     * Constructor
+     * @param outboxRepository the repository containing the messages
+     * @param objectMapper the ObjectMapper serializing the payloads
+     * @param shardRouter the ShardRouter pruning the outbox of every shard
+     * @param transactionTemplate the TransactionTemplate pruning each shard in a transaction
+     * @param retention how long a message is kept, longer than any instance takes to relay it
+     */
+    @Autowired
+    public OutboxService(OutboxRepository outboxRepository, ObjectMapper objectMapper, ShardRouter shardRouter,
+                         TransactionTemplate transactionTemplate,
+                         @Value("${outbox.retention:PT10M}") Duration retention) {
+        this.outboxRepository = outboxRepository;
+        this.objectMapper = objectMapper;
+        this.shardRouter = shardRouter;
+        this.transactionTemplate = transactionTemplate;
+        this.retention = retention;
+    }
+
+    /**
+     * Records that an event was created
+     * @param eventId the ID of the event
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void eventCreated(String eventId) {
+        append(OutboxMessage.Type.EVENT_CREATED, eventId, null);
+    }
+
+    /**
+     * Records that an event was changed
+     * @param eventId the ID of the event
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void eventUpdated(String eventId) {
+        append(OutboxMessage.Type.EVENT_UPDATED, eventId, null);
+    }
+
+    /**
+     * Records that the title of an event was changed, for the clients listening to the titles of all events
+     * @param eventId the ID of the event
+     * @param title the new title
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void titleChanged(String eventId, String title) {
+        append(OutboxMessage.Type.TITLE_CHANGED, eventId, title);
+    }
+
+    /**
+     * Records that an event was deleted
+     * @param eventId the ID of the event
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void eventDeleted(String eventId) {
+        append(OutboxMessage.Type.EVENT_DELETED, eventId, null);
+    }
+
+    /**
+     * Records that several events were deleted, to be sent as a single message
+     * @param eventIds the IDs of the events
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void eventsDeleted(List<String> eventIds) {
+        try {
+            append(OutboxMessage.Type.EVENTS_DELETED, null, objectMapper.writeValueAsString(eventIds));
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Records that all events were deleted
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void allDeleted() {
+        append(OutboxMessage.Type.ALL_DELETED, null, null);
+    }
+
+    private void append(OutboxMessage.Type type, String eventId, String payload) {
+        outboxRepository.save(new OutboxMessage(type, eventId, payload, new Date()));
+    }
+
+    /**
+     * Deletes the messages older than the retention from the outbox of every shard, run periodically
+     */
+    @Scheduled(fixedDelayString = "${outbox.prune-interval:PT1M}", initialDelayString = "${outbox.prune-interval:PT1M}")
+    public void prune() {
+        Date cutoff = new Date(System.currentTimeMillis() - retention.toMillis());
+        for (int shard = 0; shard < shardRouter.count(); shard++) {
+            ShardContext.forShard(shard, () -> transactionTemplate.execute(
+                    status -> outboxRepository.deleteCreatedBefore(cutoff)));
+        }
+    }
+}
@@ -4,25 +4,27 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
-import server.websockets.WebSocketService;
+
+import java.util.List;
 
 @RestController
 @RequestMapping("/api/events")
 public class ParticipantController {
     private final ParticipantService participantService;
-    private final WebSocketService socketService;
+    private final EventCommandQueue commandQueue;
 
     /**
      * Participant controller constructor
      *
      * @param participantService the eventService handling logic
-     * @param socketService the WebSocketService propagating updates
+     * @param commandQueue the EventCommandQueue applying the changes to each event in order
+     *                     and propagating the updates
      */
     @Autowired
     public ParticipantController(ParticipantService participantService,
-                                 WebSocketService socketService) {
+                                 EventCommandQueue commandQueue) {
         this.participantService = participantService;
-        this.socketService = socketService;
+        this.commandQueue = commandQueue;
     }
 
     /**
@@ -34,8 +36,30 @@ public class ParticipantController {
     @PostMapping("/{eventId}/participants")
     public ResponseEntity<Void> addParticipantToEvent(@PathVariable String eventId,
                                                       @RequestBody Participant participant) {
-        participantService.addParticipantToEvent(eventId, participant);
-        socketService.propagateEventUpdate(eventId);
+        commandQueue.execute(eventId, event -> {
+            participantService.addParticipantsToEvent(event, List.of(participant));
+            return null;
+        });
+        return ResponseEntity.status(HttpStatus.CREATED).build();
+    }
+
+    /**
+     * Creates several participants at once, tied to an event,
+     * sending a single update to the clients watching the event
+     * @param eventId identifies the id for which we want to add the participants
+     * @param participants the participants to add
+     * @return returns the status of the operation
+     */
+    @PostMapping("/{eventId}/participants/batch")
+    public ResponseEntity<Void> addParticipantsToEvent(@PathVariable String eventId,
+                                                       @RequestBody List<Participant> participants) {
+        if (participants.isEmpty()) {
+            return ResponseEntity.badRequest().build();
+        }
+        commandQueue.execute(eventId, event -> {
+            participantService.addParticipantsToEvent(event, participants);
+            return null;
+        });
         return ResponseEntity.status(HttpStatus.CREATED).build();
     }
 
@@ -51,9 +75,8 @@ public class ParticipantController {
     public ResponseEntity<Participant> editParticipant(@PathVariable String eventId,
                                                        @PathVariable Long participantId,
                                                        @RequestBody Participant participantData) {
-        Participant updatedParticipant = participantService.editParticipant(participantId,
-                participantData);
-        socketService.propagateEventUpdate(eventId);
+        Participant updatedParticipant = commandQueue.executeAlone(eventId,
+                () -> participantService.editParticipant(participantId, participantData));
         return ResponseEntity.ok(updatedParticipant);
     }
 
@@ -66,8 +89,10 @@ public class ParticipantController {
     @DeleteMapping("/{eventId}/participants/{participantId}")
     public ResponseEntity<?> removeParticipant(@PathVariable String eventId,
                                                @PathVariable Long participantId) {
-        participantService.removeParticipant(eventId, participantId);
-        socketService.propagateEventUpdate(eventId);
+        commandQueue.executeAlone(eventId, () -> {
+            participantService.removeParticipant(eventId, participantId);
+            return null;
+        });
         return ResponseEntity.ok().build();
     }
 }
\ No newline at end of file
@@ -6,18 +6,23 @@ import commons.Participant;
 import jakarta.persistence.EntityNotFoundException;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import server.database.EventChange;
 import server.database.EventRepository;
 import server.database.ExpenseRepository;
 import server.database.ParticipantRepository;
 
 
-import java.util.Set;
+import java.util.Date;
+import java.util.List;
 
 @Service
 public class ParticipantService {
     private final EventRepository eventRepository;
     private final ParticipantRepository participantRepository;
     private final ExpenseRepository expenseRepository;
+    private final SpendingRollupService rollupService;
+    private final ChangeLogService changeLogService;
 
     /**
      * constructor
@@ -25,55 +30,93 @@ public class ParticipantService {
      * @param eventRepository used for handling events
      * @param participantRepository used for handling participants
      * @param expenseRepository used for handling expenses
+     * @param rollupService used for keeping the spending rollups up to date
+     * @param changeLogService used for logging the changes to events
      */
     @Autowired
     public ParticipantService(EventRepository eventRepository,
                               ParticipantRepository participantRepository,
-                              ExpenseRepository expenseRepository) {
+                              ExpenseRepository expenseRepository,
+                              SpendingRollupService rollupService,
+                              ChangeLogService changeLogService) {
         this.eventRepository = eventRepository;
         this.participantRepository = participantRepository;
         this.expenseRepository = expenseRepository;
+        this.rollupService = rollupService;
+        this.changeLogService = changeLogService;
     }
 
     /**
-     * Add a new participant to an event, add a new participant to the repository
-     * @param participant the Participant to add
-     * @param eventId the event to which we want to add a participant
+     * Add new participants to a loaded event, which is saved by the caller, see {@link EventCommandQueue#execute}
+     * @param event the event to which we want to add the participants
+     * @param participants the Participants to add
      */
-    public void addParticipantToEvent(String eventId, Participant participant) {
-        Event event = eventRepository.findById(eventId)
-                .orElseThrow(() -> new EntityNotFoundException("Event not found"));
+    public void addParticipantsToEvent(Event event, List<Participant> participants) {
+        List<Participant> added = participants.stream().map(this::persistCopy).toList();
+        added.forEach(event::addParticipant);
+        for (Participant participant : added) {
+            changeLogService.append(event.getId(), EventChange.Type.PARTICIPANT_ADDED, participant);
+        }
+    }
+
+    /**
+     * Persists a copy of a participant before it is added to its event, so the copy has its id
+     * when the change is logged, as saving the event would only give an id to a merged copy
+     * @param participant the participant sent by the client
+     * @return the persisted copy
+     */
+    private Participant persistCopy(Participant participant) {
+        Participant dbParticipant = copyDetails(participant);
+        participantRepository.save(dbParticipant);
+        return dbParticipant;
+    }
+
+    /**
+     * Creates a new participant with the details of the given one, so the client cannot choose its id
+     * @param participant the participant sent by the client
+     * @return a new participant with the same details
+     */
+    private static Participant copyDetails(Participant participant) {
         Participant dbParticipant = new Participant(participant.getName());
         dbParticipant.setLegalName(participant.getLegalName());
         dbParticipant.setIban(participant.getIban());
         dbParticipant.setBic(participant.getBic());
         dbParticipant.setEmail(participant.getEmail());
-        event.addParticipant(dbParticipant);
-        eventRepository.save(event);
+        return dbParticipant;
     }
 
     /**
-     * remove a participant, make sure both the event and participants exist or else
-     * throw an exception
+     * remove a participant, make sure both the event and participants exist and the participant
+     * is in the event or else throw an exception. The expenses owed to the participant are deleted and the participant is
+     * removed from the other expenses of the event with set-based statements, without saving every expense.
      * @param eventId the id of the event of the participant
      * @param participantId the participant we want to remove
      */
+    @Transactional
     public void removeParticipant(String eventId, Long participantId) {
         Participant participant = participantRepository.findById(participantId)
                 .orElseThrow(() -> new EntityNotFoundException("Participant not found"));
-        Event event = eventRepository.findById(eventId)
-                .orElseThrow(() -> new EntityNotFoundException("Event not found"));
-        var expenses = expenseRepository.findByOwedTo(participant);
-        for (Expense expense : expenses)
-            event.removeExpense(expense);
-        Set<Expense> expensesInEvent = event.getExpenses();
-        for(Expense expense: expensesInEvent) {
-            Set<Participant> participantsInExpense = expense.getParticipantsInExpense();
-            participantsInExpense.remove(participant);
-            expenseRepository.save(expense);
+        if (eventRepository.touch(eventId, new Date()) == 0) {
+            throw new EntityNotFoundException("Event not found");
+        }
+        // The statements below are scoped to the event, so a participant of another event would only be half removed
+        if (!participantRepository.findEventIdByParticipantId(participant.getId()).map(eventId::equals).orElse(false)) {
+            throw new EntityNotFoundException("Participant not found in event");
         }
-        event.removeParticipant(participant);
-        eventRepository.save(event);
+        List<Expense> owedExpenses = expenseRepository.findByEventIdAndOwedToId(eventId, participant.getId());
+        for (Expense expense : owedExpenses) {
+            rollupService.removeExpense(eventId, expense);
+        }
+        expenseRepository.removeParticipantFromExpenses(eventId, participant.getId());
+        if (!owedExpenses.isEmpty()) {
+            List<Long> owedIds = owedExpenses.stream().map(Expense::getId).toList();
+            expenseRepository.removeAllParticipants(owedIds);
+            expenseRepository.unlinkFromEvent(owedIds);
+            expenseRepository.deleteByIds(owedIds);
+        }
+        participantRepository.unlinkFromEvent(eventId, participant.getId());
+        participantRepository.deleteByIdInBulk(participant.getId());
+        changeLogService.append(eventId, EventChange.Type.PARTICIPANT_REMOVED, participant.getId());
     }
 
     /**
@@ -82,7 +125,7 @@ public class ParticipantService {
      * @param participant the details of the participant
      * @return the participants modified details are now saved in the database
      */
-
+    @Transactional
     public Participant editParticipant(Long participantId, Participant participant) {
         Participant dbParticipant = participantRepository.findById(participantId)
                 .orElseThrow(() -> new EntityNotFoundException("Participant not found"));
@@ -91,7 +134,10 @@ public class ParticipantService {
         dbParticipant.setIban(participant.getIban());
         dbParticipant.setBic(participant.getBic());
         dbParticipant.setEmail(participant.getEmail());
-        return participantRepository.save(participant);
+        Participant saved = participantRepository.save(participant);
+        participantRepository.findEventIdByParticipantId(participantId).ifPresent(eventId ->
+                changeLogService.append(eventId, EventChange.Type.PARTICIPANT_EDITED, dbParticipant));
+        return saved;
     }
 
 
@@ -0,0 +1,150 @@
+package server.api;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import commons.Event;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import server.database.ArchivedEvent;
+import server.database.ArchivedEventRepository;
+import server.database.EventRepository;
+import server.database.shard.ShardContext;
+import server.database.shard.ShardRouter;
+
+import java.util.List;
+
+/**
+ * Moves the events to the shard they belong to after the number of shards changed. Started with
+ * shards.rebalance-from set to the previous number of shards, and shards.count to the new one;
+ * the databases of both are opened, and every event found on another shard than its own is moved there.
+ * Each event is moved through the {@link EventCommandQueue}, so no change to it is lost while it moves.
+ */
+@Component
+@ConditionalOnExpression("${shards.rebalance-from:0} > 0")
+public class ShardRebalancer implements ApplicationRunner {
+    private static final Logger log = LoggerFactory.getLogger(ShardRebalancer.class);
+
+    private final ShardRouter shardRouter;
+    private final EventRepository eventRepository;
+    private final ArchivedEventRepository archiveRepository;
+    private final EventService eventService;
+    private final SpendingRollupService rollupService;
+    private final EventCommandQueue commandQueue;
+    private final EventIdAllocator idAllocator;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final int previousShards;
+
+    /**
+     * Constructor
+     * @param shardRouter the ShardRouter deciding the new shard of an event
+     * @param eventRepository the repository containing the active events
+     * @param archiveRepository the repository containing the archived events
+     * @param eventService the EventService storing and deleting the moved events
+     * @param rollupService the SpendingRollupService keeping spending statistics
+     * @param commandQueue the EventCommandQueue serializing the changes to each event
+     * @param idAllocator the EventIdAllocator, told about the events of the previous shards
+     * @param objectMapper the ObjectMapper copying an event out of its shard
+     * @param transactionManager the transaction manager, each step on a shard runs in a transaction of its own
+     * @param previousShards the number of shards the events are stored on now
+     */
+    @Autowired
+    public ShardRebalancer(ShardRouter shardRouter, EventRepository eventRepository,
+                           ArchivedEventRepository archiveRepository, EventService eventService,
+                           SpendingRollupService rollupService, EventCommandQueue commandQueue,
+                           EventIdAllocator idAllocator, ObjectMapper objectMapper,
+                           PlatformTransactionManager transactionManager,
+                           @Value("${shards.rebalance-from}") int previousShards) {
+        this.shardRouter = shardRouter;
+        this.eventRepository = eventRepository;
+        this.archiveRepository = archiveRepository;
+        this.eventService = eventService;
+        this.rollupService = rollupService;
+        this.commandQueue = commandQueue;
+        this.idAllocator = idAllocator;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.previousShards = previousShards;
+    }
+
+    /**
+     * Moves the events of every shard, old and new, that are not on their own shard
+     * @param args the arguments of the application
+     */
+    @Override
+    public void run(ApplicationArguments args) {
+        int databases = Math.max(previousShards, shardRouter.count());
+        int moved = 0;
+        int movedArchives = 0;
+        for (int shard = 0; shard < databases; shard++) {
+            int source = shard;
+            List<String> ids = ShardContext.forShard(source, eventRepository::findAllIds);
+            for (String eventId : ids) {
+                if (shardRouter.shardOf(eventId) == source) continue;
+                idAllocator.register(eventId);
+                if (commandQueue.executeAlone(eventId, () -> moveEvent(eventId, source))) moved++;
+            }
+            List<String> archivedIds = ShardContext.forShard(source, archiveRepository::findAllIds);
+            for (String eventId : archivedIds) {
+                if (shardRouter.shardOf(eventId) == source) continue;
+                idAllocator.register(eventId);
+                if (commandQueue.executeAlone(eventId, () -> moveArchive(eventId, source))) movedArchives++;
+            }
+        }
+        log.info("Moved {} events and {} archived events from {} to {} shards",
+                moved, movedArchives, previousShards, shardRouter.count());
+    }
+
+    /**
+     * Copies an event to its shard, with its statistics, and deletes it from the shard it was on.
+     * It is imported like a backup, so its participants, expenses and tags get IDs of the new shard
+     * and its change log starts over.
+     * @param eventId the ID of the event
+     * @param source the shard the event is on
+     * @return true if the event was moved, false if it was deleted meanwhile
+     */
+    private boolean moveEvent(String eventId, int source) {
+        // Copied while the transaction is open, so the lazily loaded collections are included
+        Event copy = ShardContext.forShard(source, () -> transactionTemplate.execute(status ->
+                eventRepository.findById(eventId).map(event -> objectMapper.convertValue(event, Event.class))
+                        .orElse(null)));
+        if (copy == null) return false;
+        ShardContext.forEvent(eventId, () -> transactionTemplate.executeWithoutResult(status -> {
+            Event stored = eventService.importEvent(copy).event();
+            rollupService.rebuild(stored);
+        }));
+        ShardContext.forShard(source, () -> transactionTemplate.execute(status -> {
+            eventService.deleteEvents(List.of(eventId));
+            rollupService.deleteEvent(eventId);
+            return null;
+        }));
+        return true;
+    }
+
+    /**
+     * Copies an archived event to its shard as it is, and deletes it from the shard it was on
+     * @param eventId the ID of the event
+     * @param source the shard the event is on
+     * @return true if the event was moved, false if it was deleted meanwhile
+     */
+    private boolean moveArchive(String eventId, int source) {
+        ArchivedEvent archived = ShardContext.forShard(source, () -> archiveRepository.findById(eventId)).orElse(null);
+        if (archived == null) return false;
+        ShardContext.forEvent(eventId, () -> archiveRepository.save(new ArchivedEvent(archived.getId(),
+                archived.getTitle(), archived.getLastActivity(), archived.getArchivedAt(), archived.getData())));
+        ShardContext.forShard(source, () -> {
+            archiveRepository.deleteById(eventId);
+            return null;
+        });
+        return true;
+    }
+}
@@ -0,0 +1,159 @@
+package server.api;
+
+import commons.Event;
+import commons.Expense;
+import commons.dto.SpendingBucketDTO;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import server.database.SpendingRollup;
+import server.database.SpendingRollup.Dimension;
+import server.database.SpendingRollup.Granularity;
+import server.database.SpendingRollupRepository;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+
+@Service
+public class SpendingRollupService {
+    private final SpendingRollupRepository rollupRepository;
+    private final ZoneId zone = ZoneId.systemDefault();
+
+    /**
+     * Constructor
+     * @param rollupRepository the repository containing the rollup rows
+     */
+    @Autowired
+    public SpendingRollupService(SpendingRollupRepository rollupRepository) {
+        this.rollupRepository = rollupRepository;
+    }
+
+    /**
+     * Adds the spending of a new expense to the buckets it falls into
+     * @param eventId the ID of the Event the expense belongs to
+     * @param expense the added expense
+     */
+    public void addExpense(String eventId, Expense expense) {
+        apply(eventId, expense, 1);
+    }
+
+    /**
+     * Removes the spending of an expense from the buckets it falls into.
+     * Must be called with the expense as it was stored, before any of its fields are changed.
+     * @param eventId the ID of the Event the expense belongs to
+     * @param expense the removed expense
+     */
+    public void removeExpense(String eventId, Expense expense) {
+        apply(eventId, expense, -1);
+    }
+
+    /**
+     * Moves all spending recorded under one tag to another, e.g. when a tag is deleted
+     * @param eventId the ID of the Event
+     * @param fromTagId the ID of the tag to move spending away from
+     * @param toTagId the ID of the tag to move spending to
+     */
+    public void moveTag(String eventId, long fromTagId, long toTagId) {
+        List<SpendingRollup> rows = rollupRepository
+                .findByEventIdAndDimensionAndDimensionId(eventId, Dimension.TAG, fromTagId);
+        for (SpendingRollup row : rows) {
+            addToBucket(eventId, row.getGranularity(), Dimension.TAG, toTagId, row.getBucketStart(),
+                    row.getTotalInCents(), row.getExpenseCount());
+        }
+        rollupRepository.deleteAll(rows);
+    }
+
+    /**
+     * Recomputes all rollup rows of an Event from scratch, e.g. after it has been imported
+     * @param event the Event to recompute the rollups for
+     */
+    @Transactional
+    public void rebuild(Event event) {
+        rollupRepository.deleteByEventId(event.getId());
+        for (Expense expense : event.getExpenses()) {
+            addExpense(event.getId(), expense);
+        }
+    }
+
+    /**
+     * Deletes all rollup rows of an Event
+     * @param eventId the ID of the deleted Event
+     */
+    @Transactional
+    public void deleteEvent(String eventId) {
+        rollupRepository.deleteByEventId(eventId);
+    }
+
+    /**
+     * Deletes all rollup rows of several Events at once
+     * @param eventIds the IDs of the deleted Events
+     */
+    @Transactional
+    public void deleteEvents(Collection<String> eventIds) {
+        if(!eventIds.isEmpty()) rollupRepository.deleteByEventIdIn(eventIds);
+    }
+
+    /**
+     * Deletes the rollup rows of all Events
+     */
+    @Transactional
+    public void deleteAll() {
+        rollupRepository.deleteAllInBatch();
+    }
+
+    /**
+     * Returns the spending per tag and per participant of an Event, bucketed by time
+     * @param eventId the ID of the Event
+     * @param granularity the size of the buckets
+     * @return one DTO per non-empty bucket, oldest bucket first
+     */
+    public List<SpendingBucketDTO> getRollups(String eventId, Granularity granularity) {
+        return rollupRepository.findByEventIdAndGranularityOrderByBucketStart(eventId, granularity)
+                .stream()
+                .filter(row -> row.getExpenseCount() > 0)
+                .map(this::toDTO)
+                .toList();
+    }
+
+    /**
+     * Adds or subtracts the spending of an expense to every bucket it falls into.
+     * Money transfers (negative prices) and undated expenses are not counted as spending.
+     * @param eventId the ID of the Event
+     * @param expense the expense
+     * @param sign 1 to add, -1 to subtract
+     */
+    private void apply(String eventId, Expense expense, int sign) {
+        if (expense.getDate() == null || expense.getPriceInCents() < 0) {
+            return;
+        }
+        LocalDate date = Instant.ofEpochMilli(expense.getDate().getTime()).atZone(zone).toLocalDate();
+        long amount = (long) sign * expense.getPriceInCents();
+        for (Granularity granularity : Granularity.values()) {
+            LocalDate bucketStart = granularity.bucketStart(date);
+            if (expense.getExpenseTag() != null) {
+                addToBucket(eventId, granularity, Dimension.TAG,
+                        expense.getExpenseTag().getId(), bucketStart, amount, sign);
+            }
+            if (expense.getOwedTo() != null) {
+                addToBucket(eventId, granularity, Dimension.PARTICIPANT,
+                        expense.getOwedTo().getId(), bucketStart, amount, sign);
+            }
+        }
+    }
+
+    private void addToBucket(String eventId, Granularity granularity, Dimension dimension,
+                             long dimensionId, LocalDate bucketStart, long amount, int count) {
+        rollupRepository.addToBucket(eventId, granularity.name(), dimension.name(), dimensionId, bucketStart,
+                amount, count);
+    }
+
+    private SpendingBucketDTO toDTO(SpendingRollup row) {
+        Date bucketStart = Date.from(row.getBucketStart().atStartOfDay(zone).toInstant());
+        return new SpendingBucketDTO(row.getDimension().name(), row.getDimensionId(), bucketStart,
+                row.getTotalInCents(), row.getExpenseCount());
+    }
+}
@@ -0,0 +1,46 @@
+package server.api;
+
+import commons.dto.SpendingBucketDTO;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import server.database.SpendingRollup;
+
+import java.util.List;
+import java.util.Locale;
+
+@RestController
+@RequestMapping("/api/events")
+public class StatisticsController {
+    private final SpendingRollupService rollupService;
+
+    /**
+     * Constructor
+     * @param rollupService the SpendingRollupService providing the rollups
+     */
+    @Autowired
+    public StatisticsController(SpendingRollupService rollupService) {
+        this.rollupService = rollupService;
+    }
+
+    /**
+     * Returns the spending of an event per tag and per participant over time
+     * @param eventId the ID of the event
+     * @param granularity the size of the time buckets: day, week or month
+     * @return the non-empty buckets, oldest first, or a bad request for an unknown granularity
+     */
+    @GetMapping("/{eventId}/statistics/{granularity}")
+    public ResponseEntity<List<SpendingBucketDTO>> getSpendingRollups(@PathVariable String eventId,
+                                                                      @PathVariable String granularity) {
+        SpendingRollup.Granularity parsedGranularity;
+        try {
+            parsedGranularity = SpendingRollup.Granularity.valueOf(granularity.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(rollupService.getRollups(eventId, parsedGranularity));
+    }
+}
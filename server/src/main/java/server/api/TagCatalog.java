@@ -0,0 +1,128 @@
+package server.api;
+
+import commons.SystemTag;
+import commons.Tag;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import server.database.TagRepository;
+import server.database.shard.ShardContext;
+import server.database.shard.ShardRouter;
+
+import java.util.*;
+
+/**
+ * The tags every event starts with, see {@link SystemTag}. Each is stored once and linked to every event,
+ * instead of inserting a copy of each per event. The stored IDs are kept in memory. Shared tags are never
+ * changed: an event that changes one gets its own copy instead, see {@link TagService#editTag}.
+ * Every shard stores its own catalog, the IDs used are those of the shard the current thread works on.
+ */
+@Service
+@DependsOn("shardSchemaInitializer")
+public class TagCatalog {
+    private final TagRepository tagRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ShardRouter shardRouter;
+    private volatile List<Map<SystemTag, Long>> ids = List.of();
+    private volatile List<Map<Long, SystemTag>> byId = List.of();
+
+    /**
+     * Constructor
+     * @param tagRepository the repository containing the tags
+     * @param transactionTemplate the TransactionTemplate storing missing catalog tags
+     * @param shardRouter the ShardRouter deciding the shard of an event
+     */
+    @Autowired
+    public TagCatalog(TagRepository tagRepository, TransactionTemplate transactionTemplate, ShardRouter shardRouter) {
+        this.tagRepository = tagRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.shardRouter = shardRouter;
+    }
+
+    /**
+     * Loads the IDs of the catalog tags of every shard, storing the missing ones
+     */
+    @PostConstruct
+    public void load() {
+        List<Map<SystemTag, Long>> loadedIds = new ArrayList<>();
+        List<Map<Long, SystemTag>> loadedById = new ArrayList<>();
+        for (int shard = 0; shard < shardRouter.count(); shard++) {
+            Map<SystemTag, Long> loaded = ShardContext.forShard(shard, this::loadShard);
+            Map<Long, SystemTag> inverse = new HashMap<>();
+            loaded.forEach((systemTag, id) -> inverse.put(id, systemTag));
+            loadedIds.add(Collections.unmodifiableMap(loaded));
+            loadedById.add(Map.copyOf(inverse));
+        }
+        ids = List.copyOf(loadedIds);
+        byId = List.copyOf(loadedById);
+    }
+
+    /**
+     * Loads the IDs of the catalog tags of the current shard, storing the missing ones
+     * @return the IDs of the catalog tags
+     */
+    private Map<SystemTag, Long> loadShard() {
+        return transactionTemplate.execute(status -> {
+            Map<SystemTag, Long> stored = new EnumMap<>(SystemTag.class);
+            for (Tag tag : tagRepository.findBySystemTagTrue()) {
+                for (SystemTag systemTag : SystemTag.values()) {
+                    if (systemTag.matches(tag)) stored.putIfAbsent(systemTag, tag.getId());
+                }
+            }
+            for (SystemTag systemTag : SystemTag.values()) {
+                stored.computeIfAbsent(systemTag, missing -> tagRepository.save(missing.create()).getId());
+            }
+            return stored;
+        });
+    }
+
+    /**
+     * Returns the stored catalog tags, to be linked to a new event.
+     * Called in a transaction, so the tags are managed and linked without being merged one by one.
+     * @return the catalog tags
+     */
+    public List<Tag> tags() {
+        return tagRepository.findAllById(ids().values());
+    }
+
+    /**
+     * Returns the ID of a catalog tag
+     * @param systemTag the catalog tag
+     * @return its stored ID
+     */
+    public long idOf(SystemTag systemTag) {
+        return ids().get(systemTag);
+    }
+
+    /**
+     * Checks whether a tag ID refers to a shared catalog tag
+     * @param tagId the ID of the tag
+     * @return true if the tag is a catalog tag
+     */
+    public boolean contains(long tagId) {
+        return byId.get(shardRouter.currentShard()).containsKey(tagId);
+    }
+
+    /**
+     * Returns the stored catalog tag for a tag sent by a client, e.g. in an imported event.
+     * Called in a transaction. A catalog tag of another shard, e.g. in an event moved by the {@link ShardRebalancer},
+     * is found by its details.
+     * @param tag the tag sent by the client
+     * @return the catalog tag, if the tag has the ID of one and was not changed
+     */
+    public Optional<Tag> find(Tag tag) {
+        SystemTag systemTag = byId.get(shardRouter.currentShard()).get(tag.getId());
+        if (systemTag == null || !systemTag.matches(tag)) {
+            if (!tag.isSystemTag()) return Optional.empty();
+            systemTag = Arrays.stream(SystemTag.values()).filter(candidate -> candidate.matches(tag)).findFirst().orElse(null);
+            if (systemTag == null) return Optional.empty();
+        }
+        return tagRepository.findById(ids().get(systemTag));
+    }
+
+    private Map<SystemTag, Long> ids() {
+        return ids.get(shardRouter.currentShard());
+    }
+}
@@ -6,23 +6,22 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
-import server.websockets.WebSocketService;
 
 @RestController
 @RequestMapping("/api/events")
 public class TagController {
     private final TagService tagService;
-    private final WebSocketService webSocketService;
+    private final EventCommandQueue commandQueue;
 
     /**
      * Constructor
      * @param tagService TagService to use
-     * @param webSocketService WebSocketService to use
+     * @param commandQueue EventCommandQueue to apply the changes to each event in order and propagate them
      */
     @Autowired
-    public TagController(TagService tagService, WebSocketService webSocketService){
+    public TagController(TagService tagService, EventCommandQueue commandQueue){
         this.tagService = tagService;
-        this.webSocketService = webSocketService;
+        this.commandQueue = commandQueue;
     }
 
     /**
@@ -35,8 +34,10 @@ public class TagController {
     @PostMapping("/{eventId}/tag/{tagName}")
     public ResponseEntity<Void> addTagToEvent(@PathVariable String eventId, @PathVariable String tagName,
                                               @RequestBody String colorCode){
-        tagService.addTagToEvent(eventId, tagName, colorCode);
-        webSocketService.propagateEventUpdate(eventId);
+        commandQueue.execute(eventId, event -> {
+            tagService.addTagToEvent(event, tagName, colorCode);
+            return null;
+        });
         return ResponseEntity.status(HttpStatus.CREATED).build();
     }
 
@@ -49,8 +50,10 @@ public class TagController {
     @DeleteMapping("/tags/{eventId}/{tagId}")
     public ResponseEntity<?> removeTag(@PathVariable String eventId,
                                        @PathVariable Long tagId){
-        tagService.removeTag(eventId, tagId);
-        webSocketService.propagateEventUpdate(eventId);
+        commandQueue.executeAlone(eventId, () -> {
+            tagService.removeTag(eventId, tagId);
+            return null;
+        });
         return ResponseEntity.ok().build();
     }
 
@@ -64,8 +67,7 @@ public class TagController {
     @PutMapping("/tags/{eventId}/{tagId}")
     public ResponseEntity<Tag> editTag(@PathVariable String eventId, @PathVariable Long tagId, @RequestBody Tag tag) {
         try {
-            Tag newTag = tagService.editTag(tagId, tag);
-            webSocketService.propagateEventUpdate(eventId);
+            Tag newTag = commandQueue.executeAlone(eventId, () -> tagService.editTag(eventId, tagId, tag));
             return ResponseEntity.ok(newTag);
         } catch(EntityNotFoundException e) {
             return ResponseEntity.badRequest().build();
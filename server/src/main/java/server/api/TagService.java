@@ -1,90 +1,153 @@
 package server.api;
 
 import commons.Event;
-import commons.Expense;
+import commons.SystemTag;
 import commons.Tag;
 import jakarta.persistence.EntityNotFoundException;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import server.database.EventChange;
 import server.database.EventRepository;
 import server.database.ExpenseRepository;
 import server.database.TagRepository;
 
-import java.util.Set;
+import java.util.Date;
 
 @Service
 public class TagService {
     private final EventRepository eventRepository;
     private final ExpenseRepository expenseRepository;
     private final TagRepository tagRepository;
+    private final SpendingRollupService rollupService;
+    private final ChangeLogService changeLogService;
+    private final TagCatalog tagCatalog;
 
     /**
      * Constructor
      * @param eventRepository EventRepository to use
      * @param expenseRepository  ExpenseRepository to use
      * @param tagRepository TagRepository to use
+     * @param rollupService SpendingRollupService to keep the spending rollups up to date
+     * @param changeLogService ChangeLogService to log the changes to events
+     * @param tagCatalog TagCatalog with the tags shared by all events
      */
     @Autowired
     public TagService(EventRepository eventRepository,
-                      ExpenseRepository expenseRepository, TagRepository tagRepository){
+                      ExpenseRepository expenseRepository, TagRepository tagRepository,
+                      SpendingRollupService rollupService, ChangeLogService changeLogService,
+                      TagCatalog tagCatalog){
         this.eventRepository = eventRepository;
         this.expenseRepository = expenseRepository;
         this.tagRepository = tagRepository;
+        this.rollupService = rollupService;
+        this.changeLogService = changeLogService;
+        this.tagCatalog = tagCatalog;
     }
 
     /**
-     * Adds a tag to an event
-     * @param eventId id of the event to add the tag to
+     * Adds a tag to a loaded event, which is saved by the caller, see {@link EventCommandQueue#execute}
+     * @param event the event to add the tag to
      * @param tagName name of the tag
      * @param colorCode color code of the tag
      */
-    public void addTagToEvent(String eventId, String tagName, String colorCode){
-        Event event = eventRepository.findById(eventId)
-                .orElseThrow(() -> new EntityNotFoundException("Event not found"));
+    public void addTagToEvent(Event event, String tagName, String colorCode){
         Tag tag = new Tag(tagName, colorCode);
+        // Persisted before saving the event, so the logged tag has its id
+        tagRepository.save(tag);
         event.addTag(tag);
-        eventRepository.save(event);
+        changeLogService.append(event.getId(), EventChange.Type.TAG_ADDED, tag);
     }
 
     /**
-     * Removes a tag from an event
+     * Removes a tag from an event. The expenses using the tag are moved to the default tag of the event
+     * with a single statement, without loading the expenses of the event.
+     * A shared tag of the catalog is only removed from the event, not deleted.
      * @param eventId id of the event to remove the tag from
      * @param tagId id of the tag to remove
      */
+    @Transactional
     public void removeTag(String eventId, Long tagId){
         Tag tag = tagRepository.findById(tagId)
                 .orElseThrow(() -> new EntityNotFoundException("Tag not found"));
-        Event event = eventRepository.findById(eventId)
-                .orElseThrow(() -> new EntityNotFoundException("Event not found"));
-        Set<Expense> expenses = event.getExpenses();
+        if(eventRepository.touch(eventId, new Date()) == 0) {
+            throw new EntityNotFoundException("Event not found");
+        }
+        long defaultTagId = tagRepository.findIdsByEventIdAndName(eventId, "default", tag.getId())
+                .stream().findFirst()
+                .orElseGet(() -> addDefaultTag(eventId, tag));
 
-        Tag tagIfDefaultNotFound = new Tag("default", "#000000");
-        Tag defaultTag = event.getEventTags().stream()
-                .filter(foundTag->foundTag.getTagName().equals("default"))
-                .findFirst().orElse(tagIfDefaultNotFound);
+        expenseRepository.reassignTag(eventId, tag.getId(), defaultTagId);
+        tagRepository.unlinkFromEvent(eventId, tag.getId());
+        if(!tag.isSystemTag()) tagRepository.deleteByIdInBulk(tag.getId());
+        rollupService.moveTag(eventId, tag.getId(), defaultTagId);
+        changeLogService.append(eventId, EventChange.Type.TAG_REMOVED,
+                new ChangeLogService.TagRemoval(tag.getId(), defaultTagId));
+    }
 
-        for(Expense expense : expenses){
-            if(expense.getExpenseTag().equals(tag)){
-                expense.setExpenseTag(defaultTag);
-                expenseRepository.save(expense);
-            }
+    /**
+     * Adds a default tag to an event that has none, the shared one of the catalog
+     * unless that is the tag being removed
+     * @param eventId id of the event
+     * @param removed the tag being removed
+     * @return id of the new default tag
+     */
+    private long addDefaultTag(String eventId, Tag removed) {
+        Tag defaultTag;
+        long catalogDefault = tagCatalog.idOf(SystemTag.DEFAULT);
+        if(removed.getId() != catalogDefault) {
+            defaultTag = tagRepository.findById(catalogDefault).orElseThrow();
+        } else {
+            defaultTag = tagRepository.save(new Tag("default", "#000000"));
         }
-        event.removeTag(tag);
-        eventRepository.save(event);
+        tagRepository.linkToEvent(eventId, defaultTag.getId());
+        changeLogService.append(eventId, EventChange.Type.TAG_ADDED, defaultTag);
+        return defaultTag.getId();
     }
 
     /**
-     * Save edited tag to database
+     * Save edited tag to database. A shared tag of the catalog is not changed, the event gets
+     * its own copy with the new details instead, which its expenses are moved to.
+     * @param eventId ID of the event the tag is edited in
      * @param id ID of edited tag
      * @param newTag Edited tag
      * @throws EntityNotFoundException Tag is not found in the database
-     * @return Tag that is edited
+     * @return Tag that is edited, or the copy of the catalog tag
      */
-    public Tag editTag(Long id, Tag newTag) throws EntityNotFoundException {
+    @Transactional
+    public Tag editTag(String eventId, Long id, Tag newTag) throws EntityNotFoundException {
         Tag tag = tagRepository.findById(id)
                 .orElseThrow(() -> new EntityNotFoundException("Tag is not found"));
+        if(tag.isSystemTag()) return copyOnWrite(eventId, tag, newTag);
         tag.setTagName(newTag.getTagName());
         tag.setColorCode(newTag.getColorCode());
-        return tagRepository.save(tag);
+        Tag saved = tagRepository.save(tag);
+        tagRepository.findEventIdByTagId(id).ifPresent(owner ->
+                changeLogService.append(owner, EventChange.Type.TAG_EDITED, tag));
+        return saved;
+    }
+
+    /**
+     * Replaces a catalog tag of an event with a copy of its own, with the given details
+     * @param eventId ID of the event
+     * @param shared the catalog tag
+     * @param details the new details of the tag
+     * @return the copy
+     */
+    private Tag copyOnWrite(String eventId, Tag shared, Tag details) {
+        if(eventRepository.touch(eventId, new Date()) == 0) {
+            throw new EntityNotFoundException("Event not found");
+        }
+        if(tagRepository.unlinkFromEvent(eventId, shared.getId()) == 0) {
+            throw new EntityNotFoundException("Tag is not found");
+        }
+        Tag copy = tagRepository.save(new Tag(details.getTagName(), details.getColorCode()));
+        tagRepository.linkToEvent(eventId, copy.getId());
+        expenseRepository.reassignTag(eventId, shared.getId(), copy.getId());
+        rollupService.moveTag(eventId, shared.getId(), copy.getId());
+        changeLogService.append(eventId, EventChange.Type.TAG_ADDED, copy);
+        changeLogService.append(eventId, EventChange.Type.TAG_REMOVED,
+                new ChangeLogService.TagRemoval(shared.getId(), copy.getId()));
+        return copy;
     }
 }
@@ -0,0 +1,12 @@
+package server.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Enables the periodic jobs of the server, such as archiving idle events
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -0,0 +1,56 @@
+package server.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import server.database.shard.ShardRouter;
+import server.database.shard.ShardRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Spreads the events over several H2 databases when more than one shard is configured.
+ * The first shard is the database of spring.datasource.url, so the events stored before sharding stay where they are
+ * until the {@link server.api.ShardRebalancer} moves them; the others use shards.url-template.
+ * <p>
+ * There is a single transaction manager over a {@link ShardRoutingDataSource}. A transaction only takes
+ * its connection when it runs its first statement, so a service that learns the event ID inside the
+ * transaction, e.g. when creating an event, can still set the shard first, see {@link server.database.shard.ShardContext}.
+ */
+@Configuration
+@ConditionalOnExpression("${shards.count:1} > 1 or ${shards.rebalance-from:0} > 1")
+public class ShardingConfig {
+
+    /**
+     * The DataSource of the JPA repositories, connecting to the shard the current thread works on
+     * @param properties the properties of the first shard
+     * @param router the ShardRouter deciding the shard of an event
+     * @param urlTemplate the URL of the other shards, with {shard} replaced by the index of the shard
+     * @param rebalanceFrom the number of shards before rebalancing, whose databases are opened too
+     * @return the routing DataSource
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(DataSourceProperties properties, ShardRouter router,
+                                 @Value("${shards.url-template}") String urlTemplate,
+                                 @Value("${shards.rebalance-from:0}") int rebalanceFrom) {
+        int databases = Math.max(router.count(), rebalanceFrom);
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(0, properties.initializeDataSourceBuilder().build());
+        for (int shard = 1; shard < databases; shard++) {
+            String url = urlTemplate.replace("{shard}", String.valueOf(shard));
+            targets.put(shard, properties.initializeDataSourceBuilder().url(url).build());
+        }
+        ShardRoutingDataSource routing = new ShardRoutingDataSource(router);
+        routing.setTargetDataSources(targets);
+        routing.setDefaultTargetDataSource(targets.get(0));
+        routing.afterPropertiesSet();
+        return new LazyConnectionDataSourceProxy(routing);
+    }
+}
@@ -0,0 +1,22 @@
+package server.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import server.database.shard.ShardInterceptor;
+
+/**
+ * Routes the requests about an event to the shard of the event
+ */
+@Configuration
+public class WebConfig implements WebMvcConfigurer {
+
+    /***
+     * Registers the interceptor setting the shard of a request
+     * @param registry the interceptor registry
+     */
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new ShardInterceptor()).addPathPatterns("/api/**");
+    }
+}
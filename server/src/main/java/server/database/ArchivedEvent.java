@@ -0,0 +1,91 @@
+package server.database;
+
+import jakarta.persistence.*;
+
+import java.util.Date;
+
+@Entity
+@Table(name = "archived_event")
+public class ArchivedEvent {
+    @Id
+    private String id;
+    private String title;
+    private Date lastActivity;
+    private Date archivedAt;
+    // The whole Event as gzipped JSON
+    @Lob
+    @Column(name = "event_data")
+    private byte[] data;
+    private int compressedSize;
+
+    /***
+     * Constructor for JPA
+     */
+    @SuppressWarnings("unused")
+    public ArchivedEvent() {}
+
+    /***
+     * Creates the archived copy of an Event
+     * @param id the ID of the Event
+     * @param title the title of the Event
+     * @param lastActivity the last activity of the Event before it was archived
+     * @param archivedAt the time the Event was archived
+     * @param data the Event serialized and compressed
+     */
+    public ArchivedEvent(String id, String title, Date lastActivity, Date archivedAt, byte[] data) {
+        this.id = id;
+        this.title = title;
+        this.lastActivity = lastActivity;
+        this.archivedAt = archivedAt;
+        this.data = data;
+        this.compressedSize = data.length;
+    }
+
+    /***
+     * Getter for the Event ID
+     * @return the ID of the archived Event
+     */
+    public String getId() {
+        return id;
+    }
+
+    /***
+     * Getter for the title
+     * @return the title of the archived Event
+     */
+    public String getTitle() {
+        return title;
+    }
+
+    /***
+     * Getter for the last activity
+     * @return the last activity of the Event before it was archived
+     */
+    public Date getLastActivity() {
+        return lastActivity;
+    }
+
+    /***
+     * Getter for the archival time
+     * @return the time the Event was archived
+     */
+    public Date getArchivedAt() {
+        return archivedAt;
+    }
+
+    /***
+     * Getter for the archived data
+     * @return the Event serialized and compressed
+     */
+    public byte[] getData() {
+        return data;
+    }
+
+    /***
+     * Getter for the archived size
+     * @return the number of compressed bytes stored for the Event
+     */
+    public int getCompressedSize() {
+        return compressedSize;
+    }
+}
@@ -0,0 +1,50 @@
+package server.database;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+
+public interface ArchivedEventRepository extends JpaRepository<ArchivedEvent, String> {
+    /**
+     * Returns the IDs of the events in the hot tables without any activity since the given time
+     * @param cutoff the time before which the last activity has to be
+     * @return the IDs of the idle events
+     */
+    @Query("select e.id from Event e where e.lastActivity < :cutoff")
+    List<String> findIdleEventIds(@Param("cutoff") Date cutoff);
+
+    /**
+     * Returns the size of all archived events together
+     * @return the number of compressed bytes stored
+     */
+    @Query("select coalesce(sum(a.compressedSize), 0) from ArchivedEvent a")
+    long totalSize();
+
+    /**
+     * Returns which of the given events are archived
+     * @param eventIds the IDs of the events
+     * @return the IDs of the archived events
+     */
+    @Query("select a.id from ArchivedEvent a where a.id in :eventIds")
+    List<String> findExistingIds(@Param("eventIds") Collection<String> eventIds);
+
+    /**
+     * Deletes archived events
+     * @param eventIds the IDs of the events
+     */
+    @Modifying
+    @Query("delete from ArchivedEvent a where a.id in :eventIds")
+    void deleteByIds(@Param("eventIds") Collection<String> eventIds);
+
+    /**
+     * Returns the IDs of all archived events
+     * @return the IDs of the archived events
+     */
+    @Query("select a.id from ArchivedEvent a")
+    List<String> findAllIds();
+}
@@ -0,0 +1,112 @@
+package server.database;
+
+import jakarta.persistence.*;
+
+import java.util.Date;
+
+@Entity
+@Table(name = "event_change",
+        uniqueConstraints = @UniqueConstraint(columnNames = {"event_id", "sequence_number"}))
+public class EventChange {
+    /***
+     * What a change did to its Event, which determines the payload
+     */
+    public enum Type {
+        // The payload is the whole Event
+        EVENT_CREATED, EVENT_REPLACED,
+        // The payload is the new title
+        TITLE_CHANGED,
+        // The payload is the Participant, Expense or Tag after the change
+        PARTICIPANT_ADDED, PARTICIPANT_EDITED,
+        EXPENSE_ADDED, EXPENSE_EDITED,
+        TAG_ADDED, TAG_EDITED,
+        // The payload is the ID of the Participant or Expense
+        PARTICIPANT_REMOVED, EXPENSE_REMOVED,
+        // The payload is the ID of the Tag and the ID of the Tag its expenses were moved to
+        TAG_REMOVED;
+
+        /***
+         * Whether the change contains the whole Event, so earlier changes are not needed to replay it
+         * @return true if the payload is a whole Event
+         */
+        public boolean replacesEvent() {
+            return this == EVENT_CREATED || this == EVENT_REPLACED;
+        }
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.AUTO)
+    private long id;
+    @Column(name = "event_id")
+    private String eventId;
+    @Column(name = "sequence_number")
+    private long sequence;
+    @Enumerated(EnumType.STRING)
+    private Type type;
+    // The changed entity as JSON
+    @Lob
+    private String payload;
+    private Date createdAt;
+
+    /***
+     * Constructor for JPA
+     */
+    @SuppressWarnings("unused")
+    public EventChange() {}
+
+    /***
+     * Creates a change to append to the log of an Event
+     * @param eventId the ID of the Event
+     * @param sequence the position of the change in the log of the Event, starting at 1
+     * @param type what the change did
+     * @param payload the changed entity as JSON
+     * @param createdAt the time of the change
+     */
+    public EventChange(String eventId, long sequence, Type type, String payload, Date createdAt) {
+        this.eventId = eventId;
+        this.sequence = sequence;
+        this.type = type;
+        this.payload = payload;
+        this.createdAt = createdAt;
+    }
+
+    /***
+     * Getter for the Event ID
+     * @return the ID of the changed Event
+     */
+    public String getEventId() {
+        return eventId;
+    }
+
+    /***
+     * Getter for the sequence number
+     * @return the position of the change in the log of the Event
+     */
+    public long getSequence() {
+        return sequence;
+    }
+
+    /***
+     * Getter for the type
+     * @return what the change did
+     */
+    public Type getType() {
+        return type;
+    }
+
+    /***
+     * Getter for the payload
+     * @return the changed entity as JSON
+     */
+    public String getPayload() {
+        return payload;
+    }
+
+    /***
+     * Getter for the time of the change
+     * @return the time of the change
+     */
+    public Date getCreatedAt() {
+        return createdAt;
+    }
+}
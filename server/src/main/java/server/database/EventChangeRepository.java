@@ -0,0 +1,35 @@
+package server.database;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface EventChangeRepository extends JpaRepository<EventChange, Long> {
+    /**
+     * Returns the sequence number of the last change of an event
+     * @param eventId the ID of the event
+     * @return the last sequence number, 0 if the event has no changes
+     */
+    @Query("select coalesce(max(c.sequence), 0) from EventChange c where c.eventId = :eventId")
+    long findLastSequence(@Param("eventId") String eventId);
+
+    /**
+     * Returns the changes of an event after a sequence number, in order
+     * @param eventId the ID of the event
+     * @param sequence the sequence number to start after
+     * @return the later changes
+     */
+    List<EventChange> findByEventIdAndSequenceGreaterThanOrderBySequence(String eventId, long sequence);
+
+    /**
+     * Deletes the changes of events
+     * @param eventIds the IDs of the events
+     */
+    @Modifying
+    @Query("delete from EventChange c where c.eventId in :eventIds")
+    void deleteByEventIds(@Param("eventIds") Collection<String> eventIds);
+}
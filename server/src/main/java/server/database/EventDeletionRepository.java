@@ -0,0 +1,172 @@
+package server.database;
+
+import commons.Event;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.Repository;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Set-based deletion of events and everything they own.
+ * The statements work on the tables directly, so no event is loaded into memory,
+ * and have to run in order: links to participants in expenses, links from events to their children,
+ * the children themselves and lastly the events.
+ */
+public interface EventDeletionRepository extends Repository<Event, String> {
+    /**
+     * Returns which of the given events exist
+     * @param eventIds the IDs of the events
+     * @return the IDs of the existing events
+     */
+    @Query("select e.id from Event e where e.id in :eventIds")
+    List<String> findExistingIds(@Param("eventIds") Collection<String> eventIds);
+
+    /**
+     * Returns the IDs of the expenses of the given events
+     * @param eventIds the IDs of the events
+     * @return the IDs of their expenses
+     */
+    @Query(value = "select expenses_id from event_expenses where event_id in :eventIds", nativeQuery = true)
+    List<Long> findExpenseIds(@Param("eventIds") Collection<String> eventIds);
+
+    /**
+     * Returns the IDs of the participants of the given events
+     * @param eventIds the IDs of the events
+     * @return the IDs of their participants
+     */
+    @Query(value = "select participants_id from event_participants where event_id in :eventIds", nativeQuery = true)
+    List<Long> findParticipantIds(@Param("eventIds") Collection<String> eventIds);
+
+    /**
+     * Returns the IDs of the tags owned by the given events, leaving out the shared tags of the system catalog
+     * @param eventIds the IDs of the events
+     * @return the IDs of their own tags
+     */
+    @Query(value = "select l.event_tags_id from event_event_tags l join tag t on t.id = l.event_tags_id "
+            + "where l.event_id in :eventIds and t.system_tag = false", nativeQuery = true)
+    List<Long> findTagIds(@Param("eventIds") Collection<String> eventIds);
+
+    /**
+     * Deletes which participants take part in the given expenses
+     * @param expenseIds the IDs of the expenses
+     */
+    @Modifying
+    @Query(value = "delete from expense_participants_in_expense where expense_id in :expenseIds", nativeQuery = true)
+    void deleteExpenseParticipantLinks(@Param("expenseIds") Collection<Long> expenseIds);
+
+    /**
+     * Deletes the links from the given events to their expenses
+     * @param eventIds the IDs of the events
+     */
+    @Modifying
+    @Query(value = "delete from event_expenses where event_id in :eventIds", nativeQuery = true)
+    void deleteExpenseLinks(@Param("eventIds") Collection<String> eventIds);
+
+    /**
+     * Deletes the links from the given events to their participants
+     * @param eventIds the IDs of the events
+     */
+    @Modifying
+    @Query(value = "delete from event_participants where event_id in :eventIds", nativeQuery = true)
+    void deleteParticipantLinks(@Param("eventIds") Collection<String> eventIds);
+
+    /**
+     * Deletes the links from the given events to their tags
+     * @param eventIds the IDs of the events
+     */
+    @Modifying
+    @Query(value = "delete from event_event_tags where event_id in :eventIds", nativeQuery = true)
+    void deleteTagLinks(@Param("eventIds") Collection<String> eventIds);
+
+    /**
+     * Deletes expenses
+     * @param expenseIds the IDs of the expenses
+     */
+    @Modifying
+    @Query("delete from Expense x where x.id in :expenseIds")
+    void deleteExpenses(@Param("expenseIds") Collection<Long> expenseIds);
+
+    /**
+     * Deletes participants
+     * @param participantIds the IDs of the participants
+     */
+    @Modifying
+    @Query("delete from Participant p where p.id in :participantIds")
+    void deleteParticipants(@Param("participantIds") Collection<Long> participantIds);
+
+    /**
+     * Deletes tags
+     * @param tagIds the IDs of the tags
+     */
+    @Modifying
+    @Query("delete from Tag t where t.id in :tagIds")
+    void deleteTags(@Param("tagIds") Collection<Long> tagIds);
+
+    /**
+     * Deletes events, after everything they own was deleted
+     * @param eventIds the IDs of the events
+     */
+    @Modifying
+    @Query("delete from Event e where e.id in :eventIds")
+    void deleteEvents(@Param("eventIds") Collection<String> eventIds);
+
+    /**
+     * Deletes which participants take part in any expense
+     */
+    @Modifying
+    @Query(value = "delete from expense_participants_in_expense", nativeQuery = true)
+    void deleteAllExpenseParticipantLinks();
+
+    /**
+     * Deletes the links from all events to their expenses
+     */
+    @Modifying
+    @Query(value = "delete from event_expenses", nativeQuery = true)
+    void deleteAllExpenseLinks();
+
+    /**
+     * Deletes the links from all events to their participants
+     */
+    @Modifying
+    @Query(value = "delete from event_participants", nativeQuery = true)
+    void deleteAllParticipantLinks();
+
+    /**
+     * Deletes the links from all events to their tags
+     */
+    @Modifying
+    @Query(value = "delete from event_event_tags", nativeQuery = true)
+    void deleteAllTagLinks();
+
+    /**
+     * Deletes all expenses
+     */
+    @Modifying
+    @Query("delete from Expense")
+    void deleteAllExpenses();
+
+    /**
+     * Deletes all participants
+     */
+    @Modifying
+    @Query("delete from Participant")
+    void deleteAllParticipants();
+
+    /**
+     * Deletes all tags, except the shared tags of the system catalog
+     */
+    @Modifying
+    @Query("delete from Tag t where t.systemTag = false")
+    void deleteAllTags();
+
+    /**
+     * Deletes all events, after everything they own was deleted
+     * @return the number of events deleted
+     */
+    @Modifying
+    @Query("delete from Event")
+    int deleteAllEvents();
+}
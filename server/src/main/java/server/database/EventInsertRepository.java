@@ -0,0 +1,15 @@
+package server.database;
+
+import commons.Event;
+
+/**
+ * Inserts new events, without the merge {@code save} falls back to for an entity with an assigned ID
+ */
+public interface EventInsertRepository {
+    /**
+     * Inserts a new event. Unlike saving, this never overwrites an event with the same ID.
+     * @param event the new event
+     * @throws org.springframework.dao.DataIntegrityViolationException if an event with the same ID exists
+     */
+    void insert(Event event);
+}
@@ -0,0 +1,24 @@
+package server.database;
+
+import commons.Event;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+/**
+ * Inserts new events by persisting them, picked up by Spring Data as the implementation of
+ * {@link EventInsertRepository}
+ */
+public class EventInsertRepositoryImpl implements EventInsertRepository {
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Persists a new event and flushes it, so a taken ID fails here instead of when the transaction commits
+     * @param event the new event
+     */
+    @Override
+    public void insert(Event event) {
+        entityManager.persist(event);
+        entityManager.flush();
+    }
+}
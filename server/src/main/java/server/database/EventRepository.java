@@ -2,6 +2,28 @@ package server.database;
 
 import commons.Event;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
-public interface EventRepository extends JpaRepository<Event, String> {
-}
\ No newline at end of file
+import java.util.Date;
+import java.util.List;
+
+public interface EventRepository extends JpaRepository<Event, String>, EventInsertRepository {
+    /**
+     * Sets the last activity of an event without loading it, e.g. after changing it with bulk statements
+     * @param eventId the ID of the event
+     * @param lastActivity the time of the change
+     * @return the number of events updated, 0 if the event does not exist
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Event e set e.lastActivity = :lastActivity where e.id = :eventId")
+    int touch(@Param("eventId") String eventId, @Param("lastActivity") Date lastActivity);
+
+    /**
+     * Returns the IDs of all events in the normalized tables, e.g. to know which codes are taken
+     * @return the IDs of the events
+     */
+    @Query("select e.id from Event e")
+    List<String> findAllIds();
+}
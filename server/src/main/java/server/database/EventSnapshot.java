@@ -0,0 +1,72 @@
+package server.database;
+
+import jakarta.persistence.*;
+
+import java.util.Date;
+
+@Entity
+@Table(name = "event_snapshot")
+public class EventSnapshot {
+    @Id
+    @Column(name = "event_id")
+    private String eventId;
+    @Column(name = "sequence_number")
+    private long sequence;
+    private Date createdAt;
+    // The whole Event as gzipped JSON
+    @Lob
+    @Column(name = "event_data")
+    private byte[] data;
+
+    /***
+     * Constructor for JPA
+     */
+    @SuppressWarnings("unused")
+    public EventSnapshot() {}
+
+    /***
+     * Creates the snapshot of an Event
+     * @param eventId the ID of the Event
+     * @param sequence the last change of the log included in the snapshot
+     * @param createdAt the time the snapshot was taken
+     * @param data the Event serialized and compressed
+     */
+    public EventSnapshot(String eventId, long sequence, Date createdAt, byte[] data) {
+        this.eventId = eventId;
+        this.sequence = sequence;
+        this.createdAt = createdAt;
+        this.data = data;
+    }
+
+    /***
+     * Getter for the Event ID
+     * @return the ID of the Event
+     */
+    public String getEventId() {
+        return eventId;
+    }
+
+    /***
+     * Getter for the sequence number
+     * @return the last change of the log included in the snapshot
+     */
+    public long getSequence() {
+        return sequence;
+    }
+
+    /***
+     * Getter for the time the snapshot was taken
+     * @return the time the snapshot was taken
+     */
+    public Date getCreatedAt() {
+        return createdAt;
+    }
+
+    /***
+     * Getter for the snapshot data
+     * @return the Event serialized and compressed
+     */
+    public byte[] getData() {
+        return data;
+    }
+}
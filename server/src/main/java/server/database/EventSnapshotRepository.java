@@ -0,0 +1,18 @@
+package server.database;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+
+public interface EventSnapshotRepository extends JpaRepository<EventSnapshot, String> {
+    /**
+     * Deletes the snapshots of events
+     * @param eventIds the IDs of the events
+     */
+    @Modifying
+    @Query("delete from EventSnapshot s where s.eventId in :eventIds")
+    void deleteByEventIds(@Param("eventIds") Collection<String> eventIds);
+}
@@ -1,17 +1,81 @@
 package server.database;
 
 import commons.Expense;
-import commons.Participant;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
-import java.util.Set;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 
 public interface ExpenseRepository extends JpaRepository<Expense, Long> {
     /**
-     * Returns all expenses that are owed to the given participant
-     * @param participant the participant to whom the expenses are owed
-     * @return the set of expenses that are owed to the participant
+     * Returns the expenses of an event that are owed to the given participant
+     * @param eventId the ID of the event
+     * @param participantId the ID of the participant to whom the expenses are owed
+     * @return the expenses of the event that are owed to the participant
      */
-    Set<Expense> findByOwedTo(Participant participant);
+    @Query("select x from Event e join e.expenses x where e.id = :eventId and x.owedTo.id = :participantId")
+    List<Expense> findByEventIdAndOwedToId(@Param("eventId") String eventId,
+                                           @Param("participantId") long participantId);
 
-}
\ No newline at end of file
+    /**
+     * Returns the ID of the event the given expense belongs to
+     * @param expenseId the ID of the expense
+     * @return the ID of the event, if the expense belongs to one
+     */
+    @Query("select e.id from Event e join e.expenses x where x.id = :expenseId")
+    Optional<String> findEventIdByExpenseId(@Param("expenseId") long expenseId);
+
+    /**
+     * Moves all expenses of an event from one tag to another, in a single statement
+     * @param eventId the ID of the event
+     * @param fromTagId the ID of the tag the expenses have now
+     * @param toTagId the ID of the tag the expenses get
+     * @return the number of expenses moved
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "update expense set expense_tag_id = :toTagId where expense_tag_id = :fromTagId "
+            + "and id in (select expenses_id from event_expenses where event_id = :eventId)", nativeQuery = true)
+    int reassignTag(@Param("eventId") String eventId, @Param("fromTagId") long fromTagId,
+                    @Param("toTagId") long toTagId);
+
+    /**
+     * Removes a participant from all expenses of an event it takes part in, in a single statement
+     * @param eventId the ID of the event
+     * @param participantId the ID of the participant
+     * @return the number of expenses the participant was removed from
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "delete from expense_participants_in_expense where participants_in_expense_id = :participantId "
+            + "and expense_id in (select expenses_id from event_expenses where event_id = :eventId)",
+            nativeQuery = true)
+    int removeParticipantFromExpenses(@Param("eventId") String eventId, @Param("participantId") long participantId);
+
+    /**
+     * Removes all participants from the given expenses
+     * @param expenseIds the IDs of the expenses
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "delete from expense_participants_in_expense where expense_id in :expenseIds", nativeQuery = true)
+    void removeAllParticipants(@Param("expenseIds") Collection<Long> expenseIds);
+
+    /**
+     * Removes the given expenses from the event they belong to
+     * @param expenseIds the IDs of the expenses
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "delete from event_expenses where expenses_id in :expenseIds", nativeQuery = true)
+    void unlinkFromEvent(@Param("expenseIds") Collection<Long> expenseIds);
+
+    /**
+     * Deletes the given expenses, after they were removed from their event
+     * @param expenseIds the IDs of the expenses
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("delete from Expense x where x.id in :expenseIds")
+    void deleteByIds(@Param("expenseIds") Collection<Long> expenseIds);
+
+}
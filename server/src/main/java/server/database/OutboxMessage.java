@@ -0,0 +1,95 @@
+package server.database;
+
+import jakarta.persistence.*;
+
+import java.util.Date;
+
+@Entity
+@Table(name = "outbox_message")
+public class OutboxMessage {
+    /***
+     * What the clients are told, which determines the payload
+     */
+    public enum Type {
+        // No payload, the Event is sent as it is when the message is relayed
+        EVENT_CREATED, EVENT_UPDATED,
+        // The payload is the new title
+        TITLE_CHANGED,
+        // No payload
+        EVENT_DELETED, ALL_DELETED,
+        // The payload is the IDs of the deleted Events as JSON
+        EVENTS_DELETED
+    }
+
+    // Taken from the sequence one at a time, so the numbers follow the order in which messages are written
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "outbox_sequence")
+    @SequenceGenerator(name = "outbox_sequence", sequenceName = "outbox_sequence", allocationSize = 1)
+    private long id;
+    @Enumerated(EnumType.STRING)
+    private Type type;
+    private String eventId;
+    @Lob
+    private String payload;
+    private Date createdAt;
+
+    /***
+     * Constructor for JPA
+     */
+    @SuppressWarnings("unused")
+    public OutboxMessage() {}
+
+    /***
+     * Creates a message to be relayed to the clients of every server instance
+     * @param type what the clients are told
+     * @param eventId the ID of the Event, null if the message is not about a single Event
+     * @param payload the payload, see {@link Type}
+     * @param createdAt the time of the change
+     */
+    public OutboxMessage(Type type, String eventId, String payload, Date createdAt) {
+        this.type = type;
+        this.eventId = eventId;
+        this.payload = payload;
+        this.createdAt = createdAt;
+    }
+
+    /***
+     * Getter for the sequence number
+     * @return the position of the message in the outbox
+     */
+    public long getId() {
+        return id;
+    }
+
+    /***
+     * Getter for the type
+     * @return what the clients are told
+     */
+    public Type getType() {
+        return type;
+    }
+
+    /***
+     * Getter for the Event ID
+     * @return the ID of the Event, null if the message is not about a single Event
+     */
+    public String getEventId() {
+        return eventId;
+    }
+
+    /***
+     * Getter for the payload
+     * @return the payload, see {@link Type}
+     */
+    public String getPayload() {
+        return payload;
+    }
+
+    /***
+     * Getter for the time of the change
+     * @return the time the message was written
+     */
+    public Date getCreatedAt() {
+        return createdAt;
+    }
+}
@@ -0,0 +1,34 @@
+package server.database;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Date;
+import java.util.List;
+
+public interface OutboxRepository extends JpaRepository<OutboxMessage, Long> {
+    /**
+     * Returns the next messages after a sequence number, in order
+     * @param id the sequence number to start after
+     * @return at most 500 later messages
+     */
+    List<OutboxMessage> findTop500ByIdGreaterThanOrderById(long id);
+
+    /**
+     * Returns the sequence number of the last message
+     * @return the last sequence number, 0 if the outbox is empty
+     */
+    @Query("select coalesce(max(m.id), 0) from OutboxMessage m")
+    long findLastId();
+
+    /**
+     * Deletes the messages written before a time, which every instance has relayed by then
+     * @param cutoff the time before which the messages were written
+     * @return the number of messages deleted
+     */
+    @Modifying
+    @Query("delete from OutboxMessage m where m.createdAt < :cutoff")
+    int deleteCreatedBefore(@Param("cutoff") Date cutoff);
+}
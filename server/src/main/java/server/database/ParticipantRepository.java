@@ -2,6 +2,36 @@ package server.database;
 
 import commons.Participant;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Optional;
 
 public interface ParticipantRepository extends JpaRepository<Participant, Long> {
-}
\ No newline at end of file
+    /**
+     * Finds the event a participant belongs to
+     * @param participantId the ID of the participant
+     * @return the ID of the event, if the participant belongs to one
+     */
+    @Query("select e.id from Event e join e.participants p where p.id = :participantId")
+    Optional<String> findEventIdByParticipantId(@Param("participantId") long participantId);
+
+    /**
+     * Removes a participant from an event
+     * @param eventId the ID of the event
+     * @param participantId the ID of the participant
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "delete from event_participants where event_id = :eventId and participants_id = :participantId",
+            nativeQuery = true)
+    void unlinkFromEvent(@Param("eventId") String eventId, @Param("participantId") long participantId);
+
+    /**
+     * Deletes a participant, after it was removed from its event and expenses
+     * @param participantId the ID of the participant
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("delete from Participant p where p.id = :participantId")
+    void deleteByIdInBulk(@Param("participantId") long participantId);
+}
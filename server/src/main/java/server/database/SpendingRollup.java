@@ -0,0 +1,156 @@
+package server.database;
+
+import jakarta.persistence.*;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+
+@Entity
+@Table(uniqueConstraints = @UniqueConstraint(columnNames = {"event_id", "granularity", "dimension", "dimension_id", "bucket_start"}),
+        indexes = @Index(columnList = "event_id, granularity"))
+public class SpendingRollup {
+    /***
+     * The size of the time bucket a rollup row covers
+     */
+    public enum Granularity {
+        DAY, WEEK, MONTH;
+
+        /***
+         * Calculates the first day of the bucket the given date falls into
+         * @param date the date to place in a bucket
+         * @return the first day of the bucket (weeks start on Monday)
+         */
+        public LocalDate bucketStart(LocalDate date) {
+            return switch (this) {
+                case DAY -> date;
+                case WEEK -> date.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+                case MONTH -> date.withDayOfMonth(1);
+            };
+        }
+    }
+
+    /***
+     * What the spending in a rollup row is grouped by
+     */
+    public enum Dimension {
+        TAG, PARTICIPANT
+    }
+
+    // Rows are inserted by SpendingRollupRepository.addToBucket, which takes the ID from this sequence itself
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "spending_rollup_seq")
+    @SequenceGenerator(name = "spending_rollup_seq", sequenceName = "spending_rollup_seq", allocationSize = 1)
+    private long id;
+    @Column(name = "event_id")
+    private String eventId;
+    @Enumerated(EnumType.STRING)
+    @Column(name = "granularity")
+    private Granularity granularity;
+    @Enumerated(EnumType.STRING)
+    @Column(name = "dimension")
+    private Dimension dimension;
+    @Column(name = "dimension_id")
+    private long dimensionId;
+    @Column(name = "bucket_start")
+    private LocalDate bucketStart;
+    private long totalInCents;
+    private int expenseCount;
+
+    /***
+     * Constructor for JPA
+     */
+    @SuppressWarnings("unused")
+    public SpendingRollup() {}
+
+    /***
+     * Creates an empty rollup row for a single bucket
+     * @param eventId the ID of the Event the row belongs to
+     * @param granularity the size of the bucket
+     * @param dimension what the spending is grouped by
+     * @param dimensionId the ID of the Tag or Participant
+     * @param bucketStart the first day of the bucket
+     */
+    public SpendingRollup(String eventId, Granularity granularity, Dimension dimension,
+                          long dimensionId, LocalDate bucketStart) {
+        this.eventId = eventId;
+        this.granularity = granularity;
+        this.dimension = dimension;
+        this.dimensionId = dimensionId;
+        this.bucketStart = bucketStart;
+    }
+
+    /***
+     * Adds (or with a negative count, subtracts) spending to the bucket
+     * @param amountInCents the amount to add
+     * @param count the number of expenses the amount covers
+     */
+    public void add(long amountInCents, int count) {
+        this.totalInCents += amountInCents;
+        this.expenseCount += count;
+    }
+
+    /***
+     * Getter for the rollup row ID
+     * @return the ID of the row
+     */
+    public long getId() {
+        return id;
+    }
+
+    /***
+     * Getter for the Event ID
+     * @return the ID of the Event the row belongs to
+     */
+    public String getEventId() {
+        return eventId;
+    }
+
+    /***
+     * Getter for the granularity
+     * @return the size of the bucket
+     */
+    public Granularity getGranularity() {
+        return granularity;
+    }
+
+    /***
+     * Getter for the dimension
+     * @return what the spending is grouped by
+     */
+    public Dimension getDimension() {
+        return dimension;
+    }
+
+    /***
+     * Getter for the dimension ID
+     * @return the ID of the Tag or Participant
+     */
+    public long getDimensionId() {
+        return dimensionId;
+    }
+
+    /***
+     * Getter for the bucket start
+     * @return the first day of the bucket
+     */
+    public LocalDate getBucketStart() {
+        return bucketStart;
+    }
+
+    /***
+     * Getter for the total spending
+     * @return the total spending in the bucket, in cents
+     */
+    public long getTotalInCents() {
+        return totalInCents;
+    }
+
+    /***
+     * Getter for the expense count
+     * @return the number of expenses in the bucket
+     */
+    public int getExpenseCount() {
+        return expenseCount;
+    }
+}
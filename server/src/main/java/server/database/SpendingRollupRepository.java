@@ -0,0 +1,77 @@
+package server.database;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+public interface SpendingRollupRepository extends JpaRepository<SpendingRollup, Long> {
+    /**
+     * Adds an amount to the rollup row of a single bucket in one statement, creating the row if there is none,
+     * so concurrent expenses for the same bucket neither lose an increment nor insert the row twice
+     * @param eventId the ID of the Event
+     * @param granularity the size of the bucket
+     * @param dimension what the spending is grouped by
+     * @param dimensionId the ID of the Tag or Participant
+     * @param bucketStart the first day of the bucket
+     * @param amountInCents the amount to add, negative to subtract
+     * @param count the number of expenses to add, negative to subtract
+     */
+    @Modifying
+    @Query(value = "merge into spending_rollup r using (values (1)) as s(one) "
+            + "on r.event_id = :eventId and r.granularity = :granularity and r.dimension = :dimension "
+            + "and r.dimension_id = :dimensionId and r.bucket_start = :bucketStart "
+            + "when matched then update set total_in_cents = r.total_in_cents + :amount, "
+            + "expense_count = r.expense_count + :count "
+            + "when not matched then insert "
+            + "(id, event_id, granularity, dimension, dimension_id, bucket_start, total_in_cents, expense_count) "
+            + "values (next value for spending_rollup_seq, :eventId, :granularity, :dimension, :dimensionId, "
+            + ":bucketStart, :amount, :count)", nativeQuery = true)
+    void addToBucket(@Param("eventId") String eventId,
+                     @Param("granularity") String granularity,
+                     @Param("dimension") String dimension,
+                     @Param("dimensionId") long dimensionId,
+                     @Param("bucketStart") LocalDate bucketStart,
+                     @Param("amount") long amountInCents,
+                     @Param("count") int count);
+
+    /**
+     * Returns all rollup rows of an Event for one granularity, oldest bucket first
+     * @param eventId the ID of the Event
+     * @param granularity the size of the buckets
+     * @return the rollup rows
+     */
+    List<SpendingRollup> findByEventIdAndGranularityOrderByBucketStart(String eventId,
+                                                                      SpendingRollup.Granularity granularity);
+
+    /**
+     * Returns all rollup rows of an Event for a single Tag or Participant
+     * @param eventId the ID of the Event
+     * @param dimension what the spending is grouped by
+     * @param dimensionId the ID of the Tag or Participant
+     * @return the rollup rows
+     */
+    List<SpendingRollup> findByEventIdAndDimensionAndDimensionId(String eventId,
+                                                                SpendingRollup.Dimension dimension,
+                                                                long dimensionId);
+
+    /**
+     * Deletes all rollup rows of an Event
+     * @param eventId the ID of the Event
+     */
+    @Modifying
+    @Query("delete from SpendingRollup r where r.eventId = :eventId")
+    void deleteByEventId(@Param("eventId") String eventId);
+
+    /**
+     * Deletes all rollup rows of several Events
+     * @param eventIds the IDs of the Events
+     */
+    @Modifying
+    @Query("delete from SpendingRollup r where r.eventId in :eventIds")
+    void deleteByEventIdIn(@Param("eventIds") Collection<String> eventIds);
+}
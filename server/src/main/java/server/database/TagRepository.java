@@ -2,6 +2,66 @@ package server.database;
 
 import commons.Tag;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+import java.util.Optional;
 
 public interface TagRepository extends JpaRepository<Tag, Long> {
+    /**
+     * Finds the event a tag belongs to
+     * @param tagId the ID of the tag
+     * @return the ID of the event, if the tag belongs to one
+     */
+    @Query("select e.id from Event e join e.eventTags t where t.id = :tagId")
+    Optional<String> findEventIdByTagId(@Param("tagId") long tagId);
+
+    /**
+     * Returns the IDs of the tags of an event with the given name, leaving out one tag
+     * @param eventId the ID of the event
+     * @param tagName the name of the tags
+     * @param excludedId the ID of the tag to leave out
+     * @return the IDs of the matching tags
+     */
+    @Query("select t.id from Event e join e.eventTags t where e.id = :eventId "
+            + "and t.tagName = :tagName and t.id <> :excludedId")
+    List<Long> findIdsByEventIdAndName(@Param("eventId") String eventId, @Param("tagName") String tagName,
+                                       @Param("excludedId") long excludedId);
+
+    /**
+     * Returns the tags of the system catalog, shared by the events
+     * @return the system tags
+     */
+    List<Tag> findBySystemTagTrue();
+
+    /**
+     * Adds an existing tag to an event
+     * @param eventId the ID of the event
+     * @param tagId the ID of the tag
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "insert into event_event_tags (event_id, event_tags_id) values (:eventId, :tagId)",
+            nativeQuery = true)
+    void linkToEvent(@Param("eventId") String eventId, @Param("tagId") long tagId);
+
+    /**
+     * Removes a tag from an event
+     * @param eventId the ID of the event
+     * @param tagId the ID of the tag
+     * @return the number of links removed, 0 if the event does not have the tag
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "delete from event_event_tags where event_id = :eventId and event_tags_id = :tagId",
+            nativeQuery = true)
+    int unlinkFromEvent(@Param("eventId") String eventId, @Param("tagId") long tagId);
+
+    /**
+     * Deletes a tag, after it was removed from its event and no expense uses it anymore
+     * @param tagId the ID of the tag
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("delete from Tag t where t.id = :tagId")
+    void deleteByIdInBulk(@Param("tagId") long tagId);
 }
@@ -0,0 +1,210 @@
+package server.database.memory;
+
+import commons.Event;
+import commons.Expense;
+import commons.Participant;
+import commons.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+import server.database.EventDeletionRepository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Deletes events from the {@link MemoryEventStore}, used instead of the database with the memory profile.
+ * The participants, expenses and links of an event are stored as part of it, so they are deleted
+ * together with the event and the statements deleting them on their own do nothing.
+ */
+@Repository
+@Primary
+@Profile("memory")
+public class MemoryEventDeletionRepository implements EventDeletionRepository {
+    private final MemoryEventStore store;
+
+    /**
+     * Constructor
+     * @param store the store containing the events
+     */
+    @Autowired
+    public MemoryEventDeletionRepository(MemoryEventStore store) {
+        this.store = store;
+    }
+
+    /**
+     * Returns the IDs of the events that exist
+     * @param eventIds the IDs of the events
+     * @return the IDs of the existing events
+     */
+    @Override
+    public List<String> findExistingIds(Collection<String> eventIds) {
+        return eventIds.stream().filter(store::exists).toList();
+    }
+
+    /**
+     * Returns the IDs of the expenses of events
+     * @param eventIds the IDs of the events
+     * @return the IDs of the expenses
+     */
+    @Override
+    public List<Long> findExpenseIds(Collection<String> eventIds) {
+        return children(eventIds, event -> event.getExpenses().stream().map(Expense::getId));
+    }
+
+    /**
+     * Returns the IDs of the participants of events
+     * @param eventIds the IDs of the events
+     * @return the IDs of the participants
+     */
+    @Override
+    public List<Long> findParticipantIds(Collection<String> eventIds) {
+        return children(eventIds, event -> event.getParticipants().stream().map(Participant::getId));
+    }
+
+    /**
+     * Returns the IDs of the tags of events, except the catalog tags
+     * @param eventIds the IDs of the events
+     * @return the IDs of the tags
+     */
+    @Override
+    public List<Long> findTagIds(Collection<String> eventIds) {
+        return children(eventIds, event -> event.getEventTags().stream().filter(tag -> !tag.isSystemTag()).map(Tag::getId));
+    }
+
+    private List<Long> children(Collection<String> eventIds, Function<Event, Stream<Long>> ids) {
+        return eventIds.stream().map(store::find).flatMap(event -> event.stream().flatMap(ids)).toList();
+    }
+
+    /**
+     * Does nothing, the participants of an expense are deleted with its event
+     * @param expenseIds the IDs of the expenses
+     */
+    @Override
+    public void deleteExpenseParticipantLinks(Collection<Long> expenseIds) {
+    }
+
+    /**
+     * Does nothing, the expenses of an event are deleted with it
+     * @param eventIds the IDs of the events
+     */
+    @Override
+    public void deleteExpenseLinks(Collection<String> eventIds) {
+    }
+
+    /**
+     * Does nothing, the participants of an event are deleted with it
+     * @param eventIds the IDs of the events
+     */
+    @Override
+    public void deleteParticipantLinks(Collection<String> eventIds) {
+    }
+
+    /**
+     * Does nothing, the tags of an event are deleted with it
+     * @param eventIds the IDs of the events
+     */
+    @Override
+    public void deleteTagLinks(Collection<String> eventIds) {
+    }
+
+    /**
+     * Does nothing, expenses are deleted with their event
+     * @param expenseIds the IDs of the expenses
+     */
+    @Override
+    public void deleteExpenses(Collection<Long> expenseIds) {
+    }
+
+    /**
+     * Does nothing, participants are deleted with their event
+     * @param participantIds the IDs of the participants
+     */
+    @Override
+    public void deleteParticipants(Collection<Long> participantIds) {
+    }
+
+    /**
+     * Deletes the tags stored on their own, the tags of an event are deleted with it
+     * @param tagIds the IDs of the tags
+     */
+    @Override
+    public void deleteTags(Collection<Long> tagIds) {
+        tagIds.forEach(store::deleteTag);
+    }
+
+    /**
+     * Deletes events with their participants, expenses and links
+     * @param eventIds the IDs of the events
+     */
+    @Override
+    public void deleteEvents(Collection<String> eventIds) {
+        eventIds.forEach(store::delete);
+    }
+
+    /**
+     * Does nothing, the participants of an expense are deleted with its event
+     */
+    @Override
+    public void deleteAllExpenseParticipantLinks() {
+    }
+
+    /**
+     * Does nothing, the expenses of an event are deleted with it
+     */
+    @Override
+    public void deleteAllExpenseLinks() {
+    }
+
+    /**
+     * Does nothing, the participants of an event are deleted with it
+     */
+    @Override
+    public void deleteAllParticipantLinks() {
+    }
+
+    /**
+     * Does nothing, the tags of an event are deleted with it
+     */
+    @Override
+    public void deleteAllTagLinks() {
+    }
+
+    /**
+     * Does nothing, expenses are deleted with their event
+     */
+    @Override
+    public void deleteAllExpenses() {
+    }
+
+    /**
+     * Does nothing, participants are deleted with their event
+     */
+    @Override
+    public void deleteAllParticipants() {
+    }
+
+    /**
+     * Deletes the tags stored on their own, except the catalog tags
+     */
+    @Override
+    public void deleteAllTags() {
+        store.findStandaloneTags().stream().filter(tag -> !tag.isSystemTag()).forEach(tag -> store.deleteTag(tag.getId()));
+    }
+
+    /**
+     * Deletes all events with their participants, expenses and links
+     * @return the number of events deleted
+     */
+    @Override
+    public int deleteAllEvents() {
+        int deleted = 0;
+        for (String eventId : store.ids()) {
+            if (store.delete(eventId)) deleted++;
+        }
+        return deleted;
+    }
+}
@@ -0,0 +1,128 @@
+package server.database.memory;
+
+import commons.Event;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+import server.database.EventRepository;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * The events of the {@link MemoryEventStore}, used instead of the database with the memory profile
+ */
+@Repository
+@Primary
+@Profile("memory")
+public class MemoryEventRepository extends MemoryRepository<Event, String> implements EventRepository {
+
+    /**
+     * Constructor
+     * @param store the store containing the events
+     */
+    @Autowired
+    public MemoryEventRepository(MemoryEventStore store) {
+        super(store);
+    }
+
+    @Override
+    protected String idOf(Event event) {
+        return event.getId();
+    }
+
+    /**
+     * Saves an event, which is stored when the transaction commits
+     * @param event the event
+     * @param <S> the type of the event
+     * @return the saved event
+     */
+    @Override
+    public <S extends Event> S save(S event) {
+        store.save(event);
+        return event;
+    }
+
+    /**
+     * Stores a new event
+     * @param event the event
+     * @throws org.springframework.dao.DataIntegrityViolationException if its ID is taken
+     */
+    @Override
+    public void insert(Event event) {
+        store.insert(event);
+    }
+
+    /**
+     * Finds an event
+     * @param eventId the ID of the event
+     * @return the event, or empty if it does not exist
+     */
+    @Override
+    public Optional<Event> findById(String eventId) {
+        return store.find(eventId);
+    }
+
+    /**
+     * Checks whether an event exists, without loading it
+     * @param eventId the ID of the event
+     * @return true if it exists
+     */
+    @Override
+    public boolean existsById(String eventId) {
+        return store.exists(eventId);
+    }
+
+    /**
+     * Loads all events
+     * @return the events
+     */
+    @Override
+    public List<Event> findAll() {
+        return store.findAll();
+    }
+
+    /**
+     * Counts the events, without loading them
+     * @return the number of events
+     */
+    @Override
+    public long count() {
+        return store.ids().size();
+    }
+
+    /**
+     * Deletes an event with its participants, expenses and links
+     * @param eventId the ID of the event
+     */
+    @Override
+    public void deleteById(String eventId) {
+        store.delete(eventId);
+    }
+
+    /**
+     * Sets the last activity of an event
+     * @param eventId the ID of the event
+     * @param lastActivity the time of the change
+     * @return the number of events updated, 0 if the event does not exist
+     */
+    @Override
+    public int touch(String eventId, Date lastActivity) {
+        return store.update(eventId, event -> {
+            event.setLastActivity(lastActivity);
+            return 1;
+        }).orElse(0);
+    }
+
+    /**
+     * Returns the IDs of all events, without loading them
+     * @return the IDs of the events
+     */
+    @Override
+    public List<String> findAllIds() {
+        return new ArrayList<>(store.ids());
+    }
+}
@@ -0,0 +1,811 @@
+package server.database.memory;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import commons.Event;
+import commons.Expense;
+import commons.Participant;
+import commons.Tag;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.*;
+import java.lang.reflect.Field;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Keeps every event in memory, as the JSON of the whole aggregate, instead of in the database.
+ * Every change is appended to a {@link WriteAheadLog} before it returns, or before its transaction commits,
+ * and a snapshot of all events is written periodically, so a restart only replays the changes since the last snapshot.
+ * <p>
+ * Loading an event returns a new copy, like a new persistence context would, and saving it replaces
+ * the stored aggregate. The changes of a transaction are only visible to itself until it commits,
+ * so a rollback discards them together with its changes to the database.
+ * The participants, expenses and tags are looked up through indexes by their ID.
+ * Tags that are not part of an event, such as the shared tags of the catalog, are stored on their own.
+ */
+@Component
+@Profile("memory")
+public class MemoryEventStore {
+    private static final Logger log = LoggerFactory.getLogger(MemoryEventStore.class);
+
+    static final byte EVENT_PUT = 1;
+    static final byte EVENT_DELETE = 2;
+    static final byte TAG_PUT = 3;
+    static final byte TAG_DELETE = 4;
+    private static final String SNAPSHOT_PREFIX = "snapshot-";
+    private static final String SNAPSHOT_SUFFIX = ".bin.gz";
+    private static final int SNAPSHOT_MAGIC = 0x53504C54;
+
+    /**
+     * The IDs of the entities in an event, to keep the indexes up to date when the event changes
+     */
+    private record Children(Set<Long> participants, Set<Long> expenses, Set<Long> tags) {
+        private static final Children NONE = new Children(Set.of(), Set.of(), Set.of());
+    }
+
+    /**
+     * The changes of a transaction, kept apart from the stored events until it commits.
+     * A null value is a deletion; the children are those of the changed events, for the owner lookups.
+     */
+    private record UnitOfWork(Map<String, byte[]> events, Map<String, Children> children,
+                              Map<Long, byte[]> tags, Set<String> inserted) {
+        private void putEvent(String eventId, byte[] data, Children after) {
+            events.put(eventId, data);
+            children.put(eventId, after);
+        }
+    }
+
+    private final ObjectMapper objectMapper;
+    private final Path directory;
+    private final Map<String, byte[]> events = new ConcurrentHashMap<>();
+    private final Map<Long, byte[]> tags = new ConcurrentHashMap<>();
+    private final Map<String, Children> children = new ConcurrentHashMap<>();
+    private final Map<Long, String> participantOwners = new ConcurrentHashMap<>();
+    private final Map<Long, String> expenseOwners = new ConcurrentHashMap<>();
+    private final Map<Long, Set<String>> tagOwners = new ConcurrentHashMap<>();
+    private final AtomicLong lastId = new AtomicLong();
+    // Changes hold the read lock, a snapshot the write lock while it copies the state and rotates the log
+    private final ReadWriteLock snapshotLock = new ReentrantReadWriteLock();
+    private final WriteAheadLog wal;
+
+    /**
+     * Constructor, recovering the events from the last snapshot and the log after it
+     * @param objectMapper the ObjectMapper serializing the events
+     * @param directory the directory of the log and the snapshots
+     * @param segmentSize the size of a segment file of the log
+     * @throws IOException if the snapshot or the log cannot be read
+     */
+    @Autowired
+    public MemoryEventStore(ObjectMapper objectMapper,
+                            @Value("${memory-store.directory:./event-store}") Path directory,
+                            @Value("${memory-store.segment-size:67108864}") int segmentSize) throws IOException {
+        this.objectMapper = objectMapper;
+        this.directory = directory;
+        Files.createDirectories(directory);
+        long snapshotSequence = loadSnapshot();
+        long lastSequence = WriteAheadLog.replay(directory, snapshotSequence, this::apply);
+        this.wal = new WriteAheadLog(directory, segmentSize, lastSequence);
+    }
+
+    /**
+     * Loads a copy of an event
+     * @param eventId the ID of the event
+     * @return the event, if it exists
+     */
+    public Optional<Event> find(String eventId) {
+        byte[] data = eventData(eventId);
+        return data == null ? Optional.empty() : Optional.of(readEvent(data));
+    }
+
+    /**
+     * Loads copies of all events
+     * @return the events
+     */
+    public List<Event> findAll() {
+        return merged(events, current(), UnitOfWork::events).map(this::readEvent).toList();
+    }
+
+    /**
+     * Returns the IDs of all events
+     * @return the IDs
+     */
+    public Set<String> ids() {
+        UnitOfWork work = current();
+        if (work == null) return Set.copyOf(events.keySet());
+        Set<String> ids = new HashSet<>(events.keySet());
+        work.events().forEach((id, data) -> {
+            if (data == null) ids.remove(id);
+            else ids.add(id);
+        });
+        return Set.copyOf(ids);
+    }
+
+    /**
+     * Checks whether an event exists
+     * @param eventId the ID of the event
+     * @return true if it exists
+     */
+    public boolean exists(String eventId) {
+        return eventData(eventId) != null;
+    }
+
+    /**
+     * Stores an event, replacing the stored one with the same ID.
+     * New participants, expenses and tags get an ID, like when they are persisted.
+     * @param event the event
+     * @return the stored event
+     */
+    public Event save(Event event) {
+        return put(event, false);
+    }
+
+    /**
+     * Stores a new event
+     * @param event the event
+     * @return the stored event
+     * @throws DuplicateKeyException if an event with the same ID exists
+     */
+    public Event insert(Event event) {
+        return put(event, true);
+    }
+
+    private Event put(Event event, boolean insert) {
+        prepare(event);
+        byte[] data = writeValue(event);
+        Children after = children(event);
+        UnitOfWork work = begin();
+        if (work != null) {
+            if (insert) {
+                if (eventData(event.getId()) != null) throw duplicate(event.getId());
+                work.inserted().add(event.getId());
+            }
+            work.putEvent(event.getId(), data, after);
+            return event;
+        }
+        long sequence;
+        snapshotLock.readLock().lock();
+        try {
+            sequence = putEvent(event.getId(), data, after, insert);
+        } finally {
+            snapshotLock.readLock().unlock();
+        }
+        wal.awaitDurable(sequence);
+        return event;
+    }
+
+    /**
+     * Changes a stored event atomically, with respect to the other changes of the store
+     * @param eventId the ID of the event
+     * @param change the change, applied to a copy of the event which is stored afterwards
+     * @param <T> the type of the result of the change
+     * @return the result of the change, or empty if the event does not exist
+     */
+    public <T> Optional<T> update(String eventId, Function<Event, T> change) {
+        UnitOfWork work = begin();
+        if (work != null) {
+            byte[] old = eventData(eventId);
+            if (old == null) return Optional.empty();
+            Event event = readEvent(old);
+            T result = change.apply(event);
+            prepare(event);
+            work.putEvent(eventId, writeValue(event), children(event));
+            return Optional.ofNullable(result);
+        }
+        List<T> result = new ArrayList<>(1);
+        long[] appended = new long[1];
+        snapshotLock.readLock().lock();
+        try {
+            events.computeIfPresent(eventId, (id, old) -> {
+                Event event = readEvent(old);
+                result.add(change.apply(event));
+                prepare(event);
+                byte[] data = writeValue(event);
+                appended[0] = wal.append(EVENT_PUT, id, data);
+                index(id, children(event));
+                return data;
+            });
+        } finally {
+            snapshotLock.readLock().unlock();
+        }
+        if (result.isEmpty()) return Optional.empty();
+        wal.awaitDurable(appended[0]);
+        return Optional.ofNullable(result.get(0));
+    }
+
+    /**
+     * Deletes an event
+     * @param eventId the ID of the event
+     * @return true if the event existed
+     */
+    public boolean delete(String eventId) {
+        UnitOfWork work = begin();
+        if (work != null) {
+            if (eventData(eventId) == null) return false;
+            work.putEvent(eventId, null, Children.NONE);
+            return true;
+        }
+        long sequence;
+        snapshotLock.readLock().lock();
+        try {
+            sequence = removeEvent(eventId);
+        } finally {
+            snapshotLock.readLock().unlock();
+        }
+        if (sequence != 0) wal.awaitDurable(sequence);
+        return sequence != 0;
+    }
+
+    /**
+     * Stores a tag that is not part of an event, giving it an ID if it is new
+     * @param tag the tag
+     * @return the stored tag
+     */
+    public Tag saveTag(Tag tag) {
+        if (tag.getId() == 0) setId(tag, lastId.incrementAndGet());
+        byte[] data = writeValue(tag);
+        UnitOfWork work = begin();
+        if (work != null) {
+            work.tags().put(tag.getId(), data);
+            return tag;
+        }
+        long sequence;
+        snapshotLock.readLock().lock();
+        try {
+            sequence = putTag(tag.getId(), data);
+        } finally {
+            snapshotLock.readLock().unlock();
+        }
+        wal.awaitDurable(sequence);
+        return tag;
+    }
+
+    /**
+     * Deletes a tag that is not part of an event
+     * @param tagId the ID of the tag
+     */
+    public void deleteTag(long tagId) {
+        UnitOfWork work = begin();
+        if (work != null) {
+            if (tagData(tagId) != null) work.tags().put(tagId, null);
+            return;
+        }
+        long sequence;
+        snapshotLock.readLock().lock();
+        try {
+            sequence = removeTag(tagId);
+        } finally {
+            snapshotLock.readLock().unlock();
+        }
+        if (sequence != 0) wal.awaitDurable(sequence);
+    }
+
+    /**
+     * Loads a copy of a tag, stored on its own or as part of an event
+     * @param tagId the ID of the tag
+     * @return the tag, if it exists
+     */
+    public Optional<Tag> findTag(long tagId) {
+        byte[] data = tagData(tagId);
+        if (data != null) return Optional.of(readValue(data, Tag.class));
+        return ownersOfTag(tagId).stream().findFirst().flatMap(this::find)
+                .flatMap(event -> event.getEventTags().stream().filter(tag -> tag.getId() == tagId).findFirst());
+    }
+
+    /**
+     * Loads copies of the tags stored on their own
+     * @return the tags
+     */
+    public List<Tag> findStandaloneTags() {
+        return merged(tags, current(), UnitOfWork::tags).map(data -> readValue(data, Tag.class)).toList();
+    }
+
+    /**
+     * Finds the event of a participant
+     * @param participantId the ID of the participant
+     * @return the ID of the event, if the participant belongs to one
+     */
+    public Optional<String> ownerOfParticipant(long participantId) {
+        return owner(participantOwners.get(participantId), participantId, Children::participants);
+    }
+
+    /**
+     * Finds the event of an expense
+     * @param expenseId the ID of the expense
+     * @return the ID of the event, if the expense belongs to one
+     */
+    public Optional<String> ownerOfExpense(long expenseId) {
+        return owner(expenseOwners.get(expenseId), expenseId, Children::expenses);
+    }
+
+    /**
+     * Finds the events of a tag, several for a shared tag of the catalog
+     * @param tagId the ID of the tag
+     * @return the IDs of the events
+     */
+    public Set<String> ownersOfTag(long tagId) {
+        Set<String> owners = tagOwners.getOrDefault(tagId, Set.of());
+        UnitOfWork work = current();
+        if (work == null) return Set.copyOf(owners);
+        Set<String> current = new HashSet<>(owners);
+        work.children().forEach((eventId, after) -> {
+            if (after.tags().contains(tagId)) current.add(eventId);
+            else current.remove(eventId);
+        });
+        return Set.copyOf(current);
+    }
+
+    /**
+     * Finds the owner of a participant or an expense, as changed by the current transaction
+     * @param committed the owner according to the committed events
+     * @param childId the ID of the participant or expense
+     * @param ids the IDs of that kind of children of an event
+     * @return the ID of the event, if the child belongs to one
+     */
+    private Optional<String> owner(String committed, long childId, Function<Children, Set<Long>> ids) {
+        UnitOfWork work = current();
+        if (work == null) return Optional.ofNullable(committed);
+        for (Map.Entry<String, Children> entry : work.children().entrySet()) {
+            if (ids.apply(entry.getValue()).contains(childId)) return Optional.of(entry.getKey());
+        }
+        return committed == null || work.children().containsKey(committed) ? Optional.empty() : Optional.of(committed);
+    }
+
+    private byte[] eventData(String eventId) {
+        UnitOfWork work = current();
+        if (work != null && work.events().containsKey(eventId)) return work.events().get(eventId);
+        return events.get(eventId);
+    }
+
+    private byte[] tagData(long tagId) {
+        UnitOfWork work = current();
+        if (work != null && work.tags().containsKey(tagId)) return work.tags().get(tagId);
+        return tags.get(tagId);
+    }
+
+    /**
+     * Returns the stored values as changed by a transaction
+     * @param committed the committed values
+     * @param work the changes of the transaction, or null outside of one
+     * @param changes the changed values of the transaction, null for a deletion
+     * @return the values
+     */
+    private static <K> Stream<byte[]> merged(Map<K, byte[]> committed, UnitOfWork work,
+                                             Function<UnitOfWork, Map<K, byte[]>> changes) {
+        if (work == null) return committed.values().stream();
+        Map<K, byte[]> changed = changes.apply(work);
+        return Stream.concat(committed.entrySet().stream().filter(entry -> !changed.containsKey(entry.getKey()))
+                .map(Map.Entry::getValue), changed.values().stream().filter(Objects::nonNull));
+    }
+
+    /**
+     * Returns the changes of the current transaction
+     * @return the changes, or null outside of a transaction or before its first change
+     */
+    private UnitOfWork current() {
+        return (UnitOfWork) TransactionSynchronizationManager.getResource(this);
+    }
+
+    /**
+     * Returns the changes of the current transaction, starting to collect them on its first change
+     * @return the changes, or null outside of a transaction, when a change is stored right away
+     */
+    private UnitOfWork begin() {
+        UnitOfWork work = current();
+        if (work != null || !TransactionSynchronizationManager.isSynchronizationActive()) return work;
+        UnitOfWork started = new UnitOfWork(new LinkedHashMap<>(), new HashMap<>(), new LinkedHashMap<>(), new HashSet<>());
+        TransactionSynchronizationManager.bindResource(this, started);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void suspend() {
+                TransactionSynchronizationManager.unbindResource(MemoryEventStore.this);
+            }
+
+            @Override
+            public void resume() {
+                TransactionSynchronizationManager.bindResource(MemoryEventStore.this, started);
+            }
+
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                commit(started);
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(MemoryEventStore.this);
+            }
+        });
+        return started;
+    }
+
+    /**
+     * Stores the changes of a transaction that is about to commit, and waits until they are durable.
+     * The tags go first, as an event may link a tag stored on its own in the same transaction.
+     * @param work the changes
+     * @throws DuplicateKeyException if another transaction inserted an event with the same ID first
+     */
+    private void commit(UnitOfWork work) {
+        for (String eventId : work.inserted()) {
+            if (work.events().get(eventId) != null && events.containsKey(eventId)) throw duplicate(eventId);
+        }
+        long sequence = 0;
+        snapshotLock.readLock().lock();
+        try {
+            for (Map.Entry<Long, byte[]> entry : work.tags().entrySet()) {
+                long appended = entry.getValue() == null ? removeTag(entry.getKey()) : putTag(entry.getKey(), entry.getValue());
+                sequence = Math.max(sequence, appended);
+            }
+            for (Map.Entry<String, byte[]> entry : work.events().entrySet()) {
+                String eventId = entry.getKey();
+                long appended = entry.getValue() == null ? removeEvent(eventId)
+                        : putEvent(eventId, entry.getValue(), work.children().get(eventId), work.inserted().contains(eventId));
+                sequence = Math.max(sequence, appended);
+            }
+        } finally {
+            snapshotLock.readLock().unlock();
+        }
+        if (sequence != 0) wal.awaitDurable(sequence);
+    }
+
+    /**
+     * Stores an event and logs it, holding the read lock of the snapshots
+     * @return the sequence number of its record
+     */
+    private long putEvent(String eventId, byte[] data, Children after, boolean insert) {
+        long[] appended = new long[1];
+        events.compute(eventId, (id, old) -> {
+            if (insert && old != null) throw duplicate(id);
+            appended[0] = wal.append(EVENT_PUT, id, data);
+            index(id, after);
+            return data;
+        });
+        return appended[0];
+    }
+
+    /**
+     * Deletes an event and logs it, holding the read lock of the snapshots
+     * @return the sequence number of its record, 0 if the event did not exist
+     */
+    private long removeEvent(String eventId) {
+        long[] appended = new long[1];
+        events.computeIfPresent(eventId, (id, old) -> {
+            appended[0] = wal.append(EVENT_DELETE, id, new byte[0]);
+            unindex(id);
+            return null;
+        });
+        return appended[0];
+    }
+
+    /**
+     * Stores a tag on its own and logs it, holding the read lock of the snapshots
+     * @return the sequence number of its record
+     */
+    private long putTag(long tagId, byte[] data) {
+        long[] appended = new long[1];
+        tags.compute(tagId, (id, old) -> {
+            appended[0] = wal.append(TAG_PUT, Long.toString(id), data);
+            return data;
+        });
+        return appended[0];
+    }
+
+    /**
+     * Deletes a tag stored on its own and logs it, holding the read lock of the snapshots
+     * @return the sequence number of its record, 0 if the tag did not exist
+     */
+    private long removeTag(long tagId) {
+        long[] appended = new long[1];
+        tags.computeIfPresent(tagId, (id, old) -> {
+            appended[0] = wal.append(TAG_DELETE, Long.toString(id), new byte[0]);
+            return null;
+        });
+        return appended[0];
+    }
+
+    private static DuplicateKeyException duplicate(String eventId) {
+        return new DuplicateKeyException("Event " + eventId + " already exists");
+    }
+
+    /**
+     * Gives a new participant, expense or tag an ID, like persisting it would
+     * @param entity the entity
+     */
+    public void assignId(Object entity) {
+        if (readId(entity) == 0) setId(entity, lastId.incrementAndGet());
+    }
+
+    /**
+     * Writes a snapshot of all events, and deletes the log and the snapshots it replaces. Run periodically.
+     * @throws IOException if the snapshot cannot be written
+     */
+    @Scheduled(fixedDelayString = "${memory-store.snapshot-interval:PT10M}",
+            initialDelayString = "${memory-store.snapshot-interval:PT10M}")
+    public void snapshot() throws IOException {
+        Map<String, byte[]> eventCopy;
+        Map<Long, byte[]> tagCopy;
+        long sequence;
+        snapshotLock.writeLock().lock();
+        try {
+            eventCopy = new HashMap<>(events);
+            tagCopy = new HashMap<>(tags);
+            sequence = wal.rotate();
+        } finally {
+            snapshotLock.writeLock().unlock();
+        }
+        Path target = directory.resolve(SNAPSHOT_PREFIX + String.format("%020d", sequence) + SNAPSHOT_SUFFIX);
+        Path temporary = directory.resolve(target.getFileName() + ".tmp");
+        try (FileOutputStream file = new FileOutputStream(temporary.toFile());
+             GZIPOutputStream gzip = new GZIPOutputStream(file);
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(gzip))) {
+            out.writeInt(SNAPSHOT_MAGIC);
+            out.writeLong(sequence);
+            out.writeLong(lastId.get());
+            out.writeInt(eventCopy.size());
+            for (Map.Entry<String, byte[]> entry : eventCopy.entrySet()) {
+                out.writeUTF(entry.getKey());
+                out.writeInt(entry.getValue().length);
+                out.write(entry.getValue());
+            }
+            out.writeInt(tagCopy.size());
+            for (Map.Entry<Long, byte[]> entry : tagCopy.entrySet()) {
+                out.writeLong(entry.getKey());
+                out.writeInt(entry.getValue().length);
+                out.write(entry.getValue());
+            }
+            out.flush();
+            gzip.finish();
+            file.getChannel().force(true);
+        }
+        Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        for (Path old : snapshots()) {
+            if (!old.equals(target)) Files.deleteIfExists(old);
+        }
+        wal.deleteUpTo(sequence);
+    }
+
+    /**
+     * Writes a final snapshot and closes the log
+     */
+    @PreDestroy
+    public void close() {
+        try {
+            snapshot();
+        } catch (IOException | RuntimeException e) {
+            log.warn("Could not write a snapshot of the events", e);
+        }
+        wal.close();
+    }
+
+    /**
+     * Closes the log without a snapshot, as a crash would leave it
+     */
+    void closeWithoutSnapshot() {
+        wal.close();
+    }
+
+    /**
+     * Loads the newest readable snapshot
+     * @return the sequence number of the log covered by the snapshot, 0 if there is none
+     */
+    private long loadSnapshot() throws IOException {
+        List<Path> snapshots = new ArrayList<>(snapshots());
+        Collections.reverse(snapshots);
+        for (Path snapshot : snapshots) {
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(
+                    new GZIPInputStream(Files.newInputStream(snapshot))))) {
+                if (in.readInt() != SNAPSHOT_MAGIC) throw new IOException("Not a snapshot");
+                long sequence = in.readLong();
+                lastId.set(in.readLong());
+                int eventCount = in.readInt();
+                for (int i = 0; i < eventCount; i++) {
+                    String id = in.readUTF();
+                    byte[] data = in.readNBytes(in.readInt());
+                    events.put(id, data);
+                    index(id, children(readEvent(data)));
+                }
+                int tagCount = in.readInt();
+                for (int i = 0; i < tagCount; i++) {
+                    long id = in.readLong();
+                    tags.put(id, in.readNBytes(in.readInt()));
+                    lastId.accumulateAndGet(id, Math::max);
+                }
+                return sequence;
+            } catch (IOException | RuntimeException e) {
+                log.warn("Could not read snapshot {}, trying an older one", snapshot, e);
+                events.clear();
+                tags.clear();
+                children.clear();
+                participantOwners.clear();
+                expenseOwners.clear();
+                tagOwners.clear();
+                lastId.set(0);
+            }
+        }
+        return 0;
+    }
+
+    private List<Path> snapshots() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> {
+                String name = file.getFileName().toString();
+                return name.startsWith(SNAPSHOT_PREFIX) && name.endsWith(SNAPSHOT_SUFFIX);
+            }).sorted().toList();
+        }
+    }
+
+    /**
+     * Applies a record of the log during recovery
+     * @param entry the record
+     */
+    private void apply(WriteAheadLog.Entry entry) {
+        switch (entry.type()) {
+            case EVENT_PUT -> {
+                events.put(entry.key(), entry.payload());
+                index(entry.key(), children(readEvent(entry.payload())));
+            }
+            case EVENT_DELETE -> {
+                events.remove(entry.key());
+                unindex(entry.key());
+            }
+            case TAG_PUT -> {
+                long id = Long.parseLong(entry.key());
+                tags.put(id, entry.payload());
+                lastId.accumulateAndGet(id, Math::max);
+            }
+            case TAG_DELETE -> tags.remove(Long.parseLong(entry.key()));
+            default -> throw new IllegalStateException("Unknown record type " + entry.type());
+        }
+    }
+
+    private static Children children(Event event) {
+        return new Children(ids(event.getParticipants(), Participant::getId),
+                ids(event.getExpenses(), Expense::getId), ids(event.getEventTags(), Tag::getId));
+    }
+
+    private void index(String eventId, Children after) {
+        Children before = children.getOrDefault(eventId, Children.NONE);
+        before.participants().forEach(id -> participantOwners.remove(id, eventId));
+        before.expenses().forEach(id -> expenseOwners.remove(id, eventId));
+        before.tags().forEach(id -> removeTagOwner(id, eventId));
+        after.participants().forEach(id -> participantOwners.put(id, eventId));
+        after.expenses().forEach(id -> expenseOwners.put(id, eventId));
+        after.tags().forEach(id -> tagOwners.computeIfAbsent(id, tagId -> ConcurrentHashMap.newKeySet()).add(eventId));
+        // A new tag stored on its own until it was linked is now stored with the event, unlike a catalog tag
+        after.tags().stream().filter(id -> !before.tags().contains(id)).forEach(id -> tags.computeIfPresent(id,
+                (tagId, data) -> readValue(data, Tag.class).isSystemTag() ? data : null));
+        Stream.of(after.participants(), after.expenses(), after.tags()).flatMap(Set::stream)
+                .forEach(id -> lastId.accumulateAndGet(id, Math::max));
+        children.put(eventId, after);
+    }
+
+    private void unindex(String eventId) {
+        Children before = children.remove(eventId);
+        if (before == null) return;
+        before.participants().forEach(id -> participantOwners.remove(id, eventId));
+        before.expenses().forEach(id -> expenseOwners.remove(id, eventId));
+        before.tags().forEach(id -> removeTagOwner(id, eventId));
+    }
+
+    private void removeTagOwner(long tagId, String eventId) {
+        tagOwners.computeIfPresent(tagId, (id, owners) -> {
+            owners.remove(eventId);
+            return owners.isEmpty() ? null : owners;
+        });
+    }
+
+    private static <T> Set<Long> ids(Collection<T> entities, Function<T, Long> id) {
+        if (entities == null) return Set.of();
+        Set<Long> ids = new HashSet<>();
+        entities.forEach(entity -> ids.add(id.apply(entity)));
+        return ids;
+    }
+
+    /**
+     * Gives the new entities of an event an ID, and points the expenses to the participants and tags
+     * of the event itself, rebuilding the sets whose elements changed
+     * @param event the event
+     */
+    private void prepare(Event event) {
+        if (event.getParticipants() == null || event.getExpenses() == null || event.getEventTags() == null) return;
+        event.getParticipants().forEach(this::assignId);
+        event.getEventTags().forEach(this::assignId);
+        event.getExpenses().forEach(this::assignId);
+        Map<Long, Participant> participants = new HashMap<>();
+        event.getParticipants().forEach(participant -> participants.put(participant.getId(), participant));
+        Map<Long, Tag> eventTags = new HashMap<>();
+        event.getEventTags().forEach(tag -> eventTags.put(tag.getId(), tag));
+        List<Expense> expenses = new ArrayList<>(event.getExpenses());
+        for (Expense expense : expenses) {
+            Participant owedTo = expense.getOwedTo();
+            if (owedTo != null) expense.setOwedTo(participants.getOrDefault(owedTo.getId(), owedTo));
+            Tag tag = expense.getExpenseTag();
+            if (tag != null) {
+                assignId(tag);
+                expense.setExpenseTag(eventTags.getOrDefault(tag.getId(), tag));
+            }
+            if (expense.getParticipantsInExpense() != null) {
+                Set<Participant> members = new HashSet<>();
+                for (Participant member : expense.getParticipantsInExpense()) {
+                    members.add(participants.getOrDefault(member.getId(), member));
+                }
+                expense.setParticipantToExpense(members);
+            }
+        }
+        List<Participant> participantList = new ArrayList<>(participants.values());
+        event.getParticipants().clear();
+        event.getParticipants().addAll(participantList);
+        event.getEventTags().clear();
+        event.getEventTags().addAll(eventTags.values());
+        event.getExpenses().clear();
+        event.getExpenses().addAll(expenses);
+        event.invalidateIndex();
+    }
+
+    private Event readEvent(byte[] data) {
+        Event event = readValue(data, Event.class);
+        prepare(event);
+        return event;
+    }
+
+    private <T> T readValue(byte[] data, Class<T> type) {
+        try {
+            return objectMapper.readValue(data, type);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private byte[] writeValue(Object value) {
+        try {
+            return objectMapper.writeValueAsBytes(value);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static long readId(Object entity) {
+        try {
+            return idField(entity).getLong(entity);
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void setId(Object entity, long id) {
+        try {
+            idField(entity).setLong(entity, id);
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static Field idField(Object entity) {
+        try {
+            Field field = entity.getClass().getDeclaredField("id");
+            field.setAccessible(true);
+            return field;
+        } catch (NoSuchFieldException e) {
+            throw new IllegalArgumentException("No id on " + entity.getClass(), e);
+        }
+    }
+}
@@ -0,0 +1,202 @@
+package server.database.memory;
+
+import commons.Expense;
+import commons.Participant;
+import commons.Tag;
+import jakarta.persistence.EntityNotFoundException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+import server.database.ExpenseRepository;
+
+import java.util.*;
+import java.util.function.BiConsumer;
+
+/**
+ * The expenses of the events in the {@link MemoryEventStore}, used instead of the database
+ * with the memory profile. An expense is stored as part of its event.
+ */
+@Repository
+@Primary
+@Profile("memory")
+public class MemoryExpenseRepository extends MemoryRepository<Expense, Long> implements ExpenseRepository {
+
+    /**
+     * Constructor
+     * @param store the store containing the events
+     */
+    @Autowired
+    public MemoryExpenseRepository(MemoryEventStore store) {
+        super(store);
+    }
+
+    @Override
+    protected Long idOf(Expense expense) {
+        return expense.getId();
+    }
+
+    /**
+     * Saves an expense. A new expense only gets its ID, it is stored with the event it is added to.
+     * An existing expense replaces the stored one in its event.
+     * @param expense the expense
+     * @return the saved expense
+     */
+    @Override
+    public <S extends Expense> S save(S expense) {
+        Optional<String> owner = store.ownerOfExpense(expense.getId());
+        if (owner.isEmpty()) {
+            store.assignId(expense);
+            return expense;
+        }
+        store.update(owner.get(), event -> {
+            event.findExpense(expense.getId()).ifPresent(event::removeExpense);
+            event.addExpense(expense);
+            return null;
+        });
+        return expense;
+    }
+
+    /**
+     * Finds an expense in its event
+     * @param expenseId the ID of the expense
+     * @return the expense, or empty if it does not exist
+     */
+    @Override
+    public Optional<Expense> findById(Long expenseId) {
+        return store.ownerOfExpense(expenseId).flatMap(store::find).flatMap(event -> event.findExpense(expenseId));
+    }
+
+    /**
+     * Returns the expenses of all events
+     * @return the expenses
+     */
+    @Override
+    public List<Expense> findAll() {
+        return store.findAll().stream().flatMap(event -> event.getExpenses().stream()).toList();
+    }
+
+    /**
+     * Deletes an expense by removing it from its event
+     * @param expenseId the ID of the expense
+     */
+    @Override
+    public void deleteById(Long expenseId) {
+        unlinkFromEvent(List.of(expenseId));
+    }
+
+    /**
+     * Finds the expenses of an event paid by a participant
+     * @param eventId the ID of the event
+     * @param participantId the ID of the participant who paid
+     * @return the expenses
+     */
+    @Override
+    public List<Expense> findByEventIdAndOwedToId(String eventId, long participantId) {
+        return store.find(eventId).map(event -> List.copyOf(event.findExpensesPaidBy(participantId)))
+                .orElse(List.of());
+    }
+
+    /**
+     * Finds the event an expense belongs to
+     * @param expenseId the ID of the expense
+     * @return the ID of the event, or empty if the expense does not exist
+     */
+    @Override
+    public Optional<String> findEventIdByExpenseId(long expenseId) {
+        return store.ownerOfExpense(expenseId);
+    }
+
+    /**
+     * Moves the expenses of an event from one tag to another
+     * @param eventId the ID of the event
+     * @param fromTagId the ID of the current tag
+     * @param toTagId the ID of the new tag
+     * @return the number of expenses changed
+     * @throws EntityNotFoundException if the new tag does not exist
+     */
+    @Override
+    public int reassignTag(String eventId, long fromTagId, long toTagId) {
+        return store.update(eventId, event -> {
+            Tag target = event.findTag(toTagId).or(() -> store.findTag(toTagId))
+                    .orElseThrow(() -> new EntityNotFoundException("Tag not found"));
+            int changed = 0;
+            for (Expense expense : event.getExpenses()) {
+                if (expense.getExpenseTag() != null && expense.getExpenseTag().getId() == fromTagId) {
+                    expense.setExpenseTag(target);
+                    changed++;
+                }
+            }
+            return changed;
+        }).orElse(0);
+    }
+
+    /**
+     * Removes a participant from the expenses of an event it takes part in
+     * @param eventId the ID of the event
+     * @param participantId the ID of the participant
+     * @return the number of expenses changed
+     */
+    @Override
+    public int removeParticipantFromExpenses(String eventId, long participantId) {
+        return store.update(eventId, event -> {
+            int changed = 0;
+            for (Expense expense : event.getExpenses()) {
+                Set<Participant> members = new HashSet<>(expense.getParticipantsInExpense());
+                if (members.removeIf(participant -> participant.getId() == participantId)) {
+                    expense.setParticipantToExpense(members);
+                    changed++;
+                }
+            }
+            return changed;
+        }).orElse(0);
+    }
+
+    /**
+     * Removes all participants from expenses
+     * @param expenseIds the IDs of the expenses
+     */
+    @Override
+    public void removeAllParticipants(Collection<Long> expenseIds) {
+        forEachOwner(expenseIds, (eventId, ids) -> store.update(eventId, event -> {
+            ids.forEach(id -> event.findExpense(id)
+                    .ifPresent(expense -> expense.setParticipantToExpense(new HashSet<>())));
+            return null;
+        }));
+    }
+
+    /**
+     * Removes expenses from their events
+     * @param expenseIds the IDs of the expenses
+     */
+    @Override
+    public void unlinkFromEvent(Collection<Long> expenseIds) {
+        forEachOwner(expenseIds, (eventId, ids) -> store.update(eventId, event -> {
+            ids.forEach(id -> event.findExpense(id).ifPresent(event::removeExpense));
+            return null;
+        }));
+    }
+
+    /**
+     * Deletes expenses, which are already gone once they are unlinked from their event
+     * @param expenseIds the IDs of the expenses
+     */
+    @Override
+    public void deleteByIds(Collection<Long> expenseIds) {
+        unlinkFromEvent(expenseIds);
+    }
+
+    /**
+     * Groups expenses by their event, so each event is changed once
+     * @param expenseIds the IDs of the expenses
+     * @param action receives the ID of each event and the IDs of its expenses
+     */
+    private void forEachOwner(Collection<Long> expenseIds, BiConsumer<String, List<Long>> action) {
+        Map<String, List<Long>> byEvent = new HashMap<>();
+        for (long expenseId : expenseIds) {
+            store.ownerOfExpense(expenseId)
+                    .ifPresent(eventId -> byEvent.computeIfAbsent(eventId, id -> new ArrayList<>()).add(expenseId));
+        }
+        byEvent.forEach(action);
+    }
+}
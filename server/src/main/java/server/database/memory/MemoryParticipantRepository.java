@@ -0,0 +1,122 @@
+package server.database.memory;
+
+import commons.Participant;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+import server.database.ParticipantRepository;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * The participants of the events in the {@link MemoryEventStore}, used instead of the database
+ * with the memory profile. A participant is stored as part of its event.
+ */
+@Repository
+@Primary
+@Profile("memory")
+public class MemoryParticipantRepository extends MemoryRepository<Participant, Long> implements ParticipantRepository {
+
+    /**
+     * Constructor
+     * @param store the store containing the events
+     */
+    @Autowired
+    public MemoryParticipantRepository(MemoryEventStore store) {
+        super(store);
+    }
+
+    @Override
+    protected Long idOf(Participant participant) {
+        return participant.getId();
+    }
+
+    /**
+     * Saves a participant. A new participant only gets its ID, it is stored with the event it is added to.
+     * The details of an existing participant are changed in its event.
+     * @param participant the participant
+     * @return the saved participant
+     */
+    @Override
+    public <S extends Participant> S save(S participant) {
+        Optional<String> owner = store.ownerOfParticipant(participant.getId());
+        if (owner.isEmpty()) {
+            store.assignId(participant);
+            return participant;
+        }
+        store.update(owner.get(), event -> {
+            event.findParticipant(participant.getId()).ifPresent(stored -> {
+                stored.setName(participant.getName());
+                stored.setLegalName(participant.getLegalName());
+                stored.setIban(participant.getIban());
+                stored.setBic(participant.getBic());
+                stored.setEmail(participant.getEmail());
+            });
+            return null;
+        });
+        return participant;
+    }
+
+    /**
+     * Finds a participant in its event
+     * @param participantId the ID of the participant
+     * @return the participant, or empty if it does not exist
+     */
+    @Override
+    public Optional<Participant> findById(Long participantId) {
+        return store.ownerOfParticipant(participantId).flatMap(store::find)
+                .flatMap(event -> event.findParticipant(participantId));
+    }
+
+    /**
+     * Returns the participants of all events
+     * @return the participants
+     */
+    @Override
+    public List<Participant> findAll() {
+        return store.findAll().stream().flatMap(event -> event.getParticipants().stream()).toList();
+    }
+
+    /**
+     * Deletes a participant by removing it from its event
+     * @param participantId the ID of the participant
+     */
+    @Override
+    public void deleteById(Long participantId) {
+        store.ownerOfParticipant(participantId).ifPresent(eventId -> unlinkFromEvent(eventId, participantId));
+    }
+
+    /**
+     * Finds the event a participant belongs to
+     * @param participantId the ID of the participant
+     * @return the ID of the event, or empty if the participant does not exist
+     */
+    @Override
+    public Optional<String> findEventIdByParticipantId(long participantId) {
+        return store.ownerOfParticipant(participantId);
+    }
+
+    /**
+     * Removes a participant from an event
+     * @param eventId the ID of the event
+     * @param participantId the ID of the participant
+     */
+    @Override
+    public void unlinkFromEvent(String eventId, long participantId) {
+        store.update(eventId, event -> {
+            event.findParticipant(participantId).ifPresent(event::removeParticipant);
+            return null;
+        });
+    }
+
+    /**
+     * Deletes a participant, which is already gone once it is unlinked from its event
+     * @param participantId the ID of the participant
+     */
+    @Override
+    public void deleteByIdInBulk(long participantId) {
+        deleteById(participantId);
+    }
+}
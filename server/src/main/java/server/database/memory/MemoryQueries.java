@@ -0,0 +1,228 @@
+package server.database.memory;
+
+import jakarta.persistence.Transient;
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.DirectFieldAccessor;
+import org.springframework.dao.IncorrectResultSizeDataAccessException;
+import org.springframework.data.domain.*;
+import org.springframework.data.projection.SpelAwareProxyProjectionFactory;
+import org.springframework.data.repository.query.FluentQuery;
+import org.springframework.data.support.ExampleMatcherAccessor;
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.*;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Sorting, paging and queries by example over the entities loaded from the {@link MemoryEventStore},
+ * following what the database does for them. Properties are read from the fields, like the mapped attributes.
+ */
+final class MemoryQueries {
+    private static final SpelAwareProxyProjectionFactory PROJECTIONS = new SpelAwareProxyProjectionFactory();
+
+    private MemoryQueries() {
+    }
+
+    /**
+     * Sorts entities
+     * @param entities the entities
+     * @param sort the order, by properties which may be nested
+     * @param <T> the type of the entities
+     * @return a new list with the sorted entities
+     */
+    static <T> List<T> sort(Collection<T> entities, Sort sort) {
+        List<T> sorted = new ArrayList<>(entities);
+        if (sort.isSorted()) sorted.sort(comparator(sort));
+        return sorted;
+    }
+
+    /**
+     * Returns a page of entities
+     * @param entities the entities
+     * @param pageable the page, with its order
+     * @param <T> the type of the entities
+     * @return the page
+     */
+    static <T> Page<T> page(Collection<T> entities, Pageable pageable) {
+        List<T> sorted = sort(entities, pageable.getSort());
+        if (pageable.isUnpaged()) return new PageImpl<>(sorted);
+        int from = (int) Math.min(pageable.getOffset(), sorted.size());
+        int to = Math.min(from + pageable.getPageSize(), sorted.size());
+        return new PageImpl<>(sorted.subList(from, to), pageable, sorted.size());
+    }
+
+    /**
+     * Checks whether an entity matches an example. Like in the database, collections are not compared,
+     * and a nested entity of the probe is compared property by property.
+     * @param example the example
+     * @param entity the entity
+     * @return true if it matches
+     */
+    static boolean matches(Example<?> example, Object entity) {
+        if (!example.getProbeType().isInstance(entity)) return false;
+        ExampleMatcherAccessor accessor = new ExampleMatcherAccessor(example.getMatcher());
+        List<Boolean> results = new ArrayList<>();
+        compare(example.getProbe(), entity, "", accessor, Collections.newSetFromMap(new IdentityHashMap<>()), results);
+        if (example.getMatcher().isAllMatching()) return !results.contains(false);
+        return results.isEmpty() || results.contains(true);
+    }
+
+    /**
+     * Returns a query on entities that already match its example
+     * @param matches the entities
+     * @param <T> the type of the entities
+     * @return the query
+     */
+    @SuppressWarnings("unchecked")
+    static <T> FluentQuery.FetchableFluentQuery<T> query(List<T> matches) {
+        return new ListQuery<>(matches, Sort.unsorted(), entity -> (T) entity);
+    }
+
+    private static Comparator<Object> comparator(Sort sort) {
+        Comparator<Object> comparator = (first, second) -> 0;
+        for (Sort.Order order : sort) {
+            Comparator<Object> values = (first, second) -> compareValues(first, second, order.isIgnoreCase());
+            if (order.isDescending()) values = values.reversed();
+            values = order.getNullHandling() == Sort.NullHandling.NULLS_FIRST
+                    ? Comparator.nullsFirst(values) : Comparator.nullsLast(values);
+            comparator = comparator.thenComparing(entity -> new DirectFieldAccessor(entity)
+                    .getPropertyValue(order.getProperty()), values);
+        }
+        return comparator;
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static int compareValues(Object first, Object second, boolean ignoreCase) {
+        if (ignoreCase && first instanceof String a && second instanceof String b) return a.compareToIgnoreCase(b);
+        return ((Comparable) first).compareTo(second);
+    }
+
+    private static void compare(Object probe, Object entity, String prefix, ExampleMatcherAccessor accessor,
+                                Set<Object> visited, List<Boolean> results) {
+        if (!visited.add(probe)) return;
+        DirectFieldAccessor probeFields = new DirectFieldAccessor(probe);
+        DirectFieldAccessor entityFields = entity == null ? null : new DirectFieldAccessor(entity);
+        ReflectionUtils.doWithFields(probe.getClass(), field -> {
+            String path = prefix + field.getName();
+            if (accessor.isIgnoredPath(path)) return;
+            Optional<Object> expected = accessor.getValueTransformerForPath(path)
+                    .apply(Optional.ofNullable(probeFields.getPropertyValue(field.getName())));
+            Object actual = entityFields == null ? null : entityFields.getPropertyValue(field.getName());
+            if (expected.isEmpty()) {
+                if (accessor.getNullHandler() == ExampleMatcher.NullHandler.INCLUDE) results.add(actual == null);
+                return;
+            }
+            Object value = expected.get();
+            if (value instanceof Collection || value instanceof Map) return;
+            if (!BeanUtils.isSimpleValueType(value.getClass())) {
+                compare(value, actual, path + ".", accessor, visited, results);
+            } else if (value instanceof String string) {
+                results.add(actual instanceof String text && matchesString(string, text, path, accessor));
+            } else {
+                results.add(value.equals(actual));
+            }
+        }, MemoryQueries::isMapped);
+    }
+
+    private static boolean isMapped(Field field) {
+        int modifiers = field.getModifiers();
+        return !Modifier.isStatic(modifiers) && !Modifier.isTransient(modifiers) && !field.isSynthetic()
+                && !field.isAnnotationPresent(Transient.class);
+    }
+
+    private static boolean matchesString(String probe, String value, String path, ExampleMatcherAccessor accessor) {
+        boolean ignoreCase = accessor.isIgnoreCaseForPath(path);
+        ExampleMatcher.StringMatcher matcher = accessor.getStringMatcherForPath(path);
+        if (matcher == ExampleMatcher.StringMatcher.REGEX) {
+            return Pattern.compile(probe, ignoreCase ? Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE : 0)
+                    .matcher(value).matches();
+        }
+        String expected = ignoreCase ? probe.toLowerCase(Locale.ROOT) : probe;
+        String actual = ignoreCase ? value.toLowerCase(Locale.ROOT) : value;
+        return switch (matcher) {
+            case STARTING -> actual.startsWith(expected);
+            case ENDING -> actual.endsWith(expected);
+            case CONTAINING -> actual.contains(expected);
+            default -> actual.equals(expected);
+        };
+    }
+
+    /**
+     * A fluent query over the entities that matched an example. Everything is loaded anyway, so a projection
+     * to some properties returns whole entities, and a projection to an interface is a proxy on the entity.
+     * @param <T> the type of the results
+     */
+    private static final class ListQuery<T> implements FluentQuery.FetchableFluentQuery<T> {
+        private final List<?> entities;
+        private final Sort sort;
+        private final Function<Object, T> mapper;
+
+        private ListQuery(List<?> entities, Sort sort, Function<Object, T> mapper) {
+            this.entities = entities;
+            this.sort = sort;
+            this.mapper = mapper;
+        }
+
+        @Override
+        public FetchableFluentQuery<T> sortBy(Sort sort) {
+            return new ListQuery<>(entities, this.sort.and(sort), mapper);
+        }
+
+        @Override
+        public <R> FetchableFluentQuery<R> as(Class<R> resultType) {
+            return new ListQuery<>(entities, sort, entity -> {
+                if (resultType.isInstance(entity)) return resultType.cast(entity);
+                if (resultType.isInterface()) return PROJECTIONS.createProjection(resultType, entity);
+                throw new UnsupportedOperationException("Cannot project " + entity.getClass().getSimpleName()
+                        + " to " + resultType.getSimpleName() + " in memory");
+            });
+        }
+
+        @Override
+        public FetchableFluentQuery<T> project(Collection<String> properties) {
+            return this;
+        }
+
+        @Override
+        public T oneValue() {
+            List<T> all = all();
+            if (all.size() > 1) throw new IncorrectResultSizeDataAccessException(1, all.size());
+            return all.isEmpty() ? null : all.get(0);
+        }
+
+        @Override
+        public T firstValue() {
+            List<T> all = all();
+            return all.isEmpty() ? null : all.get(0);
+        }
+
+        @Override
+        public List<T> all() {
+            return sort(entities, sort).stream().map(mapper).toList();
+        }
+
+        @Override
+        public Page<T> page(Pageable pageable) {
+            return MemoryQueries.page(sort(entities, sort), pageable).map(mapper);
+        }
+
+        @Override
+        public Stream<T> stream() {
+            return all().stream();
+        }
+
+        @Override
+        public long count() {
+            return entities.size();
+        }
+
+        @Override
+        public boolean exists() {
+            return !entities.isEmpty();
+        }
+    }
+}
@@ -0,0 +1,312 @@
+package server.database.memory;
+
+import jakarta.persistence.EntityNotFoundException;
+import org.springframework.data.domain.Example;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.repository.query.FluentQuery;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * The methods of a {@link JpaRepository} shared by the repositories of the {@link MemoryEventStore},
+ * based on the few each of them implements. Changes are only buffered by the store until the transaction commits,
+ * so flushing does nothing. Sorting, paging and queries by example run over all entities, see {@link MemoryQueries}.
+ * @param <T> the type of the entity
+ * @param <ID> the type of its ID
+ */
+abstract class MemoryRepository<T, ID> implements JpaRepository<T, ID> {
+    protected final MemoryEventStore store;
+
+    /**
+     * Constructor
+     * @param store the store containing the events
+     */
+    protected MemoryRepository(MemoryEventStore store) {
+        this.store = store;
+    }
+
+    /**
+     * Returns the ID of an entity
+     * @param entity the entity
+     * @return its ID
+     */
+    protected abstract ID idOf(T entity);
+
+    /**
+     * Does nothing, the changes are applied by the store when the transaction commits
+     */
+    @Override
+    public void flush() {
+    }
+
+    /**
+     * Saves an entity, see {@link #flush()}
+     * @param entity the entity
+     * @param <S> the type of the entity
+     * @return the saved entity
+     */
+    @Override
+    public <S extends T> S saveAndFlush(S entity) {
+        return save(entity);
+    }
+
+    /**
+     * Saves entities, see {@link #flush()}
+     * @param entities the entities
+     * @param <S> the type of the entities
+     * @return the saved entities
+     */
+    @Override
+    public <S extends T> List<S> saveAllAndFlush(Iterable<S> entities) {
+        return saveAll(entities);
+    }
+
+    /**
+     * Saves entities one at a time
+     * @param entities the entities
+     * @param <S> the type of the entities
+     * @return the saved entities
+     */
+    @Override
+    public <S extends T> List<S> saveAll(Iterable<S> entities) {
+        List<S> saved = new ArrayList<>();
+        entities.forEach(entity -> saved.add(save(entity)));
+        return saved;
+    }
+
+    /**
+     * Finds the entities with the given IDs, leaving out the missing ones
+     * @param ids the IDs
+     * @return the entities found
+     */
+    @Override
+    public List<T> findAllById(Iterable<ID> ids) {
+        List<T> found = new ArrayList<>();
+        ids.forEach(id -> findById(id).ifPresent(found::add));
+        return found;
+    }
+
+    /**
+     * Checks whether an entity exists
+     * @param id the ID of the entity
+     * @return true if it exists
+     */
+    @Override
+    public boolean existsById(ID id) {
+        return findById(id).isPresent();
+    }
+
+    /**
+     * Counts the entities
+     * @return the number of entities
+     */
+    @Override
+    public long count() {
+        return findAll().size();
+    }
+
+    /**
+     * Deletes an entity
+     * @param entity the entity
+     */
+    @Override
+    public void delete(T entity) {
+        deleteById(idOf(entity));
+    }
+
+    /**
+     * Deletes the entities with the given IDs
+     * @param ids the IDs
+     */
+    @Override
+    public void deleteAllById(Iterable<? extends ID> ids) {
+        ids.forEach(this::deleteById);
+    }
+
+    /**
+     * Deletes entities
+     * @param entities the entities
+     */
+    @Override
+    public void deleteAll(Iterable<? extends T> entities) {
+        entities.forEach(this::delete);
+    }
+
+    /**
+     * Deletes all entities
+     */
+    @Override
+    public void deleteAll() {
+        deleteAll(findAll());
+    }
+
+    /**
+     * Deletes entities, one at a time as there are no statements to batch
+     * @param entities the entities
+     */
+    @Override
+    public void deleteAllInBatch(Iterable<T> entities) {
+        deleteAll(entities);
+    }
+
+    /**
+     * Deletes the entities with the given IDs, one at a time as there are no statements to batch
+     * @param ids the IDs
+     */
+    @Override
+    public void deleteAllByIdInBatch(Iterable<ID> ids) {
+        deleteAllById(ids);
+    }
+
+    /**
+     * Deletes all entities, one at a time as there are no statements to batch
+     */
+    @Override
+    public void deleteAllInBatch() {
+        deleteAll();
+    }
+
+    /**
+     * Returns an entity, see {@link #getReferenceById(Object)}
+     * @param id the ID of the entity
+     * @return the entity
+     */
+    @Override
+    public T getOne(ID id) {
+        return getReferenceById(id);
+    }
+
+    /**
+     * Returns an entity, see {@link #getReferenceById(Object)}
+     * @param id the ID of the entity
+     * @return the entity
+     */
+    @Override
+    public T getById(ID id) {
+        return getReferenceById(id);
+    }
+
+    /**
+     * Returns an entity. Everything is loaded already, so this is the entity itself instead of a proxy
+     * @param id the ID of the entity
+     * @return the entity
+     * @throws EntityNotFoundException if it does not exist
+     */
+    @Override
+    public T getReferenceById(ID id) {
+        return findById(id).orElseThrow(() -> new EntityNotFoundException("Not found: " + id));
+    }
+
+    /**
+     * Returns all entities in order
+     * @param sort the order
+     * @return the sorted entities
+     */
+    @Override
+    public List<T> findAll(Sort sort) {
+        return MemoryQueries.sort(findAll(), sort);
+    }
+
+    /**
+     * Returns a page of all entities
+     * @param pageable the page, with its order
+     * @return the page
+     */
+    @Override
+    public Page<T> findAll(Pageable pageable) {
+        return MemoryQueries.page(findAll(), pageable);
+    }
+
+    /**
+     * Finds the entity matching an example
+     * @param example the example
+     * @param <S> the type of the entity
+     * @return the entity, or empty if none matches
+     * @throws org.springframework.dao.IncorrectResultSizeDataAccessException if more than one matches
+     */
+    @Override
+    public <S extends T> Optional<S> findOne(Example<S> example) {
+        return findBy(example, FluentQuery.FetchableFluentQuery::one);
+    }
+
+    /**
+     * Finds the entities matching an example
+     * @param example the example
+     * @param <S> the type of the entities
+     * @return the matching entities
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public <S extends T> List<S> findAll(Example<S> example) {
+        List<S> matches = new ArrayList<>();
+        for (T entity : findAll()) {
+            if (MemoryQueries.matches(example, entity)) matches.add((S) entity);
+        }
+        return matches;
+    }
+
+    /**
+     * Finds the entities matching an example, in order
+     * @param example the example
+     * @param sort the order
+     * @param <S> the type of the entities
+     * @return the sorted matching entities
+     */
+    @Override
+    public <S extends T> List<S> findAll(Example<S> example, Sort sort) {
+        return MemoryQueries.sort(findAll(example), sort);
+    }
+
+    /**
+     * Returns a page of the entities matching an example
+     * @param example the example
+     * @param pageable the page, with its order
+     * @param <S> the type of the entities
+     * @return the page
+     */
+    @Override
+    public <S extends T> Page<S> findAll(Example<S> example, Pageable pageable) {
+        return MemoryQueries.page(findAll(example), pageable);
+    }
+
+    /**
+     * Counts the entities matching an example
+     * @param example the example
+     * @param <S> the type of the entities
+     * @return the number of matching entities
+     */
+    @Override
+    public <S extends T> long count(Example<S> example) {
+        return findAll(example).size();
+    }
+
+    /**
+     * Checks whether an entity matches an example
+     * @param example the example
+     * @param <S> the type of the entities
+     * @return true if one matches
+     */
+    @Override
+    public <S extends T> boolean exists(Example<S> example) {
+        return findAll().stream().anyMatch(entity -> MemoryQueries.matches(example, entity));
+    }
+
+    /**
+     * Runs a fluent query on the entities matching an example
+     * @param example the example
+     * @param queryFunction defines the query and its result
+     * @param <S> the type of the entities
+     * @param <R> the type of the result
+     * @return the result of the query
+     */
+    @Override
+    public <S extends T, R> R findBy(Example<S> example, Function<FluentQuery.FetchableFluentQuery<S>, R> queryFunction) {
+        return queryFunction.apply(MemoryQueries.query(findAll(example)));
+    }
+}
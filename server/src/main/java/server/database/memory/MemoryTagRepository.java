@@ -0,0 +1,170 @@
+package server.database.memory;
+
+import commons.Tag;
+import jakarta.persistence.EntityNotFoundException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+import server.database.TagRepository;
+
+import java.util.*;
+
+/**
+ * The tags of the events in the {@link MemoryEventStore}, used instead of the database with the memory profile.
+ * A tag is stored as part of its events; the shared tags of the catalog and new tags that are not
+ * linked to an event yet are stored on their own.
+ */
+@Repository
+@Primary
+@Profile("memory")
+public class MemoryTagRepository extends MemoryRepository<Tag, Long> implements TagRepository {
+
+    /**
+     * Constructor
+     * @param store the store containing the events
+     */
+    @Autowired
+    public MemoryTagRepository(MemoryEventStore store) {
+        super(store);
+    }
+
+    @Override
+    protected Long idOf(Tag tag) {
+        return tag.getId();
+    }
+
+    /**
+     * Saves a tag. The details of a tag linked to events are changed in its events,
+     * other tags are stored on their own. Like in the database, a catalog tag cannot be changed.
+     * @param tag the tag
+     * @return the saved tag
+     */
+    @Override
+    public <S extends Tag> S save(S tag) {
+        Set<String> owners = store.ownersOfTag(tag.getId());
+        if (owners.isEmpty()) {
+            store.findTag(tag.getId()).filter(Tag::isSystemTag).filter(stored -> !stored.equals(tag)).ifPresent(stored -> {
+                throw new IllegalStateException("Tag " + stored.getId() + " of the system catalog cannot be changed");
+            });
+            store.saveTag(tag);
+            return tag;
+        }
+        if (tag.isSystemTag()) {
+            throw new IllegalStateException("Tag " + tag.getId() + " of the system catalog cannot be changed");
+        }
+        for (String eventId : owners) {
+            store.update(eventId, event -> {
+                event.findTag(tag.getId()).ifPresent(stored -> {
+                    stored.setTagName(tag.getTagName());
+                    stored.setColorCode(tag.getColorCode());
+                });
+                return null;
+            });
+        }
+        return tag;
+    }
+
+    /**
+     * Finds a tag, stored on its own or in an event
+     * @param tagId the ID of the tag
+     * @return the tag, or empty if it does not exist
+     */
+    @Override
+    public Optional<Tag> findById(Long tagId) {
+        return store.findTag(tagId);
+    }
+
+    /**
+     * Returns the tags stored on their own and the tags of all events, each once
+     * @return the tags
+     */
+    @Override
+    public List<Tag> findAll() {
+        Map<Long, Tag> tags = new HashMap<>();
+        store.findStandaloneTags().forEach(tag -> tags.put(tag.getId(), tag));
+        store.findAll().forEach(event -> event.getEventTags().forEach(tag -> tags.putIfAbsent(tag.getId(), tag)));
+        return new ArrayList<>(tags.values());
+    }
+
+    /**
+     * Deletes a tag, removing it from its events first
+     * @param tagId the ID of the tag
+     */
+    @Override
+    public void deleteById(Long tagId) {
+        store.ownersOfTag(tagId).forEach(eventId -> unlinkFromEvent(eventId, tagId));
+        store.deleteTag(tagId);
+    }
+
+    /**
+     * Finds an event having a tag
+     * @param tagId the ID of the tag
+     * @return the ID of the event, or empty if no event has the tag
+     */
+    @Override
+    public Optional<String> findEventIdByTagId(long tagId) {
+        return store.ownersOfTag(tagId).stream().findFirst();
+    }
+
+    /**
+     * Finds the tags of an event with a name
+     * @param eventId the ID of the event
+     * @param tagName the name of the tags
+     * @param excludedId the ID of a tag to leave out
+     * @return the IDs of the tags
+     */
+    @Override
+    public List<Long> findIdsByEventIdAndName(String eventId, String tagName, long excludedId) {
+        return store.find(eventId).map(event -> event.getEventTags().stream()
+                .filter(tag -> tag.getId() != excludedId && Objects.equals(tag.getTagName(), tagName))
+                .map(Tag::getId).toList()).orElse(List.of());
+    }
+
+    /**
+     * Returns the tags of the system catalog
+     * @return the catalog tags
+     */
+    @Override
+    public List<Tag> findBySystemTagTrue() {
+        return store.findStandaloneTags().stream().filter(Tag::isSystemTag).toList();
+    }
+
+    /**
+     * Adds a tag to an event
+     * @param eventId the ID of the event
+     * @param tagId the ID of the tag
+     * @throws EntityNotFoundException if the event or the tag does not exist
+     */
+    @Override
+    public void linkToEvent(String eventId, long tagId) {
+        Tag tag = store.findTag(tagId).orElseThrow(() -> new EntityNotFoundException("Tag not found"));
+        store.update(eventId, event -> {
+            event.addTag(tag);
+            return true;
+        }).orElseThrow(() -> new EntityNotFoundException("Event not found"));
+    }
+
+    /**
+     * Removes a tag from an event
+     * @param eventId the ID of the event
+     * @param tagId the ID of the tag
+     * @return the number of links removed, 0 if the event did not have the tag
+     */
+    @Override
+    public int unlinkFromEvent(String eventId, long tagId) {
+        return store.update(eventId, event -> event.findTag(tagId).map(tag -> {
+            event.removeTag(tag);
+            return 1;
+        }).orElse(0)).orElse(0);
+    }
+
+    /**
+     * Deletes a tag, which is already gone once it is unlinked from its events unless it is stored on its own
+     * @param tagId the ID of the tag
+     */
+    @Override
+    public void deleteByIdInBulk(long tagId) {
+        deleteById(tagId);
+    }
+}
@@ -0,0 +1,287 @@
+package server.database.memory;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * An append-only log of changes, written to memory-mapped segment files named after the sequence number
+ * of their first record. Appending only copies the record into the mapped file; a flusher thread forces
+ * the written records to disk together, and the writers wait until their record is on disk (group commit).
+ * <p>
+ * A record is stored as its length, a CRC32 of its body and the body: the sequence number, the type,
+ * the key and the payload. Reading stops at the first empty or damaged record, which is where a crash
+ * interrupted the last write.
+ */
+public class WriteAheadLog implements Closeable {
+    private static final Logger log = LoggerFactory.getLogger(WriteAheadLog.class);
+    private static final String PREFIX = "wal-";
+    private static final String SUFFIX = ".log";
+    private static final int HEADER = Integer.BYTES * 2;
+
+    /**
+     * A record read back from the log
+     * @param sequence the sequence number of the record
+     * @param type the type of the change
+     * @param key the key of the changed entry
+     * @param payload the new value of the entry, empty for a deletion
+     */
+    public record Entry(long sequence, byte type, String key, byte[] payload) {
+    }
+
+    private final Path directory;
+    private final int segmentSize;
+    private final Thread flusher;
+    private FileChannel channel;
+    private MappedByteBuffer buffer;
+    private long lastSequence;
+    private long lastWritten;
+    private long lastForced;
+    private IOException failure;
+    private boolean closed;
+
+    /**
+     * Opens the log in a directory, starting a new segment after the given sequence number
+     * @param directory the directory of the segment files
+     * @param segmentSize the size of a segment file, a larger record gets a segment of its own
+     * @param lastSequence the sequence number of the last record recovered
+     */
+    public WriteAheadLog(Path directory, int segmentSize, long lastSequence) {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.lastSequence = lastSequence;
+        this.lastWritten = lastSequence;
+        this.lastForced = lastSequence;
+        try {
+            Files.createDirectories(directory);
+            openSegment(lastSequence + 1, segmentSize);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        this.flusher = new Thread(this::flushLoop, "wal-flusher");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    /**
+     * Reads the records in the segments of a directory with a sequence number above the given one, in order
+     * @param directory the directory of the segment files
+     * @param afterSequence the sequence number up to which the changes are already known, e.g. from a snapshot
+     * @param consumer receives the records
+     * @return the sequence number of the last record read, or afterSequence if there is none
+     * @throws IOException if a segment cannot be read
+     */
+    public static long replay(Path directory, long afterSequence, Consumer<Entry> consumer) throws IOException {
+        long last = afterSequence;
+        for (Path segment : segments(directory)) {
+            try (FileChannel file = FileChannel.open(segment, StandardOpenOption.READ)) {
+                ByteBuffer data = file.map(FileChannel.MapMode.READ_ONLY, 0, file.size());
+                Entry entry;
+                while ((entry = read(data)) != null) {
+                    if (entry.sequence() <= last) continue;
+                    consumer.accept(entry);
+                    last = entry.sequence();
+                }
+            }
+        }
+        return last;
+    }
+
+    /**
+     * Appends a record, without waiting for it to be on disk, see {@link #awaitDurable}
+     * @param type the type of the change
+     * @param key the key of the changed entry
+     * @param payload the new value of the entry, empty for a deletion
+     * @return the sequence number of the record
+     */
+    public synchronized long append(byte type, String key, byte[] payload) {
+        if (closed) throw new IllegalStateException("The log is closed");
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        int bodySize = Long.BYTES + 1 + Integer.BYTES + keyBytes.length + Integer.BYTES + payload.length;
+        long sequence = lastSequence + 1;
+        try {
+            if (buffer.remaining() < HEADER + bodySize + HEADER) {
+                buffer.force();
+                openSegment(sequence, Math.max(segmentSize, HEADER + bodySize + HEADER));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        ByteBuffer body = ByteBuffer.allocate(bodySize);
+        body.putLong(sequence).put(type).putInt(keyBytes.length).put(keyBytes).putInt(payload.length).put(payload);
+        CRC32 crc = new CRC32();
+        crc.update(body.array());
+        buffer.putInt(bodySize).putInt((int) crc.getValue()).put(body.array());
+        lastSequence = sequence;
+        lastWritten = sequence;
+        notifyAll();
+        return sequence;
+    }
+
+    /**
+     * Waits until a record and all records before it are forced to disk
+     * @param sequence the sequence number of the record
+     */
+    public synchronized void awaitDurable(long sequence) {
+        try {
+            while (lastForced < sequence && failure == null && !closed) {
+                wait();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the log", e);
+        }
+        if (failure != null) throw new UncheckedIOException(failure);
+    }
+
+    /**
+     * Returns the sequence number of the last record appended
+     * @return the last sequence number
+     */
+    public synchronized long lastSequence() {
+        return lastSequence;
+    }
+
+    /**
+     * Starts a new segment, so the segments before it can be deleted once a snapshot covers them
+     * @return the sequence number of the last record before the new segment
+     */
+    public synchronized long rotate() {
+        try {
+            buffer.force();
+            lastForced = lastWritten;
+            openSegment(lastSequence + 1, segmentSize);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        notifyAll();
+        return lastSequence;
+    }
+
+    /**
+     * Deletes the segments that only contain records up to a sequence number
+     * @param sequence the sequence number covered by a snapshot
+     * @throws IOException if a segment cannot be deleted
+     */
+    public synchronized void deleteUpTo(long sequence) throws IOException {
+        List<Path> segments = segments(directory);
+        for (int i = 0; i + 1 < segments.size(); i++) {
+            if (firstSequence(segments.get(i + 1)) <= sequence + 1) {
+                Files.deleteIfExists(segments.get(i));
+            }
+        }
+    }
+
+    /**
+     * Forces the remaining records to disk and stops the flusher
+     */
+    @Override
+    public void close() {
+        synchronized (this) {
+            if (closed) return;
+            buffer.force();
+            lastForced = lastWritten;
+            closed = true;
+            notifyAll();
+        }
+        flusher.interrupt();
+        try {
+            channel.close();
+        } catch (IOException e) {
+            log.warn("Could not close the write-ahead log", e);
+        }
+    }
+
+    private void flushLoop() {
+        while (true) {
+            MappedByteBuffer target;
+            long written;
+            synchronized (this) {
+                try {
+                    while (lastForced >= lastWritten && !closed) wait();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                if (closed) return;
+                target = buffer;
+                written = lastWritten;
+            }
+            // Forced outside the lock, so writers keep appending to the next group meanwhile
+            try {
+                target.force();
+            } catch (RuntimeException e) {
+                synchronized (this) {
+                    failure = new IOException("Could not force the write-ahead log", e);
+                    notifyAll();
+                }
+                return;
+            }
+            // The segments before the target were forced when the log moved on from them
+            synchronized (this) {
+                lastForced = Math.max(lastForced, written);
+                notifyAll();
+            }
+        }
+    }
+
+    private void openSegment(long firstSequence, int size) throws IOException {
+        if (channel != null) channel.close();
+        Path segment = directory.resolve(PREFIX + String.format("%020d", firstSequence) + SUFFIX);
+        // A segment left by a crash before its first complete record is started over
+        channel = FileChannel.open(segment, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+    }
+
+    private static Entry read(ByteBuffer data) {
+        if (data.remaining() < HEADER) return null;
+        int bodySize = data.getInt();
+        int checksum = data.getInt();
+        if (bodySize <= 0 || bodySize > data.remaining()) return null;
+        byte[] body = new byte[bodySize];
+        data.get(body);
+        CRC32 crc = new CRC32();
+        crc.update(body);
+        if ((int) crc.getValue() != checksum) return null;
+        ByteBuffer fields = ByteBuffer.wrap(body);
+        long sequence = fields.getLong();
+        byte type = fields.get();
+        byte[] key = new byte[fields.getInt()];
+        fields.get(key);
+        byte[] payload = new byte[fields.getInt()];
+        fields.get(payload);
+        return new Entry(sequence, type, new String(key, StandardCharsets.UTF_8), payload);
+    }
+
+    private static List<Path> segments(Path directory) throws IOException {
+        if (!Files.isDirectory(directory)) return List.of();
+        try (Stream<Path> files = Files.list(directory)) {
+            List<Path> segments = new ArrayList<>(files.filter(file -> {
+                String name = file.getFileName().toString();
+                return name.startsWith(PREFIX) && name.endsWith(SUFFIX);
+            }).toList());
+            segments.sort(null);
+            return segments;
+        }
+    }
+
+    private static long firstSequence(Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+    }
+}
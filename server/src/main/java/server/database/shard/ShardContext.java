@@ -0,0 +1,94 @@
+package server.database.shard;
+
+import java.util.function.Supplier;
+
+/**
+ * The shard the current thread works on, which the {@link ShardRoutingDataSource} connects to.
+ * It is set for an event, whose shard follows from its ID, or for a shard directly, e.g. to list
+ * the events of every shard. Without it, the first shard is used.
+ * <p>
+ * The shard is chosen when a transaction runs its first statement, so it has to be set before then
+ * and applies to the whole transaction, see {@link server.config.ShardingConfig}.
+ */
+public final class ShardContext {
+    /**
+     * What the current thread works on: an event, or a shard if eventId is null
+     * @param eventId the ID of the event
+     * @param shard the index of the shard
+     */
+    record Target(String eventId, int shard) {
+    }
+
+    private static final ThreadLocal<Target> CURRENT = new ThreadLocal<>();
+
+    private ShardContext() {
+    }
+
+    /**
+     * Runs an action on the shard of an event
+     * @param eventId the ID of the event
+     * @param action the action
+     * @param <T> the type of the result
+     * @return the result of the action
+     */
+    public static <T> T forEvent(String eventId, Supplier<T> action) {
+        return with(new Target(eventId, -1), action);
+    }
+
+    /**
+     * Runs an action on the shard of an event
+     * @param eventId the ID of the event
+     * @param action the action
+     */
+    public static void forEvent(String eventId, Runnable action) {
+        forEvent(eventId, () -> {
+            action.run();
+            return null;
+        });
+    }
+
+    /**
+     * Runs an action on a shard
+     * @param shard the index of the shard
+     * @param action the action
+     * @param <T> the type of the result
+     * @return the result of the action
+     */
+    public static <T> T forShard(int shard, Supplier<T> action) {
+        return with(new Target(null, shard), action);
+    }
+
+    /**
+     * Returns what the current thread works on
+     * @return the target, or null if none is set
+     */
+    static Target current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Sets the target of the current thread until {@link #clear} is called, e.g. for a web request
+     * @param target the target
+     */
+    static void set(Target target) {
+        CURRENT.set(target);
+    }
+
+    /**
+     * Removes the target of the current thread
+     */
+    static void clear() {
+        CURRENT.remove();
+    }
+
+    private static <T> T with(Target target, Supplier<T> action) {
+        Target previous = CURRENT.get();
+        CURRENT.set(target);
+        try {
+            return action.get();
+        } finally {
+            if (previous == null) CURRENT.remove();
+            else CURRENT.set(previous);
+        }
+    }
+}
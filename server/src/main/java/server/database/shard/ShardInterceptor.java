@@ -0,0 +1,56 @@
+package server.database.shard;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.Map;
+
+/**
+ * Sets the shard of a request about an event, found by the eventId variable of its path,
+ * so the reads of the request go to the shard of the event
+ */
+public class ShardInterceptor implements AsyncHandlerInterceptor {
+
+    /**
+     * Sets the shard of the event the request is about, if its path has an eventId variable
+     * @param request the request
+     * @param response the response
+     * @param handler the handler of the request
+     * @return true, the request is always handled
+     */
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        Object variables = request.getAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE);
+        if (variables instanceof Map<?, ?> map && map.get("eventId") instanceof String eventId) {
+            ShardContext.set(new ShardContext.Target(eventId, -1));
+        }
+        return true;
+    }
+
+    /**
+     * Clears the shard of the request thread, which is released while the request is handled asynchronously
+     * @param request the request
+     * @param response the response
+     * @param handler the handler of the request
+     */
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response,
+                                               Object handler) {
+        ShardContext.clear();
+    }
+
+    /**
+     * Clears the shard once the request is handled
+     * @param request the request
+     * @param response the response
+     * @param handler the handler of the request
+     * @param ex the exception thrown by the handler, or null
+     */
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                Exception ex) {
+        ShardContext.clear();
+    }
+}
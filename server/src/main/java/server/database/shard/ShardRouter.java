@@ -0,0 +1,153 @@
+package server.database.shard;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Decides which shard stores an event, by a hash of its ID. Everything of an event, its participants,
+ * expenses, tags, changes and statistics, is stored on the shard of the event, so a request about
+ * one event only uses one shard. Listings over all events query every shard in parallel and merge the results.
+ */
+@Component
+public class ShardRouter {
+    private final int shards;
+    private final ExecutorService executor;
+
+    /**
+     * Constructor
+     * @param shards the number of shards, 1 keeps all events in a single database
+     */
+    @Autowired
+    public ShardRouter(@Value("${shards.count:1}") int shards) {
+        if (shards < 1) throw new IllegalArgumentException("There has to be at least one shard");
+        this.shards = shards;
+        this.executor = shards == 1 ? null : Executors.newFixedThreadPool(shards, runnable -> {
+            Thread thread = new Thread(runnable, "shard-query");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Returns the shard of an event for a number of shards
+     * @param eventId the ID of the event
+     * @param shards the number of shards
+     * @return the index of the shard
+     */
+    public static int shardOf(String eventId, int shards) {
+        // Spread the bits of the hash, as the IDs only differ in a few characters
+        int hash = eventId.hashCode();
+        hash ^= hash >>> 16;
+        hash *= 0x85ebca6b;
+        hash ^= hash >>> 13;
+        hash *= 0xc2b2ae35;
+        hash ^= hash >>> 16;
+        return Math.floorMod(hash, shards);
+    }
+
+    /**
+     * Returns the number of shards
+     * @return the number of shards
+     */
+    public int count() {
+        return shards;
+    }
+
+    /**
+     * Returns the shard of an event
+     * @param eventId the ID of the event
+     * @return the index of the shard
+     */
+    public int shardOf(String eventId) {
+        return shardOf(eventId, shards);
+    }
+
+    /**
+     * Returns the shard the current thread works on, see {@link ShardContext}
+     * @return the index of the shard, the first one if none is set
+     */
+    public int currentShard() {
+        ShardContext.Target target = ShardContext.current();
+        if (target == null) return 0;
+        return target.eventId() == null ? target.shard() : shardOf(target.eventId());
+    }
+
+    /**
+     * Runs a query on every shard in parallel and merges the results, in the order of the shards
+     * @param query the query
+     * @param <T> the type of the results
+     * @return the results of all shards
+     */
+    public <T> List<T> scatter(Supplier<? extends Collection<T>> query) {
+        if (executor == null) return new ArrayList<>(ShardContext.forShard(0, query));
+        List<Future<? extends Collection<T>>> futures = new ArrayList<>();
+        for (int shard = 0; shard < shards; shard++) {
+            int index = shard;
+            futures.add(executor.submit(() -> ShardContext.forShard(index, query)));
+        }
+        List<T> results = new ArrayList<>();
+        try {
+            for (Future<? extends Collection<T>> future : futures) {
+                results.addAll(future.get());
+            }
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) throw cause;
+            throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while querying the shards", e);
+        }
+        return results;
+    }
+
+    /**
+     * Runs a count on every shard in parallel and adds the results
+     * @param query the count
+     * @return the sum over all shards
+     */
+    public long sum(LongSupplier query) {
+        return scatter(() -> List.of(query.getAsLong())).stream().mapToLong(Long::longValue).sum();
+    }
+
+    /**
+     * Runs an action on every shard in parallel
+     * @param action the action
+     */
+    public void forEachShard(Runnable action) {
+        scatter(() -> {
+            action.run();
+            return List.of();
+        });
+    }
+
+    /**
+     * Groups events by their shard
+     * @param eventIds the IDs of the events
+     * @return the IDs per shard, in the order of the shards
+     */
+    public SortedMap<Integer, List<String>> groupByShard(Collection<String> eventIds) {
+        SortedMap<Integer, List<String>> groups = new TreeMap<>();
+        for (String eventId : eventIds) {
+            groups.computeIfAbsent(shardOf(eventId), shard -> new ArrayList<>()).add(eventId);
+        }
+        return groups;
+    }
+
+    /**
+     * Stops the threads querying the shards
+     */
+    @PreDestroy
+    public void shutdown() {
+        if (executor != null) executor.shutdownNow();
+    }
+}
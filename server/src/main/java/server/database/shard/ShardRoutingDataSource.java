@@ -0,0 +1,23 @@
+package server.database.shard;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+/**
+ * Connects to the database of the shard the current thread works on, see {@link ShardContext}
+ */
+public class ShardRoutingDataSource extends AbstractRoutingDataSource {
+    private final ShardRouter router;
+
+    /**
+     * Constructor
+     * @param router the ShardRouter deciding the shard of an event
+     */
+    public ShardRoutingDataSource(ShardRouter router) {
+        this.router = router;
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return router.currentShard();
+    }
+}
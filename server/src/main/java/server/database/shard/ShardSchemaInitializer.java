@@ -0,0 +1,87 @@
+package server.database.shard;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernateProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernateSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.JpaProperties;
+import org.springframework.boot.orm.jpa.EntityManagerFactoryBuilder;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Creates the tables of the other shards, as Hibernate only updates the schema of the first one.
+ * The generated IDs of participants, expenses, tags, changes and statistics of each shard are moved
+ * to a range of their own, so they are unique over all shards: Hibernate hands out the IDs it fetched
+ * from one shard on any shard, and an event moved to another shard keeps its IDs.
+ */
+@Component
+public class ShardSchemaInitializer {
+    // Size of the range of generated IDs of each shard
+    private static final long ID_RANGE = 1L << 40;
+
+    private final DataSource dataSource;
+    private final EntityManagerFactoryBuilder builder;
+    private final JpaProperties jpaProperties;
+    private final HibernateProperties hibernateProperties;
+
+    /**
+     * Constructor
+     * @param dataSource the DataSource of the repositories, routing to the shards if there are several
+     * @param builder the builder of the EntityManagerFactory of the first shard
+     * @param jpaProperties the JPA properties of the application
+     * @param hibernateProperties the Hibernate properties of the application, e.g. spring.jpa.hibernate.ddl-auto
+     */
+    @Autowired
+    public ShardSchemaInitializer(DataSource dataSource, EntityManagerFactoryBuilder builder,
+                                  JpaProperties jpaProperties, HibernateProperties hibernateProperties) {
+        this.dataSource = dataSource;
+        this.builder = builder;
+        this.jpaProperties = jpaProperties;
+        this.hibernateProperties = hibernateProperties;
+    }
+
+    /**
+     * Updates the schema of every shard but the first, doing nothing without sharding
+     */
+    @PostConstruct
+    public void initialize() {
+        if (!(dataSource instanceof LazyConnectionDataSourceProxy proxy)
+                || !(proxy.getTargetDataSource() instanceof ShardRoutingDataSource routing)) return;
+        Map<String, Object> properties = hibernateProperties.determineHibernateProperties(
+                jpaProperties.getProperties(), new HibernateSettings().ddlAuto(() -> "update"));
+        routing.getResolvedDataSources().forEach((shard, shardDataSource) -> {
+            if (!(shard instanceof Integer index) || index == 0) return;
+            LocalContainerEntityManagerFactoryBean factory = builder.dataSource(shardDataSource)
+                    .packages("commons", "server")
+                    .properties(properties)
+                    .persistenceUnit("shard-" + index)
+                    .build();
+            factory.afterPropertiesSet();
+            factory.destroy();
+            moveSequences(new JdbcTemplate(shardDataSource), index * ID_RANGE);
+        });
+    }
+
+    /**
+     * Restarts the sequences of a shard at the start of its range, unless they are already past it
+     * @param jdbc the JdbcTemplate of the shard
+     * @param start the first ID of the range of the shard
+     */
+    private static void moveSequences(JdbcTemplate jdbc, long start) {
+        List<String> sequences = jdbc.queryForList("select sequence_name from information_schema.sequences "
+                + "where sequence_schema = 'PUBLIC'", String.class);
+        for (String sequence : sequences) {
+            Long next = jdbc.queryForObject("select next value for \"" + sequence + "\"", Long.class);
+            if (next != null && next < start) {
+                jdbc.execute("alter sequence \"" + sequence + "\" restart with " + start);
+            }
+        }
+    }
+}
@@ -3,11 +3,15 @@ package server.websockets;
 import commons.Event;
 import commons.dto.EventDeletedDTO;
 import commons.dto.EventNameChangeDTO;
+import commons.dto.EventsDeletedDTO;
 import jakarta.persistence.EntityNotFoundException;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Service;
 import server.database.EventRepository;
+import server.database.shard.ShardContext;
+
+import java.util.List;
 
 @Service
 public class WebSocketService {
@@ -31,7 +35,7 @@ public class WebSocketService {
      * @param eventID the ID of the updated Event
      */
     public void propagateEventUpdate(String eventID){
-        Event updatedEvent = eventRepository.findById(eventID)
+        Event updatedEvent = ShardContext.forEvent(eventID, () -> eventRepository.findById(eventID))
                 .orElseThrow(() -> new EntityNotFoundException("Event not found"));
         socketMessenger.convertAndSend(eventUpdateURL(eventID), updatedEvent);
         socketMessenger.convertAndSend("/topic/events/all", updatedEvent);
@@ -56,6 +60,21 @@ public class WebSocketService {
         socketMessenger.convertAndSend("/topic/events/deletions", dto);
     }
 
+    /***
+     * Propagates the deletion of several events in a single message
+     * @param eventIDs the IDs of the events deleted
+     */
+    public void propagateDeletions(List<String> eventIDs){
+        socketMessenger.convertAndSend("/topic/events/deletions/batch", new EventsDeletedDTO(eventIDs, false));
+    }
+
+    /***
+     * Propagates the deletion of all events in a single message
+     */
+    public void propagateDeletionOfAll(){
+        socketMessenger.convertAndSend("/topic/events/deletions/batch", new EventsDeletedDTO(List.of(), true));
+    }
+
     /***
      * Propagates event creation to admins
      * @param createdEvent the created event
@@ -0,0 +1,144 @@
+package server.api;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import commons.Event;
+import commons.Participant;
+import commons.dto.ArchiveStatsDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import server.database.ArchivedEvent;
+import server.database.ArchivedEventRepository;
+import server.database.EventRepository;
+import server.database.shard.ShardRouter;
+
+import java.time.Duration;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class ArchiveServiceTest {
+    @Mock
+    private EventRepository eventRepository;
+    @Mock
+    private ArchivedEventRepository archiveRepository;
+    @Mock
+    private EventService eventService;
+    @Mock
+    private SpendingRollupService rollupService;
+    @Mock
+    private OutboxService outboxService;
+    @Mock
+    private EventCommandQueue commandQueue;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+    @Captor
+    private ArgumentCaptor<Iterable<ArchivedEvent>> archiveCaptor;
+
+    private ArchiveService archiveService;
+    private Event idle;
+
+    @BeforeEach
+    void setUp() {
+        archiveService = new ArchiveService(eventRepository, archiveRepository, eventService, rollupService,
+                outboxService, commandQueue, new ObjectMapper(), new TransactionTemplate(transactionManager), new ShardRouter(1), Duration.ofDays(365));
+        idle = new Event("Old trip", new Date(0));
+        idle.addParticipant(new Participant(1, "Ann"));
+        idle.setLastActivity(new Date(1000));
+    }
+
+    /**
+     * Archives the idle event and returns its archived copy
+     */
+    private ArchivedEvent archiveIdleEvent() {
+        Date cutoff = new Date(2000);
+        when(archiveRepository.findIdleEventIds(cutoff)).thenReturn(List.of(idle.getId()));
+        when(eventRepository.findAllById(List.of(idle.getId()))).thenReturn(List.of(idle));
+        assertEquals(1, archiveService.archiveEventsIdleSince(cutoff));
+        verify(archiveRepository).saveAll(archiveCaptor.capture());
+        return archiveCaptor.getValue().iterator().next();
+    }
+
+    /**
+     * Archiving stores a compressed copy and deletes the normalized rows of idle events only
+     */
+    @Test
+    public void archiveIdleEventsTest() {
+        Event active = new Event("New trip", new Date(0));
+        active.setLastActivity(new Date(5000));
+        Date cutoff = new Date(2000);
+        when(archiveRepository.findIdleEventIds(cutoff)).thenReturn(List.of(idle.getId(), active.getId()));
+        when(eventRepository.findAllById(List.of(idle.getId(), active.getId()))).thenReturn(List.of(idle, active));
+
+        assertEquals(1, archiveService.archiveEventsIdleSince(cutoff));
+
+        verify(archiveRepository).saveAll(archiveCaptor.capture());
+        ArchivedEvent archived = archiveCaptor.getValue().iterator().next();
+        assertEquals(idle.getId(), archived.getId());
+        assertEquals("Old trip", archived.getTitle());
+        assertEquals(archived.getData().length, archived.getCompressedSize());
+        verify(eventService).deleteEvents(List.of(idle.getId()));
+        verify(rollupService).deleteEvents(List.of(idle.getId()));
+    }
+
+    /**
+     * Nothing is written when no event is idle
+     */
+    @Test
+    public void archiveWithoutIdleEventsTest() {
+        when(archiveRepository.findIdleEventIds(any())).thenReturn(List.of());
+        assertEquals(0, archiveService.archiveEventsIdleSince(new Date()));
+        verifyNoInteractions(eventService, rollupService);
+    }
+
+    /**
+     * Rehydrating restores the archived event, removes it from the archive and records the latency
+     */
+    @Test
+    public void rehydrateTest() {
+        ArchivedEvent archived = archiveIdleEvent();
+        when(commandQueue.executeRecorded(eq(idle.getId()), any()))
+                .thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(1).get());
+        when(archiveRepository.findById(idle.getId())).thenReturn(Optional.of(archived));
+        when(eventService.importEvent(any(Event.class)))
+                .thenAnswer(invocation -> new EventService.ImportResult(invocation.getArgument(0), true));
+
+        Event restored = archiveService.rehydrate(idle.getId()).orElseThrow();
+
+        assertEquals(idle.getId(), restored.getId());
+        assertEquals("Old trip", restored.getTitle());
+        assertEquals("Ann", restored.getParticipants().iterator().next().getName());
+        assertTrue(restored.getLastActivity().after(new Date(1000)));
+        verify(archiveRepository).delete(archived);
+        verify(rollupService).rebuild(restored);
+        verify(outboxService).eventCreated(idle.getId());
+        ArchiveStatsDTO stats = archiveService.getStats();
+        assertEquals(1, stats.getRehydrations());
+        assertTrue(stats.getLastRehydrationMillis() > 0);
+    }
+
+    /**
+     * Rehydrating an event that is not archived restores nothing
+     */
+    @Test
+    public void rehydrateUnknownEventTest() {
+        when(commandQueue.executeRecorded(eq("AAAAAA"), any()))
+                .thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(1).get());
+        when(archiveRepository.findById("AAAAAA")).thenReturn(Optional.empty());
+        assertTrue(archiveService.rehydrate("AAAAAA").isEmpty());
+        verifyNoInteractions(eventService, outboxService);
+        assertEquals(0, archiveService.getStats().getRehydrations());
+    }
+}
@@ -0,0 +1,140 @@
+package server.api;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import server.database.EventRepository;
+import server.database.ExpenseRepository;
+import server.database.ParticipantRepository;
+import server.database.SpendingRollupRepository;
+import server.database.TagRepository;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Removes a tag and a participant from an event with many expenses on an in-memory H2 database,
+ * checking the set-based statements against the real schema and that they finish within a time budget.
+ * Only runs with the benchmark task. The number of expenses can be changed with -Dbenchmark.expenses,
+ * the budget with -Dbenchmark.budget-ms.
+ */
+@Tag("benchmark")
+@DataJpaTest
+public class BulkUpdateBenchmarkTest {
+    private static final int EXPENSES = Integer.getInteger("benchmark.expenses", 50_000);
+    // Generous, so only a return to updating the expenses one by one fails it
+    private static final Duration BUDGET = Duration.ofMillis(Long.getLong("benchmark.budget-ms", 10_000));
+    private static final int PARTICIPANTS = 20;
+    private static final String EVENT_ID = "BENCH1";
+    private static final long DEFAULT_TAG = 1_000_001;
+    private static final long FOOD_TAG = 1_000_002;
+    private static final long FIRST_PARTICIPANT = 2_000_001;
+    private static final long FIRST_EXPENSE = 3_000_001;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+    @Autowired
+    private EventRepository eventRepository;
+    @Autowired
+    private ExpenseRepository expenseRepository;
+    @Autowired
+    private ParticipantRepository participantRepository;
+    @Autowired
+    private TagRepository tagRepository;
+    @Autowired
+    private SpendingRollupRepository rollupRepository;
+
+    private TagService tagService;
+    private ParticipantService participantService;
+
+    @BeforeEach
+    void setUp() {
+        SpendingRollupService rollupService = new SpendingRollupService(rollupRepository);
+        // The change log is left out, so only the bulk statements are timed
+        ChangeLogService changeLogService = mock(ChangeLogService.class);
+        tagService = new TagService(eventRepository, expenseRepository, tagRepository, rollupService,
+                changeLogService, mock(TagCatalog.class));
+        participantService = new ParticipantService(eventRepository, participantRepository,
+                expenseRepository, rollupService, changeLogService);
+
+        jdbc.update("insert into event (id, title) values (?, ?)", EVENT_ID, "Benchmark");
+        jdbc.batchUpdate("insert into tag (id, tag_name, color_code) values (?, ?, ?)", List.of(
+                new Object[]{DEFAULT_TAG, "default", "#808080"},
+                new Object[]{FOOD_TAG, "food", "#008000"}));
+        jdbc.batchUpdate("insert into event_event_tags (event_id, event_tags_id) values (?, ?)", List.of(
+                new Object[]{EVENT_ID, DEFAULT_TAG},
+                new Object[]{EVENT_ID, FOOD_TAG}));
+
+        List<Object[]> participants = new ArrayList<>();
+        List<Object[]> participantLinks = new ArrayList<>();
+        for(int i = 0; i < PARTICIPANTS; i++) {
+            participants.add(new Object[]{FIRST_PARTICIPANT + i, "Participant " + i});
+            participantLinks.add(new Object[]{EVENT_ID, FIRST_PARTICIPANT + i});
+        }
+        jdbc.batchUpdate("insert into participant (id, name) values (?, ?)", participants);
+        jdbc.batchUpdate("insert into event_participants (event_id, participants_id) values (?, ?)",
+                participantLinks);
+
+        // Every other expense is tagged food, each is paid by one participant and shared by three
+        List<Object[]> expenses = new ArrayList<>();
+        List<Object[]> expenseLinks = new ArrayList<>();
+        List<Object[]> members = new ArrayList<>();
+        for(int i = 0; i < EXPENSES; i++) {
+            long id = FIRST_EXPENSE + i;
+            expenses.add(new Object[]{id, "Expense " + i, 100, i % 2 == 0 ? FOOD_TAG : DEFAULT_TAG,
+                FIRST_PARTICIPANT + i % PARTICIPANTS});
+            expenseLinks.add(new Object[]{EVENT_ID, id});
+            for(int j = 0; j < 3; j++) {
+                members.add(new Object[]{id, FIRST_PARTICIPANT + (i + j) % PARTICIPANTS});
+            }
+        }
+        jdbc.batchUpdate("insert into expense (id, name, price_in_cents, expense_tag_id, owed_to_id) "
+                + "values (?, ?, ?, ?, ?)", expenses);
+        jdbc.batchUpdate("insert into event_expenses (event_id, expenses_id) values (?, ?)", expenseLinks);
+        jdbc.batchUpdate("insert into expense_participants_in_expense (expense_id, participants_in_expense_id) "
+                + "values (?, ?)", members);
+    }
+
+    private int count(String sql, Object... args) {
+        return jdbc.queryForObject(sql, Integer.class, args);
+    }
+
+    @Test
+    void joinColumnsAreIndexed() {
+        for(String index : List.of("idx_expense_participant", "idx_expense_owed_to", "idx_expense_tag")) {
+            assertEquals(1, count("select count(*) from information_schema.indexes where lower(index_name) = ?",
+                    index), index);
+        }
+    }
+
+    @Test
+    void removeTag() {
+        assertTimeout(BUDGET, () -> tagService.removeTag(EVENT_ID, FOOD_TAG));
+
+        assertEquals(EXPENSES, count("select count(*) from expense where expense_tag_id = ?", DEFAULT_TAG));
+        assertEquals(0, count("select count(*) from tag where id = ?", FOOD_TAG));
+        assertEquals(1, count("select count(*) from event_event_tags where event_id = ?", EVENT_ID));
+    }
+
+    @Test
+    void removeParticipant() {
+        long participant = FIRST_PARTICIPANT;
+        int owed = count("select count(*) from expense where owed_to_id = ?", participant);
+        assertTimeout(BUDGET, () -> participantService.removeParticipant(EVENT_ID, participant));
+
+        assertEquals(EXPENSES - owed, count("select count(*) from event_expenses where event_id = ?", EVENT_ID));
+        assertEquals(0, count("select count(*) from expense where owed_to_id = ?", participant));
+        assertEquals(0, count("select count(*) from expense_participants_in_expense "
+                + "where participants_in_expense_id = ?", participant));
+        assertEquals(PARTICIPANTS - 1, count("select count(*) from event_participants where event_id = ?",
+                EVENT_ID));
+        assertEquals(0, count("select count(*) from participant where id = ?", participant));
+    }
+}
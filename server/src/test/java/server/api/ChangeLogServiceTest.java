@@ -0,0 +1,183 @@
+package server.api;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import commons.Event;
+import commons.Expense;
+import commons.Participant;
+import commons.Tag;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import server.database.EventChange;
+import server.database.EventChangeRepository;
+import server.database.EventRepository;
+import server.database.EventSnapshot;
+import server.database.EventSnapshotRepository;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.AdditionalAnswers.returnsFirstArg;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class ChangeLogServiceTest {
+    @Mock
+    private EventChangeRepository changeRepository;
+    @Mock
+    private EventSnapshotRepository snapshotRepository;
+    @Mock
+    private EventRepository eventRepository;
+    @Captor
+    private ArgumentCaptor<EventSnapshot> snapshotCaptor;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private ChangeLogService changeLogService;
+    private Event event;
+    private Participant ann;
+    private Tag food;
+    private final List<EventChange> log = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        changeLogService = new ChangeLogService(changeRepository, snapshotRepository, eventRepository,
+                objectMapper, 3);
+        event = new Event("Trip", new Date(0));
+        ann = new Participant(1, "Ann");
+        food = new Tag(5L, "food", "#008000");
+        event.addParticipant(ann);
+        event.addTag(food);
+    }
+
+    private void log(EventChange.Type type, Object payload) throws JsonProcessingException {
+        log.add(new EventChange(event.getId(), log.size() + 1, type, objectMapper.writeValueAsString(payload),
+                new Date(1000L * (log.size() + 1))));
+    }
+
+    /**
+     * Replaying without a snapshot starts from the logged creation and applies every later change
+     */
+    @Test
+    public void replayFromCreationTest() throws JsonProcessingException {
+        Participant bob = new Participant(2, "Bob");
+        Expense dinner = new Expense(10, "Dinner", 3000, new Date(0), ann);
+        dinner.addParticipantToExpense(ann);
+        dinner.addParticipantToExpense(bob);
+        dinner.setExpenseTag(food);
+        log(EventChange.Type.EVENT_CREATED, event);
+        log(EventChange.Type.PARTICIPANT_ADDED, bob);
+        log(EventChange.Type.EXPENSE_ADDED, dinner);
+        log(EventChange.Type.PARTICIPANT_EDITED, new Participant(1, "Anna"));
+        log(EventChange.Type.TAG_ADDED, new Tag(6L, "default", "#808080"));
+        log(EventChange.Type.TAG_REMOVED, new ChangeLogService.TagRemoval(5L, 6L));
+        log(EventChange.Type.PARTICIPANT_REMOVED, 2L);
+        log(EventChange.Type.TITLE_CHANGED, "Road trip");
+        when(snapshotRepository.findById(event.getId())).thenReturn(Optional.empty());
+        when(changeRepository.findByEventIdAndSequenceGreaterThanOrderBySequence(event.getId(), 0))
+                .thenReturn(log);
+
+        Event replayed = changeLogService.replay(event.getId()).orElseThrow();
+
+        assertEquals(event.getId(), replayed.getId());
+        assertEquals("Road trip", replayed.getTitle());
+        assertEquals(List.of("Anna"), replayed.getParticipants().stream().map(Participant::getName).toList());
+        assertEquals(List.of("default"), replayed.getEventTags().stream().map(Tag::getTagName).toList());
+        Expense expense = replayed.getExpenses().iterator().next();
+        assertEquals("Anna", expense.getOwedTo().getName());
+        assertEquals(1, expense.getParticipantsInExpense().size());
+        assertEquals(6L, expense.getExpenseTag().getId());
+        assertEquals(new Date(8000), replayed.getLastActivity());
+    }
+
+    /**
+     * Removing a participant also drops the expenses owed to them
+     */
+    @Test
+    public void replayRemovedParticipantTest() throws JsonProcessingException {
+        Expense dinner = new Expense(10, "Dinner", 3000, new Date(0), ann);
+        dinner.addParticipantToExpense(ann);
+        log(EventChange.Type.EVENT_CREATED, event);
+        log(EventChange.Type.EXPENSE_ADDED, dinner);
+        log(EventChange.Type.PARTICIPANT_REMOVED, 1L);
+        when(snapshotRepository.findById(event.getId())).thenReturn(Optional.empty());
+        when(changeRepository.findByEventIdAndSequenceGreaterThanOrderBySequence(event.getId(), 0))
+                .thenReturn(log);
+
+        Event replayed = changeLogService.replay(event.getId()).orElseThrow();
+
+        assertTrue(replayed.getParticipants().isEmpty());
+        assertTrue(replayed.getExpenses().isEmpty());
+    }
+
+    /**
+     * The first change of an event from before the log takes a snapshot of the event,
+     * which is where replaying starts afterwards
+     */
+    @Test
+    public void snapshotOfExistingEventTest() throws JsonProcessingException {
+        when(changeRepository.findLastSequence(event.getId())).thenReturn(0L);
+        when(changeRepository.save(any(EventChange.class))).thenAnswer(returnsFirstArg());
+        when(eventRepository.findById(event.getId())).thenReturn(Optional.of(event));
+
+        EventChange change = changeLogService.append(event.getId(), EventChange.Type.TITLE_CHANGED, "Trip");
+
+        assertEquals(1, change.getSequence());
+        verify(snapshotRepository).save(snapshotCaptor.capture());
+        EventSnapshot snapshot = snapshotCaptor.getValue();
+        assertEquals(1, snapshot.getSequence());
+
+        log(EventChange.Type.TITLE_CHANGED, "Trip");
+        log(EventChange.Type.PARTICIPANT_ADDED, new Participant(2, "Bob"));
+        when(snapshotRepository.findById(event.getId())).thenReturn(Optional.of(snapshot));
+        when(changeRepository.findByEventIdAndSequenceGreaterThanOrderBySequence(event.getId(), 1))
+                .thenReturn(log.subList(1, 2));
+
+        Event replayed = changeLogService.replay(event.getId()).orElseThrow();
+
+        assertEquals(2, replayed.getParticipants().size());
+        assertEquals(List.of("food"), replayed.getEventTags().stream().map(Tag::getTagName).toList());
+    }
+
+    /**
+     * A new snapshot is taken every configured number of changes, from the current state of the event
+     * instead of replaying the log
+     */
+    @Test
+    public void periodicSnapshotTest() throws JsonProcessingException {
+        when(changeRepository.findLastSequence(event.getId())).thenReturn(1L, 2L);
+        when(changeRepository.save(any(EventChange.class))).thenAnswer(returnsFirstArg());
+
+        changeLogService.append(event.getId(), EventChange.Type.PARTICIPANT_ADDED, new Participant(2, "Bob"));
+        verify(snapshotRepository, never()).save(any());
+        verifyNoInteractions(eventRepository);
+
+        event.addParticipant(new Participant(3, "Carl"));
+        when(eventRepository.findById(event.getId())).thenReturn(Optional.of(event));
+        changeLogService.append(event.getId(), EventChange.Type.PARTICIPANT_ADDED, new Participant(3, "Carl"));
+
+        verify(snapshotRepository).save(snapshotCaptor.capture());
+        assertEquals(3, snapshotCaptor.getValue().getSequence());
+        verify(changeRepository, never()).findByEventIdAndSequenceGreaterThanOrderBySequence(any(), anyLong());
+        verify(snapshotRepository, never()).findById(any());
+    }
+
+    /**
+     * Nothing can be replayed for an event without a log
+     */
+    @Test
+    public void replayWithoutLogTest() {
+        when(snapshotRepository.findById("AAAAAA")).thenReturn(Optional.empty());
+        when(changeRepository.findByEventIdAndSequenceGreaterThanOrderBySequence("AAAAAA", 0))
+                .thenReturn(List.of());
+        assertTrue(changeLogService.replay("AAAAAA").isEmpty());
+    }
+}
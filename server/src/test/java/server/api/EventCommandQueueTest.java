@@ -0,0 +1,260 @@
+package server.api;
+
+import commons.Event;
+import commons.Participant;
+import jakarta.persistence.EntityNotFoundException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import server.database.EventRepository;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class EventCommandQueueTest {
+    @Mock
+    private EventRepository eventRepository;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+    @Mock
+    private OutboxService outboxService;
+
+    private EventCommandQueue commandQueue;
+    private Event event;
+
+    @BeforeEach
+    void setUp() {
+        commandQueue = new EventCommandQueue(eventRepository, new TransactionTemplate(transactionManager),
+                outboxService, 1, 64, Duration.ofSeconds(5));
+        event = new Event("Festival", null);
+    }
+
+    @AfterEach
+    void tearDown() {
+        commandQueue.shutdown();
+    }
+
+    /**
+     * Starts a thread running the command and waits until it is queued
+     */
+    private Thread submitInBackground(Runnable command) throws InterruptedException {
+        Thread thread = new Thread(command);
+        thread.start();
+        long deadline = System.currentTimeMillis() + 5000;
+        // The caller waits with the timeout of the queue
+        while (thread.getState() != Thread.State.TIMED_WAITING && System.currentTimeMillis() < deadline) {
+            Thread.sleep(1);
+        }
+        assertEquals(Thread.State.TIMED_WAITING, thread.getState());
+        return thread;
+    }
+
+    /**
+     * The commands queued while the worker is busy are applied to one loaded event,
+     * saved once and propagated once
+     */
+    @Test
+    public void commandsQueuedTogetherAreBatchedTest() throws InterruptedException {
+        when(eventRepository.findById(event.getId())).thenReturn(Optional.of(event));
+        CountDownLatch release = new CountDownLatch(1);
+        Thread blocker = submitInBackground(() -> commandQueue.execute(event.getId(), loaded -> {
+            try {
+                return release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        }));
+        List<Thread> writers = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            Participant participant = new Participant(i + 1, "Participant " + i);
+            writers.add(submitInBackground(() -> commandQueue.execute(event.getId(), loaded -> {
+                loaded.addParticipant(participant);
+                return null;
+            })));
+        }
+        release.countDown();
+        blocker.join();
+        for (Thread writer : writers) writer.join();
+
+        assertEquals(5, event.getParticipants().size());
+        verify(eventRepository, times(2)).findById(event.getId());
+        verify(eventRepository, times(2)).save(event);
+        verify(outboxService, times(2)).eventUpdated(event.getId());
+    }
+
+    /**
+     * A command that fails halfway leaves none of its changes, the batch is applied again without it
+     */
+    @Test
+    public void failingCommandIsRolledBackTest() throws InterruptedException {
+        // Every transaction loads a new copy of the event, like a new persistence context would
+        when(eventRepository.findById(event.getId()))
+                .thenAnswer(invocation -> Optional.of(new Event(event.getId(), "Festival", null)));
+        List<Event> saved = new ArrayList<>();
+        when(eventRepository.save(any(Event.class))).thenAnswer(invocation -> {
+            saved.add(invocation.getArgument(0));
+            return invocation.getArgument(0);
+        });
+        CountDownLatch release = new CountDownLatch(1);
+        Thread blocker = submitInBackground(() -> commandQueue.executeRecorded(event.getId(), () -> {
+            try {
+                return release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        }));
+        AtomicBoolean failed = new AtomicBoolean();
+        List<Thread> writers = new ArrayList<>();
+        for (int i = 1; i <= 3; i++) {
+            Participant participant = new Participant(i, "Participant " + i);
+            boolean fails = i == 2;
+            writers.add(submitInBackground(() -> {
+                try {
+                    commandQueue.execute(event.getId(), loaded -> {
+                        loaded.addParticipant(participant);
+                        if (fails) throw new IllegalArgumentException("invalid");
+                        return null;
+                    });
+                } catch (IllegalArgumentException e) {
+                    failed.set(true);
+                }
+            }));
+        }
+        release.countDown();
+        blocker.join();
+        for (Thread writer : writers) writer.join();
+
+        assertTrue(failed.get());
+        assertEquals(1, saved.size());
+        assertEquals(List.of(1L, 3L), saved.get(0).getParticipants().stream().map(Participant::getId).sorted().toList());
+        verify(transactionManager).rollback(any());
+        verify(outboxService, times(1)).eventUpdated(event.getId());
+    }
+
+    /**
+     * Concurrent writers to one event do not lose each other's changes
+     */
+    @Test
+    public void concurrentWritesAreNotLostTest() throws InterruptedException {
+        when(eventRepository.findById(event.getId())).thenReturn(Optional.of(event));
+        List<Thread> writers = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            Participant participant = new Participant(i + 1, "Participant " + i);
+            Thread writer = new Thread(() -> commandQueue.execute(event.getId(), loaded -> {
+                loaded.addParticipant(participant);
+                return null;
+            }));
+            writers.add(writer);
+            writer.start();
+        }
+        for (Thread writer : writers) writer.join();
+
+        assertEquals(50, event.getParticipants().size());
+    }
+
+    /**
+     * A failing command is reported to its caller, without saving or propagating anything
+     */
+    @Test
+    public void failingCommandTest() {
+        when(eventRepository.findById(event.getId())).thenReturn(Optional.of(event));
+        assertThrows(IllegalArgumentException.class, () -> commandQueue.execute(event.getId(), loaded -> {
+            throw new IllegalArgumentException("invalid");
+        }));
+        verify(eventRepository, never()).save(any());
+        verifyNoInteractions(outboxService);
+    }
+
+    /**
+     * Changing an event that does not exist fails
+     */
+    @Test
+    public void missingEventTest() {
+        when(eventRepository.findById("AAAAAA")).thenReturn(Optional.empty());
+        assertThrows(EntityNotFoundException.class, () -> commandQueue.execute("AAAAAA", loaded -> null));
+        verifyNoInteractions(outboxService);
+    }
+
+    /**
+     * A command that does not work on the loaded event runs in its own transaction and returns its result
+     */
+    @Test
+    public void executeAloneTest() {
+        assertEquals("done", commandQueue.executeAlone(event.getId(), () -> "done"));
+        verifyNoInteractions(eventRepository);
+        verify(transactionManager).commit(any());
+        verify(outboxService).eventUpdated(event.getId());
+    }
+
+    /**
+     * A command recording its own message runs in its own transaction, without an update being recorded for it
+     */
+    @Test
+    public void executeRecordedTest() {
+        assertEquals("created", commandQueue.executeRecorded(event.getId(), () -> "created"));
+        verify(transactionManager).commit(any());
+        verifyNoInteractions(eventRepository, outboxService);
+    }
+
+    /**
+     * A batch cut short by an error fails its caller, and the worker keeps serving the later commands
+     */
+    @Test
+    public void workerSurvivesErrorTest() {
+        doThrow(new AssertionError("broken")).doNothing().when(outboxService).eventUpdated(event.getId());
+        assertThrows(CompletionException.class, () -> commandQueue.executeAlone(event.getId(), () -> "first"));
+        assertEquals("second", commandQueue.executeAlone(event.getId(), () -> "second"));
+    }
+
+    /**
+     * A caller stops waiting after the timeout if its command was still queued, and the command is skipped.
+     * A command that already started is waited for, so its caller gets its result.
+     */
+    @Test
+    public void timeoutSkipsQueuedCommandTest() throws InterruptedException {
+        commandQueue.shutdown();
+        commandQueue = new EventCommandQueue(eventRepository, new TransactionTemplate(transactionManager),
+                outboxService, 1, 64, Duration.ofMillis(200));
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicBoolean blockerResult = new AtomicBoolean();
+        Thread blocker = new Thread(() -> blockerResult.set(commandQueue.executeAlone(event.getId(), () -> {
+            started.countDown();
+            try {
+                return release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        })));
+        blocker.start();
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        AtomicBoolean ran = new AtomicBoolean();
+        assertThrows(IllegalStateException.class, () -> commandQueue.executeAlone(event.getId(), () -> {
+            ran.set(true);
+            return null;
+        }));
+        release.countDown();
+        blocker.join();
+
+        assertTrue(blockerResult.get());
+        assertEquals("later", commandQueue.executeAlone(event.getId(), () -> "later"));
+        assertFalse(ran.get());
+    }
+}
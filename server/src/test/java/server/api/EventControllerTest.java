@@ -9,13 +9,18 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.*;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.stubbing.Answer;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import server.database.EventRepository;
-import server.websockets.WebSocketService;
+import server.database.shard.ShardRouter;
 
 
 import java.util.Date;
 import java.util.List;
+import java.util.Optional;
+import java.util.function.Supplier;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -28,13 +33,25 @@ public class EventControllerTest {
     @Mock
     EventService eventService;
     @Mock
-    private WebSocketService socketService;
+    private OutboxService outboxService;
+    @Mock
+    private SpendingRollupService rollupService;
+    @Mock
+    private ArchiveService archiveService;
+    @Mock
+    private EventCommandQueue commandQueue;
+    @Spy
+    private ShardRouter shardRouter = new ShardRouter(1);
+    @Spy
+    private TransactionTemplate transactionTemplate = new TransactionTemplate(mock(PlatformTransactionManager.class));
     @InjectMocks
     EventController controller;
     @Captor
     ArgumentCaptor<String> nameCaptor;
 
     Answer<?> stubCreate;
+    // Runs a queued command right away, on the calling thread
+    Answer<?> runCommand = invocation -> invocation.<Supplier<?>>getArgument(1).get();
 
     @BeforeEach
     void setup() {
@@ -78,6 +95,25 @@ public class EventControllerTest {
         assertEquals(title, response.getBody().getTitle());
     }
 
+    @Test
+    void addEventRetriesTakenId() {
+        when(eventService.createEvent("Party"))
+                .thenThrow(new DuplicateKeyException("taken"))
+                .thenAnswer(stubCreate);
+        ResponseEntity<Event> response = controller.add("Party");
+        assertEquals("Party", response.getBody().getTitle());
+        verify(eventService, times(2)).createEvent("Party");
+        verify(outboxService, times(1)).eventCreated(response.getBody().getId());
+    }
+
+    @Test
+    void addEventGivesUpAfterRetries() {
+        when(eventService.createEvent("Party")).thenThrow(new DuplicateKeyException("taken"));
+        assertThrows(DuplicateKeyException.class, () -> controller.add("Party"));
+        verify(eventService, times(3)).createEvent("Party");
+        verifyNoInteractions(outboxService);
+    }
+
     @Test
     void joinNonExistingEvent() {
         String invitationCode = "unkown entity";
@@ -85,6 +121,15 @@ public class EventControllerTest {
         assertEquals(BAD_REQUEST, response.getStatusCode());
     }
 
+    @Test
+    void joinArchivedEvent() {
+        Event archived = new Event("Old trip", null);
+        when(archiveService.rehydrate(archived.getId())).thenReturn(Optional.of(archived));
+        ResponseEntity<Event> response = controller.join(archived.getId());
+        assertEquals(archived, response.getBody());
+        verify(archiveService).rehydrate(archived.getId());
+    }
+
     @Test
     void joinExistingEvent() {
         when(eventService.createEvent(anyString())).thenAnswer(stubCreate);
@@ -125,6 +170,8 @@ public class EventControllerTest {
         assertNotNull(persistedEvent);
         ResponseEntity<Event> response = controller.remove(persistedEvent.getId());
         assertEquals(persistedEvent, response.getBody());
+        verify(eventService).deleteEvents(List.of(persistedEvent.getId()));
+        verify(outboxService).eventDeleted(persistedEvent.getId());
     }
 
     @Test
@@ -206,12 +253,29 @@ public class EventControllerTest {
     @Test
     void editTitleNotExisting(){
         Event event = new Event("Title", null);
+        when(commandQueue.executeRecorded(eq(event.getId()), any())).thenAnswer(runCommand);
         when(eventService.editTitle(anyString(), anyString())).thenThrow(new EntityNotFoundException(":{"));
         assertThrows(EntityNotFoundException.class, () -> {
             controller.editTitle(event.getId(), "New Title");});
         verify(eventService).editTitle(event.getId(), "New Title");
     }
 
+    /**
+     * A title change records its own message, so the queue does not record an update for it as well
+     */
+    @Test
+    void editTitleRecordsTitleChange() {
+        Event event = new Event("Title", null);
+        when(commandQueue.executeRecorded(eq(event.getId()), any())).thenAnswer(runCommand);
+        when(eventService.editTitle(event.getId(), "New Title")).thenAnswer(invocation -> {
+            event.setTitle("New Title");
+            return event;
+        });
+        assertEquals("New Title", controller.editTitle(event.getId(), "New Title").getBody().getTitle());
+        verify(outboxService).titleChanged(event.getId(), "New Title");
+        verify(commandQueue, never()).executeAlone(any(), any());
+    }
+
 //    @Test
 //    void addParticipantModification(){
 //        Event event = new Event("test", null);
@@ -222,4 +286,86 @@ public class EventControllerTest {
 //        assertEquals(1, participants.size());
 //    }
 
+    @Test
+    void importEventWithoutTitle() {
+        ResponseEntity<Event> response = controller.importEvent(new Event("", null));
+        assertEquals(BAD_REQUEST, response.getStatusCode());
+        verifyNoInteractions(eventService, outboxService);
+    }
+
+    @Test
+    void importNewEvent() {
+        Event event = new Event("Party", null);
+        when(commandQueue.executeRecorded(eq(event.getId()), any())).thenAnswer(runCommand);
+        when(eventService.importEvent(event)).thenReturn(new EventService.ImportResult(event, true));
+        ResponseEntity<Event> response = controller.importEvent(event);
+        assertEquals(event, response.getBody());
+        verify(rollupService).rebuild(event);
+        verify(outboxService).eventCreated(event.getId());
+        verify(outboxService, never()).eventDeleted(any());
+    }
+
+    @Test
+    void importExistingEvent() {
+        Event event = new Event("Party", null);
+        when(commandQueue.executeRecorded(eq(event.getId()), any())).thenAnswer(runCommand);
+        when(eventService.importEvent(event)).thenReturn(new EventService.ImportResult(event, false));
+        controller.importEvent(event);
+        verify(outboxService, times(1)).eventUpdated(event.getId());
+        verify(outboxService, never()).eventCreated(any());
+        verify(outboxService, never()).eventDeleted(any());
+    }
+
+    @Test
+    void removeSeveralEvents() {
+        List<String> ids = List.of("AAAAAA", "BBBBBB", "CCCCCC");
+        when(eventService.deleteEvents(ids)).thenReturn(List.of("AAAAAA", "BBBBBB"));
+        ResponseEntity<List<String>> response = controller.removeAll(ids);
+        assertEquals(List.of("AAAAAA", "BBBBBB"), response.getBody());
+        verify(rollupService).deleteEvents(List.of("AAAAAA", "BBBBBB"));
+        verify(outboxService, times(1)).eventsDeleted(List.of("AAAAAA", "BBBBBB"));
+        verify(outboxService, never()).eventDeleted(anyString());
+    }
+
+    @Test
+    void removeNoEvents() {
+        ResponseEntity<List<String>> response = controller.removeAll(List.of());
+        assertEquals(BAD_REQUEST, response.getStatusCode());
+        verifyNoInteractions(eventService, outboxService);
+    }
+
+    @Test
+    void deleteAllEvents() {
+        when(eventService.deleteAllEvents()).thenReturn(100000);
+        controller.deleteAll();
+        verify(rollupService).deleteAll();
+        verify(outboxService, times(1)).allDeleted();
+        verify(outboxService, never()).eventDeleted(anyString());
+    }
+
+    @Test
+    void deleteAllWithoutEvents() {
+        when(eventService.deleteAllEvents()).thenReturn(0);
+        assertEquals("No events do be deleted", controller.deleteAll().getBody());
+        verifyNoInteractions(outboxService);
+    }
+
+    @Test
+    void removeArchivedEvent() {
+        when(archiveService.delete(List.of("AAAAAA"))).thenReturn(List.of("AAAAAA"));
+        ResponseEntity<Event> response = controller.remove("AAAAAA");
+        assertTrue(response.getStatusCode().is2xxSuccessful());
+        verify(outboxService).eventDeleted("AAAAAA");
+    }
+
+    @Test
+    void removeSeveralEventsIncludingArchived() {
+        List<String> ids = List.of("AAAAAA", "BBBBBB");
+        when(eventService.deleteEvents(ids)).thenReturn(List.of("AAAAAA"));
+        when(archiveService.delete(List.of("BBBBBB"))).thenReturn(List.of("BBBBBB"));
+        ResponseEntity<List<String>> response = controller.removeAll(ids);
+        assertEquals(ids, response.getBody());
+        verify(outboxService, times(1)).eventsDeleted(ids);
+    }
+
 }
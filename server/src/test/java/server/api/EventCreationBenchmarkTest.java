@@ -0,0 +1,105 @@
+package server.api;
+
+import commons.Event;
+import commons.SystemTag;
+import commons.Tag;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import server.database.ArchivedEventRepository;
+import server.database.EventDeletionRepository;
+import server.database.EventRepository;
+import server.database.TagRepository;
+import server.database.shard.ShardRouter;
+
+import java.time.Duration;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Creates many events on an in-memory H2 database, linked to the shared tags of the catalog,
+ * and compares it with giving every event its own copies of the tags, checking that both finish within
+ * a time budget. Only runs with the benchmark task. The number of events can be changed with
+ * -Dbenchmark.events, the budget with -Dbenchmark.budget-ms.
+ */
+@org.junit.jupiter.api.Tag("benchmark")
+@DataJpaTest
+public class EventCreationBenchmarkTest {
+    private static final int EVENTS = Integer.getInteger("benchmark.events", 2_000);
+    private static final Duration BUDGET = Duration.ofMillis(Long.getLong("benchmark.budget-ms", 10_000));
+
+    @Autowired
+    private JdbcTemplate jdbc;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Autowired
+    private EventRepository eventRepository;
+    @Autowired
+    private EventDeletionRepository deletionRepository;
+    @Autowired
+    private ArchivedEventRepository archiveRepository;
+    @Autowired
+    private TagRepository tagRepository;
+
+    private EventService eventService;
+
+    @BeforeEach
+    void setUp() {
+        ShardRouter shardRouter = new ShardRouter(1);
+        TagCatalog tagCatalog = new TagCatalog(tagRepository, new TransactionTemplate(transactionManager), shardRouter);
+        tagCatalog.load();
+        EventIdAllocator idAllocator = new EventIdAllocator(eventRepository, archiveRepository, shardRouter, 256, EVENTS * 4);
+        idAllocator.seed();
+        // The change log is left out, so only creating the events is timed
+        eventService = new EventService(eventRepository, deletionRepository, mock(ChangeLogService.class),
+                idAllocator, tagCatalog);
+    }
+
+    private int count(String sql) {
+        return jdbc.queryForObject(sql, Integer.class);
+    }
+
+    @Test
+    void createEventsWithSharedTags() {
+        assertTimeout(BUDGET, () -> {
+            for(int i = 0; i < EVENTS; i++) {
+                eventService.createEvent("Event " + i);
+            }
+            eventRepository.flush();
+        });
+
+        assertEquals(SystemTag.values().length, count("select count(*) from tag"));
+        assertEquals(EVENTS * SystemTag.values().length, count("select count(*) from event_event_tags"));
+    }
+
+    @Test
+    void createEventsWithOwnTags() {
+        assertTimeout(BUDGET, () -> {
+            for(int i = 0; i < EVENTS; i++) {
+                Event event = new Event("Event " + i, new Date());
+                for(SystemTag systemTag : SystemTag.values()) {
+                    event.addTag(new Tag(systemTag.getTagName(), systemTag.getColorCode()));
+                }
+                eventRepository.save(event);
+            }
+            eventRepository.flush();
+        });
+
+        assertEquals((EVENTS + 1) * SystemTag.values().length, count("select count(*) from tag"));
+    }
+
+    @Test
+    void sharedTagsCannotBeChanged() {
+        List<Tag> tags = tagRepository.findBySystemTagTrue();
+        assertEquals(SystemTag.values().length, tags.size());
+        tags.get(0).setTagName("changed");
+        assertThrows(RuntimeException.class, () -> tagRepository.flush());
+    }
+}
@@ -0,0 +1,82 @@
+package server.api;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import server.database.ArchivedEventRepository;
+import server.database.EventRepository;
+import server.database.shard.ShardRouter;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class EventIdAllocatorTest {
+    @Mock
+    private EventRepository eventRepository;
+    @Mock
+    private ArchivedEventRepository archiveRepository;
+
+    private EventIdAllocator allocator;
+
+    @BeforeEach
+    void setUp() {
+        allocator = new EventIdAllocator(eventRepository, archiveRepository, new ShardRouter(1), 16, 100_000);
+    }
+
+    @AfterEach
+    void tearDown() {
+        allocator.shutdown();
+    }
+
+    /**
+     * Seeding fills the pool with reserved codes
+     */
+    @Test
+    public void seedFillsPoolTest() {
+        when(eventRepository.findAllIds()).thenReturn(List.of("AAAAAA"));
+        when(archiveRepository.findAllIds()).thenReturn(List.of("BBBBBB"));
+        allocator.seed();
+        assertEquals(16, allocator.available());
+    }
+
+    /**
+     * The allocated codes are distinct, and never one that is stored or archived
+     */
+    @Test
+    public void allocatedIdsAreUniqueTest() {
+        when(eventRepository.findAllIds()).thenReturn(List.of("AAAAAA"));
+        when(archiveRepository.findAllIds()).thenReturn(List.of("BBBBBB"));
+        allocator.seed();
+        Set<String> ids = new HashSet<>();
+        for (int i = 0; i < 10_000; i++) {
+            String id = allocator.allocate();
+            assertEquals(6, id.length());
+            assertTrue(ids.add(id), "Allocated twice: " + id);
+        }
+        assertFalse(ids.contains("AAAAAA"));
+        assertFalse(ids.contains("BBBBBB"));
+    }
+
+    /**
+     * The filter never forgets a member and rarely reports a false one
+     */
+    @Test
+    public void bloomFilterTest() {
+        EventIdAllocator.BloomFilter filter = new EventIdAllocator.BloomFilter(1000);
+        for (int i = 0; i < 1000; i++) filter.add("IN" + i);
+        for (int i = 0; i < 1000; i++) assertTrue(filter.mightContain("IN" + i));
+        long falsePositives = 0;
+        for (int i = 0; i < 10_000; i++) {
+            if (filter.mightContain("OUT" + i)) falsePositives++;
+        }
+        assertTrue(falsePositives < 300, "False positives: " + falsePositives);
+    }
+}
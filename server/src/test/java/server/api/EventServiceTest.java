@@ -1,15 +1,24 @@
 package server.api;
 
 import commons.Event;
+import commons.Expense;
+import commons.Participant;
+import commons.Tag;
 import jakarta.persistence.EntityNotFoundException;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import server.database.EventChange;
+import server.database.EventDeletionRepository;
 import server.database.EventRepository;
 
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -20,6 +29,18 @@ public class EventServiceTest {
     @Mock
     private EventRepository mockEventRepository;
 
+    @Mock
+    private EventDeletionRepository mockDeletionRepository;
+
+    @Mock
+    private ChangeLogService mockChangeLogService;
+
+    @Mock
+    private EventIdAllocator mockIdAllocator;
+
+    @Mock
+    private TagCatalog mockTagCatalog;
+
     @InjectMocks
     private EventService mockEventService;
 
@@ -37,6 +58,7 @@ public class EventServiceTest {
                 editTitle(event.getId(), "newTitle");
         assertEquals(newEvent.getTitle(), "newTitle");
         verify(mockEventRepository, times(1)).save(newEvent);
+        verify(mockChangeLogService).append(event.getId(), EventChange.Type.TITLE_CHANGED, "newTitle");
     }
 
     /**
@@ -49,4 +71,174 @@ public class EventServiceTest {
             mockEventService.editTitle(event.getId(), "new title"));
     }
 
+    /**
+     * tests that a new event gets the ID reserved by the allocator, and is linked to the shared catalog tags
+     */
+    @Test
+    public void createEventUsesAllocatedIdTest() {
+        List<Tag> catalog = List.of(new Tag(1L, "default", "#808080"), new Tag(2L, "food", "#008000"));
+        when(mockIdAllocator.allocate()).thenReturn("ABCDEF");
+        when(mockTagCatalog.tags()).thenReturn(catalog);
+        Event event = mockEventService.createEvent("title");
+        assertEquals("ABCDEF", event.getId());
+        assertEquals(Set.copyOf(catalog), event.getEventTags());
+        verify(mockEventRepository).insert(event);
+        verify(mockEventRepository, never()).save(any());
+    }
+
+    /**
+     * tests that importing an event links its unchanged catalog tags to the shared tags,
+     * and turns a changed catalog tag into a tag of the event itself, also for the expenses using it
+     */
+    @Test
+    public void importInternsCatalogTagsTest() {
+        Tag shared = new Tag(1L, "default", "#808080");
+        Tag food = new Tag(2L, "Meals", "#008000");
+        Expense dinner = new Expense(10, "Dinner", 1000, null, null);
+        dinner.setExpenseTag(new Tag(2L, "Meals", "#008000"));
+        Event event = new Event("title", null);
+        event.addTag(new Tag(1L, "default", "#808080"));
+        event.addTag(food);
+        event.addExpense(dinner);
+        when(mockEventRepository.findById(event.getId())).thenReturn(Optional.empty());
+        when(mockTagCatalog.find(any(Tag.class))).thenAnswer(invocation ->
+                invocation.<Tag>getArgument(0).getId() == 1L ? Optional.of(shared) : Optional.empty());
+        when(mockTagCatalog.contains(2L)).thenReturn(true);
+        when(mockEventRepository.save(event)).thenReturn(event);
+
+        mockEventService.importEvent(event);
+
+        assertTrue(event.getEventTags().stream().anyMatch(tag -> tag == shared));
+        Tag copy = event.findTagByName("Meals").orElseThrow();
+        assertEquals(0L, copy.getId());
+        assertSame(copy, dinner.getExpenseTag());
+    }
+
+    /**
+     * tests importing an event that does not exist yet, which saves it as a whole
+     */
+    @Test
+    public void importNewEventTest() {
+        Event event = new Event("title", null);
+        when(mockEventRepository.findById(event.getId())).thenReturn(Optional.empty());
+        when(mockEventRepository.save(event)).thenReturn(event);
+        EventService.ImportResult result = mockEventService.importEvent(event);
+        assertTrue(result.created());
+        assertSame(event, result.event());
+        verify(mockIdAllocator).register(event.getId());
+    }
+
+    /**
+     * tests importing an existing event, which only changes what differs and keeps the unchanged entities
+     */
+    @Test
+    public void importMergesExistingEventTest() {
+        Participant ann = new Participant(1, "Ann");
+        Participant bob = new Participant(2, "Bob");
+        Participant dan = new Participant(3, "Dan");
+        Expense food = new Expense(10, "Food", 1000, null, ann);
+        food.addParticipantToExpense(ann);
+        food.addParticipantToExpense(bob);
+        Expense taxi = new Expense(11, "Taxi", 500, null, bob);
+        taxi.addParticipantToExpense(ann);
+        taxi.addParticipantToExpense(dan);
+        Event stored = new Event("title", null);
+        stored.addParticipant(ann);
+        stored.addParticipant(bob);
+        stored.addParticipant(dan);
+        stored.addExpense(food);
+        stored.addExpense(taxi);
+
+        Participant importedAnn = new Participant(1, "Ann B");
+        Participant cas = new Participant(7, "Cas");
+        Expense importedFood = new Expense(10, "Food", 1200, null, importedAnn);
+        importedFood.addParticipantToExpense(importedAnn);
+        importedFood.addParticipantToExpense(cas);
+        Participant importedDan = new Participant(3, "Dan");
+        Expense importedTaxi = new Expense(11, "Taxi", 500, null, importedDan);
+        importedTaxi.addParticipantToExpense(importedDan);
+        Expense drinks = new Expense(20, "Drinks", 300, null, cas);
+        drinks.addParticipantToExpense(cas);
+        Event incoming = new Event("new title", null);
+        incoming.addParticipant(importedAnn);
+        incoming.addParticipant(cas);
+        incoming.addParticipant(importedDan);
+        incoming.addExpense(importedFood);
+        incoming.addExpense(importedTaxi);
+        incoming.addExpense(drinks);
+
+        when(mockEventRepository.findById(incoming.getId())).thenReturn(Optional.of(stored));
+        when(mockEventRepository.save(stored)).thenReturn(stored);
+        EventService.ImportResult result = mockEventService.importEvent(incoming);
+
+        assertFalse(result.created());
+        assertEquals("new title", stored.getTitle());
+        assertEquals(Set.of("Ann B", "Cas", "Dan"), stored.getParticipants().stream()
+                .map(Participant::getName).collect(Collectors.toSet()));
+        assertSame(ann, stored.getParticipants().stream()
+                .filter(p -> p.getId() == 1).findFirst().orElseThrow());
+        assertEquals(3, stored.getExpenses().size());
+        // Ann left the taxi expense, but is still part of the event
+        assertEquals(Set.of(dan), taxi.getParticipantsInExpense());
+        assertSame(dan, taxi.getOwedTo());
+        assertEquals(1200, food.getPriceInCents());
+        assertEquals(Set.of("Ann B", "Cas"), food.getParticipantsInExpense().stream()
+                .map(Participant::getName).collect(Collectors.toSet()));
+        Expense storedDrinks = stored.getExpenses().stream()
+                .filter(e -> e.getName().equals("Drinks")).findFirst().orElseThrow();
+        assertEquals("Cas", storedDrinks.getOwedTo().getName());
+        assertSame(storedDrinks.getParticipantsInExpense().iterator().next(), storedDrinks.getOwedTo());
+        verify(mockEventRepository, times(1)).save(stored);
+        verify(mockEventRepository, never()).delete(any());
+    }
+
+    /**
+     * tests deleting several events, which deletes what they own before the events themselves
+     */
+    @Test
+    public void deleteEventsTest() {
+        List<String> existing = List.of("AAAAAA", "BBBBBB");
+        when(mockDeletionRepository.findExistingIds(List.of("AAAAAA", "BBBBBB", "CCCCCC"))).thenReturn(existing);
+        when(mockDeletionRepository.findExpenseIds(existing)).thenReturn(List.of(10L));
+        when(mockDeletionRepository.findParticipantIds(existing)).thenReturn(List.of(1L, 2L));
+        when(mockDeletionRepository.findTagIds(existing)).thenReturn(List.of());
+
+        List<String> deleted = mockEventService.deleteEvents(List.of("AAAAAA", "BBBBBB", "CCCCCC", "AAAAAA"));
+
+        assertEquals(existing, deleted);
+        InOrder order = inOrder(mockDeletionRepository);
+        order.verify(mockDeletionRepository).deleteExpenseParticipantLinks(List.of(10L));
+        order.verify(mockDeletionRepository).deleteExpenseLinks(existing);
+        order.verify(mockDeletionRepository).deleteExpenses(List.of(10L));
+        order.verify(mockDeletionRepository).deleteParticipants(List.of(1L, 2L));
+        order.verify(mockDeletionRepository).deleteEvents(existing);
+        verify(mockDeletionRepository, never()).deleteTags(any());
+        verify(mockChangeLogService).deleteEvents(existing);
+        verifyNoInteractions(mockEventRepository);
+    }
+
+    /**
+     * tests deleting only unknown events, which deletes nothing
+     */
+    @Test
+    public void deleteUnknownEventsTest() {
+        when(mockDeletionRepository.findExistingIds(List.of("CCCCCC"))).thenReturn(List.of());
+        assertTrue(mockEventService.deleteEvents(List.of("CCCCCC")).isEmpty());
+        verify(mockDeletionRepository, never()).deleteEvents(any());
+    }
+
+    /**
+     * tests deleting all events, which uses one statement per table
+     */
+    @Test
+    public void deleteAllEventsTest() {
+        when(mockDeletionRepository.deleteAllEvents()).thenReturn(3);
+        assertEquals(3, mockEventService.deleteAllEvents());
+        InOrder order = inOrder(mockDeletionRepository);
+        order.verify(mockDeletionRepository).deleteAllExpenseParticipantLinks();
+        order.verify(mockDeletionRepository).deleteAllExpenses();
+        order.verify(mockDeletionRepository).deleteAllEvents();
+        verifyNoInteractions(mockEventRepository);
+    }
+
 }
@@ -1,7 +1,9 @@
 package server.api;
 
+import commons.Event;
 import commons.Expense;
 import jakarta.persistence.EntityNotFoundException;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
@@ -9,9 +11,10 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import server.websockets.WebSocketService;
 
 import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -26,17 +29,30 @@ class ExpenseControllerTest {
     private ExpenseService expenseService;
 
     @Mock
-    private WebSocketService socketService;
+    private EventCommandQueue commandQueue;
+
+    private final Event event = new Event("title", null);
+
+    /**
+     * Lets the mock command queue run the commands right away, on the test event
+     */
+    @BeforeEach
+    void setup() {
+        lenient().when(commandQueue.execute(anyString(), any())).thenAnswer(invocation ->
+                invocation.<Function<Event, ?>>getArgument(1).apply(event));
+        lenient().when(commandQueue.executeAlone(anyString(), any())).thenAnswer(invocation ->
+                invocation.<Supplier<?>>getArgument(1).get());
+    }
 
     @Test
     public void addExpenseToEventTest() {
         String eventId = "sampleEventId";
         Expense expense = new Expense("Sample Expense",
             100, null, null);
-        doNothing().when(expenseService).addExpense(anyString(), any(Expense.class));
         ResponseEntity<Void> responseEntity
             = expenseController.addExpenseToEvent(eventId, expense);
-        verify(expenseService).addExpense(eq(eventId), eq(expense));
+        verify(commandQueue).execute(eq(eventId), any());
+        verify(expenseService).addExpense(event, expense);
         assertEquals(HttpStatus.CREATED, responseEntity.getStatusCode());
     }
 
@@ -72,5 +88,11 @@ class ExpenseControllerTest {
         assertThrows(EntityNotFoundException.class, () -> expenseController.editExpense("ABC123", 1L, expected));
     }
 
-    //Need to add tests for the delete method
+    @Test
+    public void removeExpenseTest() {
+        ResponseEntity<?> response = expenseController.removeExpense("ABC123", 4L);
+        verify(commandQueue).execute(eq("ABC123"), any());
+        verify(expenseService).deleteExpense(event, 4L);
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+    }
 }
\ No newline at end of file
@@ -2,11 +2,13 @@ package server.api;
 
 import commons.Event;
 import commons.Expense;
+import jakarta.persistence.EntityNotFoundException;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import server.database.EventChange;
 import server.database.EventRepository;
 import server.database.ExpenseRepository;
 import server.database.TagRepository;
@@ -15,10 +17,9 @@ import java.util.Optional;
 import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
-import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
-import static org.mockito.Mockito.verify;
-import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.*;
 @ExtendWith(MockitoExtension.class)
 class ExpenseServiceTest {
     @Mock
@@ -28,6 +29,10 @@ class ExpenseServiceTest {
     private EventRepository mockEventRepository;
     @Mock
     private TagRepository mockTagRepository;
+    @Mock
+    private SpendingRollupService mockRollupService;
+    @Mock
+    private ChangeLogService mockChangeLogService;
 
     @InjectMocks
     private ExpenseService mockExpenseService;
@@ -54,20 +59,28 @@ class ExpenseServiceTest {
     }
 
     /**
-     * Tests the getExpensesForEvents
+     * Tests deleting an expense from a loaded event, which is saved by the command queue
      */
     @Test
     public void deleteExpenseTest() {
         Event mockEvent = new Event("Sample Event", null);
-        Expense mockExpense = new Expense("mockExpense", 100,
+        Expense mockExpense = new Expense(5, "mockExpense", 100,
             null, null);
         mockEvent.addExpense(mockExpense);
-        when(mockEventRepository.findById(anyString()))
-                .thenReturn(Optional.of(mockEvent));
-        when(mockExpenseRepository.findById(anyLong()))
-            .thenReturn(Optional.of(mockExpense));
-        mockExpenseService.deleteExpense(mockEvent.getId(), mockExpense.getId());
+        mockExpenseService.deleteExpense(mockEvent, mockExpense.getId());
         assertFalse(mockEvent.getExpenses().contains(mockExpense));
-        verify(mockEventRepository).save(mockEvent);
+        verify(mockRollupService).removeExpense(mockEvent.getId(), mockExpense);
+        verify(mockChangeLogService).append(mockEvent.getId(), EventChange.Type.EXPENSE_REMOVED, 5L);
+        verify(mockEventRepository, never()).save(any());
+    }
+
+    /**
+     * Tests deleting an expense that is not part of the event
+     */
+    @Test
+    public void deleteUnknownExpenseTest() {
+        Event mockEvent = new Event("Sample Event", null);
+        assertThrows(EntityNotFoundException.class, () -> mockExpenseService.deleteExpense(mockEvent, 5));
+        verifyNoInteractions(mockRollupService, mockChangeLogService);
     }
 }
\ No newline at end of file
@@ -0,0 +1,162 @@
+package server.api;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.messaging.converter.MappingJackson2MessageConverter;
+import org.springframework.messaging.simp.stomp.StompFrameHandler;
+import org.springframework.messaging.simp.stomp.StompHeaders;
+import org.springframework.messaging.simp.stomp.StompSession;
+import org.springframework.messaging.simp.stomp.StompSessionHandlerAdapter;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.socket.client.standard.StandardWebSocketClient;
+import org.springframework.web.socket.messaging.WebSocketStompClient;
+import server.Main;
+
+import java.lang.reflect.Type;
+import java.util.Map;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs two server instances on one shared database in the same JVM, and checks that the clients
+ * of one instance hear about the changes made through the other one
+ */
+public class OutboxMultiInstanceTest {
+    private static ConfigurableApplicationContext first;
+    private static ConfigurableApplicationContext second;
+    private static WebSocketStompClient stompClient;
+    private final RestTemplate rest = new RestTemplate();
+
+    @BeforeAll
+    static void startInstances() {
+        first = start();
+        second = start();
+        stompClient = new WebSocketStompClient(new StandardWebSocketClient());
+        stompClient.setMessageConverter(new MappingJackson2MessageConverter());
+    }
+
+    @AfterAll
+    static void stopInstances() {
+        stompClient.stop();
+        second.close();
+        first.close();
+    }
+
+    private static ConfigurableApplicationContext start() {
+        return new SpringApplicationBuilder(Main.class).run(
+                "--server.port=0",
+                "--spring.datasource.url=jdbc:h2:mem:outbox-instances;DB_CLOSE_DELAY=-1",
+                "--spring.h2.console.enabled=false",
+                "--outbox.poll-interval=PT0.05S",
+                "--archive.initial-delay=PT1H");
+    }
+
+    private static String url(ConfigurableApplicationContext instance, String path) {
+        return "http://localhost:" + instance.getEnvironment().getProperty("local.server.port") + path;
+    }
+
+    /**
+     * Subscribes to a topic of an instance, collecting the messages as JSON objects
+     */
+    private static BlockingQueue<Map<String, Object>> subscribe(StompSession session, String topic) {
+        BlockingQueue<Map<String, Object>> messages = new LinkedBlockingQueue<>();
+        session.subscribe(topic, new StompFrameHandler() {
+            @Override
+            public Type getPayloadType(StompHeaders headers) {
+                return Map.class;
+            }
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public void handleFrame(StompHeaders headers, Object payload) {
+                messages.add((Map<String, Object>) payload);
+            }
+        });
+        return messages;
+    }
+
+    private StompSession connect(ConfigurableApplicationContext instance) throws Exception {
+        String port = instance.getEnvironment().getProperty("local.server.port");
+        return stompClient.connectAsync("ws://localhost:" + port + "/websocket", new StompSessionHandlerAdapter() {})
+                .get(5, TimeUnit.SECONDS);
+    }
+
+    private String createEvent(String title) {
+        Map<?, ?> event = rest.postForObject(url(first, "/api/events/"), title, Map.class);
+        assertNotNull(event);
+        return (String) event.get("id");
+    }
+
+    /**
+     * A new event created through one instance is sent to the WebSocket clients of the other
+     */
+    @Test
+    public void creationReachesOtherInstanceTest() throws Exception {
+        StompSession session = connect(second);
+        BlockingQueue<Map<String, Object>> creations = subscribe(session, "/topic/events/creations");
+        Thread.sleep(200);
+
+        String id = createEvent("Trip");
+
+        Map<String, Object> created = creations.poll(10, TimeUnit.SECONDS);
+        assertNotNull(created);
+        assertEquals(id, created.get("id"));
+        assertEquals("Trip", created.get("title"));
+        session.disconnect();
+    }
+
+    /**
+     * A title change through one instance reaches both the WebSocket and the long polling clients of the other
+     */
+    @Test
+    public void titleChangeReachesOtherInstanceTest() throws Exception {
+        String id = createEvent("Trip");
+        StompSession session = connect(second);
+        BlockingQueue<Map<String, Object>> updates = subscribe(session, "/topic/events/" + id);
+        Thread.sleep(200);
+        CompletableFuture<ResponseEntity<Map>> longPoll = CompletableFuture.supplyAsync(
+                () -> rest.getForEntity(url(second, "/api/updates/names"), Map.class));
+        Thread.sleep(200);
+
+        rest.put(url(first, "/api/events/" + id), "Beach trip");
+
+        Map<String, Object> updated = updates.poll(10, TimeUnit.SECONDS);
+        assertNotNull(updated);
+        assertEquals("Beach trip", updated.get("title"));
+        ResponseEntity<Map> nameChange = longPoll.get(10, TimeUnit.SECONDS);
+        assertEquals(HttpStatus.OK, nameChange.getStatusCode());
+        assertEquals(id, nameChange.getBody().get("eventId"));
+        assertEquals("Beach trip", nameChange.getBody().get("newTitle"));
+        session.disconnect();
+    }
+
+    /**
+     * After several quick changes through one instance, the clients of the other end up with the final state
+     */
+    @Test
+    public void lastUpdateCarriesFinalStateTest() throws Exception {
+        String id = createEvent("Trip");
+        StompSession session = connect(second);
+        BlockingQueue<Map<String, Object>> updates = subscribe(session, "/topic/events/" + id);
+        Thread.sleep(200);
+
+        for (int i = 1; i <= 5; i++) {
+            rest.put(url(first, "/api/events/" + id), "Trip " + i);
+        }
+
+        Map<String, Object> last = updates.poll(10, TimeUnit.SECONDS);
+        assertNotNull(last);
+        Map<String, Object> next;
+        while ((next = updates.poll(1, TimeUnit.SECONDS)) != null) {
+            last = next;
+        }
+        assertEquals("Trip 5", last.get("title"));
+        session.disconnect();
+    }
+}
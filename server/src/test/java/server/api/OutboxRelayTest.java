@@ -0,0 +1,193 @@
+package server.api;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import commons.Event;
+import commons.dto.EventNameChangeDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import server.database.EventRepository;
+import server.database.OutboxMessage;
+import server.database.OutboxRepository;
+import server.database.shard.ShardRouter;
+import server.websockets.WebSocketService;
+
+import java.time.Duration;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class OutboxRelayTest {
+    @Mock
+    private OutboxRepository outboxRepository;
+    @Mock
+    private EventRepository eventRepository;
+    @Mock
+    private WebSocketService socketService;
+    @Mock
+    private LPController lpController;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private OutboxRelay relay;
+
+    @BeforeEach
+    void setUp() {
+        relay = new OutboxRelay(outboxRepository, eventRepository, socketService, lpController, new ShardRouter(1),
+                new ObjectMapper(), new TransactionTemplate(transactionManager), Duration.ofSeconds(5));
+    }
+
+    private static OutboxMessage message(long id, OutboxMessage.Type type, String eventId, String payload) {
+        OutboxMessage message = new OutboxMessage(type, eventId, payload, new Date());
+        ReflectionTestUtils.setField(message, "id", id);
+        return message;
+    }
+
+    /**
+     * Takes the ready messages of a shard and acknowledges them, as if they were all sent
+     */
+    private List<OutboxMessage> take(List<OutboxMessage> messages, long now) {
+        List<OutboxMessage> ready = relay.takeReady(0, messages, now);
+        ready.forEach(message -> relay.acknowledge(0, message));
+        return ready;
+    }
+
+    /**
+     * The messages of an event are sent in order, with only the last of several updates
+     */
+    @Test
+    public void relaysInOrderAndCoalescesUpdatesTest() {
+        Event event = new Event("Trip", null);
+        String id = event.getId();
+        when(outboxRepository.findLastId()).thenReturn(0L);
+        when(outboxRepository.findTop500ByIdGreaterThanOrderById(0)).thenReturn(List.of(
+                message(1, OutboxMessage.Type.EVENT_CREATED, id, null),
+                message(2, OutboxMessage.Type.EVENT_UPDATED, id, null),
+                message(3, OutboxMessage.Type.EVENT_UPDATED, id, null),
+                message(4, OutboxMessage.Type.TITLE_CHANGED, id, "Beach trip")));
+        when(eventRepository.findById(id)).thenReturn(Optional.of(event));
+        when(eventRepository.existsById(id)).thenReturn(true);
+
+        relay.start();
+        relay.relay();
+
+        InOrder inOrder = inOrder(socketService, lpController);
+        inOrder.verify(socketService).propagateCreation(event);
+        inOrder.verify(socketService).propagateEventUpdate(id);
+        inOrder.verify(lpController).propagateToAllListeners(any(EventNameChangeDTO.class));
+        verify(socketService, times(1)).propagateEventUpdate(id);
+    }
+
+    /**
+     * Messages already in the outbox at startup are not sent again
+     */
+    @Test
+    public void startsAfterExistingMessagesTest() {
+        when(outboxRepository.findLastId()).thenReturn(7L);
+        relay.start();
+        relay.relay();
+        verify(outboxRepository).findTop500ByIdGreaterThanOrderById(7);
+        verifyNoInteractions(socketService, lpController);
+    }
+
+    /**
+     * A missing sequence number holds back the later messages until it shows up
+     */
+    @Test
+    public void holdsBackAfterGapTest() {
+        when(outboxRepository.findLastId()).thenReturn(10L);
+        relay.start();
+        OutboxMessage eleven = message(11, OutboxMessage.Type.EVENT_DELETED, "AAAAAA", null);
+        OutboxMessage twelve = message(12, OutboxMessage.Type.EVENT_DELETED, "BBBBBB", null);
+        OutboxMessage thirteen = message(13, OutboxMessage.Type.EVENT_DELETED, "CCCCCC", null);
+
+        assertEquals(List.of(eleven), take(List.of(eleven, thirteen), 1000));
+        assertEquals(List.of(), take(List.of(thirteen), 2000));
+        assertEquals(List.of(twelve, thirteen), take(List.of(twelve, thirteen), 3000));
+    }
+
+    /**
+     * A missing sequence number is skipped once the gap timeout passed, as its transaction rolled back
+     */
+    @Test
+    public void skipsGapAfterTimeoutTest() {
+        when(outboxRepository.findLastId()).thenReturn(10L);
+        relay.start();
+        OutboxMessage twelve = message(12, OutboxMessage.Type.EVENT_DELETED, "BBBBBB", null);
+        OutboxMessage thirteen = message(13, OutboxMessage.Type.EVENT_DELETED, "CCCCCC", null);
+
+        assertEquals(List.of(), take(List.of(twelve), 1000));
+        assertEquals(List.of(), take(List.of(twelve), 5999));
+        assertEquals(List.of(twelve, thirteen), take(List.of(twelve, thirteen), 6000));
+    }
+
+    /**
+     * A message that could not be sent is sent again on the next poll, holding back the ones after it
+     */
+    @Test
+    public void retriesFailedSendTest() {
+        when(outboxRepository.findLastId()).thenReturn(0L);
+        when(outboxRepository.findTop500ByIdGreaterThanOrderById(0)).thenReturn(List.of(
+                message(1, OutboxMessage.Type.EVENT_DELETED, "AAAAAA", null),
+                message(2, OutboxMessage.Type.EVENT_DELETED, "BBBBBB", null)));
+        when(outboxRepository.findTop500ByIdGreaterThanOrderById(2)).thenReturn(List.of());
+        doThrow(new IllegalStateException("Broker unavailable")).doNothing().when(socketService).propagateDeletion("AAAAAA");
+        doNothing().when(socketService).propagateDeletion("BBBBBB");
+        relay.start();
+
+        relay.relay();
+        verify(socketService, never()).propagateDeletion("BBBBBB");
+        relay.relay();
+        relay.relay();
+
+        InOrder inOrder = inOrder(socketService);
+        inOrder.verify(socketService, times(2)).propagateDeletion("AAAAAA");
+        inOrder.verify(socketService).propagateDeletion("BBBBBB");
+        verify(outboxRepository, times(2)).findTop500ByIdGreaterThanOrderById(0);
+        verify(outboxRepository).findTop500ByIdGreaterThanOrderById(2);
+    }
+
+    /**
+     * A message that keeps failing is skipped after the last attempt, so the later messages are still sent
+     */
+    @Test
+    public void skipsMessageThatKeepsFailingTest() {
+        when(outboxRepository.findLastId()).thenReturn(0L);
+        when(outboxRepository.findTop500ByIdGreaterThanOrderById(0)).thenReturn(List.of(
+                message(1, OutboxMessage.Type.EVENTS_DELETED, null, "not json"),
+                message(2, OutboxMessage.Type.EVENT_DELETED, "BBBBBB", null)));
+        relay.start();
+
+        for (int i = 0; i < OutboxRelay.SEND_ATTEMPTS; i++) {
+            verify(socketService, never()).propagateDeletion("BBBBBB");
+            relay.relay();
+        }
+
+        verify(socketService).propagateDeletion("BBBBBB");
+        verify(socketService, never()).propagateDeletions(any());
+    }
+
+    /**
+     * A batch deletion is sent with the IDs from its payload
+     */
+    @Test
+    public void relaysBatchDeletionTest() {
+        when(outboxRepository.findLastId()).thenReturn(0L);
+        when(outboxRepository.findTop500ByIdGreaterThanOrderById(0)).thenReturn(List.of(
+                message(1, OutboxMessage.Type.EVENTS_DELETED, null, "[\"AAAAAA\",\"BBBBBB\"]")));
+        relay.start();
+        relay.relay();
+        verify(socketService).propagateDeletions(List.of("AAAAAA", "BBBBBB"));
+    }
+}
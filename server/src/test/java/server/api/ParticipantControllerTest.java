@@ -6,14 +6,16 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
-import org.mockito.Mockito;
 import org.mockito.MockitoAnnotations;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
-import server.websockets.WebSocketService;
+
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -22,6 +24,7 @@ import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 public class ParticipantControllerTest {
@@ -32,18 +35,25 @@ public class ParticipantControllerTest {
     private ParticipantService participantService;
 
     @Mock
-    private WebSocketService socketService;
+    private EventCommandQueue commandQueue;
 
     @InjectMocks
     private ParticipantController participantController;
 
+    private final Event event = new Event("test", null);
+
     /**
      * make the mock eventService available for use
+     * let the mock command queue run the commands right away, on the test event
      * initialise MockMvc with a specific controller instance
      */
     @BeforeEach
     public void setup() {
         MockitoAnnotations.openMocks(this);
+        when(commandQueue.execute(anyString(), any())).thenAnswer(invocation ->
+                invocation.<Function<Event, ?>>getArgument(1).apply(event));
+        when(commandQueue.executeAlone(anyString(), any())).thenAnswer(invocation ->
+                invocation.<Supplier<?>>getArgument(1).get());
         mockMvc = MockMvcBuilders.standaloneSetup(participantController).build();
     }
 
@@ -52,11 +62,10 @@ public class ParticipantControllerTest {
      */
     @Test
     void addParticipantStatus(){
-        Event event = new Event("test", null);
         Participant participant = new Participant("John!");
-        doNothing().when(participantService).addParticipantToEvent(anyString(), any());
         ResponseEntity<Void> response = participantController.addParticipantToEvent(event.getId(), participant);
-        verify(participantService).addParticipantToEvent(eq(event.getId()), eq(participant));
+        verify(commandQueue).execute(eq(event.getId()), any());
+        verify(participantService).addParticipantsToEvent(event, List.of(participant));
         assertEquals(HttpStatus.CREATED, response.getStatusCode());
     }
 
@@ -65,17 +74,47 @@ public class ParticipantControllerTest {
      */
     @Test
     void addParticipantNotExistent(){
-        Event event = new Event("test", null);
         Participant participant = new Participant("John!");
-        doThrow(new EntityNotFoundException(":{")).when(participantService).addParticipantToEvent(anyString(), any());
-        try {
-            participantController.addParticipantToEvent(event.getId(), participant);
-        } catch (EntityNotFoundException e) {
-            assertThrows(EntityNotFoundException.class, () -> {
-                participantController.addParticipantToEvent(event.getId(), participant);
-            });
-        }
-        verify(participantService, Mockito.times(2)).addParticipantToEvent(eq(event.getId()),eq(participant));
+        doThrow(new EntityNotFoundException(":{")).when(commandQueue).execute(eq("missing"), any());
+        assertThrows(EntityNotFoundException.class, () ->
+                participantController.addParticipantToEvent("missing", participant));
+        verifyNoInteractions(participantService);
+    }
+
+    /**
+     * tests that adding several participants at once is a single command, so it sends a single update
+     */
+    @Test
+    void addParticipantsBatchSingleUpdate(){
+        List<Participant> participants = List.of(new Participant("John!"), new Participant("Jane!"));
+        ResponseEntity<Void> response = participantController.addParticipantsToEvent(event.getId(), participants);
+        verify(participantService).addParticipantsToEvent(event, participants);
+        verify(commandQueue, times(1)).execute(eq(event.getId()), any());
+        assertEquals(HttpStatus.CREATED, response.getStatusCode());
+    }
+
+    /**
+     * tests that an empty batch is rejected without touching the event
+     */
+    @Test
+    void addParticipantsEmptyBatch(){
+        ResponseEntity<Void> response = participantController.addParticipantsToEvent("ABC123", List.of());
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        verifyNoInteractions(participantService, commandQueue);
+    }
+
+    /**
+     * simulate the batch post request and check it is mapped to the batch endpoint
+     * @throws Exception if the expected status is not CREATED or something went wrong in the test
+     */
+    @Test
+    public void addParticipantsBatch_ShouldReturnCreated() throws Exception {
+        mockMvc.perform(post("/api/events/{eventId}/participants/batch", "invitationCode")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[{\"id\":1,\"name\":\"John\"},{\"id\":2,\"name\":\"Jane\"}]"))
+                .andExpect(status().isCreated());
+        verify(commandQueue).execute(eq("invitationCode"), any());
+        verify(participantService).addParticipantsToEvent(eq(event), argThat(list -> list.size() == 2));
     }
 
     /**
@@ -93,6 +132,8 @@ public class ParticipantControllerTest {
         mockMvc.perform(delete("/api/events/{eventId}/participants/{participantId}", eventId, participantId)
                         .accept(MediaType.APPLICATION_JSON))
                 .andExpect(status().isOk());
+        verify(commandQueue).executeAlone(eq(eventId), any());
+        verify(participantService).removeParticipant(eventId, participantId);
     }
 
     /**
@@ -1,17 +1,22 @@
 package server.api;
 
 import commons.Event;
+import commons.Expense;
 import commons.Participant;
 import jakarta.persistence.EntityNotFoundException;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import server.database.EventChange;
 import server.database.EventRepository;
 import server.database.ExpenseRepository;
 import server.database.ParticipantRepository;
 
+import java.util.Date;
+import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 
@@ -28,45 +33,103 @@ public class ParticipantServiceTest {
     private ParticipantRepository participantRepository;
     @Mock
     private ExpenseRepository expenseRepository;
+    @Mock
+    private SpendingRollupService rollupService;
+    @Mock
+    private ChangeLogService changeLogService;
 
     @InjectMocks
     private ParticipantService participantService;
 
     /**
-     * create a mock event and participant to see if it can be removed, not needing to interact
-     * with a real database
+     * add several participants at once to a loaded event, which is saved by the command queue
      */
     @Test
-    public void testRemoveParticipantFromEvent() {
+    public void testAddParticipantsToEvent() {
         Event mockEvent = new Event("Sample Event", null);
-        Participant mockParticipant = new Participant("John Doe");
-        mockEvent.addParticipant(mockParticipant);
-        when(participantRepository.findById(anyLong())).thenReturn(Optional.of(mockParticipant));
-        when(eventRepository.findById(mockEvent.getId())).thenReturn(Optional.of(mockEvent));
-        participantService.removeParticipant(mockEvent.getId(), mockParticipant.getId());
-        assertFalse(mockEvent.getParticipants().contains(mockParticipant));
-        verify(eventRepository).save(mockEvent);
+        Participant john = new Participant("John Doe");
+        john.setEmail("john@test.com");
+        Participant jane = new Participant("Jane Doe");
+        participantService.addParticipantsToEvent(mockEvent, List.of(john, jane));
+        assertEquals(2, mockEvent.getParticipants().size());
+        assertTrue(mockEvent.getParticipants().stream()
+                .anyMatch(p -> p.getName().equals("John Doe") && p.getEmail().equals("john@test.com")));
+        verify(participantRepository, times(2)).save(any(Participant.class));
+        verify(eventRepository, never()).save(any());
+        verify(changeLogService, times(2)).append(eq(mockEvent.getId()),
+                eq(EventChange.Type.PARTICIPANT_ADDED), any(Participant.class));
     }
 
     /**
-     * now we are removing two participants, check if it is works without
-     * having to use the actual database
+     * remove a participant with set-based statements, deleting the expenses owed to them,
+     * without saving the event or any expense
      */
     @Test
-    public void testRemoveMultipleParticipantsFromEvent() {
-        Event mockEvent = new Event("Sample Event", null);
-        Participant mockParticipant1 = new Participant(0, "Participant One");
-        Participant mockParticipant2 = new Participant(1, "Participant Two");
-        mockEvent.addParticipant(mockParticipant1);
-        mockEvent.addParticipant(mockParticipant2);
-        when(participantRepository.findById(mockParticipant1.getId())).thenReturn(Optional.of(mockParticipant1));
-        when(participantRepository.findById(mockParticipant2.getId())).thenReturn(Optional.of(mockParticipant2));
-        when(eventRepository.findById(mockEvent.getId())).thenReturn(Optional.of(mockEvent));
-        participantService.removeParticipant(mockEvent.getId(), mockParticipant1.getId());
-        participantService.removeParticipant(mockEvent.getId(), mockParticipant2.getId());
-        assertFalse(mockEvent.getParticipants().contains(mockParticipant1));
-        assertFalse(mockEvent.getParticipants().contains(mockParticipant2));
-        verify(eventRepository, times(2)).save(mockEvent);
+    public void testRemoveParticipantFromEvent() {
+        Participant mockParticipant = new Participant(4, "John Doe");
+        Expense owed = new Expense(10, "Dinner", 3000, null, mockParticipant);
+        when(participantRepository.findById(4L)).thenReturn(Optional.of(mockParticipant));
+        when(eventRepository.touch(eq("ABCDEF"), any(Date.class))).thenReturn(1);
+        when(participantRepository.findEventIdByParticipantId(4L)).thenReturn(Optional.of("ABCDEF"));
+        when(expenseRepository.findByEventIdAndOwedToId("ABCDEF", 4L)).thenReturn(List.of(owed));
+        participantService.removeParticipant("ABCDEF", 4L);
+
+        verify(rollupService).removeExpense("ABCDEF", owed);
+        InOrder order = inOrder(expenseRepository, participantRepository);
+        order.verify(expenseRepository).removeParticipantFromExpenses("ABCDEF", 4L);
+        order.verify(expenseRepository).removeAllParticipants(List.of(10L));
+        order.verify(expenseRepository).unlinkFromEvent(List.of(10L));
+        order.verify(expenseRepository).deleteByIds(List.of(10L));
+        order.verify(participantRepository).unlinkFromEvent("ABCDEF", 4L);
+        order.verify(participantRepository).deleteByIdInBulk(4L);
+        verify(changeLogService).append("ABCDEF", EventChange.Type.PARTICIPANT_REMOVED, 4L);
+        verify(eventRepository, never()).save(any());
+        verify(expenseRepository, never()).save(any());
+    }
+
+    /**
+     * removing a participant who is owed nothing only removes them from the expenses they take part in
+     */
+    @Test
+    public void testRemoveParticipantWithoutOwedExpenses() {
+        Participant mockParticipant = new Participant(4, "John Doe");
+        when(participantRepository.findById(4L)).thenReturn(Optional.of(mockParticipant));
+        when(eventRepository.touch(eq("ABCDEF"), any(Date.class))).thenReturn(1);
+        when(participantRepository.findEventIdByParticipantId(4L)).thenReturn(Optional.of("ABCDEF"));
+        when(expenseRepository.findByEventIdAndOwedToId("ABCDEF", 4L)).thenReturn(List.of());
+        participantService.removeParticipant("ABCDEF", 4L);
+
+        verify(expenseRepository).removeParticipantFromExpenses("ABCDEF", 4L);
+        verify(expenseRepository, never()).deleteByIds(any());
+        verify(participantRepository).deleteByIdInBulk(4L);
+    }
+
+    /**
+     * removing a participant from an event that does not exist throws and removes nothing
+     */
+    @Test
+    public void removeParticipantFromNonexistentEventThrowsException() {
+        when(participantRepository.findById(4L)).thenReturn(Optional.of(new Participant(4, "John Doe")));
+        when(eventRepository.touch(eq("missing"), any(Date.class))).thenReturn(0);
+        assertThrows(EntityNotFoundException.class, () -> participantService.removeParticipant("missing", 4L));
+        verifyNoInteractions(expenseRepository);
+        verify(participantRepository, never()).deleteByIdInBulk(anyLong());
+    }
+
+    /**
+     * removing a participant of another event throws and removes nothing
+     */
+    @Test
+    public void removeParticipantOfOtherEventThrowsException() {
+        when(participantRepository.findById(4L)).thenReturn(Optional.of(new Participant(4, "John Doe")));
+        when(eventRepository.touch(eq("ABCDEF"), any(Date.class))).thenReturn(1);
+        when(participantRepository.findEventIdByParticipantId(4L)).thenReturn(Optional.of("GHJKLM"));
+        EntityNotFoundException e = assertThrows(EntityNotFoundException.class,
+                () -> participantService.removeParticipant("ABCDEF", 4L));
+        assertEquals("Participant not found in event", e.getMessage());
+        verifyNoInteractions(expenseRepository, rollupService, changeLogService);
+        verify(participantRepository, never()).unlinkFromEvent(anyString(), anyLong());
+        verify(participantRepository, never()).deleteByIdInBulk(anyLong());
     }
 
     /**
@@ -125,27 +188,16 @@ public class ParticipantServiceTest {
     }
 
     /**
-     * tests whether adding a participant to an existing event works
+     * tests whether adding a participant adds a copy, so the client cannot choose its id
      */
     @Test
     public void addParticipantsTest(){
         Event event = new Event("test", null);
-        Participant participant = new Participant("Name");
-        when(eventRepository.findById(anyString())).
-                thenReturn(Optional.of(event));
-        participantService.addParticipantToEvent(event.getId(), participant);
-        verify(eventRepository).save(event);
+        Participant participant = new Participant(7, "Name");
+        participantService.addParticipantsToEvent(event, List.of(participant));
         Set<Participant> participants = event.getParticipants();
         assertEquals(1, participants.size());
-    }
-
-    /**
-     * tests whether an exception is raised when trying to add a participant to an event which does not exist
-     */
-    @Test
-    public void addParticipantsNotExistentTest(){
-        Event event = new Event("title", null);
-        assertThrows(EntityNotFoundException.class, () ->
-                participantService.addParticipantToEvent(event.getId(), new Participant("Name!")));
+        assertNotSame(participant, participants.iterator().next());
+        assertEquals("Name", participants.iterator().next().getName());
     }
 }
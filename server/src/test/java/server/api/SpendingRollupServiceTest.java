@@ -0,0 +1,120 @@
+package server.api;
+
+import commons.Expense;
+import commons.Participant;
+import commons.Tag;
+import commons.dto.SpendingBucketDTO;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import server.database.SpendingRollup;
+import server.database.SpendingRollup.Dimension;
+import server.database.SpendingRollup.Granularity;
+import server.database.SpendingRollupRepository;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class SpendingRollupServiceTest {
+    @Mock
+    private SpendingRollupRepository rollupRepository;
+
+    @InjectMocks
+    private SpendingRollupService rollupService;
+
+    private Expense createExpense(int priceInCents, LocalDate date) {
+        Date expenseDate = Date.from(date.atStartOfDay(ZoneId.systemDefault()).toInstant());
+        Expense expense = new Expense("Dinner", priceInCents, expenseDate, new Participant(7, "Ann"));
+        expense.setExpenseTag(new Tag("food", "#008000"));
+        return expense;
+    }
+
+    /**
+     * Week buckets start on Monday, month buckets on the first day of the month
+     */
+    @Test
+    public void bucketStartTest() {
+        LocalDate thursday = LocalDate.of(2024, 3, 14);
+        assertEquals(thursday, Granularity.DAY.bucketStart(thursday));
+        assertEquals(LocalDate.of(2024, 3, 11), Granularity.WEEK.bucketStart(thursday));
+        assertEquals(LocalDate.of(2024, 3, 1), Granularity.MONTH.bucketStart(thursday));
+    }
+
+    /**
+     * Adding an expense adds to one bucket per granularity for both the tag and the payer
+     */
+    @Test
+    public void addExpenseAddsToBucketsTest() {
+        rollupService.addExpense("ABCDEF", createExpense(1250, LocalDate.of(2024, 3, 14)));
+
+        verify(rollupRepository, times(6)).addToBucket(eq("ABCDEF"), anyString(), anyString(), anyLong(),
+                any(), eq(1250L), eq(1));
+        verify(rollupRepository).addToBucket("ABCDEF", "MONTH", "PARTICIPANT", 7,
+                LocalDate.of(2024, 3, 1), 1250, 1);
+        verify(rollupRepository).addToBucket("ABCDEF", "WEEK", "TAG", 0,
+                LocalDate.of(2024, 3, 11), 1250, 1);
+        verify(rollupRepository, never()).save(any());
+    }
+
+    /**
+     * Removing an expense subtracts from its buckets
+     */
+    @Test
+    public void removeExpenseSubtractsTest() {
+        rollupService.removeExpense("ABCDEF", createExpense(500, LocalDate.of(2024, 3, 14)));
+        verify(rollupRepository, times(6)).addToBucket(eq("ABCDEF"), anyString(), anyString(), anyLong(),
+                any(), eq(-500L), eq(-1));
+    }
+
+    /**
+     * Money transfers and undated expenses are not counted as spending
+     */
+    @Test
+    public void ignoresTransfersAndUndatedTest() {
+        rollupService.addExpense("ABCDEF", createExpense(-500, LocalDate.of(2024, 3, 14)));
+        rollupService.addExpense("ABCDEF", new Expense("Undated", 500, null, new Participant("Bob")));
+        verifyNoInteractions(rollupRepository);
+    }
+
+    /**
+     * Moving a tag merges its buckets into those of the target tag and deletes the old rows
+     */
+    @Test
+    public void moveTagTest() {
+        LocalDate bucket = LocalDate.of(2024, 3, 11);
+        SpendingRollup from = new SpendingRollup("ABCDEF", Granularity.WEEK, Dimension.TAG, 1, bucket);
+        from.add(300, 1);
+        when(rollupRepository.findByEventIdAndDimensionAndDimensionId("ABCDEF", Dimension.TAG, 1))
+                .thenReturn(List.of(from));
+        rollupService.moveTag("ABCDEF", 1, 2);
+        verify(rollupRepository).addToBucket("ABCDEF", "WEEK", "TAG", 2, bucket, 300, 1);
+        verify(rollupRepository).deleteAll(List.of(from));
+    }
+
+    /**
+     * Empty buckets are left out of the query result
+     */
+    @Test
+    public void getRollupsSkipsEmptyBucketsTest() {
+        SpendingRollup empty = new SpendingRollup("ABCDEF", Granularity.DAY, Dimension.TAG, 1,
+                LocalDate.of(2024, 3, 13));
+        SpendingRollup filled = new SpendingRollup("ABCDEF", Granularity.DAY, Dimension.TAG, 1,
+                LocalDate.of(2024, 3, 14));
+        filled.add(450, 1);
+        when(rollupRepository.findByEventIdAndGranularityOrderByBucketStart("ABCDEF", Granularity.DAY))
+                .thenReturn(List.of(empty, filled));
+        List<SpendingBucketDTO> result = rollupService.getRollups("ABCDEF", Granularity.DAY);
+        assertEquals(1, result.size());
+        assertEquals("TAG", result.get(0).getDimension());
+        assertEquals(450, result.get(0).getTotalInCents());
+    }
+}
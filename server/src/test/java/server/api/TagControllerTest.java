@@ -1,4 +1,5 @@
 package server.api;
+import commons.Event;
 import commons.Tag;
 import jakarta.persistence.EntityNotFoundException;
 import org.junit.jupiter.api.BeforeEach;
@@ -8,7 +9,9 @@ import org.mockito.*;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import server.websockets.WebSocketService;
+
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
@@ -22,7 +25,7 @@ public class TagControllerTest {
     private TagService tagService;
 
     @Mock
-    private WebSocketService webSocketService;
+    private EventCommandQueue commandQueue;
 
     @InjectMocks
     private TagController tagController;
@@ -30,8 +33,17 @@ public class TagControllerTest {
     @Captor
     ArgumentCaptor<String> stringCaptor;
 
+    private final Event event = new Event("Event1", null);
+
+    /**
+     * Lets the mock command queue run the commands right away, on the test event
+     */
     @BeforeEach
     void setup() {
+        lenient().when(commandQueue.execute(anyString(), any())).thenAnswer(invocation ->
+                invocation.<Function<Event, ?>>getArgument(1).apply(event));
+        lenient().when(commandQueue.executeAlone(anyString(), any())).thenAnswer(invocation ->
+                invocation.<Supplier<?>>getArgument(1).get());
     }
 
     @Test
@@ -40,13 +52,10 @@ public class TagControllerTest {
         String tagName = "urgent";
         String colorCode = "#FF0000";
 
-        doNothing().when(tagService).addTagToEvent(anyString(), anyString(), anyString());
-        doNothing().when(webSocketService).propagateEventUpdate(anyString());
-
         ResponseEntity<Void> response = tagController.addTagToEvent(eventId, tagName, colorCode);
 
-        verify(tagService).addTagToEvent(eventId, tagName, colorCode);
-        verify(webSocketService).propagateEventUpdate(eventId);
+        verify(commandQueue).execute(eq(eventId), any());
+        verify(tagService).addTagToEvent(event, tagName, colorCode);
         assertEquals(HttpStatus.CREATED, response.getStatusCode());
     }
     @Test
@@ -55,7 +64,7 @@ public class TagControllerTest {
         String tagName = "urgent";
         String colorCode = "#FF0000";
 
-        doThrow(new IllegalArgumentException()).when(tagService).addTagToEvent(anyString(), anyString(), anyString());
+        doThrow(new IllegalArgumentException()).when(tagService).addTagToEvent(any(Event.class), anyString(), anyString());
 
         assertThrows(IllegalArgumentException.class, () -> {
             tagController.addTagToEvent(eventId, tagName, colorCode);
@@ -68,12 +77,11 @@ public class TagControllerTest {
         Long tagId = 1L;
 
         doNothing().when(tagService).removeTag(anyString(), anyLong());
-        doNothing().when(webSocketService).propagateEventUpdate(anyString());
 
         ResponseEntity<?> response = tagController.removeTag(eventId, tagId);
 
+        verify(commandQueue).executeAlone(eq(eventId), any());
         verify(tagService).removeTag(eventId, tagId);
-        verify(webSocketService).propagateEventUpdate(eventId);
         assertEquals(HttpStatus.OK, response.getStatusCode());
     }
 
@@ -97,9 +105,9 @@ public class TagControllerTest {
         String eventId = "Holiday";
         Long tagId = 5L;
         Tag newTag = new Tag("Food", "#FFFFFF");
-        when(tagService.editTag(tagId, newTag)).thenReturn(newTag);
+        when(tagService.editTag(eventId, tagId, newTag)).thenReturn(newTag);
         ResponseEntity<Tag> response = tagController.editTag(eventId, tagId, newTag);
-        verify(webSocketService).propagateEventUpdate(eventId);
+        verify(commandQueue).executeAlone(eq(eventId), any());
         assertEquals(OK, response.getStatusCode());
         assertEquals(newTag.getTagName(), response.getBody().getTagName());
         assertEquals(newTag.getColorCode(), response.getBody().getColorCode());
@@ -113,7 +121,7 @@ public class TagControllerTest {
         String eventId = "Holiday";
         Long tagId = 5L;
         Tag newTag = new Tag("Food", "#FFFFFF");
-        doThrow(EntityNotFoundException.class).when(tagService).editTag(tagId, newTag);
+        doThrow(EntityNotFoundException.class).when(tagService).editTag(eventId, tagId, newTag);
         ResponseEntity<Tag> response = tagController.editTag(eventId, tagId, newTag);
         assertEquals(BAD_REQUEST, response.getStatusCode());
     }
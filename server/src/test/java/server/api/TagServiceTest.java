@@ -2,22 +2,24 @@ package server.api;
 
 import commons.Event;
 import commons.Expense;
+import commons.SystemTag;
 import commons.Tag;
 import jakarta.persistence.EntityNotFoundException;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.*;
 import org.mockito.junit.jupiter.MockitoExtension;
+import server.database.EventChange;
 import server.database.EventRepository;
 import server.database.ExpenseRepository;
 import server.database.TagRepository;
 
-import java.util.HashSet;
+import java.util.Date;
+import java.util.List;
 import java.util.Optional;
-import java.util.Set;
 
-import static org.mockito.AdditionalAnswers.returnsFirstArg;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 import static org.junit.jupiter.api.Assertions.*;
 @ExtendWith(MockitoExtension.class)
@@ -31,79 +33,116 @@ public class TagServiceTest {
     @Mock
     private TagRepository tagRepository;
 
+    @Mock
+    private SpendingRollupService rollupService;
+
+    @Mock
+    private ChangeLogService changeLogService;
+
+    @Mock
+    private TagCatalog tagCatalog;
+
     @InjectMocks
     private TagService tagService;
 
-    @Captor
-    private ArgumentCaptor<Event> eventCaptor;
-
     /**
-     * Tests adding a tag to an event that exists.
+     * Tests adding a tag to a loaded event, which is saved by the command queue.
      */
     @Test
     void addTagToExistingEvent() {
         Event event = new Event("Event1", null);
-        String eventId = "1";
         String tagName = "Important";
         String colorCode = "#FF0000";
 
-        when(eventRepository.findById(anyString())).thenReturn(Optional.of(event));
-        doAnswer(invocation -> {
-            Event savedEvent = invocation.getArgument(0);
-            savedEvent.addTag(new Tag(tagName, colorCode));
-            return null;
-        }).when(eventRepository).save(any(Event.class));
+        tagService.addTagToEvent(event, tagName, colorCode);
 
-        tagService.addTagToEvent(eventId, tagName, colorCode);
-
-        verify(eventRepository).save(eventCaptor.capture());
-        assertEquals(1, eventCaptor.getValue().getEventTags().size());
-        assertTrue(eventCaptor.getValue().getEventTags().iterator().next().getTagName().equals(tagName));
+        assertEquals(1, event.getEventTags().size());
+        Tag tag = event.getEventTags().iterator().next();
+        assertEquals(tagName, tag.getTagName());
+        verify(tagRepository).save(tag);
+        verify(changeLogService).append(event.getId(), EventChange.Type.TAG_ADDED, tag);
+        verify(eventRepository, never()).save(any(Event.class));
     }
+
     /**
-     * Tests adding a tag to an event that does not exist.
+     * Tests removing a tag from an event, ensuring associated expenses are moved to the default tag
+     * with a single statement instead of being saved one by one.
      */
     @Test
-    void addTagToNonExistingEvent() {
+    void removeTagFromEvent() {
         String eventId = "1";
-        String tagName = "Important";
-        String colorCode = "#FF0000";
+        Long tagId = 1L;
+        Tag tagToRemove = new Tag(tagId, "Urgent", "#FF0000");
 
-        when(eventRepository.findById(anyString())).thenReturn(Optional.empty());
+        when(tagRepository.findById(tagId)).thenReturn(Optional.of(tagToRemove));
+        when(eventRepository.touch(eq(eventId), any(Date.class))).thenReturn(1);
+        when(tagRepository.findIdsByEventIdAndName(eventId, "default", tagId)).thenReturn(List.of(2L));
 
-        assertThrows(EntityNotFoundException.class, () -> {
-            tagService.addTagToEvent(eventId, tagName, colorCode);
-        });
+        tagService.removeTag(eventId, tagId);
+
+        InOrder order = inOrder(expenseRepository, tagRepository);
+        order.verify(expenseRepository).reassignTag(eventId, tagId, 2L);
+        order.verify(tagRepository).unlinkFromEvent(eventId, tagId);
+        order.verify(tagRepository).deleteByIdInBulk(tagId);
+        verify(rollupService).moveTag(eventId, tagId, 2L);
+        verify(expenseRepository, never()).save(any(Expense.class));
+        verify(eventRepository, never()).save(any(Event.class));
     }
 
     /**
-     * Tests removing a tag from an event, ensuring associated expenses are updated.
+     * Tests removing a tag from an event without a default tag, which links the default tag of the catalog
+     * to move the expenses to.
      */
     @Test
-    void removeTagFromEvent() {
+    void removeTagFromEventWithoutDefault() {
         String eventId = "1";
         Long tagId = 1L;
-        Event event = new Event("Event1", null);
-        Tag tagToRemove = new Tag("Urgent", "#FF0000");
-        Tag defaultTag = new Tag("default", "#000000");
+        Tag tagToRemove = new Tag(tagId, "default", "#FF0000");
+        Tag catalogDefault = new Tag(7L, "default", "#808080");
 
-        Expense expense = new Expense();
-        expense.setExpenseTag(tagToRemove);
+        when(tagRepository.findById(tagId)).thenReturn(Optional.of(tagToRemove));
+        when(eventRepository.touch(eq(eventId), any(Date.class))).thenReturn(1);
+        when(tagRepository.findIdsByEventIdAndName(eventId, "default", tagId)).thenReturn(List.of());
+        when(tagCatalog.idOf(SystemTag.DEFAULT)).thenReturn(7L);
+        when(tagRepository.findById(7L)).thenReturn(Optional.of(catalogDefault));
 
-        event.setEventTags(new HashSet<>(Set.of(tagToRemove, defaultTag)));
-        event.getExpenses().add(expense);
+        tagService.removeTag(eventId, tagId);
 
-        when(eventRepository.findById(anyString())).thenReturn(Optional.of(event));
-        when(tagRepository.findById(anyLong())).thenReturn(Optional.of(tagToRemove));
-        when(expenseRepository.save(any(Expense.class))).then(returnsFirstArg());
+        verify(tagRepository).linkToEvent(eventId, 7L);
+        verify(tagRepository, never()).save(any(Tag.class));
+        verify(expenseRepository).reassignTag(eventId, tagId, 7L);
+        verify(rollupService).moveTag(eventId, tagId, 7L);
+        verify(changeLogService).append(eventId, EventChange.Type.TAG_ADDED, catalogDefault);
+    }
 
-        tagService.removeTag(eventId, tagId);
+    /**
+     * Tests removing a shared tag of the catalog, which is only unlinked from the event and not deleted.
+     */
+    @Test
+    void removeSystemTag() {
+        String eventId = "1";
+        Tag food = new Tag("food", "#008000", true);
+        when(tagRepository.findById(0L)).thenReturn(Optional.of(food));
+        when(eventRepository.touch(eq(eventId), any(Date.class))).thenReturn(1);
+        when(tagRepository.findIdsByEventIdAndName(eventId, "default", 0L)).thenReturn(List.of(2L));
+
+        tagService.removeTag(eventId, 0L);
+
+        verify(tagRepository).unlinkFromEvent(eventId, 0L);
+        verify(tagRepository, never()).deleteByIdInBulk(anyLong());
+    }
 
-        verify(expenseRepository).save(expense);
-        assertEquals(defaultTag, expense.getExpenseTag());
-        verify(eventRepository).save(event);
-        assertFalse(event.getEventTags().contains(tagToRemove));
+    /**
+     * Tests removing a tag from an event that does not exist.
+     */
+    @Test
+    void removeTagFromNonExistingEvent() {
+        when(tagRepository.findById(1L)).thenReturn(Optional.of(new Tag(1L, "Urgent", "#FF0000")));
+        when(eventRepository.touch(eq("1"), any(Date.class))).thenReturn(0);
+        assertThrows(EntityNotFoundException.class, () -> tagService.removeTag("1", 1L));
+        verifyNoInteractions(expenseRepository, rollupService);
     }
+
     @Test
     void removeNonExistingTag() {
         String eventId = "1";
@@ -127,7 +166,7 @@ public class TagServiceTest {
         Tag newTag = new Tag("Food", "#FFFFFF");
         Tag oldTag = new Tag("Travel", "#000000");
         when(tagRepository.findById(id)).thenReturn(Optional.of(oldTag));
-        tagService.editTag(id, newTag);
+        tagService.editTag("1", id, newTag);
         assertEquals(oldTag, newTag);
         verify(tagRepository).save(oldTag);
     }
@@ -142,7 +181,30 @@ public class TagServiceTest {
         Tag newTag = new Tag("Food", "#FFFFFF");
         when(tagRepository.findById(id)).thenReturn(Optional.empty());
         EntityNotFoundException exception = assertThrows(EntityNotFoundException.class, () ->
-                tagService.editTag(id, newTag));
+                tagService.editTag("1", id, newTag));
         assertEquals(exception.getMessage(), "Tag is not found");
     }
+
+    /**
+     * Editing a shared tag of the catalog leaves it unchanged, and gives the event its own copy
+     * which the expenses of the event are moved to.
+     */
+    @Test
+    public void editSystemTagCopiesIt() {
+        long id = 5;
+        Tag systemTag = new Tag("food", "#008000", true);
+        when(tagRepository.findById(id)).thenReturn(Optional.of(systemTag));
+        when(eventRepository.touch(eq("1"), any(Date.class))).thenReturn(1);
+        when(tagRepository.unlinkFromEvent("1", 0L)).thenReturn(1);
+        when(tagRepository.save(any(Tag.class))).thenReturn(new Tag(9L, "Meals", "#FFFFFF"));
+
+        Tag copy = tagService.editTag("1", id, new Tag("Meals", "#FFFFFF"));
+
+        assertEquals(9L, copy.getId());
+        assertEquals("food", systemTag.getTagName());
+        verify(tagRepository).linkToEvent("1", 9L);
+        verify(expenseRepository).reassignTag("1", 0L, 9L);
+        verify(rollupService).moveTag("1", 0L, 9L);
+        verify(changeLogService).append("1", EventChange.Type.TAG_REMOVED, new ChangeLogService.TagRemoval(0L, 9L));
+    }
 }
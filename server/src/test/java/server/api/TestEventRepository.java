@@ -1,6 +1,7 @@
 package server.api;
 
 import commons.Event;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Example;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -10,6 +11,7 @@ import server.database.EventRepository;
 
 import java.util.List;
 import java.util.ArrayList;
+import java.util.Date;
 import java.util.Optional;
 import java.util.function.Function;
 
@@ -168,6 +170,20 @@ public class TestEventRepository implements EventRepository {
         return entity;
     }
 
+    /**
+     * Inserts a new event
+     * @param event the event
+     * @throws DataIntegrityViolationException if an event with the same ID exists
+     */
+    @Override
+    public void insert(Event event) {
+        calledMethods.add("insert");
+        if(findById(event.getId()).isPresent()) {
+            throw new DataIntegrityViolationException("Event " + event.getId() + " already exists");
+        }
+        events.add(event);
+    }
+
     /**
      * Find entity by ID
      * @param s String of entity ID
@@ -194,4 +210,28 @@ public class TestEventRepository implements EventRepository {
     public List<Event> findAll() {
         return events;
     }
+
+    /**
+     * Sets the last activity of an event
+     * @param eventId the ID of the event
+     * @param lastActivity the time of the change
+     * @return 1 if the event was found, else 0
+     */
+    @Override
+    public int touch(String eventId, Date lastActivity) {
+        calledMethods.add("touch");
+        Optional<Event> event = findById(eventId);
+        event.ifPresent(e -> e.setLastActivity(lastActivity));
+        return event.isPresent() ? 1 : 0;
+    }
+
+    /**
+     * Returns the IDs of all events
+     * @return the IDs of the events
+     */
+    @Override
+    public List<String> findAllIds() {
+        calledMethods.add("findAllIds");
+        return events.stream().map(Event::getId).toList();
+    }
 }
@@ -0,0 +1,114 @@
+package server.database.memory;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import commons.Event;
+import commons.Expense;
+import commons.Participant;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import server.database.EventRepository;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Creates events and adds expenses to them, each change committed on its own, on an in-memory H2 database
+ * and on the {@link MemoryEventStore}, checking that both finish within a time budget. The store forces its log
+ * to disk before a change returns, the in-memory database never does. Only runs with the benchmark task.
+ * The number of events can be changed with -Dbenchmark.events, the budget with -Dbenchmark.budget-ms.
+ */
+@Tag("benchmark")
+@DataJpaTest
+public class MemoryEventStoreBenchmarkTest {
+    private static final int EVENTS = Integer.getInteger("benchmark.events", 500);
+    private static final int EXPENSES = 10;
+    private static final int THREADS = 8;
+    private static final Duration BUDGET = Duration.ofMillis(Long.getLong("benchmark.budget-ms", 30_000));
+
+    @Autowired
+    private EventRepository jpaRepository;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @TempDir
+    private Path directory;
+
+    private static Event event(int number) {
+        Event event = new Event("Event " + number, new Date());
+        event.addParticipant(new Participant("Alice"));
+        event.addParticipant(new Participant("Bob"));
+        return event;
+    }
+
+    private static void addExpense(Event event, int number) {
+        Participant owedTo = event.getParticipants().iterator().next();
+        Expense expense = new Expense("Expense " + number, 100 * number, new Date(), owedTo);
+        event.getParticipants().forEach(expense::addParticipantToExpense);
+        event.addExpense(expense);
+    }
+
+    /**
+     * Runs the changes of every event on a pool of threads
+     */
+    private void run(EventRepository repository, TransactionTemplate transactions) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < EVENTS; i++) {
+                int number = i;
+                futures.add(pool.submit(() -> {
+                    String eventId = transactions.execute(status -> repository.save(event(number)).getId());
+                    for (int j = 0; j < EXPENSES; j++) {
+                        int expense = j;
+                        transactions.executeWithoutResult(status -> {
+                            Event event = repository.findById(eventId).orElseThrow();
+                            addExpense(event, expense);
+                            repository.save(event);
+                        });
+                    }
+                }));
+            }
+            for (Future<?> future : futures) future.get();
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void compareWithDatabase() throws Exception {
+        TransactionTemplate transactions = new TransactionTemplate(transactionManager);
+        transactions.setPropagationBehavior(TransactionTemplate.PROPAGATION_REQUIRES_NEW);
+        assertTimeout(BUDGET, () -> run(jpaRepository, transactions));
+        assertEquals(EVENTS, jpaRepository.count());
+        // Committed by the workers, so removed again for the other tests on the database
+        transactions.executeWithoutResult(status -> jpaRepository.deleteAll());
+
+        ObjectMapper mapper = new ObjectMapper().configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+        MemoryEventStore store = new MemoryEventStore(mapper, directory, 1 << 24);
+        try {
+            MemoryEventRepository memoryRepository = new MemoryEventRepository(store);
+            // Without a transaction manager, every change is stored and logged on its own
+            assertTimeout(BUDGET, () -> run(memoryRepository, new TransactionTemplate(mock(PlatformTransactionManager.class))));
+
+            assertEquals(EVENTS, memoryRepository.count());
+            assertTrue(memoryRepository.findAll().stream().allMatch(event -> event.getExpenses().size() == EXPENSES));
+        } finally {
+            store.closeWithoutSnapshot();
+        }
+    }
+}
@@ -0,0 +1,280 @@
+package server.database.memory;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import commons.Event;
+import commons.Expense;
+import commons.Participant;
+import commons.Tag;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Date;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Stops the store without a final snapshot, as a crash would, and checks what is recovered
+ * from the snapshot and the write-ahead log when it is opened again
+ */
+public class MemoryEventStoreTest {
+    private static final ObjectMapper MAPPER = new ObjectMapper()
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+    @TempDir
+    private Path directory;
+
+    private MemoryEventStore store;
+    private final TransactionTemplate transactions = new TransactionTemplate(new SynchronizingTransactionManager());
+
+    /**
+     * Manages transactions without a resource of its own, so only the changes of the store take part
+     */
+    private static final class SynchronizingTransactionManager extends AbstractPlatformTransactionManager {
+        @Override
+        protected Object doGetTransaction() {
+            return new Object();
+        }
+
+        @Override
+        protected void doBegin(Object transaction, TransactionDefinition definition) {
+        }
+
+        @Override
+        protected void doCommit(DefaultTransactionStatus status) {
+        }
+
+        @Override
+        protected void doRollback(DefaultTransactionStatus status) {
+        }
+    }
+
+    @BeforeEach
+    void setUp() throws IOException {
+        store = open();
+    }
+
+    @AfterEach
+    void tearDown() {
+        store.closeWithoutSnapshot();
+    }
+
+    private MemoryEventStore open() throws IOException {
+        return new MemoryEventStore(MAPPER, directory, 1 << 16);
+    }
+
+    private void crashAndReopen() throws IOException {
+        store.closeWithoutSnapshot();
+        store = open();
+    }
+
+    private static Event event(String title) {
+        Event event = new Event(title, new Date());
+        Participant alice = new Participant("Alice");
+        Participant bob = new Participant("Bob");
+        Tag food = new Tag("food", "#00FF00");
+        event.addParticipant(alice);
+        event.addParticipant(bob);
+        event.addTag(food);
+        Expense expense = new Expense("Lunch", 1000, new Date(), alice);
+        expense.addParticipantToExpense(alice);
+        expense.addParticipantToExpense(bob);
+        expense.setExpenseTag(food);
+        event.addExpense(expense);
+        return event;
+    }
+
+    private List<Path> files(String prefix) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> file.getFileName().toString().startsWith(prefix)).toList();
+        }
+    }
+
+    @Test
+    void savedEventIsRecovered() throws IOException {
+        Event saved = store.save(event("Trip"));
+        Expense savedExpense = saved.getExpenses().iterator().next();
+
+        crashAndReopen();
+
+        Event recovered = store.find(saved.getId()).orElseThrow();
+        assertEquals("Trip", recovered.getTitle());
+        assertEquals(2, recovered.getParticipants().size());
+        Expense expense = recovered.findExpense(savedExpense.getId()).orElseThrow();
+        Participant alice = recovered.findParticipant(savedExpense.getOwedTo().getId()).orElseThrow();
+        assertSame(alice, expense.getOwedTo());
+        assertSame(recovered.findTag(expense.getExpenseTag().getId()).orElseThrow(), expense.getExpenseTag());
+        assertEquals(saved.getId(), store.ownerOfExpense(expense.getId()).orElseThrow());
+        assertEquals(saved.getId(), store.ownerOfParticipant(alice.getId()).orElseThrow());
+    }
+
+    @Test
+    void idsContinueAfterRecovery() throws IOException {
+        Event saved = store.save(event("Trip"));
+        long largest = saved.getExpenses().iterator().next().getId();
+        for (Participant participant : saved.getParticipants()) largest = Math.max(largest, participant.getId());
+
+        crashAndReopen();
+
+        Participant carol = new Participant("Carol");
+        store.assignId(carol);
+        assertTrue(carol.getId() > largest);
+    }
+
+    @Test
+    void updatesAndDeletesAreReplayed() throws IOException {
+        Event kept = store.save(event("Trip"));
+        Event deleted = store.save(event("Dinner"));
+        store.update(kept.getId(), event -> {
+            event.setTitle("Road trip");
+            return null;
+        });
+        assertTrue(store.delete(deleted.getId()));
+
+        crashAndReopen();
+
+        assertEquals("Road trip", store.find(kept.getId()).orElseThrow().getTitle());
+        assertFalse(store.exists(deleted.getId()));
+        long deletedParticipant = deleted.getParticipants().iterator().next().getId();
+        assertTrue(store.ownerOfParticipant(deletedParticipant).isEmpty());
+    }
+
+    @Test
+    void changesAfterSnapshotAreReplayed() throws IOException {
+        Event before = store.save(event("Trip"));
+        store.snapshot();
+        assertEquals(1, files("snapshot-").size());
+        assertEquals(1, files("wal-").size());
+        Event after = store.save(event("Dinner"));
+
+        crashAndReopen();
+
+        assertTrue(store.exists(before.getId()));
+        assertTrue(store.exists(after.getId()));
+    }
+
+    @Test
+    void closingWritesSnapshot() throws IOException {
+        Event saved = store.save(event("Trip"));
+        store.close();
+        store = open();
+
+        assertTrue(store.exists(saved.getId()));
+        assertEquals(1, files("snapshot-").size());
+    }
+
+    @Test
+    void tornWriteIsDiscarded() throws IOException {
+        Event complete = store.save(event("Trip"));
+        Event torn = store.save(event("Dinner"));
+        store.closeWithoutSnapshot();
+
+        // Damage the end of the last record, as if the crash happened while it was written
+        Path segment = files("wal-").get(0);
+        byte[] data = Files.readAllBytes(segment);
+        int end = data.length;
+        while (end > 0 && data[end - 1] == 0) end--;
+        for (int i = end - 8; i < end; i++) data[i] = 0;
+        Files.write(segment, data);
+
+        store = open();
+        assertTrue(store.exists(complete.getId()));
+        assertFalse(store.exists(torn.getId()));
+        Event next = store.save(event("Lunch"));
+
+        crashAndReopen();
+        assertTrue(store.exists(next.getId()));
+    }
+
+    @Test
+    void standaloneTagsAreRecovered() throws IOException {
+        Tag catalog = store.saveTag(new Tag("default", "#808080", true));
+        Tag removed = store.saveTag(new Tag("travel", "#0000FF"));
+        store.deleteTag(removed.getId());
+
+        crashAndReopen();
+
+        assertEquals(List.of(catalog), store.findStandaloneTags());
+    }
+
+    @Test
+    void linkedTagIsStoredWithEvent() {
+        Tag tag = store.saveTag(new Tag("travel", "#0000FF"));
+        Event event = store.save(event("Trip"));
+        store.update(event.getId(), loaded -> {
+            loaded.addTag(tag);
+            return null;
+        });
+
+        assertTrue(store.findStandaloneTags().isEmpty());
+        assertEquals(tag, store.findTag(tag.getId()).orElseThrow());
+        assertEquals(Set.of(event.getId()), store.ownersOfTag(tag.getId()));
+    }
+
+    @Test
+    void changesAreStoredWhenTransactionCommits() throws IOException {
+        Event saved = transactions.execute(status -> {
+            Event event = store.save(event("Trip"));
+            long alice = event.getParticipants().iterator().next().getId();
+            assertTrue(store.exists(event.getId()));
+            assertEquals(event.getId(), store.ownerOfParticipant(alice).orElseThrow());
+            // Other transactions only see the event once it is committed
+            assertFalse(CompletableFuture.supplyAsync(() -> store.exists(event.getId())).join());
+            return event;
+        });
+        assertTrue(store.exists(saved.getId()));
+
+        crashAndReopen();
+
+        assertTrue(store.exists(saved.getId()));
+    }
+
+    @Test
+    void rollbackDiscardsChanges() throws IOException {
+        Event kept = store.save(event("Trip"));
+        Tag catalog = store.saveTag(new Tag("default", "#808080", true));
+        transactions.executeWithoutResult(status -> {
+            Event added = store.save(event("Dinner"));
+            store.update(kept.getId(), event -> {
+                event.setTitle("Road trip");
+                return null;
+            });
+            store.deleteTag(catalog.getId());
+            assertTrue(store.findStandaloneTags().isEmpty());
+            assertEquals(2, store.findAll().size());
+            assertTrue(store.ids().contains(added.getId()));
+            status.setRollbackOnly();
+        });
+
+        assertEquals(List.of("Trip"), store.findAll().stream().map(Event::getTitle).toList());
+        assertEquals(List.of(catalog), store.findStandaloneTags());
+
+        crashAndReopen();
+
+        assertEquals(Set.of(kept.getId()), store.ids());
+        assertEquals("Trip", store.find(kept.getId()).orElseThrow().getTitle());
+    }
+
+    @Test
+    void insertFailsOnTakenId() {
+        Event saved = store.save(event("Trip"));
+        Event copy = new Event(saved.getId(), "Dinner", new Date());
+        assertThrows(DuplicateKeyException.class, () -> store.insert(copy));
+        assertThrows(DuplicateKeyException.class, () -> transactions.executeWithoutResult(status -> store.insert(copy)));
+        assertEquals("Trip", store.find(saved.getId()).orElseThrow().getTitle());
+    }
+}
@@ -0,0 +1,248 @@
+package server.database.memory;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import commons.*;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.data.domain.Example;
+import org.springframework.data.domain.ExampleMatcher;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import server.api.*;
+import server.database.ArchivedEventRepository;
+import server.database.shard.ShardRouter;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Date;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Runs the services on the repositories of the {@link MemoryEventStore}, the way they run with the memory profile
+ */
+public class MemoryRepositoriesTest {
+    private static final ObjectMapper MAPPER = new ObjectMapper()
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+    @TempDir
+    private Path directory;
+
+    private MemoryEventStore store;
+    private MemoryEventRepository eventRepository;
+    private MemoryParticipantRepository participantRepository;
+    private MemoryTagRepository tagRepository;
+    private TagCatalog tagCatalog;
+    private EventIdAllocator idAllocator;
+    private EventService eventService;
+    private ParticipantService participantService;
+    private ExpenseService expenseService;
+    private TagService tagService;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        store = new MemoryEventStore(MAPPER, directory, 1 << 16);
+        eventRepository = new MemoryEventRepository(store);
+        participantRepository = new MemoryParticipantRepository(store);
+        MemoryExpenseRepository expenseRepository = new MemoryExpenseRepository(store);
+        tagRepository = new MemoryTagRepository(store);
+        ShardRouter shardRouter = new ShardRouter(1);
+        tagCatalog = new TagCatalog(tagRepository, new TransactionTemplate(mock(PlatformTransactionManager.class)), shardRouter);
+        tagCatalog.load();
+        idAllocator = new EventIdAllocator(eventRepository, mock(ArchivedEventRepository.class), shardRouter, 16, 10_000);
+        idAllocator.seed();
+        ChangeLogService changeLogService = mock(ChangeLogService.class);
+        SpendingRollupService rollupService = mock(SpendingRollupService.class);
+        eventService = new EventService(eventRepository, new MemoryEventDeletionRepository(store), changeLogService,
+                idAllocator, tagCatalog);
+        participantService = new ParticipantService(eventRepository, participantRepository, expenseRepository,
+                rollupService, changeLogService);
+        expenseService = new ExpenseService(expenseRepository, eventRepository, participantRepository, tagRepository,
+                rollupService, changeLogService);
+        tagService = new TagService(eventRepository, expenseRepository, tagRepository, rollupService,
+                changeLogService, tagCatalog);
+    }
+
+    @AfterEach
+    void tearDown() {
+        idAllocator.shutdown();
+        store.closeWithoutSnapshot();
+    }
+
+    /**
+     * Loads an event, applies a command and saves it, like {@link EventCommandQueue#execute}
+     */
+    private void execute(String eventId, Consumer<Event> command) {
+        Event event = eventRepository.findById(eventId).orElseThrow();
+        command.accept(event);
+        eventRepository.save(event);
+    }
+
+    private Event load(String eventId) {
+        return eventRepository.findById(eventId).orElseThrow();
+    }
+
+    private Participant participant(Event event, String name) {
+        return event.getParticipants().stream().filter(p -> p.getName().equals(name)).findFirst().orElseThrow();
+    }
+
+    private Tag tag(Event event, String name) {
+        return event.findTagByName(name).orElseThrow();
+    }
+
+    /**
+     * Adds an expense paid by the first participant, shared with the others, as a client would send it
+     */
+    private void addExpense(String eventId, Participant owedTo, List<Participant> members, Tag tag) {
+        Expense expense = new Expense("Lunch", 1200, new Date(), new Participant(owedTo.getId(), owedTo.getName()));
+        members.forEach(member -> expense.addParticipantToExpense(new Participant(member.getId(), member.getName())));
+        expense.setExpenseTag(new Tag(tag.getId(), tag.getTagName(), tag.getColorCode()));
+        execute(eventId, event -> expenseService.addExpense(event, expense));
+    }
+
+    private String eventWithParticipants() {
+        String eventId = eventService.createEvent("Trip").getId();
+        execute(eventId, event -> participantService.addParticipantsToEvent(event,
+                List.of(new Participant("Alice"), new Participant("Bob"))));
+        return eventId;
+    }
+
+    @Test
+    void createdEventsShareCatalogTags() {
+        Event first = eventService.createEvent("Trip");
+        Event second = eventService.createEvent("Dinner");
+
+        assertEquals(SystemTag.values().length, tagRepository.findBySystemTagTrue().size());
+        assertEquals(load(first.getId()).getEventTags(), load(second.getId()).getEventTags());
+        assertEquals(SystemTag.values().length, load(first.getId()).getEventTags().size());
+    }
+
+    @Test
+    void removingParticipantDeletesTheirExpenses() {
+        String eventId = eventWithParticipants();
+        Event event = load(eventId);
+        Participant alice = participant(event, "Alice");
+        Participant bob = participant(event, "Bob");
+        addExpense(eventId, alice, List.of(alice, bob), tag(event, "food"));
+        addExpense(eventId, bob, List.of(alice, bob), tag(event, "food"));
+
+        participantService.removeParticipant(eventId, alice.getId());
+
+        Event changed = load(eventId);
+        assertEquals(1, changed.getParticipants().size());
+        assertEquals(1, changed.getExpenses().size());
+        Expense remaining = changed.getExpenses().iterator().next();
+        assertEquals(bob.getId(), remaining.getOwedTo().getId());
+        assertEquals(1, remaining.getParticipantsInExpense().size());
+        assertTrue(participantRepository.findById(alice.getId()).isEmpty());
+    }
+
+    @Test
+    void editingParticipantChangesTheirExpenses() {
+        String eventId = eventWithParticipants();
+        Event event = load(eventId);
+        Participant alice = participant(event, "Alice");
+        addExpense(eventId, alice, List.of(alice), tag(event, "food"));
+
+        Participant details = new Participant(alice.getId(), "Alicia");
+        participantService.editParticipant(alice.getId(), details);
+
+        Event changed = load(eventId);
+        Expense expense = changed.getExpenses().iterator().next();
+        assertEquals("Alicia", expense.getOwedTo().getName());
+        assertSame(participant(changed, "Alicia"), expense.getOwedTo());
+    }
+
+    @Test
+    void removingTagMovesExpensesToDefault() {
+        String eventId = eventWithParticipants();
+        execute(eventId, event -> tagService.addTagToEvent(event, "party", "#FF0000"));
+        Event event = load(eventId);
+        Tag party = tag(event, "party");
+        addExpense(eventId, participant(event, "Alice"), List.of(), party);
+
+        tagService.removeTag(eventId, party.getId());
+
+        Expense expense = load(eventId).getExpenses().iterator().next();
+        assertEquals(tagCatalog.idOf(SystemTag.DEFAULT), expense.getExpenseTag().getId());
+        assertTrue(tagRepository.findById(party.getId()).isEmpty());
+    }
+
+    @Test
+    void editingCatalogTagCopiesIt() {
+        String eventId = eventWithParticipants();
+        String otherId = eventService.createEvent("Dinner").getId();
+        Event event = load(eventId);
+        Tag food = tag(event, "food");
+        addExpense(eventId, participant(event, "Alice"), List.of(), food);
+
+        Tag copy = tagService.editTag(eventId, food.getId(), new Tag("meals", "#FFFF00"));
+
+        Event changed = load(eventId);
+        assertNotEquals(food.getId(), copy.getId());
+        assertTrue(changed.findTag(food.getId()).isEmpty());
+        assertEquals(copy.getId(), changed.getExpenses().iterator().next().getExpenseTag().getId());
+        assertEquals(food, tag(load(otherId), "food"));
+        assertEquals(food, tagRepository.findById(food.getId()).orElseThrow());
+    }
+
+    private static List<String> titles(List<Event> events) {
+        return events.stream().map(Event::getTitle).toList();
+    }
+
+    @Test
+    void sortsAndPagesEvents() {
+        eventService.createEvent("Trip");
+        eventService.createEvent("Dinner");
+        eventService.createEvent("Lunch");
+
+        assertEquals(List.of("Dinner", "Lunch", "Trip"), titles(eventRepository.findAll(Sort.by("title"))));
+        Page<Event> page = eventRepository.findAll(PageRequest.of(1, 2, Sort.by(Sort.Direction.DESC, "title")));
+        assertEquals(List.of("Dinner"), titles(page.getContent()));
+        assertEquals(3, page.getTotalElements());
+    }
+
+    @Test
+    void findsByExample() {
+        eventWithParticipants();
+        eventService.createEvent("Dinner");
+        Event probe = new Event();
+        probe.setTitle("Trip");
+        // Setting the title also sets the last activity, which has to match as well unless it is ignored, like with the database
+        assertEquals(List.of("Trip"), titles(eventRepository.findAll(Example.of(probe,
+                ExampleMatcher.matching().withIgnorePaths("lastActivity")))));
+        probe.setLastActivity(null);
+        assertEquals(List.of("Trip"), titles(eventRepository.findAll(Example.of(probe))));
+
+        // The ID of a participant is a primitive, so it is ignored explicitly, like with the database
+        ExampleMatcher startsWith = ExampleMatcher.matching().withIgnorePaths("id")
+                .withStringMatcher(ExampleMatcher.StringMatcher.STARTING).withIgnoreCase();
+        Participant alice = participantRepository.findOne(Example.of(new Participant("ali"), startsWith)).orElseThrow();
+        assertEquals("Alice", alice.getName());
+        assertEquals(2, participantRepository.count(Example.of(new Participant(), startsWith)));
+        assertFalse(participantRepository.exists(Example.of(new Participant("Carol"), startsWith)));
+    }
+
+    @Test
+    void deletingEventKeepsCatalogTags() {
+        String eventId = eventWithParticipants();
+        String otherId = eventService.createEvent("Dinner").getId();
+        long aliceId = participant(load(eventId), "Alice").getId();
+
+        assertEquals(List.of(eventId), eventService.deleteEvents(List.of(eventId, "missing")));
+
+        assertFalse(eventRepository.existsById(eventId));
+        assertTrue(participantRepository.findById(aliceId).isEmpty());
+        assertTrue(eventRepository.existsById(otherId));
+        assertEquals(SystemTag.values().length, tagRepository.findBySystemTagTrue().size());
+    }
+}
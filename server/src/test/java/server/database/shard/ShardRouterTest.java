@@ -0,0 +1,78 @@
+package server.database.shard;
+
+import commons.Event;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ShardRouterTest {
+    private ShardRouter router;
+
+    @BeforeEach
+    void setUp() {
+        router = new ShardRouter(4);
+    }
+
+    @AfterEach
+    void tearDown() {
+        router.shutdown();
+    }
+
+    @Test
+    void eventsAreSpreadOverAllShards() {
+        int[] counts = new int[4];
+        for (int i = 0; i < 4000; i++) {
+            counts[router.shardOf(Event.generateId())]++;
+        }
+        for (int count : counts) {
+            assertTrue(count > 800, Arrays.toString(counts));
+        }
+    }
+
+    @Test
+    void shardOfEventIsStable() {
+        assertEquals(router.shardOf("ABCDEF"), ShardRouter.shardOf("ABCDEF", 4));
+        assertEquals(0, ShardRouter.shardOf("ABCDEF", 1));
+    }
+
+    @Test
+    void contextSetsCurrentShard() {
+        assertEquals(0, router.currentShard());
+        int shard = ShardContext.forShard(3, () -> ShardContext.forEvent("ABCDEF", () -> router.currentShard()));
+        assertEquals(router.shardOf("ABCDEF"), shard);
+        assertEquals(2, (int) ShardContext.forShard(2, router::currentShard));
+        assertEquals(0, router.currentShard());
+    }
+
+    @Test
+    void scatterMergesResultsInShardOrder() {
+        List<Integer> results = router.scatter(() -> List.of(router.currentShard(), router.currentShard()));
+        assertEquals(List.of(0, 0, 1, 1, 2, 2, 3, 3), results);
+        assertEquals(6, router.sum(router::currentShard));
+    }
+
+    @Test
+    void scatterRethrowsFailure() {
+        assertThrows(IllegalStateException.class, () -> router.scatter(() -> {
+            throw new IllegalStateException("Shard down");
+        }));
+    }
+
+    @Test
+    void groupByShardKeepsOrder() {
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < 20; i++) ids.add(Event.generateId());
+
+        SortedMap<Integer, List<String>> groups = router.groupByShard(ids);
+
+        assertEquals(ids.size(), groups.values().stream().mapToInt(List::size).sum());
+        groups.forEach((shard, group) -> {
+            group.forEach(id -> assertEquals(shard, router.shardOf(id)));
+            assertEquals(ids.stream().filter(group::contains).toList(), group);
+        });
+    }
+}